@@ -25,6 +25,8 @@ import org.eclipse.rdf4j.repository.RepositoryConnection;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.fluidops.fedx.algebra.ParallelNJoin;
+import com.fluidops.fedx.cache.CapabilityIndex;
 import com.fluidops.fedx.cache.MemoryCache;
 import com.fluidops.fedx.endpoint.Endpoint;
 import com.fluidops.fedx.endpoint.provider.ProviderUtil;
@@ -33,10 +35,17 @@ import com.fluidops.fedx.evaluation.SailFederationEvalStrategy;
 import com.fluidops.fedx.evaluation.SparqlFederationEvalStrategy;
 import com.fluidops.fedx.evaluation.SparqlFederationEvalStrategyWithValues;
 import com.fluidops.fedx.evaluation.concurrent.ControlledWorkerScheduler;
+import com.fluidops.fedx.evaluation.concurrent.EndpointBulkhead;
+import com.fluidops.fedx.evaluation.join.BoundJoinBlockSizeController;
+import com.fluidops.fedx.evaluation.join.BoundJoinMemo;
+import com.fluidops.fedx.evaluation.join.ControlledWorkerAdaptiveJoin;
+import com.fluidops.fedx.evaluation.join.SymmetricHashJoin;
 import com.fluidops.fedx.exception.FedXException;
 import com.fluidops.fedx.exception.FedXRuntimeException;
 import com.fluidops.fedx.monitoring.QueryLog;
 import com.fluidops.fedx.monitoring.QueryPlanLog;
+import com.fluidops.fedx.structures.BindingSetBuffer;
+import com.fluidops.fedx.structures.FingerprintSet;
 import com.fluidops.fedx.util.FileUtil;
 
 
@@ -166,6 +175,75 @@ public class Config {
 	public String getCacheLocation() {
 		return props.getProperty("cacheLocation", "cache.db");
 	}
+
+	/**
+	 * The maximum number of entries in the {@link MemoryCache}. If the size is
+	 * exceeded, the least recently used entries are evicted. Default 100000
+	 * 
+	 * @return the maximum number of cache entries
+	 */
+	public int getCacheMaxSize() {
+		return Integer.parseInt(props.getProperty("cacheMaxSize", "100000"));
+	}
+
+	/**
+	 * The time to live of entries in the {@link MemoryCache} in seconds. Stale
+	 * entries are treated as not present, i.e. source selection is performed
+	 * again. A value of 0 or less disables expiry. Default 0, i.e. entries do
+	 * not expire
+	 * 
+	 * @return the time to live of cache entries in seconds
+	 */
+	public long getCacheTTL() {
+		return Long.parseLong(props.getProperty("cacheTTL", "0"));
+	}
+
+	/**
+	 * Flag to enable/disable batched source selection. If enabled, the statement
+	 * patterns of a query which cannot be resolved from the cache are checked
+	 * with a single SELECT query per endpoint (a UNION of LIMIT 1 subqueries)
+	 * instead of one ASK query per pattern and endpoint. Note that this requires
+	 * SPARQL 1.1 support (subqueries) at the endpoints. Default is false.
+	 * 
+	 * @return whether batched source selection is enabled
+	 */
+	public boolean isEnableBatchedSourceSelection() {
+		return Boolean.parseBoolean(props.getProperty("enableBatchedSourceSelection", "false"));
+	}
+
+	/**
+	 * Flag to enable/disable the {@link CapabilityIndex}. If enabled, the
+	 * predicate and IRI authority summaries of the endpoints are consulted during
+	 * source selection before the cache, i.e. only patterns that cannot be decided
+	 * by the index require a remote ASK query. Summaries of endpoints that are not
+	 * yet contained in the index are built at startup using aggregate queries
+	 * against the endpoint. Default is false.
+	 * 
+	 * @return whether the capability index is enabled
+	 */
+	public boolean isEnableCapabilityIndex() {
+		return Boolean.parseBoolean(props.getProperty("enableCapabilityIndex", "false"));
+	}
+
+	/**
+	 * The location of the {@link CapabilityIndex}, default "capabilities.db"
+	 * 
+	 * @return the capability index location
+	 */
+	public String getCapabilityIndexLocation() {
+		return props.getProperty("capabilityIndexLocation", "capabilities.db");
+	}
+
+	/**
+	 * The maximum age of a summary of the {@link CapabilityIndex} in seconds,
+	 * older summaries are no longer consulted and rebuilt in the background. 0 or
+	 * less disables expiry. Default is 86400 (1 day).
+	 * 
+	 * @return the maximum age of a capability summary in seconds
+	 */
+	public long getCapabilityIndexMaxAge() {
+		return Long.parseLong(props.getProperty("capabilityIndexMaxAge", "86400"));
+	}
 	
 	/**
 	 * The (maximum) number of join worker threads used in the {@link ControlledWorkerScheduler}
@@ -197,6 +275,30 @@ public class Config {
 		return Integer.parseInt(props.getProperty("leftJoinWorkerThreads", "10"));
 	}
 
+	/**
+	 * Flag to enable/disable fair scheduling of tasks in the
+	 * {@link ControlledWorkerScheduler}. If enabled, queued tasks are dispatched
+	 * round-robin among the running queries (weighted by the query priority),
+	 * otherwise in FIFO order. Default is true.
+	 *
+	 * @return whether fair scheduling is enabled
+	 */
+	public boolean isEnableFairScheduling() {
+		return Boolean.parseBoolean(props.getProperty("enableFairScheduling", "true"));
+	}
+
+	/**
+	 * The maximum number of tasks that may be in flight for a single endpoint at
+	 * the same time, see {@link EndpointBulkhead}. Tasks for a saturated endpoint
+	 * are parked without occupying a worker thread. Set to 0 to disable the
+	 * limit. Default is 20.
+	 * 
+	 * @return the maximum number of in-flight tasks per endpoint
+	 */
+	public int getMaxInFlightTasksPerEndpoint() {
+		return Integer.parseInt(props.getProperty("maxInFlightTasksPerEndpoint", "20"));
+	}
+
 	/**
 	 * The block size for a bound join, i.e. the number of bindings that are
 	 * integrated in a single subquery. Default is 15.
@@ -207,6 +309,167 @@ public class Config {
 		return Integer.parseInt( props.getProperty("boundJoinBlockSize", "15"));
 	}
 	
+	/**
+	 * Flag to enable the deduplication of left bindings in bound joins, i.e. only
+	 * the distinct projections of the left bindings to the variables of the right
+	 * argument are sent, and the results are fanned out to all matching left
+	 * bindings locally.
+	 * 
+	 * Default: true
+	 * 
+	 * @return whether left bindings of bound joins are deduplicated
+	 */
+	public boolean isEnableBoundJoinDeduplication() {
+		return Boolean.parseBoolean(props.getProperty("enableBoundJoinDeduplication", "true"));
+	}
+	
+	/**
+	 * The maximum number of bound join results that are memoized per query, i.e.
+	 * results for join keys that have been seen in a previous block of a bound
+	 * join are served locally. Set to 0 to disable the memo. Default is 10000.
+	 * 
+	 * @return the maximum size of the bound join memo of a query
+	 * @see BoundJoinMemo
+	 */
+	public int getBoundJoinMemoMaxSize() {
+		return Integer.parseInt(props.getProperty("boundJoinMemoMaxSize", "10000"));
+	}
+	
+	/**
+	 * Flag to enable the runtime choice between bind join and hash join for
+	 * SPARQL endpoints, see {@link ControlledWorkerAdaptiveJoin}. Default: true
+	 * 
+	 * @return whether adaptive joins are enabled
+	 */
+	public boolean isEnableAdaptiveJoin() {
+		return Boolean.parseBoolean(props.getProperty("enableAdaptiveJoin", "true"));
+	}
+	
+	/**
+	 * The number of left bindings of a bound join after which the right argument
+	 * is fetched once to decide whether a hash join is cheaper. Default is 1000.
+	 * 
+	 * @return the number of left bindings after which a hash join is considered
+	 * @see ControlledWorkerAdaptiveJoin
+	 */
+	public int getAdaptiveJoinThreshold() {
+		return Integer.parseInt(props.getProperty("adaptiveJoinThreshold", "1000"));
+	}
+	
+	/**
+	 * The maximum number of bindings of the right argument that are fetched for
+	 * a hash join in an adaptive join. If the right argument has more bindings,
+	 * the join continues as bound join. Default is 10000.
+	 * 
+	 * @return the maximum size of the hash table of an adaptive join
+	 * @see ControlledWorkerAdaptiveJoin
+	 */
+	public int getAdaptiveJoinMaxBuildSize() {
+		return Integer.parseInt(props.getProperty("adaptiveJoinMaxBuildSize", "10000"));
+	}
+	
+	/**
+	 * Flag to enable the symmetric hash join for the first two arguments of a
+	 * join, if both are evaluated at a single endpoint (e.g. two exclusive groups
+	 * on different endpoints). Both arguments are consumed in parallel and kept in
+	 * memory entirely. Default: false
+	 * 
+	 * @return whether the symmetric hash join is enabled
+	 * @see SymmetricHashJoin
+	 */
+	public boolean isEnableSymmetricHashJoin() {
+		return Boolean.parseBoolean(props.getProperty("enableSymmetricHashJoin", "false"));
+	}
+	
+	/**
+	 * The memory budget of a query for buffered intermediate results in bytes,
+	 * e.g. of hash joins and unions. Intermediate results exceeding the budget are
+	 * spilled to temporary files. Set to 0 to keep all intermediate results in
+	 * memory. Default is 128MB.
+	 * 
+	 * @return the memory budget of a query in bytes
+	 * @see BindingSetBuffer
+	 */
+	public long getQueryMemoryBudget() {
+		return Long.parseLong(props.getProperty("queryMemoryBudget", String.valueOf(128L * 1024 * 1024)));
+	}
+	
+	/**
+	 * Flag to enable bushy join plans: join arguments which do not share any
+	 * variables are grouped into independent sub joins, which are evaluated in
+	 * parallel and combined by a hash join. All but the last sub join are kept
+	 * in memory entirely. Default: false
+	 * 
+	 * @return whether bushy join plans are enabled
+	 * @see ParallelNJoin
+	 */
+	public boolean isEnableBushyJoin() {
+		return Boolean.parseBoolean(props.getProperty("enableBushyJoin", "false"));
+	}
+	
+	/**
+	 * Flag to eliminate duplicate statements in the union of federation members
+	 * (see {@link FederationEvalStrategy#getStatements}). Only fingerprints of
+	 * the returned statements are kept in memory. Default: false
+	 * 
+	 * @return whether duplicate statements are eliminated
+	 * @see FingerprintSet
+	 */
+	public boolean isEnableDistinctGetStatements() {
+		return Boolean.parseBoolean(props.getProperty("enableDistinctGetStatements", "false"));
+	}
+	
+	/**
+	 * Flag to eliminate duplicate bindings in the union of multiple statement
+	 * sources for queries with a DISTINCT or REDUCED projection (and without
+	 * aggregates), for which the multiplicity of intermediate results is not
+	 * relevant. Only fingerprints of the bindings are kept in memory. Default:
+	 * true
+	 * 
+	 * @return whether duplicate bindings of multiple sources are eliminated
+	 * @see FingerprintSet
+	 */
+	public boolean isEnableDistinctUnion() {
+		return Boolean.parseBoolean(props.getProperty("enableDistinctUnion", "true"));
+	}
+	
+	/**
+	 * Flag to enable the adaptive block size for bound joins, i.e. the block size
+	 * is tuned per endpoint and pattern from the observed response times, result
+	 * sizes and failures. The initial block size is {@link #getBoundJoinBlockSize()}.
+	 * 
+	 * Default: false
+	 * 
+	 * @return whether the adaptive bound join block size is enabled
+	 * @see BoundJoinBlockSizeController
+	 */
+	public boolean isEnableAdaptiveBoundJoinBlockSize() {
+		return Boolean.parseBoolean(props.getProperty("enableAdaptiveBoundJoinBlockSize", "false"));
+	}
+	
+	/**
+	 * The maximum block size for a bound join if the adaptive block size is enabled.
+	 * Default is 500.
+	 * 
+	 * @return the maximum bound join block size
+	 * @see #isEnableAdaptiveBoundJoinBlockSize()
+	 */
+	public int getBoundJoinMaxBlockSize() {
+		return Integer.parseInt(props.getProperty("boundJoinMaxBlockSize", "500"));
+	}
+	
+	/**
+	 * The target response time (in milliseconds) of a bound join request if the
+	 * adaptive block size is enabled: the block size is decreased for slower and
+	 * increased for considerably faster responses. Default is 1000.
+	 * 
+	 * @return the target response time in milliseconds
+	 * @see #isEnableAdaptiveBoundJoinBlockSize()
+	 */
+	public long getBoundJoinTargetResponseTime() {
+		return Long.parseLong(props.getProperty("boundJoinTargetResponseTime", "1000"));
+	}
+	
 	/**
 	 * Get the maximum query time in seconds used for query evaluation. Applied in CLI
 	 * or in general if {@link QueryManager} is used to create queries.<p>
@@ -338,6 +601,18 @@ public class Config {
 	public boolean getEnableServiceAsBoundJoin() {
 		return Boolean.parseBoolean(props.getProperty("optimizer.enableServiceAsBoundJoin", "false"));
 	}
+
+	/**
+	 * Returns a flag indicating whether vectored evaluation (i.e. bound joins) shall
+	 * be applied for the right argument of well designed OPTIONAL expressions.
+	 * 
+	 * Default: true
+	 * 
+	 * @return whether OPTIONAL expressions are evaluated using bound left joins
+	 */
+	public boolean isEnableBoundLeftJoin() {
+		return Boolean.parseBoolean(props.getProperty("optimizer.enableBoundLeftJoin", "true"));
+	}
 	
 	/**
 	 * If enabled, repository connections are validated by {@link ProviderUtil#checkConnectionIfConfigured(org.eclipse.rdf4j.repository.Repository)}
@@ -98,12 +98,25 @@ public class FedX implements Sail {
 	 * @return the {@link WriteStrategy}
 	 */
 	public WriteStrategy getWriteStrategy() {
+		Endpoint e = getWritableMember();
+		if (e != null) {
+			return new RepositoryWriteStrategy(e.getRepository());
+		}
+		return ReadOnlyWriteStrategy.INSTANCE;
+	}
+	
+	/**
+	 * 
+	 * @return the first writable {@link Endpoint} of the federation, or
+	 *         <code>null</code> if there is none
+	 */
+	public Endpoint getWritableMember() {
 		for (Endpoint e : members) {
 			if (e.isWritable()) {
-				return new RepositoryWriteStrategy(e.getRepository());
+				return e;
 			}
 		}
-		return ReadOnlyWriteStrategy.INSTANCE;
+		return null;
 	}
 	
 	@Override
@@ -89,6 +89,11 @@ public class FedXConnection extends AbstractSailConnection
 	 */
 	private WriteStrategy writeStrategy;
 	
+	/**
+	 * Whether statements have been added or removed in the current transaction
+	 */
+	private boolean hasWrites = false;
+	
 	public FedXConnection(FedX federation)
 			throws SailException {
 		super(new SailBaseDefaultImpl());
@@ -109,7 +114,7 @@ public class FedXConnection extends AbstractSailConnection
 			if (queryString==null)
 				logger.warn("Query string is null. Please check your FedX setup.");
 			queryInfo = new QueryInfo(queryString, getOriginalQueryType(bindings),
-					getOriginalMaxExecutionTime(bindings));
+					getOriginalMaxExecutionTime(bindings), getQueryPriority(bindings));
 			
 			if (log.isDebugEnabled()) {
 				log.debug("Optimization start (Query: " + queryInfo.getQueryID() + ")");
@@ -142,15 +147,18 @@ public class FedXConnection extends AbstractSailConnection
 		
 		try {
 			// make sure to apply any external bindings
+			// Note: the FedX bindings are optional, hence filter by name
 			BindingSet queryBindings = EmptyBindingSet.getInstance();
-			if (bindings.size() > FedXRepositoryConnection.FEDX_BINDINGS.size()) {
+			if (bindings.size() > 0) {
 				MapBindingSet actualQueryBindings = new MapBindingSet();
 				bindings.forEach(binding -> {
 					if (!FedXRepositoryConnection.FEDX_BINDINGS.contains(binding.getName())) {
 						actualQueryBindings.addBinding(binding);
 					}
 				});
-				queryBindings = actualQueryBindings;
+				if (actualQueryBindings.size() > 0) {
+					queryBindings = actualQueryBindings;
+				}
 			}
 			CloseableIteration<? extends BindingSet, QueryEvaluationException> res = strategy.evaluate(query,
 					queryBindings);
@@ -197,6 +205,14 @@ public class FedXConnection extends AbstractSailConnection
 		} catch (RepositoryException e) {
 			throw new SailException(e);
 		}
+		if (hasWrites) {
+			hasWrites = false;
+			// the source selection information of the written member is outdated
+			Endpoint e = federation.getWritableMember();
+			if (e != null) {
+				FederationManager.getInstance().invalidate(e);
+			}
+		}
 	}
 
 
@@ -280,6 +296,7 @@ public class FedXConnection extends AbstractSailConnection
 			Resource... contexts) throws SailException {
 		try {
 			getWriteStrategyInternal().addStatement(subj, pred, obj, contexts);
+			hasWrites = true;
 		} catch (RepositoryException e) {
 			throw new SailException(e);
 		}
@@ -295,6 +312,7 @@ public class FedXConnection extends AbstractSailConnection
 			Resource... contexts) throws SailException {
 		try {
 			getWriteStrategyInternal().removeStatement(subj, pred, obj, contexts);
+			hasWrites = true;
 		} catch (RepositoryException e) {
 			throw new SailException(e);
 		}
@@ -302,6 +320,7 @@ public class FedXConnection extends AbstractSailConnection
 
 	@Override
 	protected void rollbackInternal() throws SailException {
+		hasWrites = false;
 		try {
 			getWriteStrategyInternal().rollback();
 		} catch (RepositoryException e) {
@@ -399,6 +418,30 @@ public class FedXConnection extends AbstractSailConnection
 		return 0;
 	}
 
+	/**
+	 * Return the explicit priority of the query, {@link QueryInfo#DEFAULT_PRIORITY}
+	 * if not specified or invalid. Values out of range are clamped to
+	 * [1, {@link QueryInfo#MAX_PRIORITY}].
+	 * 
+	 * @param b
+	 * @return
+	 */
+	private static int getQueryPriority(BindingSet b) {
+		if (b == null)
+			return QueryInfo.DEFAULT_PRIORITY;
+		Value q = b.getValue(FedXRepositoryConnection.BINDING_QUERY_PRIORITY);
+		if (q == null)
+			return QueryInfo.DEFAULT_PRIORITY;
+		try {
+			long priority = Long.parseLong(q.stringValue().trim());
+			return (int) Math.max(1, Math.min(QueryInfo.MAX_PRIORITY, priority));
+		} catch (NumberFormatException e) {
+			log.warn("Invalid query priority '" + q.stringValue() + "', using default priority "
+					+ QueryInfo.DEFAULT_PRIORITY + ".");
+			return QueryInfo.DEFAULT_PRIORITY;
+		}
+	}
+
 	
 	/**
 	 * A default implementation for {@link AbstractSail}. This implementation has no 
@@ -237,7 +237,8 @@ public class FedXFactory {
 	protected Cache initializeCache() {
 		String location = Config.getConfig().getCacheLocation();
 		File cacheLocation = FileUtil.getFileLocation(location);
-		Cache cache = new MemoryCache(cacheLocation);
+		Cache cache = new MemoryCache(cacheLocation, Config.getConfig().getCacheMaxSize(),
+				Config.getConfig().getCacheTTL() * 1000);
 		cache.initialize();
 		return cache;
 	}
@@ -26,6 +26,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
+import org.eclipse.rdf4j.model.Statement;
 import org.eclipse.rdf4j.query.BindingSet;
 import org.eclipse.rdf4j.repository.Repository;
 import org.eclipse.rdf4j.repository.RepositoryException;
@@ -33,6 +34,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.fluidops.fedx.cache.Cache;
+import com.fluidops.fedx.cache.CapabilityIndex;
 import com.fluidops.fedx.endpoint.Endpoint;
 import com.fluidops.fedx.endpoint.EndpointClassification;
 import com.fluidops.fedx.endpoint.EndpointType;
@@ -42,8 +44,10 @@ import com.fluidops.fedx.evaluation.FederationEvalStrategy;
 import com.fluidops.fedx.evaluation.SailFederationEvalStrategy;
 import com.fluidops.fedx.evaluation.SparqlFederationEvalStrategy;
 import com.fluidops.fedx.evaluation.concurrent.ControlledWorkerScheduler;
+import com.fluidops.fedx.evaluation.concurrent.EndpointBulkhead;
 import com.fluidops.fedx.evaluation.concurrent.NamingThreadFactory;
 import com.fluidops.fedx.evaluation.concurrent.Scheduler;
+import com.fluidops.fedx.evaluation.join.BoundJoinBlockSizeController;
 import com.fluidops.fedx.evaluation.union.ControlledWorkerUnion;
 import com.fluidops.fedx.evaluation.union.SynchronousWorkerUnion;
 import com.fluidops.fedx.evaluation.union.WorkerUnionBase;
@@ -55,6 +59,7 @@ import com.fluidops.fedx.monitoring.MonitoringUtil;
 import com.fluidops.fedx.repository.FedXRepository;
 import com.fluidops.fedx.statistics.Statistics;
 import com.fluidops.fedx.structures.QueryInfo;
+import com.fluidops.fedx.util.FileUtil;
 import com.fluidops.fedx.util.Version;
 
 
@@ -140,6 +145,10 @@ public class FederationManager {
 		
 		EndpointManager.initialize(members);
 		
+		if (Config.getConfig().isEnableCapabilityIndex()) {
+			instance.initializeCapabilityIndex();
+		}
+		
 		if (Config.getConfig().isEnableJMX()) {
 			try {
 				MonitoringUtil.initializeJMXMonitoring();
@@ -203,6 +212,8 @@ public class FederationManager {
 	/* Instance variables */
 	protected FedX federation;
 	protected Cache cache;
+	protected volatile CapabilityIndex capabilityIndex;
+	protected final BoundJoinBlockSizeController blockSizeController = new BoundJoinBlockSizeController();
 	protected Statistics statistics;
 	protected ExecutorService executor;
 	protected FederationEvalStrategy strategy;
@@ -240,17 +251,26 @@ public class FederationManager {
 		
 		if (joinScheduler!=null)
 			joinScheduler.abort();
-		joinScheduler = new ControlledWorkerScheduler<BindingSet>(Config.getConfig().getJoinWorkerThreads(), "Join Scheduler");		
+		joinScheduler = new ControlledWorkerScheduler<BindingSet>(Config.getConfig().getJoinWorkerThreads(), "Join Scheduler",
+				Config.getConfig().isEnableFairScheduling());		
 		
 		if (unionScheduler!=null)
 			unionScheduler.abort();
-		unionScheduler = new ControlledWorkerScheduler<BindingSet>(Config.getConfig().getUnionWorkerThreads(), "Union Scheduler");		
+		unionScheduler = new ControlledWorkerScheduler<BindingSet>(Config.getConfig().getUnionWorkerThreads(), "Union Scheduler",
+				Config.getConfig().isEnableFairScheduling());		
 		
 
 		if (leftJoinScheduler!=null)
 			leftJoinScheduler.abort();
-		leftJoinScheduler = new ControlledWorkerScheduler<BindingSet>(Config.getConfig().getLeftJoinWorkerThreads(), "Left Join Scheduler");		
+		leftJoinScheduler = new ControlledWorkerScheduler<BindingSet>(Config.getConfig().getLeftJoinWorkerThreads(), "Left Join Scheduler",
+				Config.getConfig().isEnableFairScheduling());		
 
+		// the per-endpoint limit applies to the tasks of all schedulers
+		int maxInFlight = Config.getConfig().getMaxInFlightTasksPerEndpoint();
+		EndpointBulkhead endpointBulkhead = maxInFlight > 0 ? new EndpointBulkhead(maxInFlight) : null;
+		joinScheduler.setEndpointBulkhead(endpointBulkhead);
+		unionScheduler.setEndpointBulkhead(endpointBulkhead);
+		leftJoinScheduler.setEndpointBulkhead(endpointBulkhead);
 	}
 
 	
@@ -258,6 +278,41 @@ public class FederationManager {
 		return cache;
 	}
 	
+	/**
+	 * 
+	 * @return the {@link CapabilityIndex} or <code>null</code> if not enabled
+	 */
+	public CapabilityIndex getCapabilityIndex() {
+		if (capabilityIndex == null && Config.getConfig().isEnableCapabilityIndex())
+			initializeCapabilityIndex();
+		CapabilityIndex index = capabilityIndex;
+		if (index != null)
+			index.refreshAsync(federation.getMembers(), executor);
+		return index;
+	}
+	
+	/**
+	 * Initialize the {@link CapabilityIndex} for the current federation members,
+	 * i.e. build the summaries of members that are not yet contained.
+	 */
+	protected synchronized void initializeCapabilityIndex() {
+		if (capabilityIndex != null)
+			return;
+		CapabilityIndex index = new CapabilityIndex(
+				FileUtil.getFileLocation(Config.getConfig().getCapabilityIndexLocation()),
+				TimeUnit.SECONDS.toMillis(Config.getConfig().getCapabilityIndexMaxAge()));
+		index.initialize(federation.getMembers());
+		capabilityIndex = index;
+	}
+	
+	/**
+	 * 
+	 * @return the {@link BoundJoinBlockSizeController} of this federation
+	 */
+	public BoundJoinBlockSizeController getBlockSizeController() {
+		return blockSizeController;
+	}
+	
 	public Statistics getStatistics() {
 		return statistics;
 	}
@@ -332,6 +387,8 @@ public class FederationManager {
 	
 		federation.addMember(e);
 		EndpointManager.getEndpointManager().addEndpoint(e);
+		if (capabilityIndex != null)
+			capabilityIndex.addEndpoint(e);
 		
 		if (updateStrategy==null || updateStrategy.length==0 || (updateStrategy.length==1 && updateStrategy[0]==true))
 			updateStrategy();
@@ -353,6 +410,23 @@ public class FederationManager {
 		updateStrategy();
 	}
 	
+	/**
+	 * Invalidate the source selection information of the specified endpoint,
+	 * e.g. after its data has changed: the entries of the cache are removed and
+	 * the summary of the {@link CapabilityIndex} is rebuilt in the background.
+	 * 
+	 * @param e
+	 * 			the endpoint
+	 */
+	public void invalidate(Endpoint e) {
+		cache.invalidate(e);
+		CapabilityIndex index = capabilityIndex;
+		if (index != null) {
+			index.invalidate(e.getId());
+			index.refreshAsync(federation.getMembers(), executor);
+		}
+	}
+	
 	/**
 	 * Remove the specified endpoint from the federation.
 	 * 
@@ -370,6 +444,10 @@ public class FederationManager {
 		
 		federation.removeMember(e);
 		EndpointManager.getEndpointManager().removeEndpoint(e);
+		cache.invalidate(e);
+		if (capabilityIndex != null)
+			capabilityIndex.remove(e.getId());
+		blockSizeController.remove(e.getId());
 		e.shutDown();
 		
 		if (updateStrategy==null || updateStrategy.length==0 || (updateStrategy.length==1 && updateStrategy[0]==true))
@@ -476,18 +554,22 @@ public class FederationManager {
 	/**
 	 * Create an appropriate worker union for this federation, i.e. a synchronous
 	 * worker union for local federations and a multithreaded worker union
-	 * for remote & hybrid federations.
+	 * for remote & hybrid federations. The union can be used for any result
+	 * type, e.g. for {@link Statement}s.
 	 * 
 	 * @return the {@link WorkerUnionBase}
 	 * 
 	 * @see ControlledWorkerUnion
 	 * @see SynchronousWorkerUnion
 	 */
-	public WorkerUnionBase<BindingSet> createWorkerUnion(QueryInfo queryInfo) {
+	@SuppressWarnings("unchecked")
+	public <T> WorkerUnionBase<T> createWorkerUnion(QueryInfo queryInfo) {
 		FederationEvalStrategy strategy = FederationManager.getInstance().getStrategy();
 		if (type==FederationType.LOCAL)
-			return new SynchronousWorkerUnion<BindingSet>(strategy, queryInfo);
-		return new ControlledWorkerUnion<BindingSet>(strategy, unionScheduler, queryInfo);
+			return new SynchronousWorkerUnion<T>(strategy, queryInfo);
+		// the scheduler passes the results of a task to the task's control only,
+		// i.e. it can be shared for tasks of any result type
+		return new ControlledWorkerUnion<T>(strategy, (ControlledWorkerScheduler<T>) (ControlledWorkerScheduler<?>) unionScheduler, queryInfo);
 		
 	}
 	
@@ -60,6 +60,14 @@ public class CheckStatementPattern implements StatementTupleExpr, BoundJoinTuple
 	public StatementPattern getStatementPattern() {
 		return (StatementPattern)stmt;
 	}
+
+	/**
+	 * 
+	 * @return the wrapped statement
+	 */
+	public StatementTupleExpr getStatement() {
+		return stmt;
+	}
 	
 	@Override
 	public int getFreeVarCount() {
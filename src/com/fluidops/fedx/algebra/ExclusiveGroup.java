@@ -35,6 +35,8 @@ import com.fluidops.fedx.EndpointManager;
 import com.fluidops.fedx.FederationManager;
 import com.fluidops.fedx.endpoint.Endpoint;
 import com.fluidops.fedx.structures.QueryInfo;
+import com.fluidops.fedx.util.QueryStringUtil;
+import com.fluidops.fedx.util.QueryTemplateCache;
 
 
 
@@ -44,7 +46,7 @@ import com.fluidops.fedx.structures.QueryInfo;
  * @author Andreas Schwarte
  *
  */
-public class ExclusiveGroup extends AbstractQueryModelNode implements StatementTupleExpr, FilterTuple
+public class ExclusiveGroup extends AbstractQueryModelNode implements StatementTupleExpr, FilterTuple, BoundJoinTupleExpr
 {
 	private static final long serialVersionUID = 9215353191021766797L;
 
@@ -55,6 +57,7 @@ public class ExclusiveGroup extends AbstractQueryModelNode implements StatementT
 	protected final transient QueryInfo queryInfo;
 	protected FilterValueExpr filter = null;
 	protected transient Endpoint ownedEndpoint = null;
+	protected final transient QueryTemplateCache queryTemplates = new QueryTemplateCache();
 	
 		
 	public ExclusiveGroup(Collection<ExclusiveStatement> ownedNodes, StatementSource owner, QueryInfo queryInfo) {
@@ -138,6 +141,14 @@ public class ExclusiveGroup extends AbstractQueryModelNode implements StatementT
 		return owned;
 	}
 	
+	/**
+	 * 
+	 * @return the precompiled subqueries of this group, see {@link QueryStringUtil}
+	 */
+	public QueryTemplateCache getQueryTemplateCache() {
+		return queryTemplates;
+	}
+	
 	@Override
 	public int getFreeVarCount() {
 		return freeVars.size();
@@ -186,12 +197,19 @@ public class ExclusiveGroup extends AbstractQueryModelNode implements StatementT
 
 	@Override
 	public void addFilterExpr(FilterExpr expr) {
-		/* 
-		 * Note: the operation is obsolete for this class: all filters are added already
-		 * in the owned children during optimization (c.f. FilterOptimizer)
+		/*
+		 * Note: groups are built before the FilterOptimizer is applied, hence filters
+		 * covering the variables of the group are attached to the group itself
 		 */
-		throw new UnsupportedOperationException("Operation not supported for " + ExclusiveGroup.class.getCanonicalName() + ", filters already to children during optimization.");
-			
+		if (filter==null)
+			filter = expr;
+		else if (filter instanceof ConjunctiveFilterExpr) {
+			((ConjunctiveFilterExpr)filter).addExpression(expr);
+		} else if (filter instanceof FilterExpr){
+			filter = new ConjunctiveFilterExpr((FilterExpr)filter, expr);
+		} else {
+			throw new RuntimeException("Unexpected type: " + filter.getClass().getCanonicalName());
+		}
 	}
 
 	@Override
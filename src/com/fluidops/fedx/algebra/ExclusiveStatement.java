@@ -92,7 +92,7 @@ public class ExclusiveStatement extends FedXStatementPattern {
 					return new EmptyIteration<BindingSet, QueryEvaluationException>();
 				}
 								
-				res = t.getStatements(preparedQuery, bindings, (isEvaluated.get() ? null : filterExpr));
+				res = t.getStatements(preparedQuery, bindings, (isEvaluated.get() ? null : filterExpr), queryInfo);
 				
 			} else {
 				res = t.getStatements(this, bindings, filterExpr);
@@ -30,6 +30,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.fluidops.fedx.structures.QueryInfo;
+import com.fluidops.fedx.util.QueryStringUtil;
+import com.fluidops.fedx.util.QueryTemplateCache;
 
 /**
  * Base class providing all common functionality for FedX StatementPatterns
@@ -52,6 +54,7 @@ public abstract class FedXStatementPattern extends StatementPattern implements S
 	protected FilterValueExpr filterExpr = null;
 	protected QueryBindingSet boundFilters = null; // contains bound filter bindings, that need to be added as additional bindings
 	protected long upperLimit = -1; // if set to a positive number, this upper limit is applied to any subquery
+	protected final transient QueryTemplateCache queryTemplates = new QueryTemplateCache();
 	
 	public FedXStatementPattern(StatementPattern node, QueryInfo queryInfo) {
 		super(node.getSubjectVar(), node.getPredicateVar(), node.getObjectVar(), node.getContextVar());
@@ -204,6 +207,14 @@ public abstract class FedXStatementPattern extends StatementPattern implements S
 		return this.upperLimit;
 	}
 
+	/**
+	 * 
+	 * @return the precompiled subqueries of this statement, see {@link QueryStringUtil}
+	 */
+	public QueryTemplateCache getQueryTemplateCache() {
+		return queryTemplates;
+	}
+
 	private List<StatementSource> sort(List<StatementSource> stmtSources) {
 		List<StatementSource> res = new ArrayList<StatementSource>(stmtSources);
 		Collections.sort(res, new Comparator<StatementSource>()	{
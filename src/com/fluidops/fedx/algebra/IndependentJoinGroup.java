@@ -17,7 +17,9 @@ package com.fluidops.fedx.algebra;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.eclipse.rdf4j.query.algebra.AbstractQueryModelNode;
@@ -55,6 +57,28 @@ public class IndependentJoinGroup extends AbstractQueryModelNode implements Tupl
 	public int getMemberCount() {
 		return members.size();
 	}
+	
+	/**
+	 * Returns the indices of the members grouped by their relevant sources, i.e. for
+	 * each source the members which have to be evaluated at this source. Members with
+	 * several relevant sources are contained in the list of each of these sources.
+	 * 
+	 * @return the member indices per source, in the order of first occurrence
+	 */
+	public Map<StatementSource, List<Integer>> getMembersBySource() {
+		Map<StatementSource, List<Integer>> res = new LinkedHashMap<StatementSource, List<Integer>>();
+		for (int i=0; i<members.size(); i++) {
+			for (StatementSource source : members.get(i).getStatementSources()) {
+				List<Integer> sourceMembers = res.get(source);
+				if (sourceMembers==null) {
+					sourceMembers = new ArrayList<Integer>();
+					res.put(source, sourceMembers);
+				}
+				sourceMembers.add(i);
+			}
+		}
+		return res;
+	}
 
 	@Override
 	public Set<String> getAssuredBindingNames() {
@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2026 Veritas Technologies LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fluidops.fedx.algebra;
+
+import java.util.List;
+
+import org.eclipse.rdf4j.query.algebra.TupleExpr;
+
+import com.fluidops.fedx.Config;
+import com.fluidops.fedx.evaluation.join.ParallelHashJoin;
+import com.fluidops.fedx.optimizer.JoinOrderOptimizer;
+import com.fluidops.fedx.structures.QueryInfo;
+
+/**
+ * A tuple expression that represents an nary-Join of independent join arguments,
+ * i.e. a bushy join plan. The arguments (typically {@link NJoin} sub joins) do not
+ * share any variables and are evaluated in parallel (see {@link ParallelHashJoin}).
+ * 
+ * @author agent
+ * @see JoinOrderOptimizer#getIndependentJoinArgs(List)
+ * @see Config#isEnableBushyJoin()
+ */
+public class ParallelNJoin extends NJoin {
+	
+	private static final long serialVersionUID = 3271093530851446531L;
+
+	/**
+	 * Construct an nary-tuple. Note that the parentNode of all arguments is
+	 * set to this instance.
+	 * 
+	 * @param args
+	 */
+	public ParallelNJoin(List<TupleExpr> args, QueryInfo queryInfo) {
+		super(args, queryInfo);
+	}
+	
+	
+	@Override
+	public ParallelNJoin clone() {
+		return (ParallelNJoin)super.clone();
+	}
+}
@@ -15,6 +15,9 @@
  */
 package com.fluidops.fedx.algebra;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.eclipse.rdf4j.common.iteration.CloseableIteration;
@@ -29,6 +32,8 @@ import com.fluidops.fedx.EndpointManager;
 import com.fluidops.fedx.FederationManager;
 import com.fluidops.fedx.endpoint.Endpoint;
 import com.fluidops.fedx.evaluation.TripleSource;
+import com.fluidops.fedx.evaluation.concurrent.ParallelCheckExecutor;
+import com.fluidops.fedx.evaluation.iterator.DistinctBindingsIteration;
 import com.fluidops.fedx.evaluation.iterator.InsertBindingsIteration;
 import com.fluidops.fedx.evaluation.iterator.SingleBindingSetIteration;
 import com.fluidops.fedx.evaluation.union.ParallelPreparedUnionTask;
@@ -110,12 +115,18 @@ public class StatementSourcePattern extends FedXStatementPattern {
 			
 			union.run();	// execute the union in this thread
 			
+			CloseableIteration<BindingSet, QueryEvaluationException> res = union;
+			
+			// set semantics, if the multiplicity of the bindings is not relevant
+			if (statementSources.size() > 1 && queryInfo.isEliminateDuplicates())
+				res = new DistinctBindingsIteration(res);
+			
 			if (boundFilters != null) {
 				// make sure to insert any values from FILTER expressions that are directly
 				// bound in this expression
-				return new InsertBindingsIteration(union, boundFilters);
+				return new InsertBindingsIteration(res, boundFilters);
 			} else {
-				return union;
+				return res;
 			}
 			
 		} catch (RepositoryException e) {
@@ -129,15 +140,17 @@ public class StatementSourcePattern extends FedXStatementPattern {
 	protected CloseableIteration<BindingSet, QueryEvaluationException> handleStatementSourcePatternCheck(BindingSet bindings) throws RepositoryException, MalformedQueryException, QueryEvaluationException {
 		
 		// if at least one source has statements, we can return this binding set as result
-		
-		// XXX do this in parallel for the number of endpoints ?
+		// Note: the sources are checked in parallel, the first positive answer is used
+		Map<String, Callable<Boolean>> checks = new LinkedHashMap<>();
 		for (StatementSource source : statementSources) {
 			Endpoint ownedEndpoint = EndpointManager.getEndpointManager().getEndpoint(source.getEndpointID());
 			TripleSource t = ownedEndpoint.getTripleSource();
-			if (t.hasStatements(this, bindings))
-				return new SingleBindingSetIteration(bindings);
+			checks.put(source.getEndpointID(), () -> t.hasStatements(this, bindings));
 		}
 		
+		if (ParallelCheckExecutor.run(checks, queryInfo))
+			return new SingleBindingSetIteration(bindings);
+		
 		return new EmptyIteration<BindingSet, QueryEvaluationException>();
 	}
 }
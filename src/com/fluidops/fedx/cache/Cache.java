@@ -157,6 +157,18 @@ public interface Cache {
 	public void invalidate() throws FedXException;
 	
 	
+	/**
+	 * Invalidate all information about the given endpoint, e.g. if the endpoint
+	 * is removed from the federation or its data has changed. The default
+	 * implementation clears the entire cache.
+	 * 
+	 * @param endpoint
+	 */
+	public default void invalidate(Endpoint endpoint) {
+		clear();
+	}
+	
+	
 	/**
 	 * Persist the state of the Cache (optional operation)
 	 * 
@@ -15,9 +15,11 @@
  */
 package com.fluidops.fedx.cache;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.rdf4j.common.iteration.CloseableIteration;
 import org.eclipse.rdf4j.model.Statement;
@@ -29,7 +31,13 @@ import com.fluidops.fedx.exception.EntryUpdateException;
 
 
 /**
- * Implementation for Cache Entry
+ * Implementation for Cache Entry. 
+ * 
+ * This implementation is safe for concurrent use: the endpoint entries are
+ * maintained in a concurrent map and never modified in place, i.e. a merge
+ * replaces the affected {@link EndpointEntry} instances. Note that the
+ * {@link MemoryCache} does not modify shared entries at all, but merges into a
+ * {@link #copy()} which then replaces the entry.
  * 
  * @author Andreas Schwarte
  *
@@ -40,7 +48,7 @@ public class CacheEntryImpl implements CacheEntry{
 	
 	
 	/* map endpoint.id to the corresponding entry */
-	protected Map<String, EndpointEntry> entries = new HashMap<String, EndpointEntry>();
+	protected Map<String, EndpointEntry> entries = new ConcurrentHashMap<String, EndpointEntry>();
 	
 	
 	@Override
@@ -88,20 +96,40 @@ public class CacheEntryImpl implements CacheEntry{
 		
 		CacheEntryImpl o = (CacheEntryImpl)other;
 		
-		for (String k : o.entries.keySet()) {
-			if (!entries.containsKey(k))
-				entries.put(k, o.entries.get(k));
-			else {
-				
-				EndpointEntry _merge = o.entries.get(k);
-				EndpointEntry _old = entries.get(k);
-				
-				_old.setCanProvideStatements( _merge.doesProvideStatements());
-			}
-				
+		for (EndpointEntry _merge : o.entries.values()) {
+			entries.merge(_merge.getEndpointID(), _merge, (_old, _new) -> new EndpointEntry(_old.getEndpointID(),
+					_new.doesProvideStatements(), _old.hasLocalStatements()));
 		}
 	}
 
+	/**
+	 * 
+	 * @return a copy of this entry, which can be modified independently
+	 */
+	public CacheEntryImpl copy() {
+		CacheEntryImpl copy = new CacheEntryImpl();
+		copy.entries.putAll(entries);
+		return copy;
+	}
+
+	/**
+	 * Remove the information for the given endpoint from this entry.
+	 * 
+	 * @param endpointID
+	 * @return true if this entry contained information for the endpoint
+	 */
+	public boolean remove(String endpointID) {
+		return entries.remove(endpointID) != null;
+	}
+
+	/**
+	 * 
+	 * @return true if this entry does not contain information for any endpoint
+	 */
+	public boolean isEmpty() {
+		return entries.isEmpty();
+	}
+
 	@Override
 	public void update() throws EntryUpdateException {
 		throw new UnsupportedOperationException("This operation is not yet supported.");		
@@ -111,4 +139,10 @@ public class CacheEntryImpl implements CacheEntry{
 	public void add(EndpointEntry endpointEntry) {
 		entries.put(endpointEntry.getEndpointID(), endpointEntry);		
 	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		// entries persisted by previous versions use a plain map
+		entries = new ConcurrentHashMap<String, EndpointEntry>(entries);
+	}
 }
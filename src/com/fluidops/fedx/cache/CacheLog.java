@@ -0,0 +1,547 @@
+/*
+ * Copyright (C) 2026 Veritas Technologies LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fluidops.fedx.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fluidops.fedx.structures.SubQuery;
+
+
+/**
+ * Append-only binary store for the information of the {@link MemoryCache}.
+ *
+ * <p>
+ * Every change of the cache is appended to the log as a small record, i.e. the
+ * cache is persisted incrementally. Each record is protected by a checksum: a
+ * record that has been partially written (e.g. due to a crash) is detected and
+ * discarded when the log is loaded. The log is compacted by writing a snapshot
+ * of the live entries to a temporary file which then atomically replaces the
+ * log.
+ * </p>
+ *
+ * <p>
+ * Appended records are buffered until {@link #sync()} is invoked at the end of
+ * a batch of changes, which writes them to the file and forces them to the
+ * storage device. Concurrent batches share a single sync.
+ * </p>
+ *
+ * <p>
+ * Record layout: <code>int length | payload | int crc32(payload)</code>, where
+ * the payload starts with the operation code followed by the operation
+ * specific data. Strings are encoded as length prefixed UTF-8, a negative
+ * length denotes <code>null</code>.
+ * </p>
+ *
+ * <p>
+ * Caches persisted with the previous Java serialization based format are
+ * migrated on load.
+ * </p>
+ *
+ * @author agent
+ * @see MemoryCache
+ */
+@edu.umd.cs.findbugs.annotations.SuppressFBWarnings(value = "OBJECT_DESERIALIZATION", justification = "Only used to migrate the legacy cache format.")
+public class CacheLog {
+
+	private static final Logger log = LoggerFactory.getLogger(CacheLog.class);
+
+	protected static final int MAGIC = 0x46656458; // "FedX"
+	protected static final int VERSION = 1;
+	protected static final int HEADER_SIZE = 8;
+
+	/* the magic number of a Java serialization stream, i.e. the legacy format */
+	protected static final short LEGACY_MAGIC = (short) 0xACED;
+
+	protected static final byte OP_PUT = 1;
+	protected static final byte OP_REMOVE = 2;
+	protected static final byte OP_REMOVE_ENDPOINT = 3;
+	protected static final byte OP_CLEAR = 4;
+
+	protected static final byte FLAG_PROVIDES_STATEMENTS = 1;
+	protected static final byte FLAG_LOCAL_STATEMENTS = 2;
+
+	/* the maximum size of a single record, larger lengths indicate a corrupt log */
+	protected static final int MAX_RECORD_SIZE = 64 * 1024 * 1024;
+
+	/* the minimum number of records before the log is compacted */
+	protected static final int MIN_COMPACTION_RECORDS = 10000;
+
+	protected final File location;
+
+	protected DataOutputStream out = null;
+	protected FileOutputStream fileOut = null;
+	protected boolean dirty = false;
+	protected int numberOfRecords = 0;
+	protected int numberOfLiveRecords = 0;
+	protected boolean migrationRequired = false;
+	protected boolean failed = false;
+
+	private final ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(256);
+	private final DataOutputStream record = new DataOutputStream(recordBytes);
+	private final CRC32 crc = new CRC32();
+
+	public CacheLog(File location) {
+		this.location = location;
+	}
+
+	/**
+	 * Load the log by replaying all valid records. The file is memory mapped for
+	 * reading. A partially written record at the end of the log is truncated.
+	 *
+	 * @return the loaded entries
+	 * @throws IOException
+	 */
+	public synchronized Map<SubQuery, StoredEntry> load() throws IOException {
+
+		Map<SubQuery, StoredEntry> res = new HashMap<>();
+		numberOfRecords = 0;
+		numberOfLiveRecords = 0;
+		if (!location.exists() || location.length() == 0) {
+			return res;
+		}
+
+		long validLength;
+		try (FileChannel ch = FileChannel.open(location.toPath(), StandardOpenOption.READ)) {
+			if (ch.size() > Integer.MAX_VALUE) {
+				throw new IOException("Cache file exceeds maximum size: " + location);
+			}
+			MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+
+			if (buf.remaining() >= 2 && buf.getShort(0) == LEGACY_MAGIC) {
+				return loadLegacy();
+			}
+			if (buf.remaining() < HEADER_SIZE || buf.getInt() != MAGIC) {
+				throw new IOException("Not a valid cache file: " + location);
+			}
+			int version = buf.getInt();
+			if (version != VERSION) {
+				throw new IOException("Unsupported cache file version " + version + ": " + location);
+			}
+
+			validLength = buf.position();
+			while (buf.hasRemaining()) {
+				if (!readRecord(buf, res)) {
+					break;
+				}
+				validLength = buf.position();
+				numberOfRecords++;
+			}
+
+			if (validLength < ch.size()) {
+				log.warn("Cache file " + location + " contains an incomplete record, discarding "
+						+ (ch.size() - validLength) + " bytes.");
+			}
+		}
+
+		for (StoredEntry e : res.values()) {
+			numberOfLiveRecords += e.entry.entries.size();
+		}
+
+		// truncate a torn tail such that new records are appended to a valid log
+		if (validLength < location.length()) {
+			try (FileChannel ch = FileChannel.open(location.toPath(), StandardOpenOption.WRITE)) {
+				ch.truncate(validLength);
+			}
+		}
+		return res;
+	}
+
+	/**
+	 * Append the endpoint entry of the given subquery
+	 *
+	 * @param subQuery
+	 * @param entry
+	 * @param created  the creation time of the cache entry
+	 */
+	public synchronized void put(SubQuery subQuery, EndpointEntry entry, long created) {
+		if (failed)
+			return;
+		try {
+			beginPutRecord(subQuery, entry, created);
+			appendRecord();
+		} catch (IOException e) {
+			handleWriteError(e);
+		}
+	}
+
+	/**
+	 * Append the removal of the given subquery
+	 *
+	 * @param subQuery
+	 */
+	public synchronized void remove(SubQuery subQuery) {
+		if (failed)
+			return;
+		try {
+			beginRecord(OP_REMOVE);
+			writeSubQuery(subQuery);
+			appendRecord();
+		} catch (IOException e) {
+			handleWriteError(e);
+		}
+	}
+
+	/**
+	 * Append the removal of all information about the given endpoint
+	 *
+	 * @param endpointId
+	 */
+	public synchronized void removeEndpoint(String endpointId) {
+		if (failed)
+			return;
+		try {
+			beginRecord(OP_REMOVE_ENDPOINT);
+			writeString(endpointId);
+			appendRecord();
+		} catch (IOException e) {
+			handleWriteError(e);
+		}
+	}
+
+	/**
+	 * Append the removal of all entries
+	 */
+	public synchronized void clear() {
+		if (failed)
+			return;
+		try {
+			beginRecord(OP_CLEAR);
+			appendRecord();
+		} catch (IOException e) {
+			handleWriteError(e);
+		}
+	}
+
+	/**
+	 * Write all appended records to the file and force them to the storage
+	 * device, i.e. complete a batch of changes. Does nothing if there are no
+	 * pending records.
+	 */
+	public synchronized void sync() {
+		if (!dirty || out == null)
+			return;
+		try {
+			out.flush();
+			fileOut.getChannel().force(false);
+			dirty = false;
+		} catch (IOException e) {
+			handleWriteError(e);
+		}
+	}
+
+	/**
+	 * 
+	 * @return true if the log has grown to more than twice its size after the last
+	 *         compaction (or load), or if it has to be migrated from the legacy
+	 *         format
+	 */
+	public synchronized boolean needsCompaction() {
+		if (migrationRequired)
+			return true;
+		return !failed && numberOfRecords >= MIN_COMPACTION_RECORDS && numberOfRecords > 2 * numberOfLiveRecords;
+	}
+
+	/**
+	 * Compact the log, i.e. replace it with a snapshot of the given entries. The
+	 * snapshot is written to a temporary file which then atomically replaces the
+	 * log, i.e. a crash during compaction leaves the previous log intact.
+	 *
+	 * @param entries the live entries
+	 * @throws IOException
+	 */
+	public synchronized void compact(Iterator<Entry<SubQuery, StoredEntry>> entries) throws IOException {
+
+		closeInternal();
+
+		File tmp = new File(location.getPath() + ".tmp");
+		int records = 0;
+		try (FileOutputStream fos = new FileOutputStream(tmp)) {
+			out = new DataOutputStream(new BufferedOutputStream(fos));
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			while (entries.hasNext()) {
+				Entry<SubQuery, StoredEntry> e = entries.next();
+				for (EndpointEntry endpointEntry : e.getValue().entry.entries.values()) {
+					beginPutRecord(e.getKey(), endpointEntry, e.getValue().created);
+					writeRecord();
+					records++;
+				}
+			}
+			out.flush();
+			fos.getFD().sync();
+		} finally {
+			out = null;
+		}
+
+		try {
+			Files.move(tmp.toPath(), location.toPath(), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(tmp.toPath(), location.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+
+		if (log.isDebugEnabled())
+			log.debug("Compacted cache file " + location + " from " + numberOfRecords + " to " + records + " records.");
+		numberOfRecords = records;
+		numberOfLiveRecords = records;
+		migrationRequired = false;
+		failed = false;
+	}
+
+	/**
+	 * Flush all appended records to disk and close the file. The file is reopened
+	 * with the next appended record.
+	 *
+	 * @throws IOException
+	 */
+	public synchronized void close() throws IOException {
+		if (out != null) {
+			out.flush();
+			fileOut.getFD().sync();
+		}
+		closeInternal();
+	}
+
+	/**
+	 *
+	 * @return the number of records in the log
+	 */
+	public synchronized int getNumberOfRecords() {
+		return numberOfRecords;
+	}
+
+	protected void closeInternal() throws IOException {
+		if (out == null)
+			return;
+		try {
+			out.close();
+		} finally {
+			out = null;
+			fileOut = null;
+			dirty = false;
+		}
+	}
+
+	protected void handleWriteError(IOException e) {
+		failed = true;
+		log.error("Failed to write to cache file " + location + ", further changes are not persisted: " + e.getMessage());
+		log.debug("Details:", e);
+		try {
+			closeInternal();
+		} catch (IOException ignore) {
+			; // ignore
+		}
+	}
+
+	protected void beginRecord(byte op) throws IOException {
+		recordBytes.reset();
+		record.writeByte(op);
+	}
+
+	protected void beginPutRecord(SubQuery subQuery, EndpointEntry entry, long created) throws IOException {
+		beginRecord(OP_PUT);
+		writeSubQuery(subQuery);
+		writeString(entry.getEndpointID());
+		byte flags = 0;
+		if (entry.doesProvideStatements())
+			flags |= FLAG_PROVIDES_STATEMENTS;
+		if (entry.hasLocalStatements())
+			flags |= FLAG_LOCAL_STATEMENTS;
+		record.writeByte(flags);
+		record.writeLong(created);
+	}
+
+	protected void appendRecord() throws IOException {
+		if (out == null) {
+			boolean writeHeader = !location.exists() || location.length() == 0;
+			fileOut = new FileOutputStream(location, true);
+			out = new DataOutputStream(new BufferedOutputStream(fileOut));
+			if (writeHeader) {
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+			}
+		}
+		writeRecord();
+		numberOfRecords++;
+		dirty = true;
+	}
+
+	protected void writeRecord() throws IOException {
+		record.flush();
+		crc.reset();
+		crc.update(recordBytes.toByteArray(), 0, recordBytes.size());
+		out.writeInt(recordBytes.size());
+		recordBytes.writeTo(out);
+		out.writeInt((int) crc.getValue());
+	}
+
+	protected void writeSubQuery(SubQuery subQuery) throws IOException {
+		writeString(subQuery.getSubject());
+		writeString(subQuery.getPredicate());
+		writeString(subQuery.getObject());
+	}
+
+	protected void writeString(String s) throws IOException {
+		if (s == null) {
+			record.writeInt(-1);
+			return;
+		}
+		byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+		record.writeInt(bytes.length);
+		record.write(bytes);
+	}
+
+	/**
+	 * Read and apply the next record
+	 *
+	 * @param buf
+	 * @param res
+	 * @return false if the record is incomplete or corrupt
+	 */
+	protected boolean readRecord(ByteBuffer buf, Map<SubQuery, StoredEntry> res) {
+		try {
+			int length = buf.getInt();
+			if (length <= 0 || length > MAX_RECORD_SIZE || buf.remaining() < length + 4) {
+				return false;
+			}
+			ByteBuffer payload = buf.slice();
+			payload.limit(length);
+			buf.position(buf.position() + length);
+			int checksum = buf.getInt();
+
+			crc.reset();
+			crc.update(payload.duplicate());
+			if ((int) crc.getValue() != checksum) {
+				return false;
+			}
+
+			byte op = payload.get();
+			switch (op) {
+			case OP_PUT:
+				SubQuery subQuery = readSubQuery(payload);
+				String endpointId = readString(payload);
+				byte flags = payload.get();
+				long created = payload.getLong();
+				StoredEntry stored = res.computeIfAbsent(subQuery, k -> new StoredEntry(new CacheEntryImpl(), created));
+				stored.entry.add(new EndpointEntry(endpointId, (flags & FLAG_PROVIDES_STATEMENTS) != 0,
+						(flags & FLAG_LOCAL_STATEMENTS) != 0));
+				break;
+			case OP_REMOVE:
+				res.remove(readSubQuery(payload));
+				break;
+			case OP_REMOVE_ENDPOINT:
+				String removedId = readString(payload);
+				res.values().removeIf(e -> {
+					e.entry.remove(removedId);
+					return e.entry.isEmpty();
+				});
+				break;
+			case OP_CLEAR:
+				res.clear();
+				break;
+			default:
+				return false;
+			}
+			return true;
+		} catch (BufferUnderflowException | IllegalArgumentException e) {
+			return false;
+		}
+	}
+
+	protected SubQuery readSubQuery(ByteBuffer buf) {
+		return new SubQuery(readString(buf), readString(buf), readString(buf));
+	}
+
+	protected String readString(ByteBuffer buf) {
+		int length = buf.getInt();
+		if (length < 0)
+			return null;
+		byte[] bytes = new byte[length];
+		buf.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Load a cache persisted with the legacy Java serialization format. The
+	 * loaded entries are compacted into the current format by the caller.
+	 */
+	@SuppressWarnings("unchecked")
+	protected Map<SubQuery, StoredEntry> loadLegacy() throws IOException {
+		log.info("Migrating cache file " + location + " from the legacy format.");
+		Map<SubQuery, StoredEntry> res = new HashMap<>();
+		long now = System.currentTimeMillis();
+		try (ObjectInputStream in = new ObjectInputStream(
+				new BufferedInputStream(new FileInputStream(location)))) {
+			Map<SubQuery, CacheEntry> persisted = (Map<SubQuery, CacheEntry>) in.readObject();
+			for (Entry<SubQuery, CacheEntry> e : persisted.entrySet()) {
+				if (e.getValue() instanceof CacheEntryImpl)
+					res.put(e.getKey(), new StoredEntry((CacheEntryImpl) e.getValue(), now));
+			}
+		} catch (ClassNotFoundException e) {
+			throw new IOException(e);
+		}
+		// no records can be appended before the log is compacted into the current format
+		migrationRequired = true;
+		failed = true;
+		return res;
+	}
+
+	/**
+	 * A persisted cache entry together with its creation time
+	 */
+	public static class StoredEntry {
+		protected final CacheEntryImpl entry;
+		protected final long created;
+
+		public StoredEntry(CacheEntryImpl entry, long created) {
+			this.entry = entry;
+			this.created = created;
+		}
+
+		public CacheEntryImpl getEntry() {
+			return entry;
+		}
+
+		public long getCreated() {
+			return created;
+		}
+	}
+}
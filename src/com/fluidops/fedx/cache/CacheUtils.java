@@ -16,7 +16,10 @@
 package com.fluidops.fedx.cache;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
 
 import org.eclipse.rdf4j.model.IRI;
 import org.eclipse.rdf4j.model.Resource;
@@ -27,7 +30,9 @@ import com.fluidops.fedx.algebra.StatementSource.StatementSourceType;
 import com.fluidops.fedx.cache.Cache.StatementSourceAssurance;
 import com.fluidops.fedx.endpoint.Endpoint;
 import com.fluidops.fedx.evaluation.TripleSource;
+import com.fluidops.fedx.evaluation.concurrent.ParallelCheckExecutor;
 import com.fluidops.fedx.exception.OptimizationException;
+import com.fluidops.fedx.structures.QueryInfo;
 import com.fluidops.fedx.structures.SubQuery;
 
 public class CacheUtils {
@@ -94,6 +99,38 @@ public class CacheUtils {
 		}
 		return false;
 	}
+
+	/**
+	 * Checks the cache if some endpoint can provide results to the subquery. If the
+	 * cache has no knowledge, remote ask queries are performed in parallel and the
+	 * cache is updated with appropriate information. The check returns as soon as
+	 * the first endpoint answers true.
+	 * 
+	 * @param cache
+	 * @param endpoints
+	 * @param subj
+	 * @param pred
+	 * @param obj
+	 * @param queryInfo
+	 * @return whether some endpoint can provide results
+	 * @see ParallelCheckExecutor
+	 */
+	public static boolean checkCacheUpdateCache(Cache cache, List<Endpoint> endpoints, Resource subj, IRI pred,
+			Value obj, QueryInfo queryInfo)
+	{
+		
+		SubQuery q = new SubQuery(subj, pred, obj);
+		
+		Map<String, Callable<Boolean>> checks = new LinkedHashMap<>();
+		for (Endpoint e : endpoints) {
+			StatementSourceAssurance a = cache.canProvideStatements(q, e);
+			if (a==StatementSourceAssurance.HAS_LOCAL_STATEMENTS || a==StatementSourceAssurance.HAS_REMOTE_STATEMENTS)
+				return true;	
+			if (a==StatementSourceAssurance.POSSIBLY_HAS_STATEMENTS)
+				checks.put(e.getId(), () -> checkEndpointForResults(cache, e, subj, pred, obj));
+		}
+		return ParallelCheckExecutor.run(checks, queryInfo);
+	}
 	
 	/**
 	 * Checks the cache for relevant statement sources to the provided statement. If the cache has no
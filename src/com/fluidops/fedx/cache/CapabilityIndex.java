@@ -0,0 +1,637 @@
+/*
+ * Copyright (C) 2026 Veritas Technologies LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fluidops.fedx.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Literal;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.QueryEvaluationException;
+import org.eclipse.rdf4j.query.QueryLanguage;
+import org.eclipse.rdf4j.query.TupleQueryResult;
+import org.eclipse.rdf4j.query.algebra.StatementPattern;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.repository.RepositoryException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fluidops.fedx.cache.Cache.StatementSourceAssurance;
+import com.fluidops.fedx.endpoint.Endpoint;
+
+
+/**
+ * Capability summaries of the federation members which allow to decide source
+ * selection for many statement patterns without a remote ASK request.
+ *
+ * <p>
+ * For each endpoint the summary contains the set of predicates, and per
+ * predicate the authorities (e.g. <i>http://dbpedia.org/</i>) of subject and
+ * object IRIs as well as whether literal objects occur. A pattern with a bound
+ * predicate that is not contained, or with a bound subject or object whose
+ * authority is not contained, cannot have results at the endpoint. A pattern
+ * with a known predicate and unbound subject and object has results. All other
+ * patterns cannot be decided by the index. Patterns are only excluded if the
+ * summary is known to be complete, otherwise source selection falls back to an
+ * ASK query.
+ * </p>
+ *
+ * <p>
+ * The summaries are computed with aggregate queries against the endpoint (see
+ * {@link #build(Endpoint)}), either at startup for endpoints without a summary
+ * or in the background once a summary has been invalidated (e.g. after a write
+ * to the endpoint) or is older than
+ * {@link com.fluidops.fedx.Config#getCapabilityIndexMaxAge()}. The summaries
+ * are persisted in a compact binary file.
+ * </p>
+ *
+ * @author agent
+ * @see com.fluidops.fedx.Config#isEnableCapabilityIndex()
+ */
+public class CapabilityIndex {
+
+	private static final Logger log = LoggerFactory.getLogger(CapabilityIndex.class);
+
+	protected static final int MAGIC = 0x46656443; // "FedC"
+	protected static final int VERSION = 2;
+
+	/**
+	 * The maximum number of authorities that are maintained per predicate and
+	 * position, predicates with more authorities are treated as unrestricted
+	 */
+	public static final int MAX_AUTHORITIES = 256;
+
+	/**
+	 * The maximum number of predicates for which the authorities are queried,
+	 * the positions of the predicates of larger endpoints are treated as
+	 * unrestricted
+	 */
+	public static final int MAX_PREDICATES = 10000;
+
+	/* reduces an IRI to its authority, see getAuthority(String) */
+	protected static final String AUTHORITY_REGEX = "^([^:]*://[^/]*/?|[^:]*:).*$";
+
+	protected final File location;
+
+	/* the maximum age of a summary in ms, 0 or less if summaries do not expire */
+	protected final long maxAge;
+
+	protected final Map<String, EndpointCapabilities> capabilities = new ConcurrentHashMap<>();
+
+	protected final AtomicBoolean refreshing = new AtomicBoolean(false);
+
+	public CapabilityIndex(File location) {
+		this(location, 0);
+	}
+
+	/**
+	 *
+	 * @param location
+	 * @param maxAge   the maximum age of a summary in ms, 0 or less if summaries
+	 *                 do not expire
+	 */
+	public CapabilityIndex(File location, long maxAge) {
+		this.location = location;
+		this.maxAge = maxAge;
+	}
+
+	/**
+	 * Initialize the index for the given endpoints, i.e. load the persisted
+	 * summaries and build (and persist) the summaries of endpoints that are not
+	 * contained yet or expired. A corrupt index file is rebuilt.
+	 *
+	 * @param endpoints
+	 */
+	public void initialize(List<Endpoint> endpoints) {
+		try {
+			load();
+		} catch (IOException e) {
+			log.warn("Failed to load capability index from " + location + ", summaries are rebuilt: " + e.getMessage());
+			log.debug("Details:", e);
+			capabilities.clear();
+		}
+		refresh(endpoints);
+	}
+
+	/**
+	 * Add the summary of the given endpoint to the index, if not yet contained or
+	 * expired.
+	 *
+	 * @param endpoint
+	 */
+	public void addEndpoint(Endpoint endpoint) {
+		refresh(Collections.singletonList(endpoint));
+	}
+
+	/**
+	 * Build (and persist) the summaries of the given endpoints that are not
+	 * contained or expired. If building a summary fails, an empty incomplete
+	 * summary is used until it expires, i.e. the endpoint is consulted with ASK
+	 * queries.
+	 *
+	 * @param endpoints
+	 */
+	public void refresh(List<Endpoint> endpoints) {
+		boolean changed = false;
+		for (Endpoint e : endpoints) {
+			if (!needsRefresh(e))
+				continue;
+			EndpointCapabilities c;
+			try {
+				c = build(e);
+			} catch (RepositoryException | QueryEvaluationException ex) {
+				log.warn("Failed to build capability summary for endpoint " + e.getId() + ": " + ex.getMessage());
+				log.debug("Details:", ex);
+				c = new EndpointCapabilities(Collections.emptyMap(), false, System.currentTimeMillis());
+			}
+			capabilities.put(e.getId(), c);
+			changed = true;
+		}
+		if (changed)
+			persistQuietly();
+	}
+
+	/**
+	 * Refresh the summaries of the given endpoints in the background using the
+	 * provided executor, if any summary is missing or expired. At most one
+	 * refresh is running at a time.
+	 *
+	 * @param endpoints
+	 * @param executor
+	 */
+	public void refreshAsync(List<Endpoint> endpoints, Executor executor) {
+		if (!endpoints.stream().anyMatch(this::needsRefresh))
+			return;
+		if (!refreshing.compareAndSet(false, true))
+			return;
+		try {
+			executor.execute(() -> {
+				try {
+					refresh(endpoints);
+				} finally {
+					refreshing.set(false);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			refreshing.set(false);
+			log.debug("Capability index refresh rejected: " + e.getMessage());
+		}
+	}
+
+	protected boolean needsRefresh(Endpoint endpoint) {
+		EndpointCapabilities c = capabilities.get(endpoint.getId());
+		return c == null || isExpired(c);
+	}
+
+	protected boolean isExpired(EndpointCapabilities c) {
+		return maxAge > 0 && System.currentTimeMillis() - c.created > maxAge;
+	}
+
+	protected void persistQuietly() {
+		try {
+			persist();
+		} catch (IOException e) {
+			log.warn("Failed to persist capability index to " + location + ": " + e.getMessage());
+			log.debug("Details:", e);
+		}
+	}
+
+	/**
+	 * Ask the index if the given endpoint can provide results for the statement
+	 * pattern.
+	 *
+	 * @param stmt
+	 * @param endpoint
+	 * @return {@link StatementSourceAssurance#NONE} or
+	 *         {@link StatementSourceAssurance#HAS_REMOTE_STATEMENTS} if the index can
+	 *         decide the pattern,
+	 *         {@link StatementSourceAssurance#POSSIBLY_HAS_STATEMENTS} otherwise
+	 */
+	public StatementSourceAssurance canProvideStatements(StatementPattern stmt, Endpoint endpoint) {
+		EndpointCapabilities c = capabilities.get(endpoint.getId());
+		if (c == null || isExpired(c))
+			return StatementSourceAssurance.POSSIBLY_HAS_STATEMENTS;
+		return c.canProvideStatements(stmt.getSubjectVar().getValue(), stmt.getPredicateVar().getValue(),
+				stmt.getObjectVar().getValue());
+	}
+
+	/**
+	 *
+	 * @param endpointId
+	 * @return the summary of the given endpoint or <code>null</code>
+	 */
+	public EndpointCapabilities getCapabilities(String endpointId) {
+		return capabilities.get(endpointId);
+	}
+
+	/**
+	 * Set the summary of the given endpoint (e.g. after the data has changed). Note
+	 * that the change needs to be persisted with {@link #persist()}.
+	 *
+	 * @param endpointId
+	 * @param endpointCapabilities
+	 */
+	public void setCapabilities(String endpointId, EndpointCapabilities endpointCapabilities) {
+		capabilities.put(endpointId, endpointCapabilities);
+	}
+
+	/**
+	 * Remove the summary of the given endpoint
+	 *
+	 * @param endpointId
+	 */
+	public void remove(String endpointId) {
+		capabilities.remove(endpointId);
+	}
+
+	/**
+	 * Invalidate the summary of the given endpoint, e.g. after its data has
+	 * changed. The summary is removed from the index (including the persisted
+	 * index) and rebuilt with the next refresh.
+	 *
+	 * @param endpointId
+	 */
+	public void invalidate(String endpointId) {
+		if (capabilities.remove(endpointId) != null)
+			persistQuietly();
+	}
+
+	/**
+	 * Load the persisted summaries, if any
+	 *
+	 * @throws IOException
+	 */
+	public synchronized void load() throws IOException {
+		if (!location.exists())
+			return;
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(location)))) {
+			if (in.readInt() != MAGIC)
+				throw new IOException("Not a valid capability index: " + location);
+			int version = in.readInt();
+			if (version != VERSION)
+				throw new IOException("Unsupported capability index version " + version + ": " + location);
+
+			String[] authorities = new String[in.readInt()];
+			for (int i = 0; i < authorities.length; i++)
+				authorities[i] = in.readUTF();
+
+			int nEndpoints = in.readInt();
+			for (int i = 0; i < nEndpoints; i++) {
+				String endpointId = in.readUTF();
+				boolean complete = in.readBoolean();
+				long created = in.readLong();
+				int nPredicates = in.readInt();
+				Map<String, PredicateCapabilities> predicates = new HashMap<>(nPredicates * 2);
+				for (int j = 0; j < nPredicates; j++) {
+					String predicate = in.readUTF();
+					boolean literalObjects = in.readBoolean();
+					Set<String> subjectAuthorities = readAuthorities(in, authorities);
+					Set<String> objectAuthorities = readAuthorities(in, authorities);
+					predicates.put(predicate,
+							new PredicateCapabilities(subjectAuthorities, objectAuthorities, literalObjects));
+				}
+				capabilities.put(endpointId, new EndpointCapabilities(predicates, complete, created));
+			}
+		}
+		log.debug("Loaded capability summaries of " + capabilities.size() + " endpoints from " + location);
+	}
+
+	/**
+	 * Persist the summaries. The index is written to a temporary file which then
+	 * atomically replaces the previous index.
+	 *
+	 * @throws IOException
+	 */
+	public synchronized void persist() throws IOException {
+
+		// string table of all authorities
+		Map<String, Integer> authorities = new LinkedHashMap<>();
+		for (EndpointCapabilities c : capabilities.values()) {
+			for (PredicateCapabilities pc : c.predicates.values()) {
+				if (pc.subjectAuthorities != null)
+					pc.subjectAuthorities.forEach(a -> authorities.putIfAbsent(a, authorities.size()));
+				if (pc.objectAuthorities != null)
+					pc.objectAuthorities.forEach(a -> authorities.putIfAbsent(a, authorities.size()));
+			}
+		}
+
+		File tmp = new File(location.getPath() + ".tmp");
+		try (FileOutputStream fos = new FileOutputStream(tmp)) {
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos));
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(authorities.size());
+			for (String a : authorities.keySet())
+				out.writeUTF(a);
+
+			out.writeInt(capabilities.size());
+			for (Entry<String, EndpointCapabilities> e : capabilities.entrySet()) {
+				out.writeUTF(e.getKey());
+				out.writeBoolean(e.getValue().complete);
+				out.writeLong(e.getValue().created);
+				out.writeInt(e.getValue().predicates.size());
+				for (Entry<String, PredicateCapabilities> p : e.getValue().predicates.entrySet()) {
+					out.writeUTF(p.getKey());
+					out.writeBoolean(p.getValue().literalObjects);
+					writeAuthorities(out, p.getValue().subjectAuthorities, authorities);
+					writeAuthorities(out, p.getValue().objectAuthorities, authorities);
+				}
+			}
+			out.flush();
+			fos.getFD().sync();
+		}
+
+		try {
+			Files.move(tmp.toPath(), location.toPath(), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(tmp.toPath(), location.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	protected Set<String> readAuthorities(DataInputStream in, String[] authorities) throws IOException {
+		int n = in.readInt();
+		if (n < 0)
+			return null;
+		Set<String> res = new HashSet<>(n * 2);
+		for (int i = 0; i < n; i++)
+			res.add(authorities[in.readInt()]);
+		return res;
+	}
+
+	protected void writeAuthorities(DataOutputStream out, Set<String> set, Map<String, Integer> authorities)
+			throws IOException {
+		if (set == null) {
+			out.writeInt(-1);
+			return;
+		}
+		out.writeInt(set.size());
+		for (String a : set)
+			out.writeInt(authorities.get(a));
+	}
+
+	/**
+	 * Build the capability summary of the given endpoint using aggregate queries,
+	 * i.e. the distinct predicates and per predicate the distinct authorities of
+	 * subjects and objects. The summary is complete if the number of predicates
+	 * matches the count reported by the endpoint, i.e. if the result has not been
+	 * cut short (e.g. by a result limit of the endpoint).
+	 *
+	 * @param endpoint
+	 * @return the summary
+	 * @throws RepositoryException
+	 * @throws QueryEvaluationException
+	 */
+	public static EndpointCapabilities build(Endpoint endpoint)
+			throws RepositoryException, QueryEvaluationException {
+
+		long start = System.currentTimeMillis();
+		Map<String, PredicateCapabilities> predicates = new HashMap<>();
+		boolean complete;
+		try (RepositoryConnection conn = endpoint.getConnection()) {
+			Set<String> predicateIris = select(conn, "SELECT DISTINCT ?a WHERE { ?s ?a ?o }", Integer.MAX_VALUE);
+			complete = countPredicates(conn, endpoint) == predicateIris.size();
+
+			boolean queryAuthorities = predicateIris.size() <= MAX_PREDICATES;
+			for (String p : predicateIris) {
+				predicates.put(p, queryAuthorities ? buildPredicate(conn, p) : new PredicateCapabilities(null, null, true));
+			}
+		}
+
+		if (log.isDebugEnabled())
+			log.debug("Built " + (complete ? "complete" : "incomplete") + " capability summary for endpoint "
+					+ endpoint.getId() + " with " + predicates.size() + " predicates in "
+					+ (System.currentTimeMillis() - start) + "ms");
+		return new EndpointCapabilities(predicates, complete, start);
+	}
+
+	/**
+	 *
+	 * @param conn
+	 * @param endpoint
+	 * @return the number of distinct predicates reported by the endpoint, or -1 if
+	 *         the count is not available
+	 */
+	protected static long countPredicates(RepositoryConnection conn, Endpoint endpoint) {
+		try {
+			Set<String> count = select(conn, "SELECT (COUNT(DISTINCT ?p) AS ?a) WHERE { ?s ?p ?o }", 1);
+			return count.size() == 1 ? Long.parseLong(count.iterator().next()) : -1;
+		} catch (RepositoryException | QueryEvaluationException | NumberFormatException e) {
+			log.debug("Failed to count the predicates of endpoint " + endpoint.getId() + ": " + e.getMessage());
+			return -1;
+		}
+	}
+
+	protected static PredicateCapabilities buildPredicate(RepositoryConnection conn, String predicate)
+			throws RepositoryException, QueryEvaluationException {
+
+		Set<String> subjectAuthorities = select(conn, "SELECT DISTINCT ?a WHERE { ?s <" + predicate
+				+ "> ?o FILTER(isIRI(?s)) BIND(REPLACE(STR(?s), \"" + AUTHORITY_REGEX + "\", \"$1\") AS ?a) }",
+				MAX_AUTHORITIES + 1);
+
+		// literal objects are represented by the empty string
+		Set<String> objectAuthorities = select(conn, "SELECT DISTINCT ?a WHERE { ?s <" + predicate
+				+ "> ?o FILTER(!isBlank(?o)) BIND(IF(isLiteral(?o), \"\", REPLACE(STR(?o), \"" + AUTHORITY_REGEX
+				+ "\", \"$1\")) AS ?a) }", MAX_AUTHORITIES + 2);
+		boolean literalObjects = objectAuthorities.remove("");
+
+		return new PredicateCapabilities(subjectAuthorities.size() > MAX_AUTHORITIES ? null : subjectAuthorities,
+				objectAuthorities.size() > MAX_AUTHORITIES ? null : objectAuthorities, literalObjects);
+	}
+
+	/**
+	 * Evaluate the given query and return the distinct values of the binding
+	 * <i>a</i>.
+	 *
+	 * @param conn
+	 * @param query
+	 * @param limit the maximum number of values, {@link Integer#MAX_VALUE} for no
+	 *              limit
+	 * @return the values
+	 */
+	protected static Set<String> select(RepositoryConnection conn, String query, int limit)
+			throws RepositoryException, QueryEvaluationException {
+		if (limit < Integer.MAX_VALUE)
+			query += " LIMIT " + limit;
+		Set<String> res = new HashSet<>();
+		try (TupleQueryResult qRes = conn.prepareTupleQuery(QueryLanguage.SPARQL, query).evaluate()) {
+			while (qRes.hasNext()) {
+				BindingSet b = qRes.next();
+				Value v = b.getValue("a");
+				if (v != null)
+					res.add(v.stringValue());
+			}
+		}
+		return res;
+	}
+
+	/**
+	 *
+	 * @param iri
+	 * @return the authority of the IRI, e.g. <i>http://dbpedia.org/</i> for
+	 *         <i>http://dbpedia.org/resource/Berlin</i>, or the scheme for IRIs
+	 *         without authority (e.g. <i>urn:</i>)
+	 */
+	public static String getAuthority(String iri) {
+		// note: must be aligned with AUTHORITY_REGEX
+		int colon = iri.indexOf(':');
+		if (colon < 0)
+			return iri;
+		if (!iri.startsWith("//", colon + 1))
+			return iri.substring(0, colon + 1);
+		int end = iri.indexOf('/', colon + 3);
+		return end < 0 ? iri : iri.substring(0, end + 1);
+	}
+
+	/**
+	 * Capability summary of a single endpoint
+	 */
+	public static class EndpointCapabilities {
+
+		protected final Map<String, PredicateCapabilities> predicates;
+		protected final boolean complete;
+		protected final long created;
+
+		/**
+		 *
+		 * @param predicates
+		 * @param complete   whether the summary is known to contain all predicates
+		 *                   of the endpoint
+		 * @param created    the creation time of the summary in ms
+		 */
+		public EndpointCapabilities(Map<String, PredicateCapabilities> predicates, boolean complete, long created) {
+			this.predicates = predicates;
+			this.complete = complete;
+			this.created = created;
+		}
+
+		/**
+		 *
+		 * @return the predicates of the endpoint
+		 */
+		public Set<String> getPredicates() {
+			return Collections.unmodifiableSet(predicates.keySet());
+		}
+
+		/**
+		 *
+		 * @return whether the summary is known to contain all predicates of the
+		 *         endpoint
+		 */
+		public boolean isComplete() {
+			return complete;
+		}
+
+		/**
+		 * Note that {@link StatementSourceAssurance#NONE} is only returned for
+		 * complete summaries.
+		 *
+		 * @param subj
+		 * @param pred
+		 * @param obj
+		 * @return the {@link StatementSourceAssurance}
+		 */
+		public StatementSourceAssurance canProvideStatements(Value subj, Value pred, Value obj) {
+
+			Collection<PredicateCapabilities> candidates;
+			if (pred != null) {
+				PredicateCapabilities pc = predicates.get(pred.stringValue());
+				if (pc == null)
+					return none();
+				candidates = Collections.singletonList(pc);
+			} else {
+				candidates = predicates.values();
+			}
+
+			boolean matches = false;
+			for (PredicateCapabilities pc : candidates) {
+				if (pc.matches(subj, obj)) {
+					matches = true;
+					break;
+				}
+			}
+			if (!matches)
+				return none();
+			if (subj == null && obj == null)
+				return StatementSourceAssurance.HAS_REMOTE_STATEMENTS;
+			return StatementSourceAssurance.POSSIBLY_HAS_STATEMENTS;
+		}
+
+		private StatementSourceAssurance none() {
+			return complete ? StatementSourceAssurance.NONE : StatementSourceAssurance.POSSIBLY_HAS_STATEMENTS;
+		}
+	}
+
+	/**
+	 * Capabilities of a single predicate. A <code>null</code> authority set denotes
+	 * that the position is unrestricted.
+	 */
+	public static class PredicateCapabilities {
+
+		protected final Set<String> subjectAuthorities;
+		protected final Set<String> objectAuthorities;
+		protected final boolean literalObjects;
+
+		public PredicateCapabilities(Set<String> subjectAuthorities, Set<String> objectAuthorities,
+				boolean literalObjects) {
+			this.subjectAuthorities = subjectAuthorities;
+			this.objectAuthorities = objectAuthorities;
+			this.literalObjects = literalObjects;
+		}
+
+		/**
+		 *
+		 * @param subj the bound subject or <code>null</code>
+		 * @param obj  the bound object or <code>null</code>
+		 * @return false if no statement with the given subject and object can exist
+		 */
+		public boolean matches(Value subj, Value obj) {
+			if (subj instanceof IRI && subjectAuthorities != null
+					&& !subjectAuthorities.contains(getAuthority(subj.stringValue())))
+				return false;
+			if (obj instanceof Literal)
+				return literalObjects;
+			if (obj instanceof IRI && objectAuthorities != null
+					&& !objectAuthorities.contains(getAuthority(obj.stringValue())))
+				return false;
+			return true;
+		}
+	}
+}
@@ -37,6 +37,11 @@ public class EndpointEntry implements Serializable {
 		this.doesProvideStatements = canProvideStatements;
 	}
 
+	public EndpointEntry(String endpointID, boolean canProvideStatements, boolean hasLocalStatements) {
+		this(endpointID, canProvideStatements);
+		this.hasLocalStatements = hasLocalStatements;
+	}
+
 	public boolean doesProvideStatements() {
 		return doesProvideStatements;
 	}
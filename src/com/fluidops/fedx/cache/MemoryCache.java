@@ -4,9 +4,9 @@
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
  * You may obtain a copy of the License at
- *
+ * 
  *    http://www.apache.org/licenses/LICENSE-2.0
- *
+ * 
  * Unless required by applicable law or agreed to in writing, software
  * distributed under the License is distributed on an "AS IS" BASIS,
  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
@@ -15,16 +15,18 @@
  */
 package com.fluidops.fedx.cache;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.eclipse.rdf4j.common.iteration.CloseableIteration;
 import org.eclipse.rdf4j.common.iteration.EmptyIteration;
@@ -32,6 +34,7 @@ import org.eclipse.rdf4j.model.Statement;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.fluidops.fedx.cache.CacheLog.StoredEntry;
 import com.fluidops.fedx.endpoint.Endpoint;
 import com.fluidops.fedx.exception.EntryAlreadyExistsException;
 import com.fluidops.fedx.exception.EntryUpdateException;
@@ -45,76 +48,180 @@ import com.fluidops.fedx.structures.SubQuery;
  * 
  * Currently only binary provenance information is maintained.
  * 
+ * <p>
+ * Changes are persisted incrementally to an append-only {@link CacheLog}, which is
+ * compacted once it has grown sufficiently. The records of a change are synced
+ * to disk before the respective operation returns.
+ * </p>
+ * 
+ * <p>
+ * {@link #canProvideStatements(SubQuery, Endpoint)} supports subset and superset
+ * inference as documented in {@link Cache}. If an endpoint is known to provide
+ * results for a subquery, it also provides results for any generalization (i.e.
+ * the subquery with fewer bound positions). If it is known to provide no results
+ * for a subquery, it provides none for any specialization. For the former, the
+ * positive entries are indexed by each of their generalizations.
+ * </p>
+ * 
+ * <p>
+ * The cache is safe for concurrent use: lookups do not acquire any lock, updates
+ * of a single entry are performed atomically. Entries are never modified in
+ * place, an update replaces the entry by a merged copy. The cache is bounded: if the
+ * number of entries exceeds the maximum size, the least recently used entries
+ * are evicted. Entries which are older than the time to live (if configured)
+ * are considered stale and are treated as not present.
+ * </p>
+ * 
  * @author Andreas Schwarte
- *
+ * 
  */
-@edu.umd.cs.findbugs.annotations.SuppressFBWarnings(value = "OBJECT_DESERIALIZATION", justification = "Will be replaced at some point in the future.")
 public class MemoryCache implements Cache {
 
 	private static final Logger log = LoggerFactory.getLogger(MemoryCache.class);
-	
-	protected HashMap<SubQuery, CacheEntry> cache = new HashMap<SubQuery, CacheEntry>();
+
+	/**
+	 * The default maximum number of entries
+	 */
+	public static final int DEFAULT_MAX_SIZE = 100000;
+
+	/**
+	 * The fraction of the maximum size to which the cache is reduced by an eviction
+	 */
+	protected static final double EVICTION_TARGET = 0.9;
+
+	protected final ConcurrentHashMap<SubQuery, CacheItem> cache = new ConcurrentHashMap<SubQuery, CacheItem>();
+
+	/* maps a generalization to (endpoint.id -> a subquery known to provide results) */
+	protected final ConcurrentHashMap<SubQuery, ConcurrentHashMap<String, SubQuery>> positiveIndex = new ConcurrentHashMap<>();
 	protected File cacheLocation;
-	
+	protected final CacheLog cacheLog;
+
+	protected final int maxSize;
+	protected final long timeToLiveMs;
+
+	private final AtomicBoolean evicting = new AtomicBoolean(false);
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder inferredHits = new LongAdder();
+
 	public MemoryCache(File cacheLocation) {
+		this(cacheLocation, DEFAULT_MAX_SIZE, 0);
+	}
+
+	/**
+	 *
+	 * @param cacheLocation the location where the cache is persisted
+	 * @param maxSize       the maximum number of entries
+	 * @param timeToLiveMs  the time to live of an entry in milliseconds, if 0
+	 *                      or less entries do not expire
+	 */
+	public MemoryCache(File cacheLocation, int maxSize, long timeToLiveMs) {
 		if (cacheLocation==null)
 			throw new FedXRuntimeException("The provided cacheLocation must not be null.");
+		if (maxSize <= 0)
+			throw new FedXRuntimeException("The maximum cache size must be positive: " + maxSize);
 		this.cacheLocation = cacheLocation;
+		this.maxSize = maxSize;
+		this.timeToLiveMs = timeToLiveMs;
+		this.cacheLog = new CacheLog(cacheLocation);
 	}
-	
+
 	@Override
 	public void addEntry(SubQuery subQuery, CacheEntry cacheEntry) throws EntryAlreadyExistsException {
 
-		synchronized (cache) {
-			
-			if (cache.containsKey(subQuery))
-				throw new EntryAlreadyExistsException("Entry for statement " + subQuery + " already exists in cache. Use update functionality instead.");
-		
-			cache.put(subQuery, cacheEntry);
-		}
-		
+		CacheItem item = new CacheItem(cacheEntry);
+		CacheItem existing = cache.compute(subQuery, (k, old) -> {
+			if (!isExpired(old))
+				return old;
+			if (old != null)
+				cacheLog.remove(k);
+			logEntries(k, item, cacheEntry);
+			return item;
+		});
+		if (existing != item)
+			throw new EntryAlreadyExistsException("Entry for statement " + subQuery + " already exists in cache. Use update functionality instead.");
+
+		evictIfNecessary();
+		compactIfNecessary();
+		cacheLog.sync();
 	}
-	
-	
+
+
 	@Override
 	public void updateEntry(SubQuery subQuery, CacheEntry merge) throws EntryUpdateException {
-		
-		synchronized (cache) {
-			
-			CacheEntry entry = cache.get(subQuery);
-			
-			if (entry==null)
-				cache.put(subQuery, merge);
-			else
-				entry.merge(merge);
+
+		try {
+			cache.compute(subQuery, (k, old) -> {
+				if (isExpired(old)) {
+					if (old != null)
+						cacheLog.remove(k);
+					CacheItem item = new CacheItem(merge);
+					logEntries(k, item, merge);
+					return item;
+				}
+				// lookups read entries without lock: merge into a copy and replace the item
+				CacheEntry merged = old.entry instanceof CacheEntryImpl ? ((CacheEntryImpl) old.entry).copy()
+						: old.entry;
+				try {
+					merged.merge(merge);
+				} catch (EntryUpdateException e) {
+					throw new FedXRuntimeException(e);
+				}
+				CacheItem item = merged == old.entry ? old : new CacheItem(merged, old.created);
+				logEntries(k, item, merge);
+				return item;
+			});
+		} catch (FedXRuntimeException e) {
+			if (e.getCause() instanceof EntryUpdateException)
+				throw (EntryUpdateException) e.getCause();
+			throw e;
 		}
-		
+
+		evictIfNecessary();
+		compactIfNecessary();
+		cacheLog.sync();
 	}
 
 
 	@Override
 	public void removeEntry(SubQuery subQuery) throws EntryUpdateException {
-		
-		synchronized (cache) {
-			cache.remove(subQuery);
-		}
-		
+		cache.computeIfPresent(subQuery, (k, item) -> {
+			cacheLog.remove(k);
+			unindex(k);
+			return null;
+		});
+		cacheLog.sync();
 	}
-	
+
 	@Override
 	public StatementSourceAssurance canProvideStatements(SubQuery subQuery, Endpoint endpoint) {
-		CacheEntry entry = cache.get(subQuery);
+		CacheEntry entry = lookup(subQuery);
+		StatementSourceAssurance res;
 		if (entry == null)
-			return StatementSourceAssurance.POSSIBLY_HAS_STATEMENTS;
-		if (entry.hasLocalStatements(endpoint))
-			return StatementSourceAssurance.HAS_LOCAL_STATEMENTS;
-		return entry.canProvideStatements(endpoint);
+			res = StatementSourceAssurance.POSSIBLY_HAS_STATEMENTS;
+		else if (entry.hasLocalStatements(endpoint))
+			res = StatementSourceAssurance.HAS_LOCAL_STATEMENTS;
+		else
+			res = entry.canProvideStatements(endpoint);
+
+		if (res == StatementSourceAssurance.POSSIBLY_HAS_STATEMENTS) {
+			res = infer(subQuery, endpoint);
+			if (res != StatementSourceAssurance.POSSIBLY_HAS_STATEMENTS)
+				inferredHits.increment();
+		}
+
+		// a hit avoids a remote request for source selection
+		if (res == StatementSourceAssurance.POSSIBLY_HAS_STATEMENTS)
+			misses.increment();
+		else
+			hits.increment();
+		return res;
 	}
 
-	
+
 	@Override
 	public CacheEntry getCacheEntry(SubQuery subQuery) {
-		CacheEntry entry = cache.get(subQuery);
+		CacheEntry entry = lookup(subQuery);
 		// TODO use clone or some copy/wrapping method to have read only capability
 		return entry;
 	}
@@ -122,56 +229,88 @@ public class MemoryCache implements Cache {
 	@Override
 	public CloseableIteration<? extends Statement, Exception> getStatements(
 			SubQuery subQuery) {
-		CacheEntry entry = cache.get(subQuery);
+		CacheEntry entry = lookup(subQuery);
 		return entry == null ? new EmptyIteration<Statement, Exception>() : entry.getStatements();
 	}
 
 	@Override
 	public CloseableIteration<? extends Statement, Exception> getStatements(
 			SubQuery subQuery, Endpoint endpoint) {
-		CacheEntry entry = cache.get(subQuery);
+		CacheEntry entry = lookup(subQuery);
 		return entry == null ? new EmptyIteration<Statement, Exception>() : entry.getStatements(endpoint);
 	}
 
 	@Override
 	public List<Endpoint> hasLocalStatements(SubQuery subQuery) {
-		CacheEntry entry = cache.get(subQuery);
+		CacheEntry entry = lookup(subQuery);
 		return entry == null ? Collections.<Endpoint>emptyList() : entry.hasLocalStatements();
 	}
 
 	@Override
 	public boolean hasLocalStatements(SubQuery subQuery, Endpoint endpoint) {
-		CacheEntry entry = cache.get(subQuery);
+		CacheEntry entry = lookup(subQuery);
 		return entry == null ? false : entry.hasLocalStatements(endpoint);
 	}
 
-	@SuppressWarnings("unchecked")
 	@Override
 	public void initialize() throws FedXException {
-		
-		if (!cacheLocation.exists())
-			return;
-		try (ObjectInputStream in = new ObjectInputStream(
-				new BufferedInputStream(new FileInputStream(cacheLocation)))) {
-			cache = (HashMap<SubQuery, CacheEntry>)in.readObject();
+
+		try {
+			Map<SubQuery, StoredEntry> persisted = cacheLog.load();
+			for (Entry<SubQuery, StoredEntry> e : persisted.entrySet()) {
+				CacheItem item = new CacheItem(e.getValue().getEntry(), e.getValue().getCreated());
+				if (isExpired(item))
+					continue;
+				cache.put(e.getKey(), item);
+				for (EndpointEntry endpointEntry : e.getValue().getEntry().entries.values()) {
+					if (endpointEntry.doesProvideStatements())
+						index(e.getKey(), endpointEntry.getEndpointID());
+				}
+			}
+			if (cacheLog.needsCompaction())
+				cacheLog.compact(snapshot());
 		} catch (Exception e) {
 			throw new FedXException("Error initializing cache.", e);
 		}
+		evictIfNecessary();
 	}
 
 	@Override
 	public void invalidate() throws FedXException {
-		cache.clear();
+		clear();
+	}
+
+	@Override
+	public void invalidate(Endpoint endpoint) {
+		String endpointId = endpoint.getId();
+		for (SubQuery subQuery : cache.keySet()) {
+			cache.computeIfPresent(subQuery, (k, item) -> {
+				if (item.entry instanceof CacheEntryImpl) {
+					if (!((CacheEntryImpl) item.entry).entries.containsKey(endpointId))
+						return item;
+					CacheEntryImpl entry = ((CacheEntryImpl) item.entry).copy();
+					entry.remove(endpointId);
+					return entry.isEmpty() ? null : new CacheItem(entry, item.created);
+				}
+				// unknown entry implementation: remove if it mirrors the endpoint
+				return item.entry.getEndpoints().contains(endpoint) ? null : item;
+			});
+		}
+		positiveIndex.values().forEach(witnesses -> witnesses.remove(endpointId));
+		positiveIndex.values().removeIf(Map::isEmpty);
+		cacheLog.removeEndpoint(endpointId);
+		cacheLog.sync();
+		log.debug("Invalidated cache entries of endpoint " + endpointId);
 	}
 
 	@Override
 	public void persist() throws FedXException {
-		
-		// XXX write to a temporary file first, to prevent a corrupt file
-		
-		try (ObjectOutputStream out = new ObjectOutputStream(
-				new BufferedOutputStream(new FileOutputStream(cacheLocation)))) {
-			out.writeObject(this.cache);
+
+		// changes are persisted incrementally, i.e. only flush and compact if necessary
+		try {
+			if (cacheLog.needsCompaction())
+				cacheLog.compact(snapshot());
+			cacheLog.close();
 		} catch (Exception e) {
 			throw new FedXException("Error persisting cache data.", e);
 		}
@@ -180,7 +319,260 @@ public class MemoryCache implements Cache {
 	@Override
 	public void clear() {
 		log.debug("Clearing the cache.");
-		cache = new HashMap<SubQuery, CacheEntry>();
-		
+		cache.clear();
+		positiveIndex.clear();
+		cacheLog.clear();
+		cacheLog.sync();
+	}
+
+	/**
+	 *
+	 * @return the number of entries in this cache (including expired entries which
+	 *         are not yet removed)
+	 */
+	public int size() {
+		return cache.size();
+	}
+
+	/**
+	 *
+	 * @return the number of lookups in {@link #canProvideStatements(SubQuery, Endpoint)}
+	 *         that could be answered by the cache
+	 */
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	/**
+	 *
+	 * @return the number of lookups in {@link #canProvideStatements(SubQuery, Endpoint)}
+	 *         that could not be answered by the cache
+	 */
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	/**
+	 * 
+	 * @return the number of hits in {@link #canProvideStatements(SubQuery, Endpoint)}
+	 *         that were answered by subset or superset inference
+	 */
+	public long getInferredHitCount() {
+		return inferredHits.sum();
+	}
+
+	/**
+	 * Reset the hit and miss counters
+	 */
+	public void resetStatistics() {
+		hits.reset();
+		misses.reset();
+		inferredHits.reset();
+	}
+
+	/**
+	 * Lookup the entry for the given subquery. Expired entries are removed.
+	 *
+	 * @param subQuery
+	 * @return the entry or <code>null</code>
+	 */
+	protected CacheEntry lookup(SubQuery subQuery) {
+		CacheItem item = cache.get(subQuery);
+		if (item == null)
+			return null;
+		if (isExpired(item)) {
+			cache.remove(subQuery, item);
+			return null;
+		}
+		item.lastAccess = System.currentTimeMillis();
+		return item.entry;
+	}
+
+	protected boolean isExpired(CacheItem item) {
+		if (item == null)
+			return true;
+		return timeToLiveMs > 0 && System.currentTimeMillis() - item.created > timeToLiveMs;
+	}
+
+	/**
+	 * Evict the least recently used entries if the cache exceeds its maximum size.
+	 * Expired entries are evicted first. Only a single thread performs the eviction
+	 * at a time.
+	 */
+	protected void evictIfNecessary() {
+		if (cache.size() <= maxSize || !evicting.compareAndSet(false, true))
+			return;
+		try {
+			List<Entry<SubQuery, CacheItem>> items = new ArrayList<>(cache.entrySet());
+			items.sort(Comparator.comparing((Entry<SubQuery, CacheItem> e) -> !isExpired(e.getValue()))
+					.thenComparingLong(e -> e.getValue().lastAccess));
+			int target = (int) (maxSize * EVICTION_TARGET);
+			int toEvict = items.size() - target;
+			for (int i = 0; i < toEvict; i++) {
+				CacheItem evicted = items.get(i).getValue();
+				cache.computeIfPresent(items.get(i).getKey(), (k, item) -> {
+					if (item != evicted)
+						return item;
+					cacheLog.remove(k);
+					unindex(k);
+					return null;
+				});
+			}
+			if (log.isDebugEnabled())
+				log.debug("Evicted " + toEvict + " entries from the cache, new size: " + cache.size());
+		} finally {
+			evicting.set(false);
+		}
+	}
+
+	/**
+	 * Compact the cache log if it contains sufficiently many obsolete records
+	 */
+	protected void compactIfNecessary() {
+		if (!cacheLog.needsCompaction())
+			return;
+		try {
+			cacheLog.compact(snapshot());
+		} catch (Exception e) {
+			log.warn("Failed to compact cache file " + cacheLocation + ": " + e.getMessage());
+			log.debug("Details:", e);
+		}
+	}
+
+	/**
+	 * Append the endpoint entries of the changed entry to the cache log. Must be
+	 * invoked while the mapping of the subquery is locked.
+	 * 
+	 * @param subQuery
+	 * @param item     the item with the resulting entry
+	 * @param changed  the entry containing the changed information
+	 */
+	protected void logEntries(SubQuery subQuery, CacheItem item, CacheEntry changed) {
+		if (!(item.entry instanceof CacheEntryImpl) || !(changed instanceof CacheEntryImpl)) {
+			return; // only the default entries are persisted
+		}
+		Map<String, EndpointEntry> entries = ((CacheEntryImpl) item.entry).entries;
+		for (String endpointId : ((CacheEntryImpl) changed).entries.keySet()) {
+			EndpointEntry entry = entries.get(endpointId);
+			if (entry != null) {
+				cacheLog.put(subQuery, entry, item.created);
+				if (entry.doesProvideStatements())
+					index(subQuery, endpointId);
+			}
+		}
+	}
+
+	/**
+	 * Register the subquery as witness for results of the given endpoint for each
+	 * of its generalizations.
+	 * 
+	 * @param subQuery
+	 * @param endpointId
+	 */
+	protected void index(SubQuery subQuery, String endpointId) {
+		for (SubQuery g : generalizations(subQuery)) {
+			positiveIndex.computeIfAbsent(g, k -> new ConcurrentHashMap<>()).put(endpointId, subQuery);
+		}
+	}
+
+	/**
+	 * Remove the subquery as witness from the index
+	 * 
+	 * @param subQuery
+	 */
+	protected void unindex(SubQuery subQuery) {
+		for (SubQuery g : generalizations(subQuery)) {
+			positiveIndex.computeIfPresent(g, (k, witnesses) -> {
+				witnesses.values().removeIf(subQuery::equals);
+				return witnesses.isEmpty() ? null : witnesses;
+			});
+		}
+	}
+
+	/**
+	 * Infer the assurance from related entries, i.e. {@link StatementSourceAssurance#NONE}
+	 * if a generalization is known to have no results, and
+	 * {@link StatementSourceAssurance#HAS_REMOTE_STATEMENTS} if a specialization is
+	 * known to have results.
+	 * 
+	 * @param subQuery
+	 * @param endpoint
+	 * @return the inferred assurance or {@link StatementSourceAssurance#POSSIBLY_HAS_STATEMENTS}
+	 */
+	protected StatementSourceAssurance infer(SubQuery subQuery, Endpoint endpoint) {
+
+		for (SubQuery g : generalizations(subQuery)) {
+			if (g.equals(subQuery))
+				continue;
+			CacheEntry entry = lookup(g);
+			if (entry != null && entry.canProvideStatements(endpoint) == StatementSourceAssurance.NONE)
+				return StatementSourceAssurance.NONE;
+		}
+
+		Map<String, SubQuery> witnesses = positiveIndex.get(subQuery);
+		SubQuery witness = witnesses == null ? null : witnesses.get(endpoint.getId());
+		if (witness != null) {
+			CacheEntry entry = lookup(witness);
+			if (entry != null && entry.canProvideStatements(endpoint) == StatementSourceAssurance.HAS_REMOTE_STATEMENTS)
+				return StatementSourceAssurance.HAS_REMOTE_STATEMENTS;
+			// stale witness, e.g. evicted or expired
+			witnesses.remove(endpoint.getId(), witness);
+		}
+		return StatementSourceAssurance.POSSIBLY_HAS_STATEMENTS;
+	}
+
+	/**
+	 * 
+	 * @param subQuery
+	 * @return all subqueries which bind a subset of the bound positions of the
+	 *         given subquery to the same values, including the subquery itself
+	 */
+	protected static List<SubQuery> generalizations(SubQuery subQuery) {
+		String[] values = new String[] { subQuery.getSubject(), subQuery.getPredicate(), subQuery.getObject() };
+		List<SubQuery> res = new ArrayList<>(8);
+		for (int mask = 0; mask < 8; mask++) {
+			boolean valid = true;
+			for (int i = 0; i < 3 && valid; i++) {
+				if ((mask & (1 << i)) != 0 && values[i] == null)
+					valid = false;
+			}
+			if (!valid)
+				continue;
+			res.add(new SubQuery((mask & 1) != 0 ? values[0] : null, (mask & 2) != 0 ? values[1] : null,
+					(mask & 4) != 0 ? values[2] : null));
+		}
+		return res;
+	}
+
+	/**
+	 * 
+	 * @return an iterator over the live entries that can be persisted
+	 */
+	protected Iterator<Entry<SubQuery, StoredEntry>> snapshot() {
+		return cache.entrySet()
+				.stream()
+				.filter(e -> !isExpired(e.getValue()) && e.getValue().entry instanceof CacheEntryImpl)
+				.map(e -> (Entry<SubQuery, StoredEntry>) new SimpleImmutableEntry<>(e.getKey(),
+						new StoredEntry((CacheEntryImpl) e.getValue().entry, e.getValue().created)))
+				.iterator();
+	}
+
+	/**
+	 * A cache entry together with its access information
+	 */
+	protected static class CacheItem {
+		protected final CacheEntry entry;
+		protected final long created;
+		protected volatile long lastAccess;
+
+		public CacheItem(CacheEntry entry) {
+			this(entry, System.currentTimeMillis());
+		}
+
+		public CacheItem(CacheEntry entry, long created) {
+			this.entry = entry;
+			this.created = created;
+			this.lastAccess = System.currentTimeMillis();
+		}
 	}
 }
@@ -15,6 +15,22 @@
  */
 package com.fluidops.fedx.endpoint.provider;
 
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+
+import javax.net.ssl.SSLException;
+
+import org.apache.http.HttpException;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpResponseInterceptor;
+import org.apache.http.HttpStatus;
+import org.apache.http.impl.client.DefaultHttpRequestRetryHandler;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.protocol.HttpContext;
 import org.eclipse.rdf4j.common.iteration.Iterations;
 import org.eclipse.rdf4j.query.MalformedQueryException;
 import org.eclipse.rdf4j.query.QueryEvaluationException;
@@ -27,6 +43,7 @@ import org.eclipse.rdf4j.repository.RepositoryException;
 
 import com.fluidops.fedx.Config;
 import com.fluidops.fedx.endpoint.Endpoint;
+import com.fluidops.fedx.exception.HttpStatusException;
 import com.fluidops.fedx.util.FedXUtil;
 
 /**
@@ -37,6 +54,56 @@ import com.fluidops.fedx.util.FedXUtil;
  */
 public class ProviderUtil {
 
+	/**
+	 * The minimum size of the HTTP connection pool of an endpoint
+	 */
+	protected static final int MIN_HTTP_CONNECTIONS = 20;
+
+	/**
+	 * Create the {@link HttpClientBuilder} for a remote endpoint. The size of the
+	 * connection pool is aligned with
+	 * {@link Config#getMaxInFlightTasksPerEndpoint()} such that in-flight tasks do
+	 * not block in the pool.
+	 * 
+	 * <p>
+	 * Responses rejecting the request as too long (HTTP 413 and 414) fail with a
+	 * {@link HttpStatusException}, such that the bound join block size can be
+	 * adjusted based on the status code. These requests are not retried.
+	 * </p>
+	 * 
+	 * @return the {@link HttpClientBuilder}
+	 */
+	public static HttpClientBuilder createHttpClientBuilder() {
+		int maxConnections = Math.max(MIN_HTTP_CONNECTIONS, Config.getConfig().getMaxInFlightTasksPerEndpoint());
+		return HttpClients.custom().useSystemProperties().setMaxConnTotal(maxConnections)
+				.setMaxConnPerRoute(maxConnections)
+				.addInterceptorLast(new RequestTooLongInterceptor())
+				.setRetryHandler(new NonRetriableStatusRetryHandler());
+	}
+
+	/**
+	 * Rejects responses with status 413 or 414 with a {@link HttpStatusException}.
+	 */
+	protected static class RequestTooLongInterceptor implements HttpResponseInterceptor {
+		@Override
+		public void process(HttpResponse response, HttpContext context) throws HttpException, IOException {
+			int statusCode = response.getStatusLine().getStatusCode();
+			if (statusCode == HttpStatus.SC_REQUEST_URI_TOO_LONG || statusCode == HttpStatus.SC_REQUEST_TOO_LONG)
+				throw new HttpStatusException(statusCode, response.getStatusLine().getReasonPhrase());
+		}
+	}
+
+	/**
+	 * The default retry handler of the HTTP client, which in addition does not
+	 * retry requests failed with a {@link HttpStatusException}.
+	 */
+	protected static class NonRetriableStatusRetryHandler extends DefaultHttpRequestRetryHandler {
+		public NonRetriableStatusRetryHandler() {
+			super(3, false, Arrays.asList(InterruptedIOException.class, UnknownHostException.class,
+					ConnectException.class, SSLException.class, HttpStatusException.class));
+		}
+	}
+
 	/**
 	 * Checks the connection by submitting a SPARQL SELECT query:
 	 * 
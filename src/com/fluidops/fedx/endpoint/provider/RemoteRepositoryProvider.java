@@ -16,7 +16,6 @@
 package com.fluidops.fedx.endpoint.provider;
 
 import org.apache.http.impl.client.HttpClientBuilder;
-import org.apache.http.impl.client.HttpClients;
 import org.eclipse.rdf4j.http.client.SharedHttpClientSessionManager;
 import org.eclipse.rdf4j.repository.http.HTTPRepository;
 
@@ -46,8 +45,7 @@ public class RemoteRepositoryProvider implements EndpointProvider<RemoteReposito
 		
 		try {
 			HTTPRepository repo = new HTTPRepository(repositoryServer, repositoryName);
-			HttpClientBuilder httpClientBuilder = HttpClients.custom().useSystemProperties().setMaxConnTotal(20)
-					.setMaxConnPerRoute(20);
+			HttpClientBuilder httpClientBuilder = ProviderUtil.createHttpClientBuilder();
 			((SharedHttpClientSessionManager) repo.getHttpClientSessionManager())
 					.setHttpClientBuilder(httpClientBuilder);
 			try {
@@ -16,7 +16,6 @@
 package com.fluidops.fedx.endpoint.provider;
 
 import org.apache.http.impl.client.HttpClientBuilder;
-import org.apache.http.impl.client.HttpClients;
 import org.eclipse.rdf4j.http.client.SharedHttpClientSessionManager;
 import org.eclipse.rdf4j.repository.RepositoryException;
 import org.eclipse.rdf4j.repository.sparql.SPARQLRepository;
@@ -48,8 +47,7 @@ public class SPARQLProvider implements EndpointProvider<SPARQLRepositoryInformat
 
 		try {
 			SPARQLRepository repo = new SPARQLRepository(repoInfo.getLocation());
-			HttpClientBuilder httpClientBuilder = HttpClients.custom().useSystemProperties().setMaxConnTotal(20)
-					.setMaxConnPerRoute(20);
+			HttpClientBuilder httpClientBuilder = ProviderUtil.createHttpClientBuilder();
 			((SharedHttpClientSessionManager) repo.getHttpClientSessionManager())
 					.setHttpClientBuilder(httpClientBuilder);
 			try {
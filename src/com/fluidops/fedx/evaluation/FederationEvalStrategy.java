@@ -15,9 +15,15 @@
  */
 package com.fluidops.fedx.evaluation;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.Executor;
+import java.util.function.Function;
 
 import org.eclipse.rdf4j.common.iteration.CloseableIteration;
 import org.eclipse.rdf4j.common.iteration.EmptyIteration;
@@ -34,11 +40,10 @@ import org.eclipse.rdf4j.query.MalformedQueryException;
 import org.eclipse.rdf4j.query.QueryEvaluationException;
 import org.eclipse.rdf4j.query.algebra.TupleExpr;
 import org.eclipse.rdf4j.query.algebra.ValueExpr;
+import org.eclipse.rdf4j.query.algebra.evaluation.QueryBindingSet;
 import org.eclipse.rdf4j.query.algebra.evaluation.ValueExprEvaluationException;
 import org.eclipse.rdf4j.query.algebra.evaluation.federation.ServiceJoinIterator;
 import org.eclipse.rdf4j.query.algebra.evaluation.impl.StrictEvaluationStrategy;
-import org.eclipse.rdf4j.query.algebra.evaluation.iterator.BadlyDesignedLeftJoinIterator;
-import org.eclipse.rdf4j.query.algebra.evaluation.iterator.HashJoinIteration;
 import org.eclipse.rdf4j.query.algebra.evaluation.util.QueryEvaluationUtil;
 import org.eclipse.rdf4j.query.algebra.helpers.TupleExprs;
 import org.eclipse.rdf4j.query.algebra.helpers.VarNameCollector;
@@ -61,6 +66,7 @@ import com.fluidops.fedx.algebra.FilterExpr;
 import com.fluidops.fedx.algebra.IndependentJoinGroup;
 import com.fluidops.fedx.algebra.NJoin;
 import com.fluidops.fedx.algebra.NUnion;
+import com.fluidops.fedx.algebra.ParallelNJoin;
 import com.fluidops.fedx.algebra.SingleSourceQuery;
 import com.fluidops.fedx.algebra.StatementSource;
 import com.fluidops.fedx.algebra.StatementTupleExpr;
@@ -69,17 +75,21 @@ import com.fluidops.fedx.cache.CacheUtils;
 import com.fluidops.fedx.endpoint.Endpoint;
 import com.fluidops.fedx.evaluation.concurrent.ControlledWorkerScheduler;
 import com.fluidops.fedx.evaluation.concurrent.ParallelServiceExecutor;
+import com.fluidops.fedx.evaluation.iterator.DistinctBindingsIteration;
+import com.fluidops.fedx.evaluation.iterator.DistinctStatementIteration;
 import com.fluidops.fedx.evaluation.join.ControlledWorkerBoundJoin;
 import com.fluidops.fedx.evaluation.join.ControlledWorkerJoin;
 import com.fluidops.fedx.evaluation.join.ControlledWorkerLeftJoin;
+import com.fluidops.fedx.evaluation.join.HashLeftJoin;
+import com.fluidops.fedx.evaluation.join.ParallelHashJoin;
 import com.fluidops.fedx.evaluation.join.SynchronousBoundJoin;
+import com.fluidops.fedx.evaluation.join.SymmetricHashJoin;
 import com.fluidops.fedx.evaluation.join.SynchronousJoin;
 import com.fluidops.fedx.evaluation.union.ControlledWorkerUnion;
 import com.fluidops.fedx.evaluation.union.ParallelGetStatementsTask;
 import com.fluidops.fedx.evaluation.union.ParallelPreparedAlgebraUnionTask;
 import com.fluidops.fedx.evaluation.union.ParallelPreparedUnionTask;
 import com.fluidops.fedx.evaluation.union.ParallelUnionOperatorTask;
-import com.fluidops.fedx.evaluation.union.SynchronousWorkerUnion;
 import com.fluidops.fedx.evaluation.union.WorkerUnionBase;
 import com.fluidops.fedx.exception.FedXRuntimeException;
 import com.fluidops.fedx.statistics.Statistics;
@@ -136,6 +146,10 @@ public abstract class FederationEvalStrategy extends StrictEvaluationStrategy {
 			return ((StatementTupleExpr)expr).evaluate(bindings);
 		}
 				
+		if (expr instanceof ParallelNJoin) {
+			return evaluateParallelNJoin((ParallelNJoin)expr, bindings);
+		}
+		
 		if (expr instanceof NJoin) {
 			return evaluateNJoin((NJoin)expr, bindings);
 		} 
@@ -206,7 +220,7 @@ public abstract class FederationEvalStrategy extends StrictEvaluationStrategy {
 		// a bound query: if at least one fed member provides results
 		// return the statement, otherwise empty result
 		if (subj!=null && pred!=null && obj!=null) {
-			if (CacheUtils.checkCacheUpdateCache(cache, members, subj, pred, obj)) {
+			if (CacheUtils.checkCacheUpdateCache(cache, members, subj, pred, obj, queryInfo)) {
 				return new SingletonIteration<Statement, QueryEvaluationException>(
 						FedXUtil.valueFactory().createStatement(subj, pred, obj));
 			}
@@ -224,8 +238,8 @@ public abstract class FederationEvalStrategy extends StrictEvaluationStrategy {
 			return e.getTripleSource().getStatements(subj, pred, obj, contexts);
 		}
 		
-		// TODO why not collect in parallel?
-		WorkerUnionBase<Statement> union = new SynchronousWorkerUnion<Statement>(this, queryInfo);
+		// collect the statements of the sources in parallel, results are streamed as they arrive
+		WorkerUnionBase<Statement> union = FederationManager.getInstance().createWorkerUnion(queryInfo);
 		
 		for (StatementSource source : sources) {
 			Endpoint e = EndpointManager.getEndpointManager().getEndpoint(source.getEndpointID());
@@ -236,7 +250,8 @@ public abstract class FederationEvalStrategy extends StrictEvaluationStrategy {
 		// run the union in a separate thread
 		executor.execute(union);
 		
-		// TODO distinct iteration ?
+		if (Config.getConfig().isEnableDistinctGetStatements())
+			return new DistinctStatementIteration(union);
 		
 		return union;
 	}
@@ -266,11 +281,24 @@ public abstract class FederationEvalStrategy extends StrictEvaluationStrategy {
 	
 	public CloseableIteration<BindingSet, QueryEvaluationException> evaluateNJoin(NJoin join, BindingSet bindings) throws QueryEvaluationException {
 		
-		CloseableIteration<BindingSet, QueryEvaluationException> result = evaluate(join.getArg(0), bindings);
+		CloseableIteration<BindingSet, QueryEvaluationException> result;
+		int start = 1;
+		
+		// independent arguments at single endpoints: consume both in parallel
+		if (Config.getConfig().isEnableSymmetricHashJoin()
+				&& SymmetricHashJoin.canApply(join.getArg(0), join.getArg(1))) {
+			SymmetricHashJoin hashJoin = new SymmetricHashJoin(FederationManager.getInstance().getUnionScheduler(),
+					this, join.getArg(0), join.getArg(1), join.getJoinVariables(1), bindings, join.getQueryInfo());
+			executor.execute(hashJoin);
+			result = hashJoin;
+			start = 2;
+		} else {
+			result = evaluate(join.getArg(0), bindings);
+		}
 		
 		ControlledWorkerScheduler<BindingSet> joinScheduler = FederationManager.getInstance().getJoinScheduler();
 		
-		for (int i = 1, n = join.getNumberOfArguments(); i < n; i++) {
+		for (int i = start, n = join.getNumberOfArguments(); i < n; i++) {
 
 			result = executeJoin(joinScheduler, result, join.getArg(i), join.getJoinVariables(i), bindings,
 					join.getQueryInfo());
@@ -278,6 +306,23 @@ public abstract class FederationEvalStrategy extends StrictEvaluationStrategy {
 		return result;
 	}
 	
+	/**
+	 * Evaluate the independent arguments of a bushy join plan in parallel on the
+	 * union scheduler and combine them using a hash join.
+	 * 
+	 * @param join
+	 * @param bindings
+	 * @return the result iteration
+	 * @throws QueryEvaluationException
+	 * @see ParallelHashJoin
+	 */
+	public CloseableIteration<BindingSet, QueryEvaluationException> evaluateParallelNJoin(ParallelNJoin join, BindingSet bindings) throws QueryEvaluationException {
+		
+		ParallelHashJoin hashJoin = new ParallelHashJoin(FederationManager.getInstance().getUnionScheduler(), this, join, bindings);
+		executor.execute(hashJoin);
+		return hashJoin;
+	}
+	
 	/**
 	 * Evaluate a {@link FedXLeftJoin} (i.e. an OPTIONAL clause)
 	 * 
@@ -300,7 +345,12 @@ public abstract class FederationEvalStrategy extends StrictEvaluationStrategy {
 		 */
 
 		if (TupleExprs.containsSubquery(leftJoin.getRightArg())) {
-			return new HashJoinIteration(this, leftJoin, bindings);
+			CloseableIteration<BindingSet, QueryEvaluationException> leftIter = evaluate(leftJoin.getLeftArg(),
+					bindings);
+			HashLeftJoin join = new HashLeftJoin(this, leftIter, leftJoin, bindings, bindings,
+					Collections.<String>emptySet(), leftJoin.getQueryInfo());
+			executor.execute(join);
+			return join;
 		}
 
 		// Check whether optional join is "well designed" as defined in section
@@ -326,8 +376,16 @@ public abstract class FederationEvalStrategy extends StrictEvaluationStrategy {
 			executor.execute(join);
 			return join;
 		} else {
-			// TODO optimize with a FedX secure implementation
-			return new BadlyDesignedLeftJoinIterator(this, leftJoin, bindings, problemVars);
+			// left join is not "well designed": evaluate without the problem variables,
+			// which are checked by the join for each result
+			QueryBindingSet filteredBindings = new QueryBindingSet(bindings);
+			filteredBindings.removeAll(problemVars);
+			CloseableIteration<BindingSet, QueryEvaluationException> leftIter = evaluate(leftJoin.getLeftArg(),
+					filteredBindings);
+			HashLeftJoin join = new HashLeftJoin(this, leftIter, leftJoin, filteredBindings, bindings, problemVars,
+					leftJoin.getQueryInfo());
+			executor.execute(join);
+			return join;
 		}
 	}
 
@@ -391,7 +449,18 @@ public abstract class FederationEvalStrategy extends StrictEvaluationStrategy {
 	 * @throws QueryEvaluationException
 	 */
 	public abstract CloseableIteration<BindingSet, QueryEvaluationException> evaluateBoundJoinStatementPattern(StatementTupleExpr stmt, final List<BindingSet> bindings) throws QueryEvaluationException;
-	
+
+	/**
+	 * Evaluate a bound join for an {@link ExclusiveGroup} at its owning endpoint, i.e. for a
+	 * group of bindings retrieve the results of the whole group with a single subquery.
+	 *
+	 * @param group
+	 * @param bindings
+	 * @return the result iteration
+	 * @throws QueryEvaluationException
+	 */
+	public abstract CloseableIteration<BindingSet, QueryEvaluationException> evaluateBoundJoinExclusiveGroup(ExclusiveGroup group, final List<BindingSet> bindings) throws QueryEvaluationException;
+
 	/**
 	 * Perform a grouped check at the relevant endpoints, i.e. for a group of bindings keep only 
 	 * those for which at least one endpoint provides a result to the bound statement.
@@ -483,7 +552,7 @@ public abstract class FederationEvalStrategy extends StrictEvaluationStrategy {
 			if (statementSources.size() == 1) {
 				Endpoint ownedEndpoint = EndpointManager.getEndpointManager().getEndpoint(statementSources.get(0).getEndpointID());
 				com.fluidops.fedx.evaluation.TripleSource t = ownedEndpoint.getTripleSource();
-				result = t.getStatements(preparedQuery, EmptyBindingSet.getInstance(), null);
+				result = t.getStatements(preparedQuery, EmptyBindingSet.getInstance(), null, queryInfo);
 			} 
 			 
 			else {
@@ -498,7 +567,9 @@ public abstract class FederationEvalStrategy extends StrictEvaluationStrategy {
 				union.run();
 				result = union;
 				
-				// TODO we should add some DISTINCT here to have SET semantics
+				// set semantics, if the multiplicity of the bindings is not relevant
+				if (queryInfo.isEliminateDuplicates())
+					result = new DistinctBindingsIteration(result);
 			}
 		
 			return result;
@@ -509,6 +580,54 @@ public abstract class FederationEvalStrategy extends StrictEvaluationStrategy {
 	}
 	
 	
+	/**
+	 * Evaluate the members of the independent join group at their relevant sources. Members
+	 * may have different relevant sources: sources with the same set of relevant members
+	 * (see {@link IndependentJoinGroup#getMembersBySource()}) share one prepared query,
+	 * i.e. a single request is sent to each source. The requests are evaluated in parallel
+	 * and their results are returned as one iteration.
+	 * 
+	 * @param joinGroup
+	 * @param queryBuilder constructs the prepared query (a String or {@link TupleExpr}) for the given member indices
+	 * @return the union of the results of all sources
+	 * @throws QueryEvaluationException
+	 */
+	protected CloseableIteration<BindingSet, QueryEvaluationException> evaluateAtMemberSources(IndependentJoinGroup joinGroup, Function<List<Integer>, Object> queryBuilder) throws QueryEvaluationException {
+		
+		Map<List<Integer>, List<StatementSource>> sourcesByMembers = new LinkedHashMap<List<Integer>, List<StatementSource>>();
+		for (Entry<StatementSource, List<Integer>> e : joinGroup.getMembersBySource().entrySet())
+			sourcesByMembers.computeIfAbsent(e.getValue(), k -> new ArrayList<StatementSource>()).add(e.getKey());
+		
+		if (sourcesByMembers.size() == 1) {
+			Entry<List<Integer>, List<StatementSource>> e = sourcesByMembers.entrySet().iterator().next();
+			return evaluateAtStatementSources(queryBuilder.apply(e.getKey()), e.getValue(), joinGroup.getQueryInfo());
+		}
+		
+		try {
+			WorkerUnionBase<BindingSet> union = FederationManager.getInstance().createWorkerUnion(joinGroup.getQueryInfo());
+			
+			for (Entry<List<Integer>, List<StatementSource>> e : sourcesByMembers.entrySet()) {
+				Object preparedQuery = queryBuilder.apply(e.getKey());
+				for (StatementSource source : e.getValue()) {
+					Endpoint ownedEndpoint = EndpointManager.getEndpointManager().getEndpoint(source.getEndpointID());
+					if (preparedQuery instanceof TupleExpr)
+						union.addTask(new ParallelPreparedAlgebraUnionTask(union, (TupleExpr)preparedQuery, ownedEndpoint,
+								EmptyBindingSet.getInstance(), null));
+					else
+						union.addTask(new ParallelPreparedUnionTask(union, (String)preparedQuery, ownedEndpoint,
+								EmptyBindingSet.getInstance(), null));
+				}
+			}
+			
+			union.run();
+			return union;
+			
+		} catch (Exception e) {
+			throw new QueryEvaluationException(e);
+		}
+	}
+	
+	
 	protected CloseableIteration<BindingSet, QueryEvaluationException> evaluateAtStatementSources(TupleExpr preparedQuery, List<StatementSource> statementSources, QueryInfo queryInfo) throws QueryEvaluationException {
 		
 		try {
@@ -532,7 +651,9 @@ public abstract class FederationEvalStrategy extends StrictEvaluationStrategy {
 				union.run();
 				result = union;
 				
-				// TODO we should add some DISTINCT here to have SET semantics
+				// set semantics, if the multiplicity of the bindings is not relevant
+				if (queryInfo.isEliminateDuplicates())
+					result = new DistinctBindingsIteration(result);
 			}
 		
 			return result;
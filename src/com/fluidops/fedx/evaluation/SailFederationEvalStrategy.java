@@ -33,7 +33,6 @@ import com.fluidops.fedx.algebra.ExclusiveGroup;
 import com.fluidops.fedx.algebra.FilterTuple;
 import com.fluidops.fedx.algebra.FilterValueExpr;
 import com.fluidops.fedx.algebra.IndependentJoinGroup;
-import com.fluidops.fedx.algebra.StatementSource;
 import com.fluidops.fedx.algebra.StatementTupleExpr;
 import com.fluidops.fedx.evaluation.concurrent.ControlledWorkerScheduler;
 import com.fluidops.fedx.evaluation.iterator.BoundJoinConversionIteration;
@@ -94,10 +93,34 @@ public class SailFederationEvalStrategy extends FederationEvalStrategy {
 			result = new BoundJoinConversionIteration(result, bindings);
 		}
 			
-		return result;		
+		return result;
 	}
 
-	
+
+	@Override
+	public CloseableIteration<BindingSet, QueryEvaluationException> evaluateBoundJoinExclusiveGroup(
+			ExclusiveGroup group, List<BindingSet> bindings)
+			throws QueryEvaluationException {
+
+		// we can omit the bound join handling
+		if (bindings.size()==1)
+			return evaluate(group, bindings.get(0));
+
+		FilterValueExpr filterExpr = group.getFilterExpr();
+
+		TupleExpr preparedQuery = QueryAlgebraUtil.selectQueryBoundUnion(group, bindings);
+
+		CloseableIteration<BindingSet, QueryEvaluationException> result = evaluateAtStatementSources(preparedQuery, group.getStatementSources(), group.getQueryInfo());
+
+		// convert to original bindings and apply filter
+		result = new BoundJoinConversionIteration(result, bindings);
+		if (filterExpr!=null)
+			result = new FilteringIteration(filterExpr, result);
+
+		return result;
+	}
+
+
 	@Override
 	public CloseableIteration<BindingSet, QueryEvaluationException> evaluateGroupedCheck(
 			CheckStatementPattern stmt, List<BindingSet> bindings)
@@ -118,15 +141,14 @@ public class SailFederationEvalStrategy extends FederationEvalStrategy {
 	public CloseableIteration<BindingSet, QueryEvaluationException> evaluateIndependentJoinGroup(
 			IndependentJoinGroup joinGroup, BindingSet bindings)
 			throws QueryEvaluationException {
-			
-		TupleExpr preparedQuery = QueryAlgebraUtil.selectQueryIndependentJoinGroup(joinGroup, bindings);
 		
 		try {
-			List<StatementSource> statementSources = joinGroup.getMembers().get(0).getStatementSources();	// TODO this is only correct for the prototype (=> different endpoints)
-			CloseableIteration<BindingSet, QueryEvaluationException> result = evaluateAtStatementSources(preparedQuery, statementSources, joinGroup.getQueryInfo());
+			// one request per source covering the members relevant to that source
+			CloseableIteration<BindingSet, QueryEvaluationException> result = evaluateAtMemberSources(joinGroup,
+					members -> QueryAlgebraUtil.selectQueryIndependentJoinGroup(joinGroup, members, bindings));
 						
 			// return only those elements which evaluated positively at the endpoint
-			result = new IndependentJoingroupBindingsIteration(result, bindings);
+			result = new IndependentJoingroupBindingsIteration(result, bindings, joinGroup.getMemberCount());
 			
 			return result;
 		} catch (Exception e) {
@@ -140,16 +162,15 @@ public class SailFederationEvalStrategy extends FederationEvalStrategy {
 	public CloseableIteration<BindingSet, QueryEvaluationException> evaluateIndependentJoinGroup(
 			IndependentJoinGroup joinGroup, List<BindingSet> bindings)
 			throws QueryEvaluationException  {
-				
-		String preparedQuery = QueryStringUtil.selectQueryStringIndependentJoinGroup(joinGroup, bindings);
 		
 		try {
-			List<StatementSource> statementSources = joinGroup.getMembers().get(0).getStatementSources();	// TODO this is only correct for the prototype (=> different endpoints)
-			CloseableIteration<BindingSet, QueryEvaluationException> result = evaluateAtStatementSources(preparedQuery, statementSources, joinGroup.getQueryInfo());
+			// one request per source covering the members relevant to that source
+			CloseableIteration<BindingSet, QueryEvaluationException> result = evaluateAtMemberSources(joinGroup,
+					members -> QueryStringUtil.selectQueryStringIndependentJoinGroup(joinGroup, members, bindings));
 						
 			// return only those elements which evaluated positively at the endpoint
 //			result = new IndependentJoingroupBindingsIteration2(result, bindings);
-			result = new IndependentJoingroupBindingsIteration3(result, bindings);
+			result = new IndependentJoingroupBindingsIteration3(result, bindings, joinGroup.getMemberCount());
 			
 			return result;
 		} catch (Exception e) {
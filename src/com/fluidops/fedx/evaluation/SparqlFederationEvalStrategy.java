@@ -28,12 +28,12 @@ import org.eclipse.rdf4j.query.algebra.StatementPattern;
 import org.eclipse.rdf4j.query.algebra.TupleExpr;
 import org.eclipse.rdf4j.repository.RepositoryException;
 
+import com.fluidops.fedx.Config;
 import com.fluidops.fedx.algebra.CheckStatementPattern;
 import com.fluidops.fedx.algebra.ExclusiveGroup;
 import com.fluidops.fedx.algebra.FilterTuple;
 import com.fluidops.fedx.algebra.FilterValueExpr;
 import com.fluidops.fedx.algebra.IndependentJoinGroup;
-import com.fluidops.fedx.algebra.StatementSource;
 import com.fluidops.fedx.algebra.StatementTupleExpr;
 import com.fluidops.fedx.evaluation.concurrent.ControlledWorkerScheduler;
 import com.fluidops.fedx.evaluation.iterator.BoundJoinConversionIteration;
@@ -42,6 +42,7 @@ import com.fluidops.fedx.evaluation.iterator.GroupedCheckConversionIteration;
 import com.fluidops.fedx.evaluation.iterator.IndependentJoingroupBindingsIteration;
 import com.fluidops.fedx.evaluation.iterator.IndependentJoingroupBindingsIteration3;
 import com.fluidops.fedx.evaluation.iterator.SingleBindingSetIteration;
+import com.fluidops.fedx.evaluation.join.ControlledWorkerAdaptiveJoin;
 import com.fluidops.fedx.evaluation.join.ControlledWorkerBoundJoin;
 import com.fluidops.fedx.exception.IllegalQueryException;
 import com.fluidops.fedx.structures.QueryInfo;
@@ -54,7 +55,8 @@ import com.fluidops.fedx.util.QueryStringUtil;
  * important optimization is to used prepared SPARQL Queries that are already 
  * created using Strings. 
  * 
- * Joins are executed using {@link ControlledWorkerBoundJoin}.
+ * Joins are executed using {@link ControlledWorkerBoundJoin}, or
+ * {@link ControlledWorkerAdaptiveJoin} if {@link Config#isEnableAdaptiveJoin()}.
  * 
  * @author Andreas Schwarte
  *
@@ -95,10 +97,34 @@ public class SparqlFederationEvalStrategy extends FederationEvalStrategy {
 			result = new BoundJoinConversionIteration(result, bindings);
 		}
 			
-		return result;		
+		return result;
 	}
 
-	
+
+	@Override
+	public CloseableIteration<BindingSet, QueryEvaluationException> evaluateBoundJoinExclusiveGroup(
+			ExclusiveGroup group, List<BindingSet> bindings)
+			throws QueryEvaluationException {
+
+		// we can omit the bound join handling
+		if (bindings.size()==1)
+			return evaluate(group, bindings.get(0));
+
+		FilterValueExpr filterExpr = group.getFilterExpr();
+
+		String preparedQuery = QueryStringUtil.selectQueryStringBoundUnion(group, bindings);
+
+		CloseableIteration<BindingSet, QueryEvaluationException> result = evaluateAtStatementSources(preparedQuery, group.getStatementSources(), group.getQueryInfo());
+
+		// convert to original bindings and apply filter
+		result = new BoundJoinConversionIteration(result, bindings);
+		if (filterExpr!=null)
+			result = new FilteringIteration(filterExpr, result);
+
+		return result;
+	}
+
+
 	@Override
 	public CloseableIteration<BindingSet, QueryEvaluationException> evaluateGroupedCheck(
 			CheckStatementPattern stmt, List<BindingSet> bindings)
@@ -119,15 +145,14 @@ public class SparqlFederationEvalStrategy extends FederationEvalStrategy {
 	public CloseableIteration<BindingSet, QueryEvaluationException> evaluateIndependentJoinGroup(
 			IndependentJoinGroup joinGroup, BindingSet bindings)
 			throws QueryEvaluationException {
-			
-		String preparedQuery = QueryStringUtil.selectQueryStringIndependentJoinGroup(joinGroup, bindings);
 		
 		try {
-			List<StatementSource> statementSources = joinGroup.getMembers().get(0).getStatementSources();	// TODO this is only correct for the prototype (=> different endpoints)
-			CloseableIteration<BindingSet, QueryEvaluationException> result = evaluateAtStatementSources(preparedQuery, statementSources, joinGroup.getQueryInfo());
+			// one request per source covering the members relevant to that source
+			CloseableIteration<BindingSet, QueryEvaluationException> result = evaluateAtMemberSources(joinGroup,
+					members -> QueryStringUtil.selectQueryStringIndependentJoinGroup(joinGroup, members, bindings));
 						
 			// return only those elements which evaluated positively at the endpoint
-			result = new IndependentJoingroupBindingsIteration(result, bindings);
+			result = new IndependentJoingroupBindingsIteration(result, bindings, joinGroup.getMemberCount());
 			
 			return result;
 		} catch (Exception e) {
@@ -141,16 +166,15 @@ public class SparqlFederationEvalStrategy extends FederationEvalStrategy {
 	public CloseableIteration<BindingSet, QueryEvaluationException> evaluateIndependentJoinGroup(
 			IndependentJoinGroup joinGroup, List<BindingSet> bindings)
 			throws QueryEvaluationException  {
-				
-		String preparedQuery = QueryStringUtil.selectQueryStringIndependentJoinGroup(joinGroup, bindings);
 		
 		try {
-			List<StatementSource> statementSources = joinGroup.getMembers().get(0).getStatementSources();	// TODO this is only correct for the prototype (=> different endpoints)
-			CloseableIteration<BindingSet, QueryEvaluationException> result = evaluateAtStatementSources(preparedQuery, statementSources, joinGroup.getQueryInfo());
+			// one request per source covering the members relevant to that source
+			CloseableIteration<BindingSet, QueryEvaluationException> result = evaluateAtMemberSources(joinGroup,
+					members -> QueryStringUtil.selectQueryStringIndependentJoinGroup(joinGroup, members, bindings));
 						
 			// return only those elements which evaluated positively at the endpoint
 //			result = new IndependentJoingroupBindingsIteration2(result, bindings);
-			result = new IndependentJoingroupBindingsIteration3(result, bindings);
+			result = new IndependentJoingroupBindingsIteration3(result, bindings, joinGroup.getMemberCount());
 			
 			return result;
 		} catch (Exception e) {
@@ -166,7 +190,11 @@ public class SparqlFederationEvalStrategy extends FederationEvalStrategy {
 			TupleExpr rightArg, Set<String> joinVars, BindingSet bindings, QueryInfo queryInfo)
 			throws QueryEvaluationException {
 		
-		ControlledWorkerBoundJoin join = new ControlledWorkerBoundJoin(joinScheduler, this, leftIter, rightArg, bindings, queryInfo);
+		ControlledWorkerBoundJoin join;
+		if (Config.getConfig().isEnableAdaptiveJoin())
+			join = new ControlledWorkerAdaptiveJoin(joinScheduler, this, leftIter, rightArg, bindings, queryInfo);
+		else
+			join = new ControlledWorkerBoundJoin(joinScheduler, this, leftIter, rightArg, bindings, queryInfo);
 		join.setJoinVars(joinVars);
 		executor.execute(join);
 		return join;
@@ -184,7 +212,7 @@ public class SparqlFederationEvalStrategy extends FederationEvalStrategy {
 		try  {
 			String preparedQuery = QueryStringUtil.selectQueryString(group, bindings, group.getFilterExpr(), isEvaluated);
 			return tripleSource.getStatements(preparedQuery, bindings,
-					(isEvaluated.get() ? null : group.getFilterExpr()));
+					(isEvaluated.get() ? null : group.getFilterExpr()), group.getQueryInfo());
 		} catch (IllegalQueryException e) {
 			/* no projection vars, e.g. local vars only, can occur in joins */
 			if (tripleSource.hasStatements(group, bindings))
@@ -25,6 +25,7 @@ import org.eclipse.rdf4j.query.BindingSet;
 import org.eclipse.rdf4j.query.QueryEvaluationException;
 import org.eclipse.rdf4j.query.algebra.StatementPattern;
 
+import com.fluidops.fedx.algebra.ExclusiveGroup;
 import com.fluidops.fedx.algebra.FilterTuple;
 import com.fluidops.fedx.algebra.FilterValueExpr;
 import com.fluidops.fedx.algebra.StatementTupleExpr;
@@ -91,4 +92,35 @@ public class SparqlFederationEvalStrategyWithValues extends SparqlFederationEval
 		}
 	}
 
+
+	@Override
+	public CloseableIteration<BindingSet, QueryEvaluationException> evaluateBoundJoinExclusiveGroup(
+			ExclusiveGroup group, List<BindingSet> bindings)
+			throws QueryEvaluationException {
+
+		// we can omit the bound join handling
+		if (bindings.size()==1)
+			return evaluate(group, bindings.get(0));
+
+		FilterValueExpr filterExpr = group.getFilterExpr();
+
+		AtomicBoolean isEvaluated = new AtomicBoolean(false);
+		String preparedQuery = QueryStringUtil.selectQueryStringBoundJoinVALUES(group, bindings, filterExpr, isEvaluated);
+
+		CloseableIteration<BindingSet, QueryEvaluationException> result = null;
+		try {
+			result = evaluateAtStatementSources(preparedQuery, group.getStatementSources(), group.getQueryInfo());
+
+			// convert to original bindings and apply filter (if not done remotely)
+			result = new BoundJoinVALUESConversionIteration(result, bindings);
+			if (filterExpr != null && !isEvaluated.get())
+				result = new FilteringIteration(filterExpr, result);
+
+			return result;
+		} catch (Throwable t) {
+			Iterations.closeCloseable(result);
+			throw ExceptionUtil.toQueryEvaluationException(t);
+		}
+	}
+
 }
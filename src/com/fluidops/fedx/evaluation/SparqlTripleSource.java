@@ -48,6 +48,7 @@ import com.fluidops.fedx.evaluation.iterator.FilteringInsertBindingsIteration;
 import com.fluidops.fedx.evaluation.iterator.FilteringIteration;
 import com.fluidops.fedx.evaluation.iterator.InsertBindingsIteration;
 import com.fluidops.fedx.exception.ExceptionUtil;
+import com.fluidops.fedx.structures.QueryInfo;
 import com.fluidops.fedx.util.QueryStringUtil;
 
 
@@ -82,6 +83,14 @@ public class SparqlTripleSource extends TripleSourceBase implements TripleSource
 			String preparedQuery, BindingSet bindings, FilterValueExpr filterExpr)
 			throws RepositoryException, MalformedQueryException,
 			QueryEvaluationException {
+		return getStatements(preparedQuery, bindings, filterExpr, null);
+	}
+	
+	@Override
+	public CloseableIteration<BindingSet, QueryEvaluationException> getStatements(
+			String preparedQuery, BindingSet bindings, FilterValueExpr filterExpr, QueryInfo queryInfo)
+			throws RepositoryException, MalformedQueryException,
+			QueryEvaluationException {
 		
 		
 		
@@ -112,7 +121,7 @@ public class SparqlTripleSource extends TripleSourceBase implements TripleSource
 				res = new InsertBindingsIteration(res, bindings);
 			}
 	
-			resultHolder.set(new ConsumingIteration(res));
+			resultHolder.set(new ConsumingIteration(res, queryInfo));
 			
 		});
 	}
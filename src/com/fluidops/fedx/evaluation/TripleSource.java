@@ -30,6 +30,7 @@ import org.eclipse.rdf4j.repository.RepositoryException;
 
 import com.fluidops.fedx.algebra.ExclusiveGroup;
 import com.fluidops.fedx.algebra.FilterValueExpr;
+import com.fluidops.fedx.structures.QueryInfo;
 import com.fluidops.fedx.structures.QueryType;
 
 
@@ -87,6 +88,33 @@ public interface TripleSource {
 	 */
 	public CloseableIteration<BindingSet, QueryEvaluationException> getStatements(String preparedQuery, final BindingSet bindings, FilterValueExpr filterExpr) throws RepositoryException, MalformedQueryException, QueryEvaluationException;
 
+	/**
+	 * Evaluate the prepared query (SPARQL query as String) on the provided endpoint.
+	 * Results buffered by the implementation are accounted against the memory
+	 * budget of the given query (see {@link QueryInfo#reserveBufferMemory(long)}).
+	 * 
+	 * @param preparedQuery
+	 * 			a prepared query to evaluate (SPARQL query as String)
+	 * @param bindings
+	 * 			the bindings to use
+	 * @param filterExpr
+	 * 			the filter expression to apply or null if there is no filter or if it is evaluated already
+	 * @param queryInfo
+	 * 			the query to account buffered results for, may be <code>null</code>
+	 * 
+	 * @return
+	 * 		the resulting iteration
+	 *  
+	 * @throws RepositoryException
+	 * @throws MalformedQueryException
+	 * @throws QueryEvaluationException
+	 */
+	public default CloseableIteration<BindingSet, QueryEvaluationException> getStatements(String preparedQuery,
+			final BindingSet bindings, FilterValueExpr filterExpr, QueryInfo queryInfo)
+			throws RepositoryException, MalformedQueryException, QueryEvaluationException {
+		return getStatements(preparedQuery, bindings, filterExpr);
+	}
+
 	/**
 	 * Evaluate a given SPARQL query of the provided query type at the given source.
 	 * 
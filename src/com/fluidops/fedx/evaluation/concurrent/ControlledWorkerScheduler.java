@@ -16,11 +16,13 @@
 package com.fluidops.fedx.evaluation.concurrent;
 
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.eclipse.rdf4j.common.iteration.CloseableIteration;
 import org.eclipse.rdf4j.query.QueryEvaluationException;
@@ -32,15 +34,28 @@ import com.fluidops.fedx.evaluation.join.ControlledWorkerJoin;
 import com.fluidops.fedx.evaluation.union.ControlledWorkerUnion;
 import com.fluidops.fedx.exception.ExceptionUtil;
 import com.fluidops.fedx.exception.FedXRuntimeException;
+import com.fluidops.fedx.structures.QueryInfo;
 
 
 
 /**
- * ControlledWorkerScheduler is a task scheduler that uses a FIFO queue for managing
- * its process. Each instance has a pool with a fixed number of worker threads. Once
- * notified a worker picks the next task from the queue and executes it. The results
- * is then returned to the controlling instance retrieved from the task.
- * 
+ * ControlledWorkerScheduler is a task scheduler that uses a queue for managing
+ * its process. If fair scheduling is enabled, the queue maintains a sub-queue per
+ * query and dispatches tasks round-robin among the queries, weighted by
+ * {@link QueryInfo#getPriority()} (see {@link FairTaskQueue}). Otherwise a FIFO
+ * queue is used. Each instance has a pool of at most the configured number of worker
+ * threads: workers are started on demand when tasks are scheduled, and terminated
+ * again after being idle for some time. Once notified a worker picks the next task
+ * from the queue and executes it. The results is then returned to the controlling
+ * instance retrieved from the task.
+ * <p>
+ * Optionally an {@link EndpointBulkhead} limits the number of in-flight tasks per
+ * endpoint: tasks for a saturated endpoint are parked (without occupying a
+ * worker) until a permit becomes available. A task holds its permit while it
+ * is performed, i.e. until the response of the endpoint has been received. The
+ * permit is not held while the result is consumed: operators consuming the
+ * result may wait for further tasks against the same endpoint.
+ * </p>
  * 
  * @author Andreas Schwarte
  * 
@@ -53,14 +68,19 @@ public class ControlledWorkerScheduler<T> implements Scheduler<T> {
 	protected static final Logger log = LoggerFactory.getLogger(ControlledWorkerScheduler.class);
 
 	
-	protected ExecutorService executor;
+	protected ThreadPoolExecutor executor;
 
-	protected LinkedBlockingQueue<Runnable> _taskQueue = new LinkedBlockingQueue<>();
+	protected BlockingQueue<Runnable> _taskQueue;
 
 
 
 	protected int nWorkers;
 	protected String name;
+	protected boolean fairScheduling;
+	protected EndpointBulkhead endpointBulkhead;
+
+	/* the scheduler owning the current worker thread, if any */
+	protected static final ThreadLocal<ControlledWorkerScheduler<?>> workerScheduler = new ThreadLocal<>();
 	
 		
 	/**
@@ -79,8 +99,22 @@ public class ControlledWorkerScheduler<T> implements Scheduler<T> {
 	 * @param name
 	 */
 	public ControlledWorkerScheduler(int nWorkers, String name) {
+		this(nWorkers, name, false);
+	}
+	
+	/**
+	 * Construct a new instance with the specified number of workers and the
+	 * given name.
+	 * 
+	 * @param nWorkers
+	 * @param name
+	 * @param fairScheduling whether queued tasks are dispatched fairly among
+	 *                       queries, see {@link FairTaskQueue}
+	 */
+	public ControlledWorkerScheduler(int nWorkers, String name, boolean fairScheduling) {
 		this.nWorkers = nWorkers;
 		this.name = name;
+		this.fairScheduling = fairScheduling;
 		initWorkerThreads();
 	}
 	
@@ -96,7 +130,8 @@ public class ControlledWorkerScheduler<T> implements Scheduler<T> {
 		
 		WorkerRunnable runnable = new WorkerRunnable(task);
 
-		Future<?> future = executor.submit(runnable);
+		WorkerFuture future = new WorkerFuture(runnable, task.getQueryInfo(), task.getEndpointId());
+		execute(future);
 
 		// register the future to the task
 		if (task instanceof ParallelTaskBase<?>) {
@@ -109,6 +144,49 @@ public class ControlledWorkerScheduler<T> implements Scheduler<T> {
 	}	
 	
 	
+	/**
+	 * Execute the given future. If an {@link EndpointBulkhead} is set and the
+	 * endpoint of the task is saturated, the future is parked in the bulkhead
+	 * and dispatched once a permit is available.
+	 * 
+	 * @param future
+	 */
+	protected void execute(WorkerFuture future) {
+		EndpointBulkhead bulkhead = endpointBulkhead;
+		if (bulkhead == null || future.endpointId == null) {
+			executor.execute(future);
+			return;
+		}
+		future.bulkhead = bulkhead;
+		if (!bulkhead.acquire(future.endpointId, () -> executor.execute(future))) {
+			return; // parked
+		}
+		try {
+			executor.execute(future);
+		} catch (RejectedExecutionException e) {
+			bulkhead.release(future.endpointId);
+			throw e;
+		}
+	}
+
+	/**
+	 * Set the {@link EndpointBulkhead} to limit the number of in-flight tasks per
+	 * endpoint, <code>null</code> to disable the limit.
+	 * 
+	 * @param endpointBulkhead
+	 */
+	public void setEndpointBulkhead(EndpointBulkhead endpointBulkhead) {
+		this.endpointBulkhead = endpointBulkhead;
+	}
+
+	/**
+	 * 
+	 * @return the {@link EndpointBulkhead}, may be <code>null</code>
+	 */
+	public EndpointBulkhead getEndpointBulkhead() {
+		return endpointBulkhead;
+	}
+	
 	/**
 	 * Schedule the given tasks and inform about finish using the same lock, i.e.
 	 * all tasks are scheduled one after the other.
@@ -123,30 +201,84 @@ public class ControlledWorkerScheduler<T> implements Scheduler<T> {
 		
 	}
 	
+	/**
+	 * 
+	 * @return the maximum number of worker threads
+	 */
 	public int getTotalNumberOfWorkers() {
 		return nWorkers;
 	}
 	
+	/**
+	 * 
+	 * @return the number of worker threads that are currently alive
+	 */
+	public int getNumberOfWorkers() {
+		return executor.getPoolSize();
+	}
+
+	/**
+	 * 
+	 * @return the number of alive worker threads that are currently waiting for
+	 *         a task
+	 */
 	public int getNumberOfIdleWorkers() {
-		// TODO
-		return -1;
+		return Math.max(0, executor.getPoolSize() - executor.getActiveCount());
 	}
 	
+	/**
+	 * 
+	 * @return the number of worker threads that are currently executing a task
+	 */
+	public int getNumberOfActiveWorkers() {
+		return executor.getActiveCount();
+	}
+
+	/**
+	 * Returns true if the calling thread is a worker thread of this scheduler.
+	 * Tasks must not block on other tasks of the same scheduler, as they could
+	 * otherwise occupy all workers while the awaited tasks remain queued.
+	 * 
+	 * @return whether the calling thread is a worker of this scheduler
+	 */
+	public boolean isWorkerThread() {
+		return workerScheduler.get() == this;
+	}
+
+	/**
+	 * 
+	 * @return the number of tasks that are queued, i.e. not yet picked by a worker
+	 */
 	public int getNumberOfTasks() {
 		return _taskQueue.size();
 	}
 	
 	protected void initWorkerThreads() {
 
-		executor = new ThreadPoolExecutor(Math.min(10, nWorkers / 2), nWorkers, 30L, TimeUnit.SECONDS, _taskQueue,
-				new NamingThreadFactory(name));
+		_taskQueue = fairScheduling ? new FairTaskQueue() : new LinkedBlockingQueue<>();
+
+		// Note: with an unbounded queue the pool never grows beyond its core size,
+		// hence the core size is the configured number of workers. Idle workers
+		// (including core threads) terminate after the keep alive time
+		NamingThreadFactory threadFactory = new NamingThreadFactory(name);
+		executor = new ThreadPoolExecutor(nWorkers, nWorkers, 30L, TimeUnit.SECONDS, _taskQueue,
+				r -> threadFactory.newThread(() -> {
+					workerScheduler.set(this);
+					r.run();
+				}));
+		executor.allowCoreThreadTimeOut(true);
 	}
 	
 	@Override
 	public void abort() {
 		log.info("Aborting workers of " + name + ".");
 
-		executor.shutdownNow();
+		// tasks that are never run release their permit
+		for (Runnable r : executor.shutdownNow()) {
+			if (r instanceof ControlledWorkerScheduler<?>.WorkerFuture) {
+				((ControlledWorkerScheduler<?>.WorkerFuture) r).releasePermit();
+			}
+		}
 		try
 		{
 			executor.awaitTermination(30, TimeUnit.SECONDS);
@@ -220,10 +352,13 @@ public class ControlledWorkerScheduler<T> implements Scheduler<T> {
 	protected class WorkerRunnable implements Runnable {
 
 		protected final ParallelTask<T> task;
-		
+
 		protected boolean inTask = false;
 
 		protected boolean aborted = false;
+
+		/* set once the task is either performed or skipped */
+		protected final AtomicBoolean claimed = new AtomicBoolean(false);
 		
 		public WorkerRunnable(ParallelTask<T> task)
 		{
@@ -235,12 +370,19 @@ public class ControlledWorkerScheduler<T> implements Scheduler<T> {
 		@Override
 		public void run()
 		{
-			if (aborted)
+			if (aborted || !claimed.compareAndSet(false, true))
 			{
 				return;
 			}
 
 			ParallelExecutor<T> taskControl = task.getControl();
+
+			if (taskControl.isDemandSatisfied())
+			{
+				// skip the task, e.g. if the LIMIT of the query is satisfied
+				taskControl.done();
+				return;
+			}
 			
 			try {
 				inTask = true;
@@ -250,7 +392,12 @@ public class ControlledWorkerScheduler<T> implements Scheduler<T> {
 				}
 				CloseableIteration<T, QueryEvaluationException> res = task.performTask();
 				inTask = false;
-				taskControl.addResult(res);
+				try {
+					taskControl.addResult(res);
+				} catch (Throwable t) {
+					res.close();
+					throw t;
+				}
 
 				taskControl.done();		// in most cases this is a no-op
 			} catch (Throwable t) {
@@ -272,6 +419,71 @@ public class ControlledWorkerScheduler<T> implements Scheduler<T> {
 	
 	
 	
+	/**
+	 * The future of a scheduled {@link WorkerRunnable}, which is associated to
+	 * the query of the task to allow for fair dispatching in the
+	 * {@link FairTaskQueue}. If the future holds a permit of an
+	 * {@link EndpointBulkhead}, the permit is released after execution (also if
+	 * the future was cancelled or dropped by {@link #abort()}).
+	 * 
+	 * @author agent
+	 */
+	protected class WorkerFuture extends FutureTask<Void> implements FairTaskQueue.FairTask {
+
+		protected final QueryInfo queryInfo;
+		protected final String endpointId;
+		protected EndpointBulkhead bulkhead;
+		protected final AtomicBoolean permitReleased = new AtomicBoolean(false);
+
+		protected final WorkerRunnable runnable;
+
+		public WorkerFuture(WorkerRunnable runnable, QueryInfo queryInfo, String endpointId) {
+			super(runnable, null);
+			this.runnable = runnable;
+			this.queryInfo = queryInfo;
+			this.endpointId = endpointId;
+		}
+
+		@Override
+		public void run() {
+			try {
+				super.run();
+			} finally {
+				releasePermit();
+			}
+		}
+
+		/**
+		 * Release the permit of the {@link EndpointBulkhead}, if any. Subsequent
+		 * invocations are ignored.
+		 */
+		protected void releasePermit() {
+			if (bulkhead != null && permitReleased.compareAndSet(false, true)) {
+				bulkhead.release(endpointId);
+			}
+		}
+
+		@Override
+		protected void done() {
+			// a task that is cancelled before it is started does not inform its
+			// control otherwise, i.e. the control would wait for it
+			if (isCancelled() && runnable.claimed.compareAndSet(false, true)) {
+				runnable.task.getControl().done();
+			}
+		}
+
+		@Override
+		public Object getFairnessKey() {
+			return queryInfo;
+		}
+
+		@Override
+		public int getWeight() {
+			return queryInfo.getPriority();
+		}
+	}
+	
+	
 	/**
 	 * Structure to maintain the status for a given control instance.
 	 * 
@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2026 Veritas Technologies LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fluidops.fedx.evaluation.concurrent;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Per-endpoint concurrency limit for tasks of the {@link ControlledWorkerScheduler}.
+ *
+ * <p>
+ * At most {@link #getMaxInFlight()} tasks may be in flight for a given endpoint.
+ * A task for a saturated endpoint is parked in a wait queue of the endpoint,
+ * i.e. it does not occupy a worker thread. Once a running task releases its
+ * permit, the permit is handed over to the next parked task which is then
+ * dispatched.
+ * </p>
+ *
+ * <p>
+ * The bulkhead is shared among the schedulers of the {@link com.fluidops.fedx.FederationManager}
+ * such that the limit applies to all requests sent to an endpoint.
+ * </p>
+ *
+ * @author agent
+ * @see ControlledWorkerScheduler
+ */
+public class EndpointBulkhead {
+
+	private static final Logger log = LoggerFactory.getLogger(EndpointBulkhead.class);
+
+	protected final int maxInFlight;
+
+	protected final ConcurrentMap<String, State> states = new ConcurrentHashMap<>();
+
+	/**
+	 *
+	 * @param maxInFlight the maximum number of in-flight tasks per endpoint
+	 */
+	public EndpointBulkhead(int maxInFlight) {
+		if (maxInFlight <= 0) {
+			throw new IllegalArgumentException("Maximum number of in-flight tasks must be positive: " + maxInFlight);
+		}
+		this.maxInFlight = maxInFlight;
+	}
+
+	/**
+	 * Try to acquire a permit for the given endpoint. If the endpoint is
+	 * saturated, the dispatch action is parked and run once a permit is handed
+	 * over to it, i.e. the dispatched task is then the owner of the permit and
+	 * must {@link #release(String)} it.
+	 *
+	 * @param endpointId the endpoint identifier
+	 * @param dispatch   the action to dispatch the task once a permit is available
+	 * @return true if the permit has been acquired, false if the dispatch action
+	 *         has been parked
+	 */
+	public boolean acquire(String endpointId, Runnable dispatch) {
+		State state = states.computeIfAbsent(endpointId, id -> new State());
+		synchronized (state) {
+			if (state.inFlight < maxInFlight) {
+				state.inFlight++;
+				return true;
+			}
+			state.parked.addLast(dispatch);
+			if (log.isTraceEnabled()) {
+				log.trace("Endpoint " + endpointId + " is saturated, parked task (" + state.parked.size()
+						+ " waiting).");
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Release a permit for the given endpoint. If tasks are parked for the
+	 * endpoint, the permit is handed over to the next one.
+	 *
+	 * @param endpointId the endpoint identifier
+	 */
+	public void release(String endpointId) {
+		State state = states.get(endpointId);
+		if (state == null) {
+			throw new IllegalStateException("No permits acquired for endpoint " + endpointId);
+		}
+		while (true) {
+			Runnable next;
+			synchronized (state) {
+				next = state.parked.pollFirst();
+				if (next == null) {
+					state.inFlight--;
+					return;
+				}
+			}
+			try {
+				next.run();
+				return;
+			} catch (RuntimeException e) {
+				// the permit is passed on to the next parked task
+				log.debug("Failed to dispatch parked task for endpoint " + endpointId + ": " + e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 *
+	 * @return the maximum number of in-flight tasks per endpoint
+	 */
+	public int getMaxInFlight() {
+		return maxInFlight;
+	}
+
+	/**
+	 *
+	 * @param endpointId
+	 * @return the number of in-flight tasks for the given endpoint
+	 */
+	public int getNumberOfInFlightTasks(String endpointId) {
+		State state = states.get(endpointId);
+		if (state == null) {
+			return 0;
+		}
+		synchronized (state) {
+			return state.inFlight;
+		}
+	}
+
+	/**
+	 *
+	 * @return the number of tasks that are parked for saturated endpoints
+	 */
+	public int getNumberOfParkedTasks() {
+		int res = 0;
+		for (State state : states.values()) {
+			synchronized (state) {
+				res += state.parked.size();
+			}
+		}
+		return res;
+	}
+
+	protected static class State {
+		protected int inFlight = 0;
+		protected final ArrayDeque<Runnable> parked = new ArrayDeque<>();
+	}
+}
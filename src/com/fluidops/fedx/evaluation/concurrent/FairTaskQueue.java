@@ -0,0 +1,311 @@
+/*
+ * Copyright (C) 2026 Veritas Technologies LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fluidops.fedx.evaluation.concurrent;
+
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+
+/**
+ * An unbounded {@link BlockingQueue} which maintains a sub-queue per fairness
+ * key (e.g. per query) and dispatches tasks from the sub-queues in a weighted
+ * round-robin fashion: a sub-queue with weight <i>w</i> may dispatch up to
+ * <i>w</i> tasks before the next sub-queue is served. Within a sub-queue tasks
+ * are dispatched in FIFO order.
+ *
+ * <p>
+ * Elements implementing {@link FairTask} are assigned to the sub-queue of their
+ * fairness key, all other elements share a common sub-queue with weight 1.
+ * </p>
+ *
+ * <p>
+ * This queue is used by the {@link ControlledWorkerScheduler} such that a
+ * single query scheduling many tasks does not starve the tasks of other queries.
+ * </p>
+ *
+ * @author agent
+ * @see ControlledWorkerScheduler
+ */
+public class FairTaskQueue extends AbstractQueue<Runnable> implements BlockingQueue<Runnable> {
+
+	/**
+	 * Interface for elements of the {@link FairTaskQueue}.
+	 */
+	public static interface FairTask {
+
+		/**
+		 *
+		 * @return the key of the sub-queue this task belongs to
+		 */
+		public Object getFairnessKey();
+
+		/**
+		 *
+		 * @return the weight of the sub-queue, i.e. the number of tasks dispatched
+		 *         per round (at least 1)
+		 */
+		public int getWeight();
+	}
+
+	private static final Object DEFAULT_KEY = new Object();
+
+	protected final ReentrantLock lock = new ReentrantLock();
+	protected final Condition notEmpty = lock.newCondition();
+
+	/* sub-queues with at least one task, the head is served next */
+	protected final ArrayDeque<SubQueue> rotation = new ArrayDeque<>();
+	protected final Map<Object, SubQueue> subQueues = new HashMap<>();
+	protected int count = 0;
+
+	@Override
+	public boolean offer(Runnable task) {
+		if (task == null) {
+			throw new NullPointerException();
+		}
+		Object key = DEFAULT_KEY;
+		int weight = 1;
+		if (task instanceof FairTask) {
+			key = ((FairTask) task).getFairnessKey();
+			weight = Math.max(1, ((FairTask) task).getWeight());
+		}
+		lock.lock();
+		try {
+			SubQueue subQueue = subQueues.get(key);
+			if (subQueue == null) {
+				subQueue = new SubQueue(key, weight);
+				subQueues.put(key, subQueue);
+				rotation.addLast(subQueue);
+			}
+			subQueue.tasks.addLast(task);
+			count++;
+			notEmpty.signal();
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public void put(Runnable task) {
+		offer(task);
+	}
+
+	@Override
+	public boolean offer(Runnable task, long timeout, TimeUnit unit) {
+		return offer(task);
+	}
+
+	@Override
+	public Runnable take() throws InterruptedException {
+		lock.lockInterruptibly();
+		try {
+			while (count == 0) {
+				notEmpty.await();
+			}
+			return dequeue();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public Runnable poll(long timeout, TimeUnit unit) throws InterruptedException {
+		long nanos = unit.toNanos(timeout);
+		lock.lockInterruptibly();
+		try {
+			while (count == 0) {
+				if (nanos <= 0) {
+					return null;
+				}
+				nanos = notEmpty.awaitNanos(nanos);
+			}
+			return dequeue();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public Runnable poll() {
+		lock.lock();
+		try {
+			return count == 0 ? null : dequeue();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public Runnable peek() {
+		lock.lock();
+		try {
+			return count == 0 ? null : rotation.peekFirst().tasks.peekFirst();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Take the next task from the sub-queue at the head of the rotation. Must be
+	 * called while holding the lock and if the queue is not empty.
+	 *
+	 * @return the next task
+	 */
+	private Runnable dequeue() {
+		SubQueue subQueue = rotation.peekFirst();
+		Runnable task = subQueue.tasks.pollFirst();
+		count--;
+		if (subQueue.tasks.isEmpty()) {
+			rotation.pollFirst();
+			subQueues.remove(subQueue.key);
+		} else if (--subQueue.credit <= 0) {
+			// move on to the next sub-queue
+			subQueue.credit = subQueue.weight;
+			rotation.addLast(rotation.pollFirst());
+		}
+		return task;
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		lock.lock();
+		try {
+			for (Iterator<SubQueue> iter = rotation.iterator(); iter.hasNext();) {
+				SubQueue subQueue = iter.next();
+				if (subQueue.tasks.remove(o)) {
+					count--;
+					if (subQueue.tasks.isEmpty()) {
+						iter.remove();
+						subQueues.remove(subQueue.key);
+					}
+					return true;
+				}
+			}
+			return false;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public int size() {
+		lock.lock();
+		try {
+			return count;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 *
+	 * @return the number of sub-queues with pending tasks
+	 */
+	public int getNumberOfSubQueues() {
+		lock.lock();
+		try {
+			return rotation.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public int remainingCapacity() {
+		return Integer.MAX_VALUE;
+	}
+
+	@Override
+	public int drainTo(Collection<? super Runnable> c) {
+		return drainTo(c, Integer.MAX_VALUE);
+	}
+
+	@Override
+	public int drainTo(Collection<? super Runnable> c, int maxElements) {
+		lock.lock();
+		try {
+			int n = 0;
+			while (n < maxElements && count > 0) {
+				c.add(dequeue());
+				n++;
+			}
+			return n;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Returns an iterator over a snapshot of the queued tasks (in no particular
+	 * order). Removal is supported and affects this queue.
+	 */
+	@Override
+	public Iterator<Runnable> iterator() {
+		List<Runnable> snapshot;
+		lock.lock();
+		try {
+			snapshot = new ArrayList<>(count);
+			for (SubQueue subQueue : rotation) {
+				snapshot.addAll(subQueue.tasks);
+			}
+		} finally {
+			lock.unlock();
+		}
+		Iterator<Runnable> iter = snapshot.iterator();
+		return new Iterator<Runnable>() {
+			private Runnable current;
+
+			@Override
+			public boolean hasNext() {
+				return iter.hasNext();
+			}
+
+			@Override
+			public Runnable next() {
+				current = iter.next();
+				return current;
+			}
+
+			@Override
+			public void remove() {
+				FairTaskQueue.this.remove(current);
+			}
+		};
+	}
+
+	protected static class SubQueue {
+		protected final Object key;
+		protected final int weight;
+		protected final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+		protected int credit;
+
+		public SubQueue(Object key, int weight) {
+			this.key = key;
+			this.weight = weight;
+			this.credit = weight;
+		}
+	}
+}
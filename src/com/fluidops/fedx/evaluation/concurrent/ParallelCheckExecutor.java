@@ -0,0 +1,238 @@
+/*
+ * Copyright (C) 2026 Veritas Technologies LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fluidops.fedx.evaluation.concurrent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.common.iteration.EmptyIteration;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.QueryEvaluationException;
+import org.eclipse.rdf4j.query.QueryInterruptedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fluidops.fedx.FederationManager;
+import com.fluidops.fedx.structures.QueryInfo;
+
+
+/**
+ * Executor for existence checks (e.g. ASK requests) at several sources. The
+ * checks are evaluated concurrently by the union scheduler. The execution
+ * returns as soon as the first check answers true, the remaining checks are
+ * cancelled (respectively skipped, if not yet started).
+ * 
+ * <p>
+ * If the calling thread is itself a worker of the union scheduler, the checks
+ * are evaluated one after the other in the calling thread: waiting for queued
+ * checks could otherwise block all workers of the scheduler.
+ * </p>
+ * 
+ * <p>
+ * Errors of single checks are only reported if no check answers true.
+ * </p>
+ * 
+ * @author agent
+ */
+public class ParallelCheckExecutor implements ParallelExecutor<BindingSet> {
+
+	private static final Logger log = LoggerFactory.getLogger(ParallelCheckExecutor.class);
+
+	/**
+	 * Evaluate the given checks concurrently and block until the first check
+	 * answers true or until all checks are completed. A single check, or checks
+	 * requested by a worker of the union scheduler, are evaluated in the calling
+	 * thread.
+	 * 
+	 * @param checks    the checks, keyed by the identifier of the endpoint they
+	 *                  are evaluated at
+	 * @param queryInfo
+	 * @return true if at least one check answers true
+	 * @throws QueryEvaluationException if no check answers true and at least one
+	 *                                  check failed
+	 */
+	public static boolean run(Map<String, Callable<Boolean>> checks, QueryInfo queryInfo)
+			throws QueryEvaluationException {
+		if (checks.isEmpty()) {
+			return false;
+		}
+		ControlledWorkerScheduler<BindingSet> scheduler = FederationManager.getInstance().getUnionScheduler();
+		if (checks.size() == 1 || scheduler.isWorkerThread()) {
+			return runSequentially(checks);
+		}
+		return new ParallelCheckExecutor(scheduler, queryInfo, checks.size()).execute(checks);
+	}
+
+	/**
+	 * Evaluate the given checks one after the other in the calling thread until
+	 * the first check answers true.
+	 * 
+	 * @param checks
+	 * @return true if at least one check answers true
+	 * @throws QueryEvaluationException if no check answers true and at least one
+	 *                                  check failed
+	 */
+	protected static boolean runSequentially(Map<String, Callable<Boolean>> checks) throws QueryEvaluationException {
+		Exception error = null;
+		for (Callable<Boolean> check : checks.values()) {
+			try {
+				if (check.call()) {
+					return true;
+				}
+			} catch (Exception e) {
+				error = e;
+			}
+		}
+		if (error instanceof QueryEvaluationException) {
+			throw (QueryEvaluationException) error;
+		}
+		if (error != null) {
+			throw new QueryEvaluationException(error);
+		}
+		return false;
+	}
+
+	private final QueryInfo queryInfo;
+	private final ControlledWorkerScheduler<BindingSet> scheduler;
+	private final List<ParallelCheckTask> tasks = new ArrayList<>();
+	private final AtomicInteger remaining;
+	private final CountDownLatch latch = new CountDownLatch(1);
+	private volatile boolean found = false;
+	private volatile Exception error = null;
+	private boolean finished = false;
+
+	private ParallelCheckExecutor(ControlledWorkerScheduler<BindingSet> scheduler, QueryInfo queryInfo,
+			int nChecks) {
+		this.scheduler = scheduler;
+		this.queryInfo = queryInfo;
+		this.remaining = new AtomicInteger(nChecks);
+	}
+
+	private boolean execute(Map<String, Callable<Boolean>> checks) throws QueryEvaluationException {
+
+		for (Map.Entry<String, Callable<Boolean>> check : checks.entrySet()) {
+			tasks.add(new ParallelCheckTask(check.getKey(), check.getValue()));
+		}
+		// Note: tasks are skipped once a check has answered true
+		for (ParallelCheckTask task : tasks) {
+			scheduler.schedule(task);
+		}
+
+		try {
+			boolean completed = latch.await(queryInfo.getMaxRemainingTimeMS(), TimeUnit.MILLISECONDS);
+			if (!completed) {
+				throw new QueryInterruptedException("Timeout during existence check");
+			}
+		} catch (InterruptedException e) {
+			log.debug("Error during existence check. Thread got interrupted.");
+			throw new QueryEvaluationException(e);
+		} finally {
+			finished = true;
+			// cancel the remaining checks, if any
+			for (ParallelCheckTask task : tasks) {
+				task.cancel();
+			}
+		}
+
+		if (found) {
+			return true;
+		}
+		if (error != null) {
+			if (error instanceof QueryEvaluationException) {
+				throw (QueryEvaluationException) error;
+			}
+			throw new QueryEvaluationException(error);
+		}
+		return false;
+	}
+
+	@Override
+	public void run() {
+		/* not needed */
+	}
+
+	@Override
+	public void addResult(CloseableIteration<BindingSet, QueryEvaluationException> res) {
+		/* not needed, the result is reported by the task */
+	}
+
+	@Override
+	public void toss(Exception e) {
+		error = e;
+		done();
+	}
+
+	@Override
+	public void done() {
+		if (remaining.decrementAndGet() == 0) {
+			latch.countDown();
+		}
+	}
+
+	@Override
+	public boolean isFinished() {
+		return finished;
+	}
+
+	@Override
+	public boolean isDemandSatisfied() {
+		return found || finished;
+	}
+
+	@Override
+	public QueryInfo getQueryInfo() {
+		return queryInfo;
+	}
+
+	/**
+	 * Task evaluating a single check
+	 */
+	protected class ParallelCheckTask extends ParallelTaskBase<BindingSet> {
+
+		protected final String endpointId;
+		protected final Callable<Boolean> check;
+
+		public ParallelCheckTask(String endpointId, Callable<Boolean> check) {
+			this.endpointId = endpointId;
+			this.check = check;
+		}
+
+		@Override
+		public CloseableIteration<BindingSet, QueryEvaluationException> performTask() throws Exception {
+			if (check.call()) {
+				found = true;
+				latch.countDown();
+			}
+			return new EmptyIteration<BindingSet, QueryEvaluationException>();
+		}
+
+		@Override
+		public ParallelExecutor<BindingSet> getControl() {
+			return ParallelCheckExecutor.this;
+		}
+
+		@Override
+		public String getEndpointId() {
+			return endpointId;
+		}
+	}
+}
@@ -64,6 +64,17 @@ public interface ParallelExecutor<T> extends Runnable {
 	 */
 	public boolean isFinished();
 
+	/**
+	 * Return true if no further results are requested from this executor, e.g. if
+	 * it has been closed by the consumer or if the LIMIT of the query is
+	 * satisfied. Queued tasks of this executor are skipped in this case.
+	 * 
+	 * @return whether the demand for results is satisfied
+	 */
+	public default boolean isDemandSatisfied() {
+		return false;
+	}
+
 	
 	/**
 	 * Return the query info of the associated query
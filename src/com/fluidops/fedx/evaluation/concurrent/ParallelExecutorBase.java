@@ -104,8 +104,18 @@ public abstract class ParallelExecutorBase<T> extends LookAheadIteration<T, Quer
 		if (res instanceof EmptyIteration<?, ?>)
 			return;
 
+		// the results are no longer requested: close them right away to release
+		// the underlying resources (e.g. a streamed HTTP response)
+		if (isDemandSatisfied()) {
+			res.close();
+			return;
+		}
+
 		try {
 			rightQueue.put(res);
+			// closed concurrently: the result is dropped (or discarded) by the queue
+			if (rightQueue.isClosed())
+				res.close();
 		} catch (InterruptedException e) {
 			throw new RuntimeException("Error adding element to right queue", e);
 		}
@@ -185,6 +195,19 @@ public abstract class ParallelExecutorBase<T> extends LookAheadIteration<T, Quer
 		return finished;
 	}
 
+	/**
+	 * Return true if this executor has been closed or if the query is done, e.g.
+	 * because the LIMIT of the query is satisfied (see
+	 * {@link QueryInfo#getResultLimit()}). Implementations stop pulling further
+	 * bindings in this case.
+	 * 
+	 * @return whether the demand for results is satisfied
+	 */
+	@Override
+	public boolean isDemandSatisfied() {
+		return closed || queryInfo.isDone();
+	}
+
 	@Override
 	public QueryInfo getQueryInfo() {
 		return queryInfo;
@@ -47,6 +47,17 @@ public interface ParallelTask<T> {
 		return getControl().getQueryInfo();
 	}
 
+	/**
+	 * The endpoint this task sends its request to. Used to apply per-endpoint
+	 * concurrency limits, see {@link EndpointBulkhead}.
+	 * 
+	 * @return the identifier of the endpoint, or <code>null</code> if the task
+	 *         does not target a single known endpoint
+	 */
+	public default String getEndpointId() {
+		return null;
+	}
+
 	/**
 	 * Optional implementation to cancel this task on a best effort basis
 	 */
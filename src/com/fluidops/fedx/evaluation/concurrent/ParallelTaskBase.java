@@ -15,11 +15,16 @@
  */
 package com.fluidops.fedx.evaluation.concurrent;
 
+import java.util.List;
 import java.util.concurrent.Future;
 
+import org.eclipse.rdf4j.query.algebra.TupleExpr;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.fluidops.fedx.algebra.StatementSource;
+import com.fluidops.fedx.algebra.StatementTupleExpr;
+
 public abstract class ParallelTaskBase<T> implements ParallelTask<T> {
 
 	private static final Logger _log = LoggerFactory.getLogger(ParallelExecutorBase.class);
@@ -50,4 +55,20 @@ public abstract class ParallelTaskBase<T> implements ParallelTask<T> {
 	public String toString() {
 		return getClass().getSimpleName() + " (Query: " + getQueryInfo().getQueryID() + ")";
 	}
+
+	/**
+	 * 
+	 * @param expr
+	 * @return the endpoint identifier if the expression is a
+	 *         {@link StatementTupleExpr} with a single statement source,
+	 *         <code>null</code> otherwise
+	 * @see #getEndpointId()
+	 */
+	protected static String getEndpointId(TupleExpr expr) {
+		if (!(expr instanceof StatementTupleExpr)) {
+			return null;
+		}
+		List<StatementSource> sources = ((StatementTupleExpr) expr).getStatementSources();
+		return sources.size() == 1 ? sources.get(0).getEndpointID() : null;
+	}
 }
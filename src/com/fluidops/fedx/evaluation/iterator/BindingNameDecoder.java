@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2026 Veritas Technologies LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fluidops.fedx.evaluation.iterator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.eclipse.rdf4j.query.QueryEvaluationException;
+
+import com.fluidops.fedx.util.QueryStringUtil;
+
+
+/**
+ * Decodes the renamed binding names of bound join results into the original
+ * variable name and the index of the input binding, e.g. "name_3" refers to the
+ * variable "name" of the binding at index 3. For independent join groups the
+ * names additionally encode the index of the member, e.g. "name_1_3" (see
+ * {@link QueryStringUtil}).
+ * 
+ * <p>
+ * A decoder is created per request: each distinct binding name is decoded once
+ * and memorized, such that subsequent result rows are resolved by a single hash
+ * lookup without any string operations. The decoded variable names are shared
+ * instances, which keeps name comparisons in {@link com.fluidops.fedx.structures.ArrayBindingSet}
+ * cheap.
+ * </p>
+ * 
+ * <p>
+ * Note that this class is not thread safe.
+ * </p>
+ * 
+ * @author agent
+ */
+public class BindingNameDecoder {
+
+	protected final boolean hasMemberIndex;
+	protected final HashMap<String, DecodedName> decoded = new HashMap<>();
+	protected final List<String> varNames = new ArrayList<>(4);
+
+	/**
+	 * 
+	 * @param hasMemberIndex whether the binding names encode the member index of
+	 *                       an independent join group
+	 */
+	public BindingNameDecoder(boolean hasMemberIndex) {
+		this.hasMemberIndex = hasMemberIndex;
+	}
+
+	/**
+	 * 
+	 * @param bindingName
+	 * @return the decoded name
+	 * @throws QueryEvaluationException if the binding name is not of the expected
+	 *                                  form
+	 */
+	public DecodedName decode(String bindingName) throws QueryEvaluationException {
+		DecodedName res = decoded.get(bindingName);
+		if (res == null) {
+			res = doDecode(bindingName);
+			decoded.put(bindingName, res);
+		}
+		return res;
+	}
+
+	protected DecodedName doDecode(String bindingName) throws QueryEvaluationException {
+		int sep = bindingName.lastIndexOf('_');
+		if (sep <= 0)
+			throw new QueryEvaluationException("Unexpected pattern for binding name: " + bindingName);
+		int index = parseIndex(bindingName, sep + 1, bindingName.length());
+		int memberIndex = -1;
+		if (hasMemberIndex) {
+			int memberSep = bindingName.lastIndexOf('_', sep - 1);
+			if (memberSep <= 0)
+				throw new QueryEvaluationException("Unexpected pattern for binding name: " + bindingName);
+			memberIndex = parseIndex(bindingName, memberSep + 1, sep);
+			sep = memberSep;
+		}
+		return new DecodedName(varName(bindingName, sep), index, memberIndex);
+	}
+
+	/**
+	 * 
+	 * @param bindingName
+	 * @param end
+	 * @return the shared instance of the prefix of the given length
+	 */
+	protected String varName(String bindingName, int end) {
+		for (String varName : varNames) {
+			if (varName.length() == end && bindingName.startsWith(varName))
+				return varName;
+		}
+		String varName = bindingName.substring(0, end);
+		varNames.add(varName);
+		return varName;
+	}
+
+	/**
+	 * Parse the non-negative decimal number in the given range of the char
+	 * sequence without creating intermediate strings.
+	 * 
+	 * @param s
+	 * @param start
+	 * @param end
+	 * @return the parsed number
+	 * @throws QueryEvaluationException if the range is empty or contains
+	 *                                  characters other than digits
+	 */
+	public static int parseIndex(CharSequence s, int start, int end) throws QueryEvaluationException {
+		if (start >= end || end - start > 9)
+			throw new QueryEvaluationException("Unexpected index: " + s);
+		int res = 0;
+		for (int i = start; i < end; i++) {
+			char c = s.charAt(i);
+			if (c < '0' || c > '9')
+				throw new QueryEvaluationException("Unexpected index: " + s);
+			res = 10 * res + (c - '0');
+		}
+		return res;
+	}
+
+	/**
+	 * A decoded binding name.
+	 */
+	public static class DecodedName {
+		/**
+		 * the original variable name
+		 */
+		public final String varName;
+		/**
+		 * the index of the input binding
+		 */
+		public final int index;
+		/**
+		 * the index of the join group member, -1 if not encoded
+		 */
+		public final int memberIndex;
+
+		public DecodedName(String varName, int index, int memberIndex) {
+			this.varName = varName;
+			this.index = index;
+			this.memberIndex = memberIndex;
+		}
+
+		@Override
+		public String toString() {
+			return varName + "_" + (memberIndex >= 0 ? memberIndex + "_" : "") + index;
+		}
+	}
+}
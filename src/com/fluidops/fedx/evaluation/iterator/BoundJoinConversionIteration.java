@@ -15,7 +15,6 @@
  */
 package com.fluidops.fedx.evaluation.iterator;
 
-import java.util.Iterator;
 import java.util.List;
 
 import org.eclipse.rdf4j.common.iteration.CloseableIteration;
@@ -23,16 +22,24 @@ import org.eclipse.rdf4j.common.iteration.ConvertingIteration;
 import org.eclipse.rdf4j.query.Binding;
 import org.eclipse.rdf4j.query.BindingSet;
 import org.eclipse.rdf4j.query.QueryEvaluationException;
-import org.eclipse.rdf4j.query.algebra.evaluation.QueryBindingSet;
+
+import com.fluidops.fedx.evaluation.iterator.BindingNameDecoder.DecodedName;
+import com.fluidops.fedx.structures.ArrayBindingSet;
 
 /**
  * Inserts original bindings into the result.
  * 
+ * <p>
+ * The renamed binding names (e.g. "name_3") are resolved with a
+ * {@link BindingNameDecoder}, i.e. without string operations per result row.
+ * </p>
+ * 
  * @author Andreas Schwarte
  */
 public class BoundJoinConversionIteration extends ConvertingIteration<BindingSet, BindingSet, QueryEvaluationException>{
 
 	protected final List<BindingSet> bindings;
+	protected final BindingNameDecoder decoder = new BindingNameDecoder(false);
 	
 	public BoundJoinConversionIteration(CloseableIteration<BindingSet, QueryEvaluationException> iter, List<BindingSet> bindings) {
 		super(iter);
@@ -41,16 +48,16 @@ public class BoundJoinConversionIteration extends ConvertingIteration<BindingSet
 
 	@Override
 	protected BindingSet convert(BindingSet bIn) throws QueryEvaluationException {
-		QueryBindingSet res = new QueryBindingSet();
+		ArrayBindingSet res = new ArrayBindingSet(bIn.size() + bindings.get(0).size());
 		int bIndex = -1;
-		Iterator<Binding> bIter = bIn.iterator();
-		while (bIter.hasNext()) {
-			Binding b = bIter.next();
-			String name = b.getName();
-			bIndex = Integer.parseInt(name.substring(name.lastIndexOf("_")+1));
-			res.addBinding(name.substring(0, name.lastIndexOf("_")), b.getValue());
+		for (Binding b : bIn) {
+			DecodedName name = decoder.decode(b.getName());
+			bIndex = name.index;
+			res.addBinding(name.varName, b.getValue());
 		}
-		res.addAll( bindings.get(bIndex));
+		// the original bindings take precedence
+		for (Binding b : bindings.get(bIndex))
+			res.setBinding(b.getName(), b.getValue());
 		return res;
 	}
 }
@@ -15,7 +15,6 @@
  */
 package com.fluidops.fedx.evaluation.iterator;
 
-import java.util.Iterator;
 import java.util.List;
 
 import org.eclipse.rdf4j.common.iteration.CloseableIteration;
@@ -23,9 +22,9 @@ import org.eclipse.rdf4j.common.iteration.ConvertingIteration;
 import org.eclipse.rdf4j.query.Binding;
 import org.eclipse.rdf4j.query.BindingSet;
 import org.eclipse.rdf4j.query.QueryEvaluationException;
-import org.eclipse.rdf4j.query.algebra.evaluation.QueryBindingSet;
 
 import com.fluidops.fedx.evaluation.SparqlFederationEvalStrategyWithValues;
+import com.fluidops.fedx.structures.ArrayBindingSet;
 import com.fluidops.fedx.util.QueryStringUtil;
 
 /**
@@ -55,17 +54,20 @@ public class BoundJoinVALUESConversionIteration extends ConvertingIteration<Bind
 
 	@Override
 	protected BindingSet convert(BindingSet bIn) throws QueryEvaluationException {
-		QueryBindingSet res = new QueryBindingSet();
-		int bIndex = Integer.parseInt(bIn.getBinding(INDEX_BINDING_NAME).getValue().stringValue());
-		Iterator<Binding> bIter = bIn.iterator();
-		while (bIter.hasNext()) {
-			Binding b = bIter.next();
-			if (b.getName().equals(INDEX_BINDING_NAME))
+		int bIndex = -1;
+		ArrayBindingSet res = new ArrayBindingSet(bIn.size() + bindings.get(0).size());
+		for (Binding b : bIn) {
+			if (b.getName().equals(INDEX_BINDING_NAME)) {
+				String index = b.getValue().stringValue();
+				bIndex = BindingNameDecoder.parseIndex(index, 0, index.length());
 				continue;
-			res.addBinding(b);
+			}
+			res.addBinding(b.getName(), b.getValue());
 		}
+		if (bIndex < 0)
+			throw new QueryEvaluationException("Missing binding for " + INDEX_BINDING_NAME + ": " + bIn);
 		for (Binding bs : bindings.get(bIndex))
-			res.setBinding(bs);
+			res.setBinding(bs.getName(), bs.getValue());
 		return res;
 	}
 }
@@ -15,7 +15,6 @@
  */
 package com.fluidops.fedx.evaluation.iterator;
 
-import java.util.List;
 import java.util.NoSuchElementException;
 
 import org.eclipse.rdf4j.common.iteration.CloseableIteration;
@@ -23,7 +22,8 @@ import org.eclipse.rdf4j.common.iteration.Iterations;
 import org.eclipse.rdf4j.query.BindingSet;
 import org.eclipse.rdf4j.query.QueryEvaluationException;
 
-import com.google.common.collect.Lists;
+import com.fluidops.fedx.structures.BindingSetBuffer;
+import com.fluidops.fedx.structures.QueryInfo;
 
 
 /**
@@ -35,6 +35,9 @@ import com.google.common.collect.Lists;
  * This implementation can be used to avoid blocking behavior in HTTP connection
  * streams, i.e. to process results in memory and close the underlying HTTP stream.
  * 
+ * The consumed items are accounted against the memory budget of the query (if
+ * provided), and spilled to disk once it is exceeded (see {@link BindingSetBuffer}).
+ * 
  * @author Andreas Schwarte
  *
  */
@@ -48,24 +51,35 @@ public class ConsumingIteration implements CloseableIteration<BindingSet, QueryE
 	private static final int max = 1000;	// TODO make configurable
 	
 	
-	private final List<BindingSet> consumed = Lists.newArrayList();
+	private final CloseableIteration<BindingSet, QueryEvaluationException> consumed;
 	
 	private final CloseableIteration<BindingSet, QueryEvaluationException> innerIter;
 
 	
+	public ConsumingIteration(CloseableIteration<BindingSet, QueryEvaluationException> iter) throws QueryEvaluationException {
+		this(iter, null);
+	}
+	
 	/**
-	 * The index of the next element that will be returned by a call to {@link #next()}.
+	 * 
+	 * @param iter
+	 * @param queryInfo the query to account the consumed items for, may be <code>null</code>
+	 * @throws QueryEvaluationException
 	 */
-	private int currentIndex = 0;
-	
-	
-	public ConsumingIteration(CloseableIteration<BindingSet, QueryEvaluationException> iter) throws QueryEvaluationException {
+	public ConsumingIteration(CloseableIteration<BindingSet, QueryEvaluationException> iter, QueryInfo queryInfo) throws QueryEvaluationException {
 		
 		innerIter = iter;
-				
-		while (consumed.size() < max && iter.hasNext()) {
-			consumed.add(iter.next());
+		BindingSetBuffer buffer = new BindingSetBuffer(queryInfo);
+		
+		try {
+			while (buffer.size() < max && iter.hasNext()) {
+				buffer.add(iter.next());
+			}
+		} catch (RuntimeException e) {
+			buffer.close();
+			throw e;
 		}
+		consumed = buffer.drain();
 		
 		if (!iter.hasNext()) {
 			iter.close();
@@ -74,17 +88,15 @@ public class ConsumingIteration implements CloseableIteration<BindingSet, QueryE
 	
 	@Override
 	public boolean hasNext() throws QueryEvaluationException {
-		return currentIndex < consumed.size() || innerIter.hasNext();
+		return consumed.hasNext() || innerIter.hasNext();
 	}
 
 	@Override
 	public BindingSet next() throws QueryEvaluationException {
 		if (hasNext()) {
 			// try to read from the consumed items
-			if (currentIndex < consumed.size()) {
-				BindingSet result = consumed.get(currentIndex);
-				currentIndex++;
-				return result;
+			if (consumed.hasNext()) {
+				return consumed.next();
 			}
 			return innerIter.next();
 		}
@@ -100,7 +112,11 @@ public class ConsumingIteration implements CloseableIteration<BindingSet, QueryE
 
 	@Override
 	public void close() throws QueryEvaluationException {
-		Iterations.closeCloseable(innerIter);
+		try {
+			consumed.close();
+		} finally {
+			Iterations.closeCloseable(innerIter);
+		}
 	}
 
 }
@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2026 Veritas Technologies LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fluidops.fedx.evaluation.iterator;
+
+import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.common.iteration.FilterIteration;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.query.QueryEvaluationException;
+
+import com.fluidops.fedx.structures.FingerprintSet;
+
+/**
+ * Filters duplicate statements of the underlying iteration. Only the
+ * fingerprints of the statements are remembered (see {@link FingerprintSet}).
+ * 
+ * @author agent
+ */
+public class DistinctStatementIteration extends FilterIteration<Statement, QueryEvaluationException> {
+
+	protected final FingerprintSet fingerprints = new FingerprintSet();
+
+	public DistinctStatementIteration(CloseableIteration<? extends Statement, ? extends QueryEvaluationException> iter) {
+		super(iter);
+	}
+
+	@Override
+	protected boolean accept(Statement st) throws QueryEvaluationException {
+		return fingerprints.add(st);
+	}
+}
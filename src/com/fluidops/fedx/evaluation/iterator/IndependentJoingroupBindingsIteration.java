@@ -34,12 +34,14 @@ public class IndependentJoingroupBindingsIteration extends LookAheadIteration<Bi
 
 	protected final BindingSet bindings;
 	protected final CloseableIteration<BindingSet, QueryEvaluationException> iter;
+	protected final int memberCount;
 	protected ArrayList<BindingSet> result = null;
 	protected int currentIdx = 0;
 	
-	public IndependentJoingroupBindingsIteration(CloseableIteration<BindingSet, QueryEvaluationException> iter, BindingSet bindings) {
+	public IndependentJoingroupBindingsIteration(CloseableIteration<BindingSet, QueryEvaluationException> iter, BindingSet bindings, int memberCount) {
 		this.bindings = bindings;
 		this.iter = iter;
+		this.memberCount = memberCount;
 	}
 
 	@Override
@@ -58,8 +60,10 @@ public class IndependentJoingroupBindingsIteration extends LookAheadIteration<Bi
 	
 	protected ArrayList<BindingSet> computeResult() throws QueryEvaluationException {
 		
-		List<Binding> a_res = new ArrayList<Binding>();
-		List<Binding> b_res = new ArrayList<Binding>();
+		// memberResults[i] = results of the i-th member
+		List<List<Binding>> memberResults = new ArrayList<List<Binding>>(memberCount);
+		for (int i=0; i<memberCount; i++)
+			memberResults.add(new ArrayList<Binding>());
 		
 		// collect results XXX later asynchronously
 		// assumes that bindingset of iteration has exactly one binding
@@ -70,27 +74,30 @@ public class IndependentJoingroupBindingsIteration extends LookAheadIteration<Bi
 			if (bIn.size()!=1)
 				throw new RuntimeException("For this optimization a bindingset needs to have exactly one binding, it has " + bIn.size() + ": " + bIn);
 
-			Binding b = bIn.getBinding( bIn.getBindingNames().iterator().next() );
+			Binding b = bIn.iterator().next();
 			int bIndex = Integer.parseInt(b.getName().substring(b.getName().lastIndexOf("_")+1));
 			
-			if (bIndex==0)
-				a_res.add(b);
-			else if (bIndex==1)
-				b_res.add(b);
-			else
+			if (bIndex<0 || bIndex>=memberCount)
 				throw new RuntimeException("Unexpected binding value.");
+			memberResults.get(bIndex).add(b);
 		}
 		
-		ArrayList<BindingSet> res = new ArrayList<BindingSet>(a_res.size() * b_res.size());
+		// cross product of the results of all members
+		ArrayList<BindingSet> res = new ArrayList<BindingSet>(1);
+		QueryBindingSet first = new QueryBindingSet(bindings.size() + memberCount);
+		first.addAll(bindings);
+		res.add(first);
 		
-		for (Binding a : a_res) {
-			for (Binding b : b_res) {
-				QueryBindingSet newB = new QueryBindingSet(bindings.size() + 2);
-				newB.addAll(bindings);
-				newB.addBinding(a.getName().substring(0, a.getName().lastIndexOf("_")), a.getValue());
-				newB.addBinding(b.getName().substring(0, b.getName().lastIndexOf("_")), b.getValue());
-				res.add(newB);
+		for (List<Binding> mList : memberResults) {
+			ArrayList<BindingSet> next = new ArrayList<BindingSet>(res.size() * mList.size());
+			for (BindingSet p : res) {
+				for (Binding b : mList) {
+					QueryBindingSet newB = new QueryBindingSet(p);
+					newB.addBinding(b.getName().substring(0, b.getName().lastIndexOf("_")), b.getValue());
+					next.add(newB);
+				}
 			}
+			res = next;
 		}
 		
 		return res;
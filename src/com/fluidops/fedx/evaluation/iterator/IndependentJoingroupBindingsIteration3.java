@@ -18,8 +18,6 @@ package com.fluidops.fedx.evaluation.iterator;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.eclipse.rdf4j.common.iteration.CloseableIteration;
 import org.eclipse.rdf4j.common.iteration.LookAheadIteration;
@@ -27,7 +25,9 @@ import org.eclipse.rdf4j.model.Value;
 import org.eclipse.rdf4j.query.Binding;
 import org.eclipse.rdf4j.query.BindingSet;
 import org.eclipse.rdf4j.query.QueryEvaluationException;
-import org.eclipse.rdf4j.query.algebra.evaluation.QueryBindingSet;
+
+import com.fluidops.fedx.evaluation.iterator.BindingNameDecoder.DecodedName;
+import com.fluidops.fedx.structures.ArrayBindingSet;
 
 /**
  * Inserts original bindings into the result.
@@ -36,17 +36,19 @@ import org.eclipse.rdf4j.query.algebra.evaluation.QueryBindingSet;
  */
 public class IndependentJoingroupBindingsIteration3 extends LookAheadIteration<BindingSet, QueryEvaluationException>{
 
-	// a pattern matcher for the binding resolver, pattern: myVar_%outerID%#bindingId, e.g. name_0#0
-	protected static final Pattern pattern = Pattern.compile("(.*)_(.*)_(.*)");	
+	// resolves binding names of the pattern myVar_%outerID%_bindingId, e.g. name_0_0
+	protected final BindingNameDecoder decoder = new BindingNameDecoder(true);
 	
 	protected final List<BindingSet> bindings;
 	protected final CloseableIteration<BindingSet, QueryEvaluationException> iter;
+	protected final int memberCount;
 	protected ArrayList<BindingSet> result = null;
 	protected int currentIdx = 0;
 	
-	public IndependentJoingroupBindingsIteration3(CloseableIteration<BindingSet, QueryEvaluationException> iter, List<BindingSet> bindings) {
+	public IndependentJoingroupBindingsIteration3(CloseableIteration<BindingSet, QueryEvaluationException> iter, List<BindingSet> bindings, int memberCount) {
 		this.bindings = bindings;
 		this.iter = iter;
+		this.memberCount = memberCount;
 	}
 
 	@Override
@@ -65,17 +67,20 @@ public class IndependentJoingroupBindingsIteration3 extends LookAheadIteration<B
 	
 	protected ArrayList<BindingSet> computeResult() throws QueryEvaluationException {
 		
-		// underlying arraylist serves as map, index corresponds to bindings index (i.e. at most bindings.size() - 1)
-		// a_res[0] = { v_0#0-1; v_0#0-2; ... }
-		// a_res[1] = { v_0#1-1; v_0#1-2; ... }
-		ArrayList<LinkedList<BindingInfo>> a_res = new ArrayList<LinkedList<BindingInfo>>(bindings.size());
-		ArrayList<LinkedList<BindingInfo>> b_res = new ArrayList<LinkedList<BindingInfo>>(bindings.size());
+		// underlying arraylists serve as map, first index corresponds to the member, second
+		// index to the bindings index (i.e. at most bindings.size() - 1)
+		// memberResults[0][0] = { v_0#0-1; v_0#0-2; ... }
+		// memberResults[0][1] = { v_0#1-1; v_0#1-2; ... }
+		// memberResults[1][0] = { v_1#0-1; v_1#0-2; ... }
+		ArrayList<ArrayList<LinkedList<BindingInfo>>> memberResults = new ArrayList<ArrayList<LinkedList<BindingInfo>>>(memberCount);
 		
 		// we assume that each binding returns at least one result for each statement
 		// => create lists in advance to avoid checking later on
-		for (int i=0; i<bindings.size(); i++) {
-			a_res.add(new LinkedList<BindingInfo>());
-			b_res.add(new LinkedList<BindingInfo>());
+		for (int m=0; m<memberCount; m++) {
+			ArrayList<LinkedList<BindingInfo>> mRes = new ArrayList<LinkedList<BindingInfo>>(bindings.size());
+			for (int i=0; i<bindings.size(); i++) 
+				mRes.add(new LinkedList<BindingInfo>());
+			memberResults.add(mRes);
 		}
 		
 		// assumes that bindingset of iteration has exactly one binding
@@ -86,48 +91,40 @@ public class IndependentJoingroupBindingsIteration3 extends LookAheadIteration<B
 			if (bIn.size()!=1)
 				throw new RuntimeException("For this optimization a bindingset needs to have exactly one binding, it has " + bIn.size() + ": " + bIn);
 
-			Binding b = bIn.getBinding( bIn.getBindingNames().iterator().next() );
+			Binding b = bIn.iterator().next();
 			
 			// name is something like myVar_%outerID%_bindingId, e.g. name_0_0
-			Matcher m = pattern.matcher(b.getName());
-			if (!m.find())
-				throw new QueryEvaluationException("Unexpected pattern for binding name: " + b.getName());
-			
-			BindingInfo bInfo = new BindingInfo(m.group(1), Integer.parseInt(m.group(3)), b.getValue());
-			int bIndex = Integer.parseInt(m.group(2));
+			DecodedName name = decoder.decode(b.getName());
 			
-//			int tmp = b.getName().indexOf("_");
-//			String pattern = b.getName().substring(tmp+1);
-//			String split[] = pattern.split("_");
-//			
-//			int bIndex = Integer.parseInt(split[0]);
-//			int bindingsIdx = Integer.parseInt(split[1]);
-//			BindingInfo bInfo = new BindingInfo(b.getName().substring(0, tmp), bindingsIdx, b.getValue());
+			BindingInfo bInfo = new BindingInfo(name.varName, name.index, b.getValue());
+			int bIndex = name.memberIndex;
 			
 			// add a new binding info to the correct result list
-			if (bIndex==0) {
-				a_res.get(bInfo.bindingsIdx).add(bInfo);
-			}
-			else if (bIndex==1)
-				b_res.get(bInfo.bindingsIdx).add(bInfo);
-			else
+			if (bIndex<0 || bIndex>=memberCount)
 				throw new RuntimeException("Unexpected binding value.");
+			memberResults.get(bIndex).get(bInfo.bindingsIdx).add(bInfo);
 		}
 		
 		// TODO think about a better upper bound or use linked list
 		ArrayList<BindingSet> res = new ArrayList<BindingSet>(2*bindings.size());
 		
-		for (int a_idx=0; a_idx<a_res.size(); a_idx++) {
-			LinkedList<BindingInfo> a_list = a_res.get(a_idx);			
-			for (BindingInfo a : a_list) {
-				for (BindingInfo b : b_res.get(a_idx)) {
-					QueryBindingSet newB = new QueryBindingSet(bindings.size() + 2);
-					newB.addBinding(a.name, a.value);
-					newB.addBinding(b.name, b.value);
-					newB.addAll(bindings.get(a.bindingsIdx));
-					res.add(newB);
+		// for each binding: cross product of the results of all members
+		for (int bIdx=0; bIdx<bindings.size(); bIdx++) {
+			List<ArrayBindingSet> partial = new ArrayList<ArrayBindingSet>(1);
+			partial.add(new ArrayBindingSet(bindings.get(bIdx), memberCount));
+			for (int mIdx=0; mIdx<memberCount && !partial.isEmpty(); mIdx++) {
+				LinkedList<BindingInfo> mList = memberResults.get(mIdx).get(bIdx);
+				List<ArrayBindingSet> next = new ArrayList<ArrayBindingSet>(partial.size() * mList.size());
+				for (ArrayBindingSet p : partial) {
+					for (BindingInfo bInfo : mList) {
+						ArrayBindingSet newB = new ArrayBindingSet(p, 0);
+						newB.setBinding(bInfo.name, bInfo.value);
+						next.add(newB);
+					}
 				}
+				partial = next;
 			}
+			res.addAll(partial);
 		}
 				
 		return res;
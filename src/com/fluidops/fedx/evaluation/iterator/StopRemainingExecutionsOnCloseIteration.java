@@ -33,6 +33,12 @@ import com.fluidops.fedx.structures.QueryInfo;
  * consumed.
  * </p>
  * 
+ * <p>
+ * If the query has a result limit (see {@link QueryInfo#getResultLimit()}), the
+ * iteration is closed as soon as the last requested result is returned, i.e.
+ * before the consumer closes it.
+ * </p>
+ * 
  * @author Andreas Schwarte
  * @see QueryInfo#close()
  * @see ParallelTask#cancel()
@@ -43,6 +49,7 @@ public class StopRemainingExecutionsOnCloseIteration
 
 	protected final CloseableIteration<? extends BindingSet, QueryEvaluationException> inner;
 	protected final QueryInfo queryInfo;
+	protected long count = 0;
 
 	public StopRemainingExecutionsOnCloseIteration(
 			CloseableIteration<? extends BindingSet, QueryEvaluationException> inner, QueryInfo queryInfo) {
@@ -53,12 +60,21 @@ public class StopRemainingExecutionsOnCloseIteration
 
 	@Override
 	public boolean hasNext() throws QueryEvaluationException {
+		if (isClosed()) {
+			return false;
+		}
 		return inner.hasNext();
 	}
 
 	@Override
 	public BindingSet next() throws QueryEvaluationException {
-		return inner.next();
+		BindingSet next = inner.next();
+		if (++count == queryInfo.getResultLimit()) {
+			// the demand of the consumer is satisfied: closing the inner iteration
+			// also closes the streamed results of running executions
+			close();
+		}
+		return next;
 	}
 
 	@Override
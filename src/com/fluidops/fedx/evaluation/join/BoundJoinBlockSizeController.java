@@ -0,0 +1,419 @@
+/*
+ * Copyright (C) 2026 Veritas Technologies LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fluidops.fedx.evaluation.join;
+
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.http.HttpStatus;
+import org.eclipse.rdf4j.common.iteration.AbstractCloseableIteration;
+import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.common.iteration.UnionIteration;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.QueryEvaluationException;
+import org.eclipse.rdf4j.query.algebra.StatementPattern;
+import org.eclipse.rdf4j.query.algebra.TupleExpr;
+import org.eclipse.rdf4j.query.algebra.Var;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fluidops.fedx.Config;
+import com.fluidops.fedx.algebra.CheckStatementPattern;
+import com.fluidops.fedx.algebra.ExclusiveGroup;
+import com.fluidops.fedx.algebra.StatementSource;
+import com.fluidops.fedx.algebra.StatementTupleExpr;
+import com.fluidops.fedx.exception.HttpStatusException;
+
+
+/**
+ * Adaptive controller for the block size of bound joins, i.e. the number of
+ * bindings that are sent to an endpoint with a single request.
+ *
+ * <p>
+ * The block size is maintained per endpoint and per pattern (see
+ * {@link #getPatternKey(StatementTupleExpr)}), starting from
+ * {@link Config#getBoundJoinBlockSize()}. It is tuned from the feedback of the
+ * evaluated blocks:
+ * </p>
+ *
+ * <ul>
+ * <li>fast responses of a full block with a moderate number of results increase
+ * the block size (up to {@link Config#getBoundJoinMaxBlockSize()})</li>
+ * <li>slow responses or very large results decrease the block size</li>
+ * <li>timeouts halve the block size, requests rejected as too long (e.g. HTTP
+ * 414) additionally limit the block size for the endpoint and pattern. A
+ * rejected block is retried as two blocks of half the size.</li>
+ * </ul>
+ *
+ * <p>
+ * The controller is only active if
+ * {@link Config#isEnableAdaptiveBoundJoinBlockSize()} is set, otherwise the
+ * configured block size is used. The current block sizes are exposed via
+ * {@link #getBlockSizes()}.
+ * </p>
+ *
+ * @author agent
+ * @see ControlledWorkerBoundJoin
+ * @see SynchronousBoundJoin
+ */
+public class BoundJoinBlockSizeController {
+
+	private static final Logger log = LoggerFactory.getLogger(BoundJoinBlockSizeController.class);
+
+	/**
+	 * The minimum block size
+	 */
+	public static final int MIN_BLOCK_SIZE = 1;
+
+	/**
+	 * The number of results of a block, starting from which the block size is
+	 * decreased
+	 */
+	public static final int MAX_RESULTS_PER_BLOCK = 10000;
+
+	protected final ConcurrentMap<String, BlockSize> blockSizes = new ConcurrentHashMap<>();
+
+	/**
+	 * Callback to evaluate a block of bindings
+	 */
+	public interface BlockEvaluation {
+		public CloseableIteration<BindingSet, QueryEvaluationException> evaluate(List<BindingSet> bindings)
+				throws Exception;
+	}
+
+	/**
+	 *
+	 * @param expr the right argument of the bound join
+	 * @return the block size to be used for the given expression, i.e. the minimum
+	 *         of the block sizes of the relevant endpoints
+	 */
+	public int getBlockSize(TupleExpr expr) {
+		Config config = Config.getConfig();
+		if (!config.isEnableAdaptiveBoundJoinBlockSize() || !(expr instanceof StatementTupleExpr))
+			return config.getBoundJoinBlockSize();
+		StatementTupleExpr stmt = (StatementTupleExpr) expr;
+		String patternKey = getPatternKey(stmt);
+		int res = Integer.MAX_VALUE;
+		for (StatementSource source : stmt.getStatementSources())
+			res = Math.min(res, getBlockSize(source.getEndpointID(), patternKey));
+		return res == Integer.MAX_VALUE ? config.getBoundJoinBlockSize() : res;
+	}
+
+	/**
+	 *
+	 * @param endpointId
+	 * @param patternKey
+	 * @return the current block size for the given endpoint and pattern
+	 */
+	public int getBlockSize(String endpointId, String patternKey) {
+		BlockSize b = blockSizes.get(key(endpointId, patternKey));
+		return b == null ? initialBlockSize() : b.size;
+	}
+
+	/**
+	 * Evaluate a block of bindings for the given expression using the provided
+	 * evaluation and feed the response time, the number of results and failures
+	 * back to the controller. If the controller is not active, the evaluation is
+	 * invoked as is.
+	 *
+	 * @param expr       the right argument of the bound join
+	 * @param bindings   the block of bindings
+	 * @param evaluation the evaluation of a block
+	 * @return the result iteration
+	 * @throws Exception
+	 */
+	public CloseableIteration<BindingSet, QueryEvaluationException> evaluate(TupleExpr expr,
+			List<BindingSet> bindings, BlockEvaluation evaluation) throws Exception {
+
+		if (!Config.getConfig().isEnableAdaptiveBoundJoinBlockSize() || !(expr instanceof StatementTupleExpr))
+			return evaluation.evaluate(bindings);
+
+		StatementTupleExpr stmt = (StatementTupleExpr) expr;
+		List<String> endpointIds = new ArrayList<>(stmt.getStatementSources().size());
+		for (StatementSource source : stmt.getStatementSources())
+			endpointIds.add(source.getEndpointID());
+		return evaluate(endpointIds, getPatternKey(stmt), bindings, evaluation);
+	}
+
+	protected CloseableIteration<BindingSet, QueryEvaluationException> evaluate(List<String> endpointIds,
+			String patternKey, List<BindingSet> bindings, BlockEvaluation evaluation) throws Exception {
+
+		long start = System.currentTimeMillis();
+		CloseableIteration<BindingSet, QueryEvaluationException> res;
+		try {
+			res = evaluation.evaluate(bindings);
+		} catch (Exception e) {
+			FailureType type = getFailureType(e);
+			for (String endpointId : endpointIds)
+				onFailure(endpointId, patternKey, bindings.size(), type);
+			if (type == FailureType.REQUEST_TOO_LONG && bindings.size() > MIN_BLOCK_SIZE) {
+				// retry with two blocks of half the size
+				int half = bindings.size() / 2;
+				log.debug("Request for bound join rejected, retrying with block size " + half + ": " + e.getMessage());
+				List<CloseableIteration<BindingSet, QueryEvaluationException>> blocks = new ArrayList<>(2);
+				blocks.add(evaluate(endpointIds, patternKey, bindings.subList(0, half), evaluation));
+				try {
+					blocks.add(evaluate(endpointIds, patternKey, bindings.subList(half, bindings.size()), evaluation));
+				} catch (Exception e2) {
+					blocks.get(0).close();
+					throw e2;
+				}
+				return new UnionIteration<BindingSet, QueryEvaluationException>(blocks);
+			}
+			throw e;
+		}
+		return new FeedbackIteration(res, endpointIds, patternKey, bindings.size(), start);
+	}
+
+	/**
+	 * Adjust the block size after a block has been evaluated successfully.
+	 *
+	 * @param endpointId
+	 * @param patternKey
+	 * @param blockSize    the size of the evaluated block
+	 * @param responseTime the time until the first result (or the end of the
+	 *                     results) in milliseconds
+	 * @param results      the number of results
+	 */
+	public void onSuccess(String endpointId, String patternKey, int blockSize, long responseTime, int results) {
+		BlockSize b = blockSizes.computeIfAbsent(key(endpointId, patternKey), k -> new BlockSize(initialBlockSize()));
+		long target = Config.getConfig().getBoundJoinTargetResponseTime();
+		synchronized (b) {
+			if (responseTime > target || results >= MAX_RESULTS_PER_BLOCK) {
+				b.size = Math.max(MIN_BLOCK_SIZE, Math.min(b.size, blockSize) * 2 / 3);
+			} else if (responseTime <= target / 2 && blockSize >= b.size) {
+				// increase only if a full block is answered fast
+				b.size = Math.min(b.limit, b.size + Math.max(1, b.size / 2));
+			}
+		}
+	}
+
+	/**
+	 * Adjust the block size after the evaluation of a block has failed.
+	 *
+	 * @param endpointId
+	 * @param patternKey
+	 * @param blockSize  the size of the failed block
+	 * @param type       the type of the failure
+	 */
+	public void onFailure(String endpointId, String patternKey, int blockSize, FailureType type) {
+		if (type == FailureType.OTHER)
+			return;
+		BlockSize b = blockSizes.computeIfAbsent(key(endpointId, patternKey), k -> new BlockSize(initialBlockSize()));
+		synchronized (b) {
+			int reduced = Math.max(MIN_BLOCK_SIZE, Math.min(b.size, blockSize) / 2);
+			if (type == FailureType.REQUEST_TOO_LONG)
+				b.limit = Math.min(b.limit, Math.max(MIN_BLOCK_SIZE, blockSize - 1));
+			b.size = Math.min(reduced, b.limit);
+		}
+		log.debug("Block size for " + endpointId + " and pattern " + patternKey + " reduced to " + b.size + " ("
+				+ type + ")");
+	}
+
+	/**
+	 *
+	 * @return the current block sizes, i.e. a mapping from "endpointId pattern" to
+	 *         the block size
+	 */
+	public Map<String, Integer> getBlockSizes() {
+		Map<String, Integer> res = new TreeMap<>();
+		for (Map.Entry<String, BlockSize> e : blockSizes.entrySet())
+			res.put(e.getKey(), e.getValue().size);
+		return res;
+	}
+
+	/**
+	 * Remove the block sizes of the given endpoint
+	 *
+	 * @param endpointId
+	 */
+	public void remove(String endpointId) {
+		blockSizes.keySet().removeIf(k -> k.startsWith(endpointId + " "));
+	}
+
+	/**
+	 * Reset all block sizes
+	 */
+	public void reset() {
+		blockSizes.clear();
+	}
+
+	/**
+	 *
+	 * @param stmt
+	 * @return a key identifying the shape of the given expression, i.e. the
+	 *         predicates of its statements
+	 */
+	public static String getPatternKey(StatementTupleExpr stmt) {
+		if (stmt instanceof ExclusiveGroup) {
+			StringBuilder sb = new StringBuilder("{");
+			for (StatementPattern s : ((ExclusiveGroup) stmt).getStatements()) {
+				if (sb.length() > 1)
+					sb.append(" . ");
+				sb.append(getPredicateKey(s));
+			}
+			return sb.append("}").toString();
+		}
+		if (stmt instanceof CheckStatementPattern)
+			return "ASK " + getPredicateKey(((CheckStatementPattern) stmt).getStatementPattern());
+		if (stmt instanceof StatementPattern)
+			return getPredicateKey((StatementPattern) stmt);
+		return stmt.getClass().getSimpleName();
+	}
+
+	protected static String getPredicateKey(StatementPattern stmt) {
+		Var p = stmt.getPredicateVar();
+		return p.hasValue() ? "<" + p.getValue().stringValue() + ">" : "?";
+	}
+
+	/**
+	 *
+	 * @param e
+	 * @return the {@link FailureType} of the given exception, determined from its
+	 *         causes
+	 * @see HttpStatusException
+	 */
+	public static FailureType getFailureType(Throwable e) {
+		for (Throwable t = e; t != null; t = t.getCause()) {
+			if (t instanceof SocketTimeoutException || t instanceof TimeoutException)
+				return FailureType.TIMEOUT;
+			if (t instanceof HttpStatusException) {
+				int statusCode = ((HttpStatusException) t).getStatusCode();
+				if (statusCode == HttpStatus.SC_REQUEST_URI_TOO_LONG || statusCode == HttpStatus.SC_REQUEST_TOO_LONG)
+					return FailureType.REQUEST_TOO_LONG;
+			}
+			if (t.getCause() == t)
+				break;
+		}
+		return FailureType.OTHER;
+	}
+
+	protected static int initialBlockSize() {
+		Config config = Config.getConfig();
+		return Math.max(MIN_BLOCK_SIZE,
+				Math.min(config.getBoundJoinBlockSize(), config.getBoundJoinMaxBlockSize()));
+	}
+
+	protected static String key(String endpointId, String patternKey) {
+		return endpointId + " " + patternKey;
+	}
+
+	/**
+	 * Failures relevant for the block size
+	 */
+	public enum FailureType {
+		/**
+		 * the request has been rejected as too long, e.g. HTTP 414
+		 */
+		REQUEST_TOO_LONG,
+		/**
+		 * the request has timed out
+		 */
+		TIMEOUT,
+		/**
+		 * any other failure, the block size is not adjusted
+		 */
+		OTHER;
+	}
+
+	protected static class BlockSize {
+		protected volatile int size;
+		/* upper bound of the block size, reduced if requests are rejected */
+		protected volatile int limit;
+
+		BlockSize(int size) {
+			this.size = size;
+			this.limit = Config.getConfig().getBoundJoinMaxBlockSize();
+		}
+	}
+
+	/**
+	 * Iteration which measures the response time and counts the results of a
+	 * block. The feedback is given once the iteration is exhausted, i.e. blocks
+	 * that are closed early are ignored.
+	 */
+	protected class FeedbackIteration extends AbstractCloseableIteration<BindingSet, QueryEvaluationException> {
+
+		protected final CloseableIteration<BindingSet, QueryEvaluationException> inner;
+		protected final List<String> endpointIds;
+		protected final String patternKey;
+		protected final int blockSize;
+		protected final long start;
+		protected long responseTime = -1;
+		protected int results = 0;
+		protected boolean done = false;
+
+		public FeedbackIteration(CloseableIteration<BindingSet, QueryEvaluationException> inner,
+				List<String> endpointIds, String patternKey, int blockSize, long start) {
+			this.inner = inner;
+			this.endpointIds = endpointIds;
+			this.patternKey = patternKey;
+			this.blockSize = blockSize;
+			this.start = start;
+		}
+
+		@Override
+		public boolean hasNext() throws QueryEvaluationException {
+			boolean hasNext;
+			try {
+				hasNext = inner.hasNext();
+			} catch (QueryEvaluationException e) {
+				if (!done) {
+					done = true;
+					FailureType type = getFailureType(e);
+					for (String endpointId : endpointIds)
+						onFailure(endpointId, patternKey, blockSize, type);
+				}
+				throw e;
+			}
+			if (responseTime < 0)
+				responseTime = System.currentTimeMillis() - start;
+			if (!hasNext && !done) {
+				done = true;
+				for (String endpointId : endpointIds)
+					onSuccess(endpointId, patternKey, blockSize, responseTime, results);
+			}
+			return hasNext;
+		}
+
+		@Override
+		public BindingSet next() throws QueryEvaluationException {
+			BindingSet next = inner.next();
+			results++;
+			return next;
+		}
+
+		@Override
+		public void remove() throws QueryEvaluationException {
+			inner.remove();
+		}
+
+		@Override
+		protected void handleClose() throws QueryEvaluationException {
+			try {
+				inner.close();
+			} finally {
+				super.handleClose();
+			}
+		}
+	}
+}
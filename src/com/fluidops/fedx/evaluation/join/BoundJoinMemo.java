@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2026 Veritas Technologies LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fluidops.fedx.evaluation.join;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.rdf4j.query.BindingSet;
+
+import com.fluidops.fedx.Config;
+import com.fluidops.fedx.structures.QueryInfo;
+
+
+/**
+ * Memo table for bound join results within a single query, see
+ * {@link QueryInfo#getBoundJoinMemo()}.
+ *
+ * <p>
+ * Entries are keyed by the identifier of the right argument and the join key
+ * (i.e. the projection of a left binding to the variables of the right
+ * argument, see {@link DistinctJoinKeys}) and hold the complete results of the
+ * right argument for this join key. Join keys without results are memoized as
+ * well.
+ * </p>
+ *
+ * <p>
+ * The memo is bounded by {@link Config#getBoundJoinMemoMaxSize()}, i.e. the
+ * number of memoized results (an entry without results counts as one). Once the
+ * memo is full, no further entries are added.
+ * </p>
+ *
+ * @author agent
+ * @see ControlledWorkerBoundJoin
+ */
+public class BoundJoinMemo {
+
+	protected final int maxSize;
+
+	protected final ConcurrentMap<Key, List<BindingSet>> entries = new ConcurrentHashMap<>();
+
+	protected final AtomicInteger size = new AtomicInteger(0);
+
+	protected final LongAdder hits = new LongAdder();
+	protected final LongAdder misses = new LongAdder();
+
+	/**
+	 *
+	 * @param maxSize the maximum number of memoized results
+	 */
+	public BoundJoinMemo(int maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 *
+	 * @param exprId the identifier of the right argument
+	 * @param joinKey
+	 * @return the memoized results for the join key, or <code>null</code> if
+	 *         unknown
+	 */
+	public List<BindingSet> get(String exprId, BindingSet joinKey) {
+		List<BindingSet> res = entries.get(new Key(exprId, joinKey));
+		if (res == null)
+			misses.increment();
+		else
+			hits.increment();
+		return res;
+	}
+
+	/**
+	 * Memoize the complete results for the given join key.
+	 *
+	 * @param exprId  the identifier of the right argument
+	 * @param joinKey
+	 * @param results the complete results
+	 * @return false if the memo is full, i.e. the entry has not been added
+	 */
+	public boolean put(String exprId, BindingSet joinKey, List<BindingSet> results) {
+		int weight = Math.max(1, results.size());
+		if (size.addAndGet(weight) > maxSize) {
+			size.addAndGet(-weight);
+			return false;
+		}
+		if (entries.putIfAbsent(new Key(exprId, joinKey), results) != null)
+			size.addAndGet(-weight);
+		return true;
+	}
+
+	/**
+	 *
+	 * @return true if no further entries can be added
+	 */
+	public boolean isFull() {
+		return size.get() >= maxSize;
+	}
+
+	/**
+	 *
+	 * @return the number of memoized results
+	 */
+	public int size() {
+		return size.get();
+	}
+
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	protected static class Key {
+		protected final String exprId;
+		protected final BindingSet joinKey;
+
+		Key(String exprId, BindingSet joinKey) {
+			this.exprId = exprId;
+			this.joinKey = joinKey;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * exprId.hashCode() + joinKey.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof Key))
+				return false;
+			Key other = (Key) obj;
+			return exprId.equals(other.exprId) && joinKey.equals(other.joinKey);
+		}
+	}
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright (C) 2026 Veritas Technologies LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fluidops.fedx.evaluation.join;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.common.iteration.UnionIteration;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.QueryEvaluationException;
+import org.eclipse.rdf4j.query.algebra.TupleExpr;
+import org.eclipse.rdf4j.repository.sparql.federation.CollectionIteration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fluidops.fedx.Config;
+import com.fluidops.fedx.algebra.StatementTupleExpr;
+import com.fluidops.fedx.evaluation.FederationEvalStrategy;
+import com.fluidops.fedx.evaluation.concurrent.ControlledWorkerScheduler;
+import com.fluidops.fedx.evaluation.join.HashJoin.HashTable;
+import com.fluidops.fedx.structures.BindingSetBuffer;
+import com.fluidops.fedx.structures.QueryInfo;
+
+
+/**
+ * A join which decides at runtime between a bind join and a hash join.
+ *
+ * <p>
+ * The join starts as bound join (see {@link ControlledWorkerBoundJoin}). Once
+ * the left argument has produced {@link Config#getAdaptiveJoinThreshold()}
+ * bindings, the right argument is fetched once (i.e. without the left bindings),
+ * while the remaining left bindings are read alternately. Depending on which
+ * operand turns out to be the smaller one, the join continues as follows:
+ * </p>
+ *
+ * <ul>
+ * <li>the right argument is exhausted: the remaining left bindings are probed
+ * against a hash table of the right argument (see {@link HashJoin}), no further
+ * remote requests are sent</li>
+ * <li>the left argument is exhausted or the right argument exceeds
+ * {@link Config#getAdaptiveJoinMaxBuildSize()} or the memory budget of the
+ * query (see {@link Config#getQueryMemoryBudget()}): the fetched right bindings are
+ * discarded and the join switches back to the bound join for the remaining
+ * (including the buffered) left bindings</li>
+ * </ul>
+ *
+ * <p>
+ * Thus the cardinalities observed at runtime decide on the join strategy, and
+ * wrong estimates of the optimizer cost at most one bounded request. The
+ * switch is attempted once per join.
+ * </p>
+ *
+ * @author agent
+ * @see Config#isEnableAdaptiveJoin()
+ */
+public class ControlledWorkerAdaptiveJoin extends ControlledWorkerBoundJoin {
+
+	private static final Logger log = LoggerFactory.getLogger(ControlledWorkerAdaptiveJoin.class);
+
+	protected final int threshold;
+	protected final int maxBuildSize;
+
+	protected boolean switchAttempted = false;
+
+	public ControlledWorkerAdaptiveJoin(ControlledWorkerScheduler<BindingSet> scheduler,
+			FederationEvalStrategy strategy, CloseableIteration<BindingSet, QueryEvaluationException> leftIter,
+			TupleExpr rightArg, BindingSet bindings, QueryInfo queryInfo) throws QueryEvaluationException {
+		super(scheduler, strategy, leftIter, rightArg, bindings, queryInfo);
+		this.threshold = Config.getConfig().getAdaptiveJoinThreshold();
+		this.maxBuildSize = Config.getConfig().getAdaptiveJoinMaxBuildSize();
+	}
+
+	@Override
+	protected boolean handleRemainingBindings(int totalBindings) throws Exception {
+
+		if (switchAttempted || totalBindings < threshold || !canApplyHashJoin(rightArg))
+			return false;
+		switchAttempted = true;
+
+		// read both operands alternately until the smaller one is exhausted
+		BindingSetBuffer leftBuffer = new BindingSetBuffer(queryInfo);
+		try (BindingSetBuffer rightBuffer = new BindingSetBuffer(queryInfo)) {
+			boolean useHashJoin;
+			try (CloseableIteration<BindingSet, QueryEvaluationException> rightIter = strategy.evaluate(rightArg,
+					bindings)) {
+				while (!closed && rightIter.hasNext() && leftIter.hasNext() && rightBuffer.size() < maxBuildSize
+						&& rightBuffer.getSpilledSize() == 0) {
+					leftBuffer.add(leftIter.next());
+					rightBuffer.add(rightIter.next());
+				}
+				if (closed) {
+					leftBuffer.close();
+					return true;
+				}
+				// a right argument exceeding the memory budget is not used as build side
+				useHashJoin = !rightIter.hasNext() && rightBuffer.getSpilledSize() == 0;
+			} catch (RuntimeException e) {
+				leftBuffer.close();
+				throw e;
+			}
+
+			if (useHashJoin) {
+				// the right bindings stay reserved in the buffer until the join is done
+				HashTable hashTable = new HashTable(rightBuffer.iterator(),
+						getJoinVars() != null ? getJoinVars() : Collections.<String>emptySet());
+				int probed = probe(hashTable, leftBuffer.drain());
+				if (log.isDebugEnabled()) {
+					log.debug("JoinStats: adaptive join " + getDisplayId() + " switched to hash join after "
+							+ totalBindings + " left bindings, built on " + hashTable.size()
+							+ " right bindings, probed with " + probed + " left bindings.");
+				}
+				return true;
+			}
+
+			// the right argument is larger: continue with the bound join
+			if (log.isDebugEnabled()) {
+				log.debug("JoinStats: adaptive join " + getDisplayId() + " stays with bound join after "
+						+ (totalBindings + leftBuffer.size()) + " left bindings, right argument has more than "
+						+ rightBuffer.size() + " bindings or exceeds the memory budget.");
+			}
+		}
+		List<CloseableIteration<BindingSet, QueryEvaluationException>> left = new ArrayList<>(2);
+		left.add(leftBuffer.drain());
+		left.add(leftIter);
+		leftIter = new UnionIteration<BindingSet, QueryEvaluationException>(left);
+		return false;
+	}
+
+	/**
+	 * Probe the buffered and afterwards the remaining left bindings against the
+	 * hash table. Results are added to this cursor in blocks.
+	 *
+	 * @param hashTable
+	 * @param buffered the buffered left bindings
+	 * @return the number of probed left bindings
+	 */
+	protected int probe(HashTable hashTable, CloseableIteration<BindingSet, QueryEvaluationException> buffered) {
+		int probed = 0;
+		List<BindingSet> res = new ArrayList<>();
+		try {
+			while (!closed && (buffered.hasNext() || leftIter.hasNext())) {
+				hashTable.probe(buffered.hasNext() ? buffered.next() : leftIter.next(), false, res);
+				if (++probed % HashJoin.PROBE_BLOCK_SIZE == 0 && !res.isEmpty()) {
+					addResult(new CollectionIteration<BindingSet, QueryEvaluationException>(res));
+					res = new ArrayList<>();
+				}
+			}
+		} finally {
+			buffered.close();
+		}
+		if (!res.isEmpty())
+			addResult(new CollectionIteration<BindingSet, QueryEvaluationException>(res));
+		return probed;
+	}
+
+	/**
+	 *
+	 * @param expr
+	 * @return true if the given expression can be evaluated without the left
+	 *         bindings, i.e. if it is a statement or an exclusive group
+	 */
+	protected static boolean canApplyHashJoin(TupleExpr expr) {
+		return expr instanceof StatementTupleExpr;
+	}
+}
@@ -17,18 +17,22 @@ package com.fluidops.fedx.evaluation.join;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 import org.eclipse.rdf4j.common.iteration.CloseableIteration;
 import org.eclipse.rdf4j.query.BindingSet;
 import org.eclipse.rdf4j.query.QueryEvaluationException;
 import org.eclipse.rdf4j.query.algebra.TupleExpr;
+import org.eclipse.rdf4j.repository.sparql.federation.CollectionIteration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.fluidops.fedx.Config;
+import com.fluidops.fedx.FederationManager;
 import com.fluidops.fedx.algebra.BoundJoinTupleExpr;
 import com.fluidops.fedx.algebra.CheckStatementPattern;
+import com.fluidops.fedx.algebra.ExclusiveGroup;
 import com.fluidops.fedx.algebra.FedXService;
 import com.fluidops.fedx.algebra.IndependentJoinGroup;
 import com.fluidops.fedx.algebra.StatementTupleExpr;
@@ -56,6 +60,15 @@ public class ControlledWorkerBoundJoin extends ControlledWorkerJoin {
 
 	private static final Logger log = LoggerFactory.getLogger(ControlledWorkerBoundJoin.class);
 	
+	/**
+	 * The maximum number of left bindings per block relative to the block size,
+	 * if left bindings are deduplicated (see {@link DistinctJoinKeys})
+	 */
+	protected static final int MAX_BINDINGS_PER_DISTINCT_KEY = 10;
+	
+	/* the number of left bindings served from the bound join memo */
+	protected int memoHits = 0;
+	
 	public ControlledWorkerBoundJoin(ControlledWorkerScheduler<BindingSet> scheduler, FederationEvalStrategy strategy,
 			CloseableIteration<BindingSet, QueryEvaluationException> leftIter,
 			TupleExpr rightArg, BindingSet bindings, QueryInfo queryInfo)
@@ -72,17 +85,28 @@ public class ControlledWorkerBoundJoin extends ControlledWorkerJoin {
 			return;
 		}
 		
-		int nBindingsCfg = Config.getConfig().getBoundJoinBlockSize();	
+		BoundJoinBlockSizeController blockSizeController = FederationManager.getInstance().getBlockSizeController();
 		int totalBindings = 0;		// the total number of bindings
 		TupleExpr expr = rightArg;
 		
 		TaskCreator taskCreator = null;
 				
 		// first item is always sent in a non-bound way
-		if (!closed && leftIter.hasNext()) {
+		if (!isDemandSatisfied() && leftIter.hasNext()) {
 			BindingSet b = leftIter.next();
 			totalBindings++;
-			if (expr instanceof StatementTupleExpr) {
+			if (expr instanceof ExclusiveGroup) {
+				ExclusiveGroup group = (ExclusiveGroup)expr;
+				if (!group.hasFreeVarsFor(b)) {
+					// no projection for grouped evaluation: fallback to single binding evaluation
+					log.debug("Exclusive group has no free variables for bindings. Fallback on ControlledWorkerJoin implementation.");
+					phaser.register();
+					scheduler.schedule( new ParallelJoinTask(this, strategy, expr, b) );
+					super.handleBindings();
+					return;
+				}
+				taskCreator = new ExclusiveGroupBoundJoinTaskCreator(this, strategy, group);
+			} else if (expr instanceof StatementTupleExpr) {
 				StatementTupleExpr stmt = (StatementTupleExpr)expr;
 				if (stmt.hasFreeVarsFor(b)) {
 					taskCreator = new BoundJoinTaskCreator(this, strategy, stmt);
@@ -101,10 +125,21 @@ public class ControlledWorkerBoundJoin extends ControlledWorkerJoin {
 			scheduler.schedule( new ParallelJoinTask(this, strategy, expr, b) );
 		}
 		
+		// deduplication of left bindings by their join key, if applicable
+		Set<String> joinKeyVars = null;
+		if (Config.getConfig().isEnableBoundJoinDeduplication())
+			joinKeyVars = DistinctJoinKeys.getJoinVars(expr);
+		
+		// results of join keys seen in previous blocks are served from the memo
+		BoundJoinMemo memo = joinKeyVars != null ? queryInfo.getBoundJoinMemo() : null;
+		String memoId = memo != null ? getMemoId((StatementTupleExpr) expr) : null;
+		
 		int nBindings;	
 		List<BindingSet> bindings = null;
-		while (!closed && leftIter.hasNext()) {
+		while (!isDemandSatisfied() && leftIter.hasNext()) {
 			
+			if (handleRemainingBindings(totalBindings))
+				break;
 			
 			/*
 			 * XXX idea:
@@ -117,10 +152,15 @@ public class ControlledWorkerBoundJoin extends ControlledWorkerJoin {
 			 */
 			
 			if (totalBindings>10)
-				nBindings = nBindingsCfg;
+				nBindings = blockSizeController.getBlockSize(expr);	// adaptive, if enabled
 			else
 				nBindings = 3;
 
+			if (joinKeyVars != null) {
+				totalBindings += scheduleDistinctBlock(taskCreator, joinKeyVars, nBindings, memo, memoId);
+				continue;
+			}
+			
 			bindings = new ArrayList<BindingSet>(nBindings);
 			
 			int count=0;
@@ -139,11 +179,97 @@ public class ControlledWorkerBoundJoin extends ControlledWorkerJoin {
 		
 		if (log.isDebugEnabled()) {
 			log.debug("JoinStats: left iter of " + getDisplayId() + " had " + totalBindings + " results.");
+			if (memo != null && totalBindings > 0) {
+				log.debug("JoinStats: bound join memo of " + getDisplayId() + " served " + memoHits + " of "
+						+ totalBindings + " left bindings (hit ratio " + (100 * memoHits / totalBindings) + "%).");
+			}
 		}
 				
 		phaser.awaitAdvanceInterruptibly(phaser.arrive(), queryInfo.getMaxRemainingTimeMS(), TimeUnit.MILLISECONDS);
 	}
 
+	/**
+	 * Hook which is invoked before each block of left bindings is scheduled.
+	 * Implementations may consume the remaining left bindings in a different way,
+	 * see {@link ControlledWorkerAdaptiveJoin}.
+	 * 
+	 * @param totalBindings the number of left bindings handled so far
+	 * @return true if the remaining left bindings have been handled
+	 * @throws Exception
+	 */
+	protected boolean handleRemainingBindings(int totalBindings) throws Exception {
+		return false;
+	}
+	
+	/**
+	 * Schedule a block of left bindings with nBindings distinct join keys. Only the
+	 * distinct join keys are sent, the results are fanned out to all left bindings
+	 * of the block (see {@link ParallelFanOutJoinTask}).
+	 * 
+	 * If a memo is given, left bindings with a memoized join key are served locally
+	 * and the results of the block are memoized.
+	 * 
+	 * @param taskCreator
+	 * @param joinKeyVars the variables of the right argument
+	 * @param nBindings the number of distinct join keys
+	 * @param memo the {@link BoundJoinMemo}, may be <code>null</code>
+	 * @param memoId the identifier of the right argument in the memo
+	 * @return the number of left bindings of the block
+	 */
+	protected int scheduleDistinctBlock(TaskCreator taskCreator, Set<String> joinKeyVars, int nBindings,
+			BoundJoinMemo memo, String memoId) {
+		
+		DistinctJoinKeys block = new DistinctJoinKeys(joinKeyVars);
+		List<BindingSet> memoized = null;
+		int maxBindings = nBindings * MAX_BINDINGS_PER_DISTINCT_KEY;
+		int count = 0;
+		while (block.size() < nBindings && count < maxBindings && leftIter.hasNext()) {
+			BindingSet b = leftIter.next();
+			count++;
+			if (memo != null) {
+				List<BindingSet> res = memo.get(memoId, DistinctJoinKeys.project(b, joinKeyVars));
+				if (res != null) {
+					if (memoized == null)
+						memoized = new ArrayList<BindingSet>();
+					for (BindingSet r : res)
+						memoized.add(DistinctJoinKeys.merge(b, r));
+					memoHits++;
+					continue;
+				}
+			}
+			block.add(b);
+		}
+		
+		if (memoized != null && !memoized.isEmpty())
+			addResult(new CollectionIteration<BindingSet, QueryEvaluationException>(memoized));
+		if (block.getBindings().isEmpty())
+			return count;
+		
+		phaser.register();
+		if (memo != null && block.isApplicable() && !memo.isFull()) {
+			block.setMemo(memo, memoId);
+			scheduler.schedule( new ParallelFanOutJoinTask(taskCreator.getTask(block.getDistinctBindings()), block) );
+		} else if (block.hasDuplicates())
+			scheduler.schedule( new ParallelFanOutJoinTask(taskCreator.getTask(block.getDistinctBindings()), block) );
+		else
+			scheduler.schedule( taskCreator.getTask(block.getBindings()) );
+		return count;
+	}
+	
+	/**
+	 * Returns the identifier of the right argument in the {@link BoundJoinMemo}.
+	 * Check patterns are created per join, i.e. they are identified by the
+	 * wrapped statement.
+	 * 
+	 * @param expr
+	 * @return the identifier of the right argument in the {@link BoundJoinMemo}
+	 */
+	protected static String getMemoId(StatementTupleExpr expr) {
+		if (expr instanceof CheckStatementPattern)
+			return "check:" + ((CheckStatementPattern) expr).getStatement().getId();
+		return expr.getId();
+	}
+	
 	/**
 	 * Returns true if the vectored evaluation can be applied for the join argument, i.e.
 	 * there is no fallback to {@link ControlledWorkerJoin#handleBindings()}. This is
@@ -185,6 +311,23 @@ public class ControlledWorkerBoundJoin extends ControlledWorkerJoin {
 		}		
 	}
 	
+	protected class ExclusiveGroupBoundJoinTaskCreator implements TaskCreator {
+		protected final ControlledWorkerBoundJoin _control;
+		protected final FederationEvalStrategy _strategy;
+		protected final ExclusiveGroup _expr;
+		public ExclusiveGroupBoundJoinTaskCreator(ControlledWorkerBoundJoin control,
+				FederationEvalStrategy strategy, ExclusiveGroup expr) {
+			super();
+			_control = control;
+			_strategy = strategy;
+			_expr = expr;
+		}
+		@Override
+		public ParallelTask<BindingSet> getTask(List<BindingSet> bindings) {
+			return new ParallelExclusiveGroupBoundJoinTask(_control, _strategy, _expr, bindings);
+		}
+	}
+
 	protected class CheckJoinTaskCreator implements TaskCreator {
 		protected final ControlledWorkerBoundJoin _control;
 		protected final FederationEvalStrategy _strategy;
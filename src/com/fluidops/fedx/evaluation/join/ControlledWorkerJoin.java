@@ -64,7 +64,7 @@ public class ControlledWorkerJoin extends JoinExecutorBase<BindingSet> {
 		
 		int totalBindings = 0;		// the total number of bindings
 		
-		while (!closed && leftIter.hasNext()) {
+		while (!isDemandSatisfied() && leftIter.hasNext()) {
 			ParallelJoinTask task = new ParallelJoinTask(this, strategy, rightArg, leftIter.next());
 			totalBindings++;
 			phaser.register();
@@ -15,6 +15,8 @@
  */
 package com.fluidops.fedx.evaluation.join;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Phaser;
 import java.util.concurrent.TimeUnit;
 
@@ -22,9 +24,12 @@ import org.eclipse.rdf4j.common.iteration.CloseableIteration;
 import org.eclipse.rdf4j.query.BindingSet;
 import org.eclipse.rdf4j.query.QueryEvaluationException;
 import org.eclipse.rdf4j.query.algebra.LeftJoin;
+import org.eclipse.rdf4j.query.algebra.TupleExpr;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.fluidops.fedx.Config;
+import com.fluidops.fedx.FederationManager;
 import com.fluidops.fedx.evaluation.FederationEvalStrategy;
 import com.fluidops.fedx.evaluation.concurrent.ControlledWorkerScheduler;
 import com.fluidops.fedx.structures.QueryInfo;
@@ -40,6 +45,10 @@ import com.fluidops.fedx.structures.QueryInfo;
  * This join cursor blocks until all scheduled tasks are finished, however the result iteration
  * can be accessed from different threads to allow for pipelining.
  * 
+ * If the right argument is applicable (see {@link ParallelBoundLeftJoinTask#canApplyVectoredEvaluation(TupleExpr)})
+ * and {@link Config#isEnableBoundLeftJoin()} is set, blocks of left bindings are evaluated
+ * as bound left joins, i.e. with a single remote request per source.
+ * 
  * @author Andreas Schwarte
  */
 public class ControlledWorkerLeftJoin extends JoinExecutorBase<BindingSet> {
@@ -67,11 +76,15 @@ public class ControlledWorkerLeftJoin extends JoinExecutorBase<BindingSet> {
 		
 		int totalBindings = 0;		// the total number of bindings
 		
-		while (!closed && leftIter.hasNext()) {
-			ParallelLeftJoinTask task = new ParallelLeftJoinTask(this, strategy, join, leftIter.next());
-			totalBindings++;
-			phaser.register();
-			scheduler.schedule(task);
+		if (canApplyVectoredEvaluation(rightArg)) {
+			totalBindings = handleBindingsVectored();
+		} else {
+			while (!isDemandSatisfied() && leftIter.hasNext()) {
+				ParallelLeftJoinTask task = new ParallelLeftJoinTask(this, strategy, join, leftIter.next());
+				totalBindings++;
+				phaser.register();
+				scheduler.schedule(task);
+			}
 		}
 		
 		scheduler.informFinish(this);
@@ -85,6 +98,43 @@ public class ControlledWorkerLeftJoin extends JoinExecutorBase<BindingSet> {
 
 	}
 
+	/**
+	 * Schedule {@link ParallelBoundLeftJoinTask}s for blocks of left bindings. The
+	 * first bindings are sent in small blocks to deliver first results early.
+	 * 
+	 * @return the total number of left bindings
+	 */
+	protected int handleBindingsVectored() {
+		
+		BoundJoinBlockSizeController blockSizeController = FederationManager.getInstance().getBlockSizeController();
+		int totalBindings = 0;
+		
+		while (!isDemandSatisfied() && leftIter.hasNext()) {
+			
+			int nBindings = totalBindings > 10 ? blockSizeController.getBlockSize(rightArg) : 3;
+			List<BindingSet> bindings = new ArrayList<BindingSet>(nBindings);
+			
+			int count = 0;
+			while (count < nBindings && leftIter.hasNext()) {
+				bindings.add(leftIter.next());
+				count++;
+			}
+			
+			totalBindings += count;
+			
+			phaser.register();
+			scheduler.schedule(new ParallelBoundLeftJoinTask(this, strategy, join, bindings));
+		}
+		
+		return totalBindings;
+	}
+	
+	private boolean canApplyVectoredEvaluation(TupleExpr expr) {
+		if (!Config.getConfig().isEnableBoundLeftJoin())
+			return false;
+		return ParallelBoundLeftJoinTask.canApplyVectoredEvaluation(expr);
+	}
+	
 	@Override
 	public void done()
 	{
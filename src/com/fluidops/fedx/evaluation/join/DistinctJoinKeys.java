@@ -0,0 +1,284 @@
+/*
+ * Copyright (C) 2026 Veritas Technologies LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fluidops.fedx.evaluation.join;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.common.iteration.LookAheadIteration;
+import org.eclipse.rdf4j.query.Binding;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.QueryEvaluationException;
+import org.eclipse.rdf4j.query.algebra.StatementPattern;
+import org.eclipse.rdf4j.query.algebra.TupleExpr;
+import org.eclipse.rdf4j.query.algebra.evaluation.QueryBindingSet;
+
+import com.fluidops.fedx.algebra.CheckStatementPattern;
+import com.fluidops.fedx.algebra.ExclusiveGroup;
+
+
+/**
+ * A block of left bindings for a bound join, grouped by their join key, i.e.
+ * the projection to the variables of the right argument.
+ *
+ * <p>
+ * Only the distinct join keys are sent to the endpoint (see
+ * {@link #getDistinctBindings()}), the results are fanned out to all left
+ * bindings with the respective join key using {@link #fanOut(CloseableIteration)}.
+ * </p>
+ *
+ * <p>
+ * Deduplication requires that all join keys of the block bind the same
+ * variables, as otherwise results cannot be mapped back to their join key
+ * unambiguously (see {@link #isApplicable()}).
+ * </p>
+ *
+ * @author agent
+ * @see ControlledWorkerBoundJoin
+ */
+public class DistinctJoinKeys {
+
+	protected final Set<String> joinVars;
+
+	protected final List<BindingSet> bindings = new ArrayList<>();
+
+	/* join key => left bindings */
+	protected final Map<BindingSet, List<BindingSet>> groups = new LinkedHashMap<>();
+
+	/* the variables bound in the join keys, null if not yet known */
+	protected Set<String> keyVars = null;
+
+	protected boolean applicable = true;
+
+	/* the memo to record the results to, if any */
+	protected BoundJoinMemo memo = null;
+	protected String exprId = null;
+
+	/**
+	 *
+	 * @param joinVars the variables of the right argument
+	 */
+	public DistinctJoinKeys(Set<String> joinVars) {
+		this.joinVars = joinVars;
+	}
+
+	/**
+	 * Add the given left binding to this block
+	 *
+	 * @param b
+	 */
+	public void add(BindingSet b) {
+		bindings.add(b);
+		if (!applicable)
+			return;
+		BindingSet key = project(b, joinVars);
+		if (keyVars == null)
+			keyVars = key.getBindingNames();
+		else if (!keyVars.equals(key.getBindingNames())) {
+			applicable = false;
+			groups.clear();
+			return;
+		}
+		groups.computeIfAbsent(key, k -> new ArrayList<>(1)).add(b);
+	}
+
+	/**
+	 *
+	 * @return the number of distinct join keys, or the number of left bindings if
+	 *         deduplication is not applicable
+	 */
+	public int size() {
+		return applicable ? groups.size() : bindings.size();
+	}
+
+	/**
+	 *
+	 * @return the left bindings of this block
+	 */
+	public List<BindingSet> getBindings() {
+		return bindings;
+	}
+
+	/**
+	 *
+	 * @return the distinct join keys of this block
+	 */
+	public List<BindingSet> getDistinctBindings() {
+		return new ArrayList<>(groups.keySet());
+	}
+
+	/**
+	 *
+	 * @return true if deduplication is applicable to this block
+	 */
+	public boolean isApplicable() {
+		return applicable;
+	}
+
+	/**
+	 *
+	 * @return true if deduplication is applicable and the block contains left
+	 *         bindings with the same join key
+	 */
+	public boolean hasDuplicates() {
+		return applicable && groups.size() < bindings.size();
+	}
+
+	/**
+	 * Record the results for the join keys of this block in the given memo once
+	 * they are complete, see {@link #fanOut(CloseableIteration)}.
+	 *
+	 * @param memo
+	 * @param exprId the identifier of the right argument
+	 */
+	public void setMemo(BoundJoinMemo memo, String exprId) {
+		this.memo = memo;
+		this.exprId = exprId;
+	}
+
+	/**
+	 * Fan out the results obtained for the distinct join keys to all left bindings
+	 * with the respective join key.
+	 *
+	 * @param results the results for {@link #getDistinctBindings()}
+	 * @return the results for {@link #getBindings()}
+	 */
+	public CloseableIteration<BindingSet, QueryEvaluationException> fanOut(
+			CloseableIteration<BindingSet, QueryEvaluationException> results) {
+		return new FanOutIteration(results);
+	}
+
+	/**
+	 *
+	 * @param expr the right argument of a bound join
+	 * @return the variables of the given expression, or <code>null</code> if
+	 *         unknown
+	 */
+	public static Set<String> getJoinVars(TupleExpr expr) {
+		if (expr instanceof ExclusiveGroup) {
+			Set<String> res = new HashSet<>();
+			for (StatementPattern stmt : ((ExclusiveGroup) expr).getStatements())
+				res.addAll(stmt.getBindingNames());
+			return res;
+		}
+		if (expr instanceof CheckStatementPattern)
+			return ((CheckStatementPattern) expr).getStatementPattern().getBindingNames();
+		if (expr instanceof StatementPattern)
+			return ((StatementPattern) expr).getBindingNames();
+		return null;
+	}
+
+	/**
+	 *
+	 * @param left
+	 * @param right
+	 * @return the left bindings extended with the bindings of right
+	 */
+	protected static BindingSet merge(BindingSet left, BindingSet right) {
+		QueryBindingSet res = new QueryBindingSet(left);
+		for (Binding b : right) {
+			if (!res.hasBinding(b.getName()))
+				res.addBinding(b);
+		}
+		return res;
+	}
+
+	protected static BindingSet project(BindingSet b, Set<String> vars) {
+		QueryBindingSet res = new QueryBindingSet(vars.size());
+		for (String var : vars) {
+			Binding binding = b.getBinding(var);
+			if (binding != null)
+				res.addBinding(binding);
+		}
+		return res;
+	}
+
+	protected class FanOutIteration extends LookAheadIteration<BindingSet, QueryEvaluationException> {
+
+		protected final CloseableIteration<BindingSet, QueryEvaluationException> inner;
+
+		protected BindingSet current = null;
+		protected Iterator<BindingSet> currentLeft = Collections.emptyIterator();
+
+		/* the results per join key to be memoized, null if not recorded */
+		protected Map<BindingSet, List<BindingSet>> recorded;
+
+		public FanOutIteration(CloseableIteration<BindingSet, QueryEvaluationException> inner) {
+			this.inner = inner;
+			this.recorded = memo != null ? new HashMap<>() : null;
+		}
+
+		@Override
+		protected BindingSet getNextElement() throws QueryEvaluationException {
+			while (!currentLeft.hasNext()) {
+				if (!inner.hasNext()) {
+					memoize();
+					return null;
+				}
+				current = inner.next();
+				BindingSet key = project(current, keyVars);
+				List<BindingSet> left = groups.get(key);
+				if (left == null)
+					throw new QueryEvaluationException("Result of bound join cannot be mapped to its join key: " + current);
+				record(key, current);
+				currentLeft = left.iterator();
+			}
+			return merge(currentLeft.next(), current);
+		}
+
+		protected void record(BindingSet key, BindingSet result) {
+			if (recorded == null)
+				return;
+			if (memo.isFull()) {
+				recorded = null;	// cannot be memoized anyways
+				return;
+			}
+			recorded.computeIfAbsent(key, k -> new ArrayList<>(1)).add(result);
+		}
+
+		/*
+		 * Memoize the complete results of all join keys (including those without
+		 * results)
+		 */
+		protected void memoize() {
+			if (recorded == null)
+				return;
+			for (BindingSet key : groups.keySet()) {
+				List<BindingSet> res = recorded.get(key);
+				if (!memo.put(exprId, key, res != null ? res : Collections.<BindingSet>emptyList()))
+					break;
+			}
+			recorded = null;
+		}
+
+		@Override
+		protected void handleClose() throws QueryEvaluationException {
+			try {
+				super.handleClose();
+			} finally {
+				inner.close();
+			}
+		}
+	}
+}
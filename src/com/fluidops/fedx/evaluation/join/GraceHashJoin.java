@@ -0,0 +1,328 @@
+/*
+ * Copyright (C) 2026 Veritas Technologies LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fluidops.fedx.evaluation.join;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.QueryEvaluationException;
+
+import com.fluidops.fedx.Config;
+import com.fluidops.fedx.evaluation.join.HashJoin.HashTable;
+import com.fluidops.fedx.structures.BindingSetBuffer;
+import com.fluidops.fedx.structures.QueryInfo;
+
+/**
+ * Partitioned (grace) hash join of two operands, which is used by the hash
+ * joins once their operands exceed the memory budget of the query (see
+ * {@link Config#getQueryMemoryBudget()}).
+ *
+ * <p>
+ * The bindings of both operands are partitioned on the hash of the join
+ * variable values and spilled to disk (see {@link BindingSetBuffer}).
+ * Bindings which do not bind all join variables are kept in a separate
+ * partition. The join is performed per partition: the hash table is built
+ * from the bindings of the build operand and then probed with the bindings of
+ * the probe operand. Each binding of the hash table reserves memory from the
+ * budget of the query. If a partition does not fit into the remaining budget,
+ * it is joined in several chunks, i.e. the probe bindings of the partition are
+ * read once per chunk.
+ * </p>
+ *
+ * <p>
+ * Note that this class is not thread safe.
+ * </p>
+ *
+ * @author agent
+ */
+class GraceHashJoin implements AutoCloseable {
+
+	static final int MIN_PARTITIONS = 2;
+	static final int MAX_PARTITIONS = 32;
+
+	protected final QueryInfo queryInfo;
+	protected final Set<String> joinVars;
+	protected final int numberOfPartitions;
+
+	protected final List<BindingSetBuffer> leftPartitions;
+	protected final List<BindingSetBuffer> rightPartitions;
+
+	/* bindings which do not bind all join variables */
+	protected final BindingSetBuffer leftPartial;
+	protected final BindingSetBuffer rightPartial;
+
+	/**
+	 *
+	 * @param queryInfo
+	 * @param joinVars
+	 * @param numberOfPartitions the number of partitions, see
+	 *                           {@link #partitionsFor(long)}
+	 */
+	GraceHashJoin(QueryInfo queryInfo, Set<String> joinVars, int numberOfPartitions) {
+		this.queryInfo = queryInfo;
+		this.joinVars = joinVars;
+		this.numberOfPartitions = numberOfPartitions;
+		this.leftPartitions = new ArrayList<>(numberOfPartitions);
+		this.rightPartitions = new ArrayList<>(numberOfPartitions);
+		for (int i = 0; i < numberOfPartitions; i++) {
+			leftPartitions.add(new BindingSetBuffer(queryInfo, true));
+			rightPartitions.add(new BindingSetBuffer(queryInfo, true));
+		}
+		this.leftPartial = new BindingSetBuffer(queryInfo, true);
+		this.rightPartial = new BindingSetBuffer(queryInfo, true);
+	}
+
+	/**
+	 * Returns the number of partitions such that a partition of a build operand
+	 * with the given estimated size fits into the memory budget of the query.
+	 *
+	 * @param estimatedSize the estimated size of the build operand in bytes
+	 * @return the number of partitions
+	 */
+	static int partitionsFor(long estimatedSize) {
+		long budget = Config.getConfig().getQueryMemoryBudget();
+		if (budget <= 0) {
+			return MIN_PARTITIONS;
+		}
+		// the budget is shared by all operators of the query, use half of it
+		long partitions = 2 * estimatedSize / budget + 1;
+		return (int) Math.max(MIN_PARTITIONS, Math.min(MAX_PARTITIONS, partitions));
+	}
+
+	/**
+	 * Add the given bindings to the partition of the respective operand.
+	 *
+	 * @param b
+	 * @param isRight whether the bindings belong to the right operand
+	 * @throws QueryEvaluationException
+	 */
+	void add(BindingSet b, boolean isRight) throws QueryEvaluationException {
+		List<Value> key = new ArrayList<>(joinVars.size());
+		for (String joinVar : joinVars) {
+			Value v = b.getValue(joinVar);
+			if (v == null) {
+				(isRight ? rightPartial : leftPartial).add(b);
+				return;
+			}
+			key.add(v);
+		}
+		int partition = Math.floorMod(key.hashCode() * 0x9E3779B9, numberOfPartitions);
+		(isRight ? rightPartitions : leftPartitions).get(partition).add(b);
+	}
+
+	/**
+	 * Add all bindings of the given iteration to the partitions of the respective
+	 * operand. The iteration is closed afterwards.
+	 *
+	 * @param iter
+	 * @param isRight whether the bindings belong to the right operand
+	 * @param aborted
+	 * @throws QueryEvaluationException
+	 */
+	void addAll(CloseableIteration<BindingSet, QueryEvaluationException> iter, boolean isRight,
+			BooleanSupplier aborted) throws QueryEvaluationException {
+		try {
+			while (!aborted.getAsBoolean() && iter.hasNext()) {
+				add(iter.next(), isRight);
+			}
+		} finally {
+			iter.close();
+		}
+	}
+
+	/**
+	 *
+	 * @param isRight
+	 * @return the number of bindings of the respective operand
+	 */
+	int size(boolean isRight) {
+		int size = (isRight ? rightPartial : leftPartial).size();
+		for (BindingSetBuffer partition : (isRight ? rightPartitions : leftPartitions)) {
+			size += partition.size();
+		}
+		return size;
+	}
+
+	/**
+	 * Join the partitions of both operands. Each binding of the probe operand is
+	 * passed to the handler together with the merged bindings of a chunk of the
+	 * build operand.
+	 *
+	 * <p>
+	 * The bindings of a probe partition are matched against the build partition
+	 * with the same index and the partial bindings of the build operand. Partial
+	 * probe bindings are matched against all build bindings.
+	 * </p>
+	 *
+	 * @param buildLeft whether the left operand is used as build side
+	 * @param aborted
+	 * @param handler
+	 * @throws QueryEvaluationException
+	 */
+	void join(boolean buildLeft, BooleanSupplier aborted, ProbeHandler handler) throws QueryEvaluationException {
+		List<BindingSetBuffer> buildPartitions = buildLeft ? leftPartitions : rightPartitions;
+		List<BindingSetBuffer> probePartitions = buildLeft ? rightPartitions : leftPartitions;
+		BindingSetBuffer buildPartial = buildLeft ? leftPartial : rightPartial;
+
+		List<BindingSetBuffer> allBuild = new ArrayList<>(buildPartitions);
+		allBuild.add(buildPartial);
+		joinPartition(allBuild, buildLeft ? rightPartial : leftPartial, buildLeft, aborted, handler);
+
+		for (int i = 0; i < numberOfPartitions && !aborted.getAsBoolean(); i++) {
+			joinPartition(buildPartitions.get(i), buildPartial, probePartitions.get(i), buildLeft, aborted, handler);
+			// the partitions are no longer needed
+			buildPartitions.get(i).close();
+			probePartitions.get(i).close();
+		}
+	}
+
+	private void joinPartition(BindingSetBuffer build, BindingSetBuffer buildPartial, BindingSetBuffer probe,
+			boolean probeIsRight, BooleanSupplier aborted, ProbeHandler handler) throws QueryEvaluationException {
+		List<BindingSetBuffer> builds = new ArrayList<>(2);
+		builds.add(build);
+		builds.add(buildPartial);
+		joinPartition(builds, probe, probeIsRight, aborted, handler);
+	}
+
+	/**
+	 * Join the given probe partition with the given build partitions, using as
+	 * many chunks as required to stay within the memory budget.
+	 */
+	private void joinPartition(List<BindingSetBuffer> builds, BindingSetBuffer probe, boolean probeIsRight,
+			BooleanSupplier aborted, ProbeHandler handler) throws QueryEvaluationException {
+		if (probe.isEmpty()) {
+			return;
+		}
+		BitSet matched = handler.isTrackUnmatched() ? new BitSet(probe.size()) : null;
+
+		HashTable hashTable = new HashTable(joinVars);
+		long reservedBytes = 0;
+		try {
+			for (BindingSetBuffer build : builds) {
+				try (CloseableIteration<BindingSet, QueryEvaluationException> buildIter = build.iterator()) {
+					while (!aborted.getAsBoolean() && buildIter.hasNext()) {
+						BindingSet b = buildIter.next();
+						long size = BindingSetBuffer.estimateSize(b);
+						boolean reserved = queryInfo.reserveBufferMemory(size);
+						if (!reserved && hashTable.size() > 0) {
+							// the chunk is full: probe it and continue with an empty hash table
+							probe(hashTable, probe, probeIsRight, matched, aborted, handler);
+							queryInfo.releaseBufferMemory(reservedBytes);
+							reservedBytes = 0;
+							hashTable = new HashTable(joinVars);
+							reserved = queryInfo.reserveBufferMemory(size);
+						}
+						// a single binding is added even if it exceeds the budget
+						if (reserved) {
+							reservedBytes += size;
+						}
+						hashTable.add(b);
+					}
+				}
+			}
+			if (hashTable.size() > 0) {
+				probe(hashTable, probe, probeIsRight, matched, aborted, handler);
+			}
+		} finally {
+			queryInfo.releaseBufferMemory(reservedBytes);
+		}
+
+		if (matched != null && !aborted.getAsBoolean()) {
+			try (CloseableIteration<BindingSet, QueryEvaluationException> probeIter = probe.iterator()) {
+				for (int idx = 0; !aborted.getAsBoolean() && probeIter.hasNext(); idx++) {
+					BindingSet b = probeIter.next();
+					if (!matched.get(idx)) {
+						handler.handleUnmatched(b);
+					}
+				}
+			}
+		}
+	}
+
+	private void probe(HashTable hashTable, BindingSetBuffer probe, boolean probeIsRight, BitSet matched,
+			BooleanSupplier aborted, ProbeHandler handler) throws QueryEvaluationException {
+		List<BindingSet> merged = new ArrayList<>();
+		try (CloseableIteration<BindingSet, QueryEvaluationException> probeIter = probe.iterator()) {
+			for (int idx = 0; !aborted.getAsBoolean() && probeIter.hasNext(); idx++) {
+				BindingSet b = probeIter.next();
+				merged.clear();
+				hashTable.probe(b, probeIsRight, merged);
+				if (handler.handle(b, Collections.unmodifiableList(merged)) && matched != null) {
+					matched.set(idx);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Close all partitions, i.e. delete the temporary files.
+	 */
+	@Override
+	public void close() {
+		for (BindingSetBuffer partition : leftPartitions) {
+			partition.close();
+		}
+		for (BindingSetBuffer partition : rightPartitions) {
+			partition.close();
+		}
+		leftPartial.close();
+		rightPartial.close();
+	}
+
+	/**
+	 * Handler for the results of a {@link GraceHashJoin}.
+	 */
+	interface ProbeHandler {
+
+		/**
+		 * Handle the merged bindings of the given probe bindings with the bindings
+		 * of the current chunk of the build operand.
+		 *
+		 * @param probeBindings
+		 * @param merged        the merged bindings, possibly empty
+		 * @return whether the probe bindings have a match
+		 * @throws QueryEvaluationException
+		 */
+		boolean handle(BindingSet probeBindings, List<BindingSet> merged) throws QueryEvaluationException;
+
+		/**
+		 * Handle probe bindings without any match (only invoked if
+		 * {@link #isTrackUnmatched()} is set).
+		 *
+		 * @param probeBindings
+		 * @throws QueryEvaluationException
+		 */
+		default void handleUnmatched(BindingSet probeBindings) throws QueryEvaluationException {
+			// no-op
+		}
+
+		/**
+		 *
+		 * @return whether probe bindings without match are reported (e.g. for left
+		 *         joins)
+		 */
+		default boolean isTrackUnmatched() {
+			return false;
+		}
+	}
+}
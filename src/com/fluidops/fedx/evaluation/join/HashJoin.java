@@ -17,8 +17,10 @@ package com.fluidops.fedx.evaluation.join;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.eclipse.rdf4j.common.iteration.CloseableIteration;
@@ -31,18 +33,44 @@ import org.eclipse.rdf4j.query.impl.MapBindingSet;
 import org.eclipse.rdf4j.repository.sparql.federation.CollectionIteration;
 
 import com.fluidops.fedx.evaluation.FederationEvalStrategy;
-import com.fluidops.fedx.evaluation.iterator.LazyMutableClosableIteration;
-import com.fluidops.fedx.optimizer.JoinOrderOptimizer;
+import com.fluidops.fedx.evaluation.concurrent.ParallelExecutor;
+import com.fluidops.fedx.structures.BindingSetBuffer;
 import com.fluidops.fedx.structures.QueryInfo;
 
 /**
  * Operator for a hash join of tuple expressions.
- * 
+ * <p>
+ * Both operands are read alternately until one of them is exhausted. The
+ * exhausted (i.e. smaller) operand is used as build side of a hash table keyed
+ * on the values of the join variables, the other operand is streamed and
+ * probed against the hash table.
+ * </p>
+ *
+ * <p>
+ * The bindings read alternately are buffered in {@link BindingSetBuffer}s, i.e.
+ * they are spilled to disk once the memory budget of the query is exceeded. If
+ * the build operand fits into the budget, its bindings stay reserved until the
+ * join is done. Otherwise both operands are joined partition-wise (see
+ * {@link GraceHashJoin}).
+ * </p>
+ *
+ * <p>
+ * Bindings are joined according to SPARQL semantics, i.e. a missing binding
+ * for a join variable is compatible with any value. Bindings which do not
+ * provide values for all join variables are kept aside and checked against
+ * every probe binding.
+ * </p>
+ *
  * @author Andreas Schwarte
  * @since 6.0
  */
 public class HashJoin extends JoinExecutorBase<BindingSet> {
 
+	/**
+	 * The number of probe bindings that are processed before the join results
+	 * are added to this cursor
+	 */
+	protected static final int PROBE_BLOCK_SIZE = 100;
 
 	public HashJoin(FederationEvalStrategy strategy,
 			CloseableIteration<BindingSet, QueryEvaluationException> leftIter,
@@ -55,133 +83,345 @@ public class HashJoin extends JoinExecutorBase<BindingSet> {
 	@Override
 	protected void handleBindings() throws Exception {
 
-		// the total number of bindings
-		int totalBindingsLeft = 0;
-		int totalBindingsRight = 0;
-		Collection<String> rightFreeVars = JoinOrderOptimizer.getFreeVars(rightArg);
-		Set<String> joinVars = getJoinVars();
-		
-
-		// evaluate the right join argument
-		// Note: wrapped in lazy mutable iteration for repetitive reading
-		try (LazyMutableClosableIteration rightArgIter = new LazyMutableClosableIteration(
-				strategy.evaluate(rightArg, bindings))) {
-			
-			while (!closed && leftIter.hasNext()) {
-
-				int blockSizeL = 10;
-				if (totalBindingsLeft > 20) {
-					blockSizeL = 100;
-				}
-				List<BindingSet> leftBlock = new ArrayList<>(blockSizeL);
-				for (int i = 0; i < blockSizeL && leftIter.hasNext(); i++) {
-					leftBlock.add(leftIter.next());
-					totalBindingsLeft++;
-				}
+		Set<String> joinVars = getJoinVars() != null ? getJoinVars() : Collections.<String>emptySet();
 
-				int blockSizeR = 10;
-				while (!closed && rightArgIter.hasNext()) {
-					if (totalBindingsRight > 20) {
-						blockSizeR = 100;
-					}
-					Collection<BindingSet> rightBlock = new ArrayList<>(blockSizeR);
-					for (int i = 0; i < blockSizeR && rightArgIter.hasNext(); i++) {
-						rightBlock.add(rightArgIter.next());
-						totalBindingsRight++;
-					}
-
-					performJoin(leftBlock, rightBlock, joinVars, rightFreeVars);
-				}
+		try (CloseableIteration<BindingSet, QueryEvaluationException> rightArgIter = strategy.evaluate(rightArg,
+				bindings);
+				BindingSetBuffer leftBuffer = new BindingSetBuffer(queryInfo);
+				BindingSetBuffer rightBuffer = new BindingSetBuffer(queryInfo)) {
+
+			// read both operands alternately until the smaller one is exhausted
+			while (!closed && leftIter.hasNext() && rightArgIter.hasNext()) {
+				leftBuffer.add(leftIter.next());
+				rightBuffer.add(rightArgIter.next());
+			}
 
-				rightArgIter.resetCursor();
+			if (closed) {
+				return;
+			}
+
+			// the exhausted operand is the build side, prefer the right operand
+			// (which preserves the order of the left operand in the result)
+			boolean buildLeft = !leftIter.hasNext() && rightArgIter.hasNext();
+			BindingSetBuffer buildBuffer = buildLeft ? leftBuffer : rightBuffer;
+			BindingSetBuffer probeBuffer = buildLeft ? rightBuffer : leftBuffer;
+			CloseableIteration<BindingSet, QueryEvaluationException> probeIter = buildLeft ? rightArgIter : leftIter;
+
+			if (buildBuffer.getSpilledSize() > 0) {
+				// the build operand exceeds the memory budget
+				partitionedJoin(buildBuffer, probeBuffer, probeIter, buildLeft, joinVars);
+				return;
+			}
+
+			// the bindings of the build operand stay reserved in the buffer until the
+			// join is done
+			HashTable hashTable = new HashTable(buildBuffer.iterator(), joinVars);
+			int totalBindingsProbe = probe(hashTable, probeBuffer.drain(), probeIter, buildLeft);
+
+			if (log.isDebugEnabled()) {
+				log.debug("JoinStats: hash join " + getDisplayId() + " built on " + (buildLeft ? "left" : "right")
+						+ " operand with " + hashTable.size() + " bindings, probed with " + totalBindingsProbe
+						+ " bindings.");
 			}
 		}
+	}
+
+	/**
+	 * Perform a partitioned hash join (see {@link GraceHashJoin}) of the given
+	 * operands, which are closed afterwards.
+	 *
+	 * @param buildBuffer
+	 * @param probeBuffer
+	 * @param probeIter   the remaining bindings of the probe operand
+	 * @param buildLeft   whether the left operand is the build operand
+	 * @param joinVars
+	 * @throws QueryEvaluationException
+	 */
+	protected void partitionedJoin(BindingSetBuffer buildBuffer, BindingSetBuffer probeBuffer,
+			CloseableIteration<BindingSet, QueryEvaluationException> probeIter, boolean buildLeft,
+			Set<String> joinVars) throws QueryEvaluationException {
+
+		int partitions = GraceHashJoin.partitionsFor(buildBuffer.getEstimatedSize());
+		try (GraceHashJoin graceJoin = new GraceHashJoin(queryInfo, joinVars, partitions)) {
+			// the buffers release their memory once they are drained
+			graceJoin.addAll(buildBuffer.drain(), !buildLeft, () -> closed);
+			graceJoin.addAll(probeBuffer.drain(), buildLeft, () -> closed);
+			while (!closed && probeIter.hasNext()) {
+				graceJoin.add(probeIter.next(), buildLeft);
+			}
+
+			if (log.isDebugEnabled()) {
+				log.debug("JoinStats: hash join " + getDisplayId() + " partitioned into " + partitions
+						+ " partitions, built on " + (buildLeft ? "left" : "right") + " operand with "
+						+ graceJoin.size(!buildLeft) + " bindings, probed with " + graceJoin.size(buildLeft)
+						+ " bindings.");
+			}
 
-		if (log.isDebugEnabled()) {
-			log.debug("JoinStats: left iter of " + getDisplayId() + " had " + totalBindingsLeft + " results.");
+			ResultBlock block = new ResultBlock(this);
+			graceJoin.join(buildLeft, () -> closed, (probeBindings, merged) -> {
+				block.addAll(merged);
+				return !merged.isEmpty();
+			});
+			block.flush();
 		}
 	}
 
 	/**
-	 * Perform the join and add the result to this cursor.
-	 * <p>
-	 * See {@link #join(Collection, Collection, Set, Collection)} and
-	 * {@link #addResult(CloseableIteration)}.
-	 * </p>
-	 * 
-	 * @param leftBlock
-	 * @param rightBlock
-	 * @param joinVariables
-	 * @param freeVariablesRight
+	 * Probe the buffered bindings and afterwards the remaining bindings of the
+	 * probe iteration against the hash table. Results are added to this cursor in
+	 * blocks.
+	 *
+	 * @param hashTable
+	 * @param buffered
+	 *            the bindings of the probe operand that were read already
+	 * @param probeIter
+	 *            the remaining bindings of the probe operand
+	 * @param probeIsRight
+	 *            whether the probe operand is the right join argument
+	 * @return the total number of probe bindings
 	 */
-	protected void performJoin(Collection<BindingSet> leftBlock, Collection<BindingSet> rightBlock,
-			Set<String> joinVariables, Collection<String> freeVariablesRight) {
-		addResult(join(leftBlock, rightBlock, joinVariables, freeVariablesRight));
+	protected int probe(HashTable hashTable, CloseableIteration<BindingSet, QueryEvaluationException> buffered,
+			CloseableIteration<BindingSet, QueryEvaluationException> probeIter, boolean probeIsRight) {
+
+		int totalBindings = 0;
+		List<BindingSet> res = new ArrayList<>();
+		try {
+			while (!closed && (buffered.hasNext() || probeIter.hasNext())) {
+				BindingSet probeBindings = buffered.hasNext() ? buffered.next() : probeIter.next();
+				totalBindings++;
+				hashTable.probe(probeBindings, probeIsRight, res);
+				if (totalBindings % PROBE_BLOCK_SIZE == 0 && !res.isEmpty()) {
+					addResult(new CollectionIteration<>(res));
+					res = new ArrayList<>();
+				}
+			}
+		} finally {
+			buffered.close();
+		}
+		if (!res.isEmpty()) {
+			addResult(new CollectionIteration<>(res));
+		}
+		return totalBindings;
 	}
 
 	/**
 	 * Perform a hash join of bindings from the left block with those of the right
-	 * block.
+	 * block. The smaller block is used as build side.
 	 * <p>
-	 * This method keeps the merged bindings in the results, if the join variables
-	 * match and if all previously resolved bindings hold.
+	 * This method keeps the merged bindings in the results, if the bindings are
+	 * compatible, i.e. if all shared variables have the same value.
 	 * </p>
-	 * 
+	 *
 	 * @param leftBlock
 	 * @param rightBlock
 	 * @param joinVariables
-	 * @param freeVariablesRight
 	 * @return the merged binding result
 	 */
 	static CloseableIteration<BindingSet, QueryEvaluationException> join(Collection<BindingSet> leftBlock,
-			Collection<BindingSet> rightBlock, Set<String> joinVariables, Collection<String> freeVariablesRight) {
-		List<BindingSet> res = new LinkedList<>();
-
-		for (BindingSet left : leftBlock) {
+			Collection<BindingSet> rightBlock, Set<String> joinVariables) {
+		List<BindingSet> res = new ArrayList<>();
 
+		if (leftBlock.size() < rightBlock.size()) {
+			HashTable hashTable = new HashTable(leftBlock, joinVariables);
 			for (BindingSet right : rightBlock) {
+				hashTable.probe(right, true, res);
+			}
+		} else {
+			HashTable hashTable = new HashTable(rightBlock, joinVariables);
+			for (BindingSet left : leftBlock) {
+				hashTable.probe(left, false, res);
+			}
+		}
+
+		return new CollectionIteration<>(res);
+	}
+
+	/**
+	 * Returns true if the given bindings are compatible, i.e. if all variables
+	 * bound in both binding sets have the same value.
+	 *
+	 * @param b1
+	 * @param b2
+	 * @return whether the bindings are compatible
+	 */
+	static boolean isCompatible(BindingSet b1, BindingSet b2) {
+		for (Binding b : b1) {
+			Value other = b2.getValue(b.getName());
+			if (other != null && !other.equals(b.getValue())) {
+				return false;
+			}
+		}
+		return true;
+	}
 
-				boolean match = false;
-				// check join variables: must be equal in both operands
-				for (String joinVariable : joinVariables) {
-					Value leftValue = left.getValue(joinVariable);
-					Value rightValue = right.getValue(joinVariable);
-
-					// join match
-					if (leftValue != null && leftValue.equals(rightValue)) {
-						match = true;
-						break;
-					}
+	/**
+	 * Merge the left and right bindings into a new binding set.
+	 *
+	 * @param left
+	 * @param right
+	 * @return the merged bindings
+	 */
+	static BindingSet merge(BindingSet left, BindingSet right) {
+		MapBindingSet mergedBindings = new MapBindingSet();
+		for (Binding b : left) {
+			mergedBindings.addBinding(b);
+		}
+		for (Binding b : right) {
+			if (!mergedBindings.hasBinding(b.getName())) {
+				mergedBindings.addBinding(b);
+			}
+		}
+		return mergedBindings;
+	}
+
+	/**
+	 * Collects join results and adds them to the executor in blocks of
+	 * {@link HashJoin#PROBE_BLOCK_SIZE} bindings.
+	 */
+	static class ResultBlock {
+
+		private final ParallelExecutor<BindingSet> executor;
+		private List<BindingSet> res = new ArrayList<>();
+
+		ResultBlock(ParallelExecutor<BindingSet> executor) {
+			this.executor = executor;
+		}
+
+		void add(BindingSet b) {
+			res.add(b);
+			if (res.size() >= PROBE_BLOCK_SIZE) {
+				flush();
+			}
+		}
+
+		void addAll(Collection<BindingSet> bindings) {
+			for (BindingSet b : bindings) {
+				add(b);
+			}
+		}
+
+		/**
+		 * Add the collected results to the executor.
+		 */
+		void flush() {
+			if (!res.isEmpty()) {
+				executor.addResult(new CollectionIteration<>(res));
+				res = new ArrayList<>();
+			}
+		}
+	}
+
+	/**
+	 * Hash table of the build operand, keyed on the values of the join variables.
+	 * Bindings which do not bind all join variables are kept in a separate list,
+	 * as they are compatible with any value for the missing variables.
+	 */
+	static class HashTable {
+
+		private final List<String> joinVars;
+		private final Map<List<Value>, List<BindingSet>> table = new HashMap<>();
+		private final List<BindingSet> partial = new ArrayList<>();
+		private int size = 0;
+
+		HashTable(Set<String> joinVars) {
+			this.joinVars = new ArrayList<>(joinVars);
+		}
+
+		HashTable(Collection<BindingSet> buildBindings, Set<String> joinVars) {
+			this(joinVars);
+			for (BindingSet b : buildBindings) {
+				add(b);
+			}
+		}
+
+		HashTable(CloseableIteration<BindingSet, QueryEvaluationException> buildBindings, Set<String> joinVars) {
+			this(joinVars);
+			try {
+				while (buildBindings.hasNext()) {
+					add(buildBindings.next());
+				}
+			} finally {
+				buildBindings.close();
+			}
+		}
+
+		/**
+		 * Add the given bindings to the build side.
+		 *
+		 * @param b
+		 */
+		void add(BindingSet b) {
+			List<Value> key = key(b);
+			if (key == null) {
+				partial.add(b);
+			} else {
+				table.computeIfAbsent(key, k -> new ArrayList<>(1)).add(b);
+			}
+			size++;
+		}
+
+		/**
+		 * @param b
+		 * @return the values of the join variables, or <code>null</code> if at
+		 *         least one join variable is unbound
+		 */
+		private List<Value> key(BindingSet b) {
+			List<Value> key = new ArrayList<>(joinVars.size());
+			for (String joinVar : joinVars) {
+				Value v = b.getValue(joinVar);
+				if (v == null) {
+					return null;
 				}
+				key.add(v);
+			}
+			return key;
+		}
 
-				// check other free variables of right expression
-				// => must be available in bindings
-				for (String freeVariable : freeVariablesRight) {
-					if (joinVariables.contains(freeVariable)) {
-						continue; // skip
-					}
-					Value leftValue = left.getValue(freeVariable);
-					Value rightValue = right.getValue(freeVariable);
-					if (leftValue != null && leftValue.equals(rightValue)) {
-						match = true;
-					}
+		/**
+		 * Probe the given bindings and add all merged results to the result list.
+		 *
+		 * @param probeBindings
+		 * @param probeIsRight  whether the probe bindings belong to the right join
+		 *                      argument
+		 * @param res           the result list
+		 */
+		void probe(BindingSet probeBindings, boolean probeIsRight, List<BindingSet> res) {
+			List<Value> key = key(probeBindings);
+			if (key != null) {
+				List<BindingSet> candidates = table.get(key);
+				if (candidates != null) {
+					join(probeBindings, candidates, probeIsRight, res);
+				}
+			} else {
+				// missing join variables are compatible with any value
+				for (List<BindingSet> candidates : table.values()) {
+					join(probeBindings, candidates, probeIsRight, res);
 				}
+			}
+			join(probeBindings, partial, probeIsRight, res);
+		}
 
-				if (match) {
-					// emit a merged binding set
-					MapBindingSet mergedBindings = new MapBindingSet();
-					for (Binding b : left) {
-						mergedBindings.addBinding(b);
-					}
-					for (Binding b : right) {
-						mergedBindings.addBinding(b);
-					}
-					res.add(mergedBindings);
+		private void join(BindingSet probeBindings, List<BindingSet> candidates, boolean probeIsRight,
+				List<BindingSet> res) {
+			for (BindingSet candidate : candidates) {
+				if (!isCompatible(probeBindings, candidate)) {
+					continue;
 				}
+				res.add(probeIsRight ? merge(candidate, probeBindings) : merge(probeBindings, candidate));
 			}
 		}
 
-		return new CollectionIteration<>(res);
-	}
+		int size() {
+			return size;
+		}
 
+		/**
+		 * Remove all bindings from this hash table.
+		 */
+		void clear() {
+			table.clear();
+			partial.clear();
+			size = 0;
+		}
+	}
 }
@@ -0,0 +1,301 @@
+/*
+ * Copyright (C) 2026 Veritas Technologies LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fluidops.fedx.evaluation.join;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.QueryEvaluationException;
+import org.eclipse.rdf4j.query.QueryResults;
+import org.eclipse.rdf4j.query.algebra.LeftJoin;
+import org.eclipse.rdf4j.query.algebra.evaluation.QueryBindingSet;
+import org.eclipse.rdf4j.query.algebra.evaluation.ValueExprEvaluationException;
+import org.eclipse.rdf4j.repository.sparql.federation.CollectionIteration;
+
+import com.fluidops.fedx.evaluation.FederationEvalStrategy;
+import com.fluidops.fedx.evaluation.join.HashJoin.HashTable;
+import com.fluidops.fedx.structures.BindingSetBuffer;
+import com.fluidops.fedx.structures.QueryInfo;
+
+
+/**
+ * Hash based left join, which evaluates the right argument once (i.e. without
+ * the left bindings) concurrently to the left argument and probes the left
+ * bindings against a hash table of the right argument.
+ * 
+ * <p>
+ * The join is applied to left joins which cannot be evaluated per left binding
+ * (see {@link ControlledWorkerLeftJoin}):
+ * </p>
+ * 
+ * <ul>
+ * <li>the right argument contains a subquery, i.e. the left bindings are not in
+ * scope of the subquery</li>
+ * <li>the left join is not "well designed", i.e. the right argument or the
+ * condition refer to variables which are bound by the input bindings, but not
+ * by the left argument (the problem variables). Both arguments are evaluated
+ * without the problem variables, which are checked locally for each result
+ * (cf. RDF4J's BadlyDesignedLeftJoinIterator).</li>
+ * </ul>
+ * 
+ * <p>
+ * The right bindings are buffered in a {@link BindingSetBuffer}, i.e. they are
+ * accounted against the memory budget of the query. If they exceed the budget,
+ * both arguments are joined partition-wise (see {@link GraceHashJoin}).
+ * </p>
+ * 
+ * @author agent
+ */
+public class HashLeftJoin extends JoinExecutorBase<BindingSet> {
+
+	protected final LeftJoin join;
+	protected final BindingSet inputBindings;
+	protected final Set<String> problemVars;
+
+	/**
+	 * The set of binding names that are "in scope" for the condition
+	 */
+	protected final Set<String> scopeBindingNames;
+
+	/**
+	 * The iteration of the right argument while it is consumed, closed on
+	 * {@link #handleClose()} to abort a blocking read
+	 */
+	protected volatile CloseableIteration<BindingSet, QueryEvaluationException> rightArgIter;
+
+	/**
+	 * 
+	 * @param strategy
+	 * @param leftIter      the left bindings, evaluated with the given bindings
+	 * @param join
+	 * @param bindings      the bindings for the evaluation of the right argument,
+	 *                      i.e. the input bindings without the problem variables
+	 * @param inputBindings the original input bindings
+	 * @param problemVars   the problem variables, empty if the left join is well
+	 *                      designed
+	 * @param queryInfo
+	 * @throws QueryEvaluationException
+	 */
+	public HashLeftJoin(FederationEvalStrategy strategy,
+			CloseableIteration<BindingSet, QueryEvaluationException> leftIter, LeftJoin join, BindingSet bindings,
+			BindingSet inputBindings, Set<String> problemVars, QueryInfo queryInfo) throws QueryEvaluationException {
+		super(strategy, leftIter, join.getRightArg(), bindings, queryInfo);
+		this.join = join;
+		this.inputBindings = inputBindings;
+		this.problemVars = problemVars;
+		this.scopeBindingNames = join.getBindingNames();
+		Set<String> joinVars = new HashSet<>(join.getLeftArg().getBindingNames());
+		joinVars.retainAll(rightArg.getBindingNames());
+		setJoinVars(joinVars);
+	}
+
+	@Override
+	protected void handleBindings() throws Exception {
+
+		// Note: the left argument is already evaluated concurrently
+		try (BindingSetBuffer rightBuffer = new BindingSetBuffer(queryInfo)) {
+			rightArgIter = strategy.evaluate(rightArg, bindings);
+			try {
+				if (closed) {
+					// closed concurrently before the iteration was set
+					return;
+				}
+				while (!isDemandSatisfied() && rightArgIter.hasNext()) {
+					rightBuffer.add(rightArgIter.next());
+				}
+			} finally {
+				rightArgIter.close();
+				rightArgIter = null;
+			}
+			if (isDemandSatisfied()) {
+				return;
+			}
+
+			if (rightBuffer.getSpilledSize() > 0) {
+				// the right argument exceeds the memory budget
+				partitionedJoin(rightBuffer);
+			} else {
+				// the right bindings stay reserved in the buffer until the join is done
+				join(new HashTable(rightBuffer.iterator(), getJoinVars()));
+			}
+		}
+	}
+
+	/**
+	 * Probe the left bindings against the given hash table of the right argument.
+	 * 
+	 * @param hashTable
+	 * @throws QueryEvaluationException
+	 */
+	protected void join(HashTable hashTable) throws QueryEvaluationException {
+
+		int totalBindings = 0;
+		List<BindingSet> candidates = new ArrayList<>();
+		List<BindingSet> res = new ArrayList<>();
+		while (!isDemandSatisfied() && leftIter.hasNext()) {
+			BindingSet leftBindings = leftIter.next();
+			totalBindings++;
+
+			candidates.clear();
+			hashTable.probe(leftBindings, false, candidates);
+			boolean matched = false;
+			for (BindingSet candidate : candidates) {
+				if (isTrue(candidate)) {
+					matched = true;
+					emit(candidate, res);
+				}
+			}
+			if (!matched) {
+				emit(leftBindings, res);
+			}
+
+			if (totalBindings % HashJoin.PROBE_BLOCK_SIZE == 0 && !res.isEmpty()) {
+				addResult(new CollectionIteration<>(res));
+				res = new ArrayList<>();
+			}
+		}
+		if (!res.isEmpty()) {
+			addResult(new CollectionIteration<>(res));
+		}
+
+		if (log.isDebugEnabled()) {
+			log.debug("JoinStats: hash left join " + getDisplayId() + " built on " + hashTable.size()
+					+ " right bindings, probed with " + totalBindings + " left bindings, problem variables: "
+					+ problemVars);
+		}
+	}
+
+	/**
+	 * Perform a partitioned hash left join (see {@link GraceHashJoin}) of the left
+	 * bindings and the given right bindings, which are closed afterwards.
+	 * 
+	 * @param rightBuffer
+	 * @throws QueryEvaluationException
+	 */
+	protected void partitionedJoin(BindingSetBuffer rightBuffer) throws QueryEvaluationException {
+
+		int partitions = GraceHashJoin.partitionsFor(rightBuffer.getEstimatedSize());
+		try (GraceHashJoin graceJoin = new GraceHashJoin(queryInfo, getJoinVars(), partitions)) {
+			// the buffer releases its memory once it is drained
+			graceJoin.addAll(rightBuffer.drain(), true, this::isDemandSatisfied);
+			while (!isDemandSatisfied() && leftIter.hasNext()) {
+				graceJoin.add(leftIter.next(), false);
+			}
+
+			if (log.isDebugEnabled()) {
+				log.debug("JoinStats: hash left join " + getDisplayId() + " partitioned into " + partitions
+						+ " partitions, built on " + graceJoin.size(true) + " right bindings, probed with "
+						+ graceJoin.size(false) + " left bindings, problem variables: " + problemVars);
+			}
+
+			HashJoin.ResultBlock block = new HashJoin.ResultBlock(this);
+			List<BindingSet> res = new ArrayList<>();
+			graceJoin.join(false, this::isDemandSatisfied, new GraceHashJoin.ProbeHandler() {
+				@Override
+				public boolean handle(BindingSet leftBindings, List<BindingSet> candidates)
+						throws QueryEvaluationException {
+					boolean matched = false;
+					for (BindingSet candidate : candidates) {
+						if (isTrue(candidate)) {
+							matched = true;
+							emit(candidate, res);
+						}
+					}
+					block.addAll(res);
+					res.clear();
+					return matched;
+				}
+
+				@Override
+				public void handleUnmatched(BindingSet leftBindings) throws QueryEvaluationException {
+					emit(leftBindings, res);
+					block.addAll(res);
+					res.clear();
+				}
+
+				@Override
+				public boolean isTrackUnmatched() {
+					return true;
+				}
+			});
+			block.flush();
+		}
+	}
+
+	@Override
+	public void handleClose() throws QueryEvaluationException {
+		try {
+			super.handleClose();
+		} finally {
+			// closing the streamed result of the right argument (e.g. an HTTP
+			// response) unblocks the evaluation thread
+			CloseableIteration<BindingSet, QueryEvaluationException> iter = rightArgIter;
+			if (iter != null) {
+				iter.close();
+			}
+		}
+	}
+
+	/**
+	 * 
+	 * @param b the merged bindings
+	 * @return whether the join condition (if any) is satisfied for the given
+	 *         bindings
+	 * @throws QueryEvaluationException
+	 */
+	protected boolean isTrue(BindingSet b) throws QueryEvaluationException {
+		if (join.getCondition() == null) {
+			return true;
+		}
+		// Limit the bindings to the ones that are in scope for this filter
+		QueryBindingSet scopeBindings = new QueryBindingSet(b);
+		scopeBindings.retainAll(scopeBindingNames);
+		try {
+			return strategy.isTrue(join.getCondition(), scopeBindings);
+		} catch (ValueExprEvaluationException e) {
+			// Ignore, condition not evaluated successfully
+			return false;
+		}
+	}
+
+	/**
+	 * Add the given bindings to the result list, if they are compatible with the
+	 * input bindings. Missing problem variables are added from the input bindings.
+	 * 
+	 * @param b
+	 * @param res the result list
+	 */
+	protected void emit(BindingSet b, List<BindingSet> res) {
+		if (problemVars.isEmpty()) {
+			res.add(b);
+			return;
+		}
+		if (!QueryResults.bindingSetsCompatible(inputBindings, b)) {
+			return;
+		}
+		QueryBindingSet result = new QueryBindingSet(b);
+		for (String problemVar : problemVars) {
+			if (!result.hasBinding(problemVar)) {
+				result.addBinding(problemVar, inputBindings.getValue(problemVar));
+			}
+		}
+		res.add(result);
+	}
+}
@@ -69,7 +69,7 @@ public abstract class JoinExecutorBase<T> extends ParallelExecutorBase<T> {
 	 * 
 	 * Use the following as a template
 	 * <code>
-	 * while (!closed && leftIter.hasNext()) {
+	 * while (!isDemandSatisfied() && leftIter.hasNext()) {
 	 * 		// your code
 	 * }
 	 * </code>
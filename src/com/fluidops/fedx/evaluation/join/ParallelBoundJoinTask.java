@@ -21,6 +21,7 @@ import org.eclipse.rdf4j.common.iteration.CloseableIteration;
 import org.eclipse.rdf4j.query.BindingSet;
 import org.eclipse.rdf4j.query.QueryEvaluationException;
 
+import com.fluidops.fedx.FederationManager;
 import com.fluidops.fedx.algebra.StatementTupleExpr;
 import com.fluidops.fedx.evaluation.FederationEvalStrategy;
 import com.fluidops.fedx.evaluation.concurrent.ParallelExecutor;
@@ -51,7 +52,8 @@ public class ParallelBoundJoinTask extends ParallelTaskBase<BindingSet> {
 
 	@Override
 	public CloseableIteration<BindingSet, QueryEvaluationException> performTask() throws Exception {
-		return strategy.evaluateBoundJoinStatementPattern(expr, bindings);		
+		return FederationManager.getInstance().getBlockSizeController().evaluate(expr, bindings,
+				b -> strategy.evaluateBoundJoinStatementPattern(expr, b));		
 	}
 
 
@@ -60,4 +62,8 @@ public class ParallelBoundJoinTask extends ParallelTaskBase<BindingSet> {
 		return joinControl;
 	}
 
+	@Override
+	public String getEndpointId() {
+		return getEndpointId(expr);
+	}
 }
@@ -0,0 +1,264 @@
+/*
+ * Copyright (C) 2026 Veritas Technologies LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fluidops.fedx.evaluation.join;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.common.iteration.LookAheadIteration;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.QueryEvaluationException;
+import org.eclipse.rdf4j.query.algebra.LeftJoin;
+import org.eclipse.rdf4j.query.algebra.TupleExpr;
+import org.eclipse.rdf4j.query.algebra.evaluation.QueryBindingSet;
+import org.eclipse.rdf4j.query.algebra.evaluation.ValueExprEvaluationException;
+
+import com.fluidops.fedx.algebra.CheckStatementPattern;
+import com.fluidops.fedx.algebra.ExclusiveGroup;
+import com.fluidops.fedx.algebra.StatementTupleExpr;
+import com.fluidops.fedx.evaluation.FederationEvalStrategy;
+import com.fluidops.fedx.evaluation.concurrent.ParallelExecutor;
+import com.fluidops.fedx.evaluation.concurrent.ParallelTaskBase;
+
+
+/**
+ * A task implementation representing a bound left join, i.e. the right argument
+ * of an OPTIONAL is evaluated for a block of left bindings with a single (bound
+ * join) request per source.
+ *
+ * <p>
+ * To reconstruct the left outer join semantics locally, each left binding is
+ * marked with its index in the block (see {@link #LEFT_INDEX_BINDING_NAME}). The
+ * marker is not part of the remote query, but is retained in the results of the
+ * bound join. Results satisfying the join condition are emitted, afterwards the
+ * left bindings without any such result are emitted.
+ * </p>
+ *
+ * @author agent
+ * @see ControlledWorkerLeftJoin
+ */
+public class ParallelBoundLeftJoinTask extends ParallelTaskBase<BindingSet> {
+
+	/**
+	 * The binding name of the marker for the index of the left binding
+	 */
+	public static final String LEFT_INDEX_BINDING_NAME = "__leftIndex";
+
+	protected final FederationEvalStrategy strategy;
+	protected final LeftJoin join;
+	protected final List<BindingSet> leftBindings;
+	protected final ParallelExecutor<BindingSet> joinControl;
+
+	public ParallelBoundLeftJoinTask(ParallelExecutor<BindingSet> joinControl, FederationEvalStrategy strategy,
+			LeftJoin join, List<BindingSet> leftBindings) {
+		this.strategy = strategy;
+		this.join = join;
+		this.leftBindings = leftBindings;
+		this.joinControl = joinControl;
+	}
+
+	@Override
+	public CloseableIteration<BindingSet, QueryEvaluationException> performTask() throws Exception {
+		return new BoundLeftJoinIteration(strategy, join, leftBindings);
+	}
+
+	@Override
+	public ParallelExecutor<BindingSet> getControl() {
+		return joinControl;
+	}
+
+	@Override
+	public String getEndpointId() {
+		return getEndpointId(join.getRightArg());
+	}
+
+	/**
+	 *
+	 * @param expr
+	 * @return true if the given right argument of a left join can be evaluated
+	 *         with {@link ParallelBoundLeftJoinTask}
+	 */
+	public static boolean canApplyVectoredEvaluation(TupleExpr expr) {
+		return expr instanceof ExclusiveGroup || expr instanceof StatementTupleExpr;
+	}
+
+	static class BoundLeftJoinIteration extends LookAheadIteration<BindingSet, QueryEvaluationException> {
+
+		protected final FederationEvalStrategy strategy;
+
+		private final LeftJoin join;
+
+		private final List<BindingSet> leftBindings;
+
+		/**
+		 * The set of binding names that are "in scope" for the filter. The filter must
+		 * not include bindings that are (only) included because of the depth-first
+		 * evaluation strategy in the evaluation of the constraint.
+		 */
+		private final Set<String> scopeBindingNames;
+
+		/* the left bindings with at least one result */
+		private final BitSet matched;
+
+		/* the right iterations, one per group of the block */
+		private final List<CloseableIteration<BindingSet, QueryEvaluationException>> rightIters = new ArrayList<>(2);
+
+		/* the index of the left binding of the respective right iteration, -1 if marked */
+		private final List<Integer> rightIterIndexes = new ArrayList<>(2);
+
+		private boolean evaluated = false;
+
+		private int currentRightIter = 0;
+
+		private int nextUnmatched = 0;
+
+		public BoundLeftJoinIteration(FederationEvalStrategy strategy, LeftJoin join, List<BindingSet> leftBindings) {
+			super();
+			this.strategy = strategy;
+			this.join = join;
+			this.leftBindings = leftBindings;
+			this.scopeBindingNames = join.getBindingNames();
+			this.matched = new BitSet(leftBindings.size());
+		}
+
+		@Override
+		protected BindingSet getNextElement() throws QueryEvaluationException {
+
+			if (!evaluated) {
+				// lazy evaluation
+				evaluated = true;
+				evaluateRightArg();
+			}
+
+			while (currentRightIter < rightIters.size()) {
+				CloseableIteration<BindingSet, QueryEvaluationException> rightIter = rightIters.get(currentRightIter);
+				int fixedIndex = rightIterIndexes.get(currentRightIter);
+				while (rightIter.hasNext()) {
+					BindingSet rightBindings = rightIter.next();
+					int index = fixedIndex >= 0 ? fixedIndex : getLeftIndex(rightBindings);
+					BindingSet res = removeMarker(rightBindings);
+					if (isTrue(res)) {
+						matched.set(index);
+						return res;
+					}
+				}
+				currentRightIter++;
+			}
+
+			// emit the left bindings for which the join did not work
+			nextUnmatched = matched.nextClearBit(nextUnmatched);
+			if (nextUnmatched < leftBindings.size()) {
+				return leftBindings.get(nextUnmatched++);
+			}
+
+			return null;
+		}
+
+		/**
+		 * Evaluate the right argument for the left bindings using bound joins. Left
+		 * bindings for which all variables of the right argument are bound are
+		 * evaluated using a grouped check (statements) or one by one (exclusive
+		 * groups, for which no projection can be built).
+		 */
+		protected void evaluateRightArg() throws QueryEvaluationException {
+
+			TupleExpr expr = join.getRightArg();
+			List<BindingSet> withFreeVars = new ArrayList<>(leftBindings.size());
+			List<BindingSet> withoutFreeVars = new ArrayList<>(0);
+			for (int i = 0; i < leftBindings.size(); i++) {
+				BindingSet left = leftBindings.get(i);
+				if (!hasFreeVarsFor(expr, left) && expr instanceof ExclusiveGroup) {
+					addRightIter(strategy.evaluate(expr, left), i);
+					continue;
+				}
+				QueryBindingSet b = new QueryBindingSet(left);
+				b.setBinding(LEFT_INDEX_BINDING_NAME, SimpleValueFactory.getInstance().createLiteral(i));
+				if (hasFreeVarsFor(expr, left))
+					withFreeVars.add(b);
+				else
+					withoutFreeVars.add(b);
+			}
+
+			if (!withFreeVars.isEmpty()) {
+				if (expr instanceof ExclusiveGroup)
+					addRightIter(strategy.evaluateBoundJoinExclusiveGroup((ExclusiveGroup) expr, withFreeVars), -1);
+				else
+					addRightIter(strategy.evaluateBoundJoinStatementPattern((StatementTupleExpr) expr, withFreeVars),
+							-1);
+			}
+			if (!withoutFreeVars.isEmpty()) {
+				addRightIter(strategy.evaluateGroupedCheck(new CheckStatementPattern((StatementTupleExpr) expr),
+						withoutFreeVars), -1);
+			}
+		}
+
+		private void addRightIter(CloseableIteration<BindingSet, QueryEvaluationException> iter, int index) {
+			rightIters.add(iter);
+			rightIterIndexes.add(index);
+		}
+
+		protected boolean hasFreeVarsFor(TupleExpr expr, BindingSet b) {
+			if (expr instanceof ExclusiveGroup)
+				return ((ExclusiveGroup) expr).hasFreeVarsFor(b);
+			return ((StatementTupleExpr) expr).hasFreeVarsFor(b);
+		}
+
+		protected int getLeftIndex(BindingSet bindings) {
+			Value index = bindings.getValue(LEFT_INDEX_BINDING_NAME);
+			if (index == null) {
+				throw new QueryEvaluationException("Result of bound left join cannot be mapped to its left binding: " + bindings);
+			}
+			return Integer.parseInt(index.stringValue());
+		}
+
+		protected BindingSet removeMarker(BindingSet bindings) {
+			if (!bindings.hasBinding(LEFT_INDEX_BINDING_NAME))
+				return bindings;
+			QueryBindingSet res = new QueryBindingSet(bindings);
+			res.removeBinding(LEFT_INDEX_BINDING_NAME);
+			return res;
+		}
+
+		protected boolean isTrue(BindingSet rightBindings) throws QueryEvaluationException {
+			if (join.getCondition() == null)
+				return true;
+			try {
+				// Limit the bindings to the ones that are in scope for this filter
+				QueryBindingSet scopeBindings = new QueryBindingSet(rightBindings);
+				scopeBindings.retainAll(scopeBindingNames);
+				return strategy.isTrue(join.getCondition(), scopeBindings);
+			} catch (ValueExprEvaluationException e) {
+				// Ignore, condition not evaluated successfully
+				return false;
+			}
+		}
+
+		@Override
+		protected void handleClose() throws QueryEvaluationException {
+			try {
+				super.handleClose();
+			} finally {
+				for (CloseableIteration<BindingSet, QueryEvaluationException> rightIter : rightIters)
+					rightIter.close();
+			}
+		}
+	}
+}
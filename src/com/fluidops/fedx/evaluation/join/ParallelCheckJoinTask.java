@@ -21,6 +21,7 @@ import org.eclipse.rdf4j.common.iteration.CloseableIteration;
 import org.eclipse.rdf4j.query.BindingSet;
 import org.eclipse.rdf4j.query.QueryEvaluationException;
 
+import com.fluidops.fedx.FederationManager;
 import com.fluidops.fedx.algebra.CheckStatementPattern;
 import com.fluidops.fedx.evaluation.FederationEvalStrategy;
 import com.fluidops.fedx.evaluation.concurrent.ParallelExecutor;
@@ -48,11 +49,17 @@ public class ParallelCheckJoinTask extends ParallelTaskBase<BindingSet> {
 
 	@Override
 	public CloseableIteration<BindingSet, QueryEvaluationException> performTask() throws Exception {
-		return strategy.evaluateGroupedCheck(expr, bindings);
+		return FederationManager.getInstance().getBlockSizeController().evaluate(expr, bindings,
+				b -> strategy.evaluateGroupedCheck(expr, b));
 	}
 
 	@Override
 	public ParallelExecutor<BindingSet> getControl() {
 		return joinControl;
 	}
+
+	@Override
+	public String getEndpointId() {
+		return getEndpointId(expr);
+	}
 }
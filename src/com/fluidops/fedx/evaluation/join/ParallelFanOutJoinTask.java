@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2026 Veritas Technologies LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fluidops.fedx.evaluation.join;
+
+import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.QueryEvaluationException;
+
+import com.fluidops.fedx.evaluation.concurrent.ParallelExecutor;
+import com.fluidops.fedx.evaluation.concurrent.ParallelTask;
+import com.fluidops.fedx.evaluation.concurrent.ParallelTaskBase;
+
+
+/**
+ * A task implementation wrapping a bound join task that has been created for
+ * the distinct join keys of a block. The results of the wrapped task are fanned
+ * out to all left bindings of the block, see {@link DistinctJoinKeys}.
+ *
+ * @author agent
+ */
+public class ParallelFanOutJoinTask extends ParallelTaskBase<BindingSet> {
+
+	protected final ParallelTask<BindingSet> task;
+	protected final DistinctJoinKeys block;
+
+	public ParallelFanOutJoinTask(ParallelTask<BindingSet> task, DistinctJoinKeys block) {
+		this.task = task;
+		this.block = block;
+	}
+
+	@Override
+	public CloseableIteration<BindingSet, QueryEvaluationException> performTask() throws Exception {
+		return block.fanOut(task.performTask());
+	}
+
+	@Override
+	public ParallelExecutor<BindingSet> getControl() {
+		return task.getControl();
+	}
+
+	@Override
+	public String getEndpointId() {
+		return task.getEndpointId();
+	}
+}
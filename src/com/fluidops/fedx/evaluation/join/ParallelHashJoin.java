@@ -0,0 +1,328 @@
+/*
+ * Copyright (C) 2026 Veritas Technologies LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fluidops.fedx.evaluation.join;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.common.iteration.EmptyIteration;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.QueryEvaluationException;
+import org.eclipse.rdf4j.query.algebra.TupleExpr;
+import org.eclipse.rdf4j.repository.sparql.federation.CollectionIteration;
+
+import com.fluidops.fedx.Config;
+import com.fluidops.fedx.algebra.ParallelNJoin;
+import com.fluidops.fedx.evaluation.FederationEvalStrategy;
+import com.fluidops.fedx.evaluation.concurrent.ControlledWorkerScheduler;
+import com.fluidops.fedx.evaluation.concurrent.ParallelExecutor;
+import com.fluidops.fedx.evaluation.concurrent.ParallelExecutorBase;
+import com.fluidops.fedx.evaluation.concurrent.ParallelTaskBase;
+import com.fluidops.fedx.evaluation.join.HashJoin.HashTable;
+import com.fluidops.fedx.optimizer.JoinOrderOptimizer;
+import com.fluidops.fedx.structures.BindingSetBuffer;
+
+
+/**
+ * Hash join of independent join arguments, i.e. the evaluation of a bushy join
+ * plan (see {@link ParallelNJoin}).
+ *
+ * <p>
+ * The evaluation of all arguments is started in parallel by tasks of the given
+ * scheduler (i.e. the union scheduler). Afterwards all but the last argument are
+ * consumed into hash tables, and the bindings of the last argument are probed
+ * against these hash tables in order. Results are added in blocks of
+ * {@link HashJoin#PROBE_BLOCK_SIZE}.
+ * </p>
+ *
+ * <p>
+ * The bindings of the hash tables are reserved from the memory budget of the
+ * query (see {@link Config#getQueryMemoryBudget()}). If the build arguments
+ * exceed the budget, the arguments are joined one after the other by a
+ * partitioned hash join (see {@link GraceHashJoin}), where the intermediate
+ * results are spilled to disk as well.
+ * </p>
+ *
+ * <p>
+ * Note that the arguments are joined on their common variables, i.e. arguments
+ * without common variables yield the cross product.
+ * </p>
+ *
+ * @author agent
+ */
+public class ParallelHashJoin extends ParallelExecutorBase<BindingSet> {
+
+	protected final ControlledWorkerScheduler<BindingSet> scheduler;
+
+	protected final ParallelNJoin join;
+	protected final BindingSet bindings;
+
+	protected final Phaser phaser = new Phaser(1);
+
+	/* the argument iterations, set by the tasks */
+	protected final AtomicReferenceArray<CloseableIteration<BindingSet, QueryEvaluationException>> argIters;
+
+	public ParallelHashJoin(ControlledWorkerScheduler<BindingSet> scheduler, FederationEvalStrategy strategy,
+			ParallelNJoin join, BindingSet bindings) throws QueryEvaluationException {
+		super(strategy, join.getQueryInfo());
+		this.scheduler = scheduler;
+		this.join = join;
+		this.bindings = bindings;
+		this.argIters = new AtomicReferenceArray<>(join.getNumberOfArguments());
+	}
+
+	@Override
+	protected void performExecution() throws Exception {
+
+		int n = join.getNumberOfArguments();
+		try {
+			phaser.bulkRegister(n);
+			for (int i = 0; i < n; i++) {
+				scheduler.schedule(new ParallelHashJoinTask(i));
+			}
+
+			// wait until the evaluation of all arguments is started
+			phaser.awaitAdvanceInterruptibly(phaser.arrive(), queryInfo.getMaxRemainingTimeMS(),
+					TimeUnit.MILLISECONDS);
+			if (closed || hasFailedArgument()) {
+				return;
+			}
+
+			// buffer all but the last argument, i.e. the build arguments
+			List<BindingSetBuffer> buffers = new ArrayList<>(n - 1);
+			List<Set<String>> joinVars = new ArrayList<>(n - 1);
+			try {
+				boolean spilled = false;
+				Set<String> probeVars = new HashSet<>(JoinOrderOptimizer.getFreeVars(join.getArg(n - 1)));
+				for (int i = 0; i < n - 1 && !closed; i++) {
+					Set<String> argJoinVars = new HashSet<>(JoinOrderOptimizer.getFreeVars(join.getArg(i)));
+					argJoinVars.retainAll(probeVars);
+					probeVars.addAll(JoinOrderOptimizer.getFreeVars(join.getArg(i)));
+					joinVars.add(argJoinVars);
+
+					BindingSetBuffer buffer = new BindingSetBuffer(queryInfo);
+					buffers.add(buffer);
+					try (CloseableIteration<BindingSet, QueryEvaluationException> argIter = argIters.getAndSet(i,
+							null)) {
+						while (!closed && argIter.hasNext()) {
+							buffer.add(argIter.next());
+						}
+					}
+					spilled |= buffer.getSpilledSize() > 0;
+				}
+				if (closed) {
+					return;
+				}
+
+				int probed;
+				if (spilled) {
+					probed = partitionedJoin(buffers, joinVars, argIters.getAndSet(n - 1, null));
+				} else {
+					// the bindings stay reserved in the buffers until the join is done
+					List<HashTable> hashTables = new ArrayList<>(n - 1);
+					for (int i = 0; i < n - 1; i++) {
+						hashTables.add(new HashTable(buffers.get(i).iterator(), joinVars.get(i)));
+					}
+					probed = probe(hashTables, argIters.getAndSet(n - 1, null));
+				}
+
+				if (log.isDebugEnabled()) {
+					log.debug("JoinStats: parallel hash join " + getDisplayId() + " of " + n
+							+ " independent arguments probed with " + probed + " bindings"
+							+ (spilled ? " (partitioned)." : "."));
+				}
+			} finally {
+				for (BindingSetBuffer buffer : buffers) {
+					buffer.close();
+				}
+			}
+		} finally {
+			for (int i = 0; i < n; i++) {
+				CloseableIteration<BindingSet, QueryEvaluationException> iter = argIters.getAndSet(i, null);
+				if (iter != null) {
+					iter.close();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Probe the bindings of the given iteration against all hash tables. Results
+	 * are added to this cursor in blocks.
+	 *
+	 * @param hashTables
+	 * @param probeIter
+	 * @return the number of probed bindings
+	 */
+	protected int probe(List<HashTable> hashTables, CloseableIteration<BindingSet, QueryEvaluationException> probeIter) {
+		int probed = 0;
+		List<BindingSet> res = new ArrayList<>();
+		try {
+			while (!closed && probeIter.hasNext()) {
+				List<BindingSet> partial = Collections.singletonList(probeIter.next());
+				for (int i = 0; i < hashTables.size() && !partial.isEmpty(); i++) {
+					List<BindingSet> next = new ArrayList<>();
+					for (BindingSet b : partial) {
+						hashTables.get(i).probe(b, true, next);
+					}
+					partial = next;
+				}
+				res.addAll(partial);
+				if (++probed % HashJoin.PROBE_BLOCK_SIZE == 0 && !res.isEmpty()) {
+					addResult(new CollectionIteration<BindingSet, QueryEvaluationException>(res));
+					res = new ArrayList<>();
+				}
+			}
+		} finally {
+			probeIter.close();
+		}
+		if (!res.isEmpty())
+			addResult(new CollectionIteration<BindingSet, QueryEvaluationException>(res));
+		return probed;
+	}
+
+	/**
+	 * Join the bindings of the given iteration with the given build arguments one
+	 * after the other, using a partitioned hash join (see {@link GraceHashJoin})
+	 * for each step. The results of the last step are added to this cursor in
+	 * blocks.
+	 *
+	 * @param buildBuffers the bindings of the build arguments, closed afterwards
+	 * @param joinVars     the join variables of the build arguments
+	 * @param probeIter
+	 * @return the number of probed bindings
+	 * @throws QueryEvaluationException
+	 */
+	protected int partitionedJoin(List<BindingSetBuffer> buildBuffers, List<Set<String>> joinVars,
+			CloseableIteration<BindingSet, QueryEvaluationException> probeIter) throws QueryEvaluationException {
+
+		// the intermediate results of the previous steps
+		BindingSetBuffer current = new BindingSetBuffer(queryInfo);
+		try {
+			try {
+				while (!closed && probeIter.hasNext()) {
+					current.add(probeIter.next());
+				}
+			} finally {
+				probeIter.close();
+			}
+			int probed = current.size();
+
+			HashJoin.ResultBlock block = new HashJoin.ResultBlock(this);
+			for (int i = 0; i < buildBuffers.size() && !closed; i++) {
+				boolean last = i == buildBuffers.size() - 1;
+				BindingSetBuffer build = buildBuffers.get(i);
+				BindingSetBuffer next = last ? null : new BindingSetBuffer(queryInfo);
+				int partitions = GraceHashJoin.partitionsFor(build.getEstimatedSize());
+				try (GraceHashJoin graceJoin = new GraceHashJoin(queryInfo, joinVars.get(i), partitions)) {
+					// the buffers release their memory once they are drained
+					graceJoin.addAll(build.drain(), false, () -> closed);
+					graceJoin.addAll(current.drain(), true, () -> closed);
+					graceJoin.join(true, () -> closed, (probeBindings, merged) -> {
+						if (last) {
+							block.addAll(merged);
+						} else {
+							for (BindingSet b : merged) {
+								next.add(b);
+							}
+						}
+						return !merged.isEmpty();
+					});
+				} catch (RuntimeException e) {
+					if (next != null) {
+						next.close();
+					}
+					throw e;
+				}
+				current = next;
+			}
+			block.flush();
+			return probed;
+		} finally {
+			if (current != null) {
+				current.close();
+			}
+		}
+	}
+
+	private boolean hasFailedArgument() {
+		for (int i = 0; i < argIters.length(); i++) {
+			if (argIters.get(i) == null) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	protected String getExecutorType() {
+		return "Join";
+	}
+
+	@Override
+	public void done() {
+		phaser.arriveAndDeregister();
+		super.done();
+	}
+
+	@Override
+	public void toss(Exception e) {
+		phaser.arriveAndDeregister();
+		super.toss(e);
+	}
+
+	/**
+	 * Task starting the evaluation of one argument of the join.
+	 */
+	protected class ParallelHashJoinTask extends ParallelTaskBase<BindingSet> {
+
+		protected final int argIndex;
+
+		public ParallelHashJoinTask(int argIndex) {
+			this.argIndex = argIndex;
+		}
+
+		@Override
+		public CloseableIteration<BindingSet, QueryEvaluationException> performTask() throws Exception {
+			argIters.set(argIndex, strategy.evaluate(join.getArg(argIndex), bindings));
+			// the join may have been aborted in the meantime
+			if (closed || finished) {
+				CloseableIteration<BindingSet, QueryEvaluationException> iter = argIters.getAndSet(argIndex, null);
+				if (iter != null) {
+					iter.close();
+				}
+			}
+			return new EmptyIteration<BindingSet, QueryEvaluationException>();
+		}
+
+		@Override
+		public ParallelExecutor<BindingSet> getControl() {
+			return ParallelHashJoin.this;
+		}
+
+		@Override
+		public String getEndpointId() {
+			return getEndpointId(join.getArg(argIndex));
+		}
+	}
+}
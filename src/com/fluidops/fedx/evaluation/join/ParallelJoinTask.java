@@ -53,4 +53,9 @@ public class ParallelJoinTask extends ParallelTaskBase<BindingSet> {
 	public ParallelExecutor<BindingSet> getControl() {
 		return joinControl;
 	}
+
+	@Override
+	public String getEndpointId() {
+		return getEndpointId(expr);
+	}
 }
@@ -0,0 +1,298 @@
+/*
+ * Copyright (C) 2026 Veritas Technologies LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fluidops.fedx.evaluation.join;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.common.iteration.EmptyIteration;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.QueryEvaluationException;
+import org.eclipse.rdf4j.query.algebra.TupleExpr;
+import org.eclipse.rdf4j.repository.sparql.federation.CollectionIteration;
+
+import com.fluidops.fedx.Config;
+import com.fluidops.fedx.algebra.ExclusiveGroup;
+import com.fluidops.fedx.algebra.ExclusiveStatement;
+import com.fluidops.fedx.evaluation.FederationEvalStrategy;
+import com.fluidops.fedx.evaluation.concurrent.ControlledWorkerScheduler;
+import com.fluidops.fedx.evaluation.concurrent.ParallelExecutor;
+import com.fluidops.fedx.evaluation.concurrent.ParallelExecutorBase;
+import com.fluidops.fedx.evaluation.concurrent.ParallelTaskBase;
+import com.fluidops.fedx.evaluation.join.HashJoin.HashTable;
+import com.fluidops.fedx.structures.BindingSetBuffer;
+import com.fluidops.fedx.structures.QueryInfo;
+
+
+/**
+ * Symmetric (pipelined) hash join of two independent join arguments.
+ *
+ * <p>
+ * Both arguments are evaluated in parallel by tasks of the given scheduler
+ * (i.e. the union scheduler). Each incoming binding is probed against the hash
+ * table of the other argument and afterwards inserted into the hash table of its
+ * own argument. Thus every pair of compatible bindings is emitted exactly once,
+ * as soon as the later of both bindings has arrived.
+ * </p>
+ *
+ * <p>
+ * Results are added in blocks of growing size (up to
+ * {@link HashJoin#PROBE_BLOCK_SIZE}), such that the first results are available
+ * immediately.
+ * </p>
+ *
+ * <p>
+ * The hash tables are accounted against the memory budget of the query (see
+ * {@link #insertAndProbe(BindingSet, boolean, List)}). The join is applied to
+ * arguments which are evaluated at a single endpoint only (see
+ * {@link #canApply(TupleExpr, TupleExpr)}) if
+ * {@link Config#isEnableSymmetricHashJoin()} is set.
+ * </p>
+ *
+ * @author agent
+ */
+public class SymmetricHashJoin extends ParallelExecutorBase<BindingSet> {
+
+	protected final ControlledWorkerScheduler<BindingSet> scheduler;
+
+	protected final TupleExpr leftArg;
+	protected final TupleExpr rightArg;
+	protected final BindingSet bindings;
+
+	protected final Phaser phaser = new Phaser(1);
+
+	protected final Set<String> joinVars;
+
+	/* guarded by this */
+	protected final HashTable leftTable;
+	protected final HashTable rightTable;
+	protected long reservedBytes = 0;
+	protected boolean released = false;
+
+	/*
+	 * the bindings arriving after the memory budget is exceeded, guarded by this.
+	 * null unless the budget is exceeded
+	 */
+	protected GraceHashJoin overflow = null;
+
+	public SymmetricHashJoin(ControlledWorkerScheduler<BindingSet> scheduler, FederationEvalStrategy strategy,
+			TupleExpr leftArg, TupleExpr rightArg, Set<String> joinVars, BindingSet bindings, QueryInfo queryInfo)
+			throws QueryEvaluationException {
+		super(strategy, queryInfo);
+		this.scheduler = scheduler;
+		this.leftArg = leftArg;
+		this.rightArg = rightArg;
+		this.bindings = bindings;
+		this.joinVars = joinVars != null ? joinVars : Collections.<String>emptySet();
+		this.leftTable = new HashTable(this.joinVars);
+		this.rightTable = new HashTable(this.joinVars);
+	}
+
+	@Override
+	protected void performExecution() throws Exception {
+
+		phaser.bulkRegister(2);
+		scheduler.schedule(new SymmetricHashJoinTask(leftArg, false));
+		scheduler.schedule(new SymmetricHashJoinTask(rightArg, true));
+
+		GraceHashJoin overflowJoin;
+		boolean consumed = false;
+		try {
+			// wait until both arguments are consumed
+			phaser.awaitAdvanceInterruptibly(phaser.arrive(), queryInfo.getMaxRemainingTimeMS(),
+					TimeUnit.MILLISECONDS);
+
+			if (log.isDebugEnabled()) {
+				log.debug("JoinStats: symmetric hash join " + getDisplayId() + " consumed " + leftTable.size()
+						+ " left and " + rightTable.size() + " right bindings in memory"
+						+ (overflow != null ? ", " + overflow.size(false) + " left and " + overflow.size(true)
+								+ " right bindings exceeding the memory budget." : "."));
+			}
+			consumed = true;
+		} finally {
+			overflowJoin = releaseTables();
+			if (!consumed && overflowJoin != null) {
+				overflowJoin.close();
+			}
+		}
+
+		if (overflowJoin == null) {
+			return;
+		}
+		// join the bindings exceeding the budget with each other, all other pairs
+		// have been joined already
+		try {
+			boolean buildLeft = overflowJoin.size(false) < overflowJoin.size(true);
+			HashJoin.ResultBlock block = new HashJoin.ResultBlock(this);
+			overflowJoin.join(buildLeft, () -> closed, (probeBindings, merged) -> {
+				block.addAll(merged);
+				return !merged.isEmpty();
+			});
+			block.flush();
+		} finally {
+			overflowJoin.close();
+		}
+	}
+
+	/**
+	 * Probe the given bindings against the hash table of the other argument and
+	 * insert them into the hash table of their own argument.
+	 *
+	 * <p>
+	 * Each inserted binding reserves memory from the budget of the query (see
+	 * {@link QueryInfo#reserveBufferMemory(long)}). Once the budget is exceeded,
+	 * further bindings of both arguments are still probed against the hash
+	 * tables, but spilled to disk instead of being inserted. These bindings are
+	 * joined with each other after both arguments are consumed.
+	 * </p>
+	 *
+	 * @param b
+	 * @param isRight whether the bindings belong to the right argument
+	 * @param res     the result list
+	 * @throws QueryEvaluationException
+	 */
+	protected synchronized void insertAndProbe(BindingSet b, boolean isRight, List<BindingSet> res)
+			throws QueryEvaluationException {
+		if (released) {
+			return;
+		}
+		HashTable table = isRight ? rightTable : leftTable;
+		(isRight ? leftTable : rightTable).probe(b, isRight, res);
+		if (overflow == null) {
+			long size = BindingSetBuffer.estimateSize(b);
+			if (queryInfo.reserveBufferMemory(size)) {
+				reservedBytes += size;
+				table.add(b);
+				return;
+			}
+			overflow = new GraceHashJoin(queryInfo, joinVars, GraceHashJoin.MAX_PARTITIONS / 2);
+		}
+		overflow.add(b, isRight);
+	}
+
+	/**
+	 * Release the memory reserved by the hash tables. Bindings arriving afterwards
+	 * are ignored.
+	 *
+	 * @return the bindings exceeding the memory budget, if any
+	 */
+	protected synchronized GraceHashJoin releaseTables() {
+		if (released) {
+			return null;
+		}
+		released = true;
+		leftTable.clear();
+		rightTable.clear();
+		queryInfo.releaseBufferMemory(reservedBytes);
+		reservedBytes = 0;
+		return overflow;
+	}
+
+	@Override
+	public void handleClose() throws QueryEvaluationException {
+		try {
+			super.handleClose();
+		} finally {
+			GraceHashJoin overflowJoin = releaseTables();
+			if (overflowJoin != null) {
+				overflowJoin.close();
+			}
+		}
+	}
+
+	@Override
+	protected String getExecutorType() {
+		return "Join";
+	}
+
+	@Override
+	public void done() {
+		phaser.arriveAndDeregister();
+		super.done();
+	}
+
+	@Override
+	public void toss(Exception e) {
+		phaser.arriveAndDeregister();
+		super.toss(e);
+	}
+
+	/**
+	 * Returns true if the symmetric hash join can be applied to the given
+	 * arguments, i.e. if both arguments are evaluated at a single endpoint
+	 * without requiring further tasks of the scheduler.
+	 *
+	 * @param leftArg
+	 * @param rightArg
+	 * @return whether the symmetric hash join is applicable
+	 */
+	public static boolean canApply(TupleExpr leftArg, TupleExpr rightArg) {
+		return isExclusive(leftArg) && isExclusive(rightArg);
+	}
+
+	private static boolean isExclusive(TupleExpr expr) {
+		return expr instanceof ExclusiveGroup || expr instanceof ExclusiveStatement;
+	}
+
+	/**
+	 * Task consuming one argument of the symmetric hash join.
+	 */
+	protected class SymmetricHashJoinTask extends ParallelTaskBase<BindingSet> {
+
+		protected final TupleExpr expr;
+		protected final boolean isRight;
+
+		public SymmetricHashJoinTask(TupleExpr expr, boolean isRight) {
+			this.expr = expr;
+			this.isRight = isRight;
+		}
+
+		@Override
+		public CloseableIteration<BindingSet, QueryEvaluationException> performTask() throws Exception {
+
+			int blockSize = 1;
+			List<BindingSet> res = new ArrayList<>();
+			try (CloseableIteration<BindingSet, QueryEvaluationException> iter = strategy.evaluate(expr, bindings)) {
+				while (!closed && iter.hasNext()) {
+					insertAndProbe(iter.next(), isRight, res);
+					if (res.size() >= blockSize) {
+						addResult(new CollectionIteration<BindingSet, QueryEvaluationException>(res));
+						res = new ArrayList<>();
+						blockSize = Math.min(2 * blockSize, HashJoin.PROBE_BLOCK_SIZE);
+					}
+				}
+			}
+			if (!res.isEmpty())
+				addResult(new CollectionIteration<BindingSet, QueryEvaluationException>(res));
+			return new EmptyIteration<BindingSet, QueryEvaluationException>();
+		}
+
+		@Override
+		public ParallelExecutor<BindingSet> getControl() {
+			return SymmetricHashJoin.this;
+		}
+
+		@Override
+		public String getEndpointId() {
+			return getEndpointId(expr);
+		}
+	}
+}
@@ -26,7 +26,7 @@ import org.eclipse.rdf4j.query.algebra.TupleExpr;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.fluidops.fedx.Config;
+import com.fluidops.fedx.FederationManager;
 import com.fluidops.fedx.algebra.CheckStatementPattern;
 import com.fluidops.fedx.algebra.IndependentJoinGroup;
 import com.fluidops.fedx.algebra.StatementTupleExpr;
@@ -66,7 +66,7 @@ public class SynchronousBoundJoin extends SynchronousJoin {
 			return;
 		}
 		
-		int nBindingsCfg = Config.getConfig().getBoundJoinBlockSize();	
+		BoundJoinBlockSizeController blockSizeController = FederationManager.getInstance().getBlockSizeController();
 		int totalBindings = 0;		// the total number of bindings
 		StatementTupleExpr stmt = (StatementTupleExpr)rightArg;
 		
@@ -103,7 +103,7 @@ public class SynchronousBoundJoin extends SynchronousJoin {
 			 * 
 			 */
 			if (totalBindings>10)
-				nBindings = nBindingsCfg;
+				nBindings = blockSizeController.getBlockSize(stmt);	// adaptive, if enabled
 			else
 				nBindings = 3;
 
@@ -118,9 +118,11 @@ public class SynchronousBoundJoin extends SynchronousJoin {
 			totalBindings += count;		
 			
 			if (hasFreeVars) {
-				addResult( strategy.evaluateBoundJoinStatementPattern(stmt, bindings) );
+				final StatementTupleExpr _stmt = stmt;
+				addResult( blockSizeController.evaluate(stmt, bindings, b -> strategy.evaluateBoundJoinStatementPattern(_stmt, b)) );
 			} else {
-				addResult( strategy.evaluateGroupedCheck((CheckStatementPattern)stmt, bindings) );
+				final CheckStatementPattern _stmt = (CheckStatementPattern)stmt;
+				addResult( blockSizeController.evaluate(stmt, bindings, b -> strategy.evaluateGroupedCheck(_stmt, b)) );
 			}
 			
 		}
@@ -69,4 +69,9 @@ public class ParallelGetStatementsTask extends ParallelTaskBase<Statement> {
 		TripleSource tripleSource = endpoint.getTripleSource();
 		return tripleSource.getStatements(subj, pred, obj, contexts);
 	}
+
+	@Override
+	public String getEndpointId() {
+		return endpoint.getId();
+	}
 }
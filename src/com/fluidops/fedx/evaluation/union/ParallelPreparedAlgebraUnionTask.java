@@ -66,4 +66,9 @@ public class ParallelPreparedAlgebraUnionTask extends ParallelTaskBase<BindingSe
 	public String toString() {
 		return this.getClass().getSimpleName() + " @" + endpoint.getId() + ": " + preparedQuery.toString();
 	}
+
+	@Override
+	public String getEndpointId() {
+		return endpoint.getId();
+	}
 }
@@ -52,7 +52,7 @@ public class ParallelPreparedUnionTask extends ParallelTaskBase<BindingSet> {
 	@Override
 	public CloseableIteration<BindingSet, QueryEvaluationException> performTask() throws Exception {
 		TripleSource tripleSource = endpoint.getTripleSource();
-		return tripleSource.getStatements(preparedQuery, bindings, filterExpr);
+		return tripleSource.getStatements(preparedQuery, bindings, filterExpr, getQueryInfo());
 	}
 
 
@@ -65,4 +65,9 @@ public class ParallelPreparedUnionTask extends ParallelTaskBase<BindingSet> {
 	public String toString() {
 		return this.getClass().getSimpleName() + " @" + endpoint.getId() + ": " + preparedQuery;
 	}
+
+	@Override
+	public String getEndpointId() {
+		return endpoint.getId();
+	}
 }
@@ -64,4 +64,9 @@ public class ParallelUnionTask extends ParallelTaskBase<BindingSet> {
 	public String toString() {
 		return this.getClass().getSimpleName() + " @" + endpoint.getId() + ": " + QueryStringUtil.toString(stmt);
 	}
+
+	@Override
+	public String getEndpointId() {
+		return endpoint.getId();
+	}
 }
@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2026 Veritas Technologies LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fluidops.fedx.exception;
+
+import java.io.IOException;
+
+
+/**
+ * Signals an HTTP response with an error status code that is relevant for the
+ * evaluation strategy, e.g. 414 (Request-URI Too Long). RDF4J does not expose
+ * the status code of failed requests, hence such responses are rejected by an
+ * interceptor of the HTTP client (see
+ * {@link com.fluidops.fedx.endpoint.provider.ProviderUtil#createHttpClientBuilder()})
+ * and the status code is available from the cause of the query exception.
+ * 
+ * @author agent
+ *
+ */
+public class HttpStatusException extends IOException {
+
+	private static final long serialVersionUID = 7260127318458386514L;
+
+	protected final int statusCode;
+
+	public HttpStatusException(int statusCode, String reasonPhrase) {
+		super("HTTP " + statusCode + (reasonPhrase != null ? ": " + reasonPhrase : ""));
+		this.statusCode = statusCode;
+	}
+
+	/**
+	 * 
+	 * @return the HTTP status code of the response
+	 */
+	public int getStatusCode() {
+		return statusCode;
+	}
+}
@@ -16,6 +16,7 @@
 package com.fluidops.fedx.monitoring;
 
 import java.lang.management.ManagementFactory;
+import java.util.Map;
 
 import javax.management.MBeanServer;
 import javax.management.ObjectName;
@@ -37,6 +38,14 @@ public class MonitoringUtil
 		for (MonitoringInformation m : ms.getAllMonitoringInformation()) {
 			System.out.println("\t" + m.toString());
 		}
+		
+		Map<String, Integer> blockSizes = FederationManager.getInstance().getBlockSizeController().getBlockSizes();
+		if (!blockSizes.isEmpty()) {
+			System.out.println("### Bound join block sizes: ");
+			for (Map.Entry<String, Integer> e : blockSizes.entrySet()) {
+				System.out.println("\t" + e.getKey() + " => " + e.getValue());
+			}
+		}
 	}
 	
 	
@@ -17,6 +17,7 @@ package com.fluidops.fedx.monitoring.jmx;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.rdf4j.query.BindingSet;
 
@@ -60,6 +61,36 @@ public class FederationStatus implements FederationStatusMBean {
 		return scheduler.getTotalNumberOfWorkers();
 	}
 
+	@Override
+	public int getActiveJoinWorkerThreads() {
+		ControlledWorkerScheduler<BindingSet> scheduler = FederationManager.getInstance().getJoinScheduler();
+		return scheduler.getNumberOfActiveWorkers();
+	}
+
+	@Override
+	public int getActiveUnionWorkerThreads() {
+		ControlledWorkerScheduler<BindingSet> scheduler = FederationManager.getInstance().getUnionScheduler();
+		return scheduler.getNumberOfActiveWorkers();
+	}
+
+	@Override
+	public int getIdleLeftJoinWorkerThreads() {
+		ControlledWorkerScheduler<BindingSet> scheduler = FederationManager.getInstance().getLeftJoinScheduler();
+		return scheduler.getNumberOfIdleWorkers();
+	}
+
+	@Override
+	public int getActiveLeftJoinWorkerThreads() {
+		ControlledWorkerScheduler<BindingSet> scheduler = FederationManager.getInstance().getLeftJoinScheduler();
+		return scheduler.getNumberOfActiveWorkers();
+	}
+
+	@Override
+	public int getTotalLeftJoinWorkerThreads() {
+		ControlledWorkerScheduler<BindingSet> scheduler = FederationManager.getInstance().getLeftJoinScheduler();
+		return scheduler.getTotalNumberOfWorkers();
+	}
+
 	@Override
 	public int getNumberOfScheduledJoinTasks() {
 		ControlledWorkerScheduler<BindingSet> scheduler = FederationManager.getInstance().getJoinScheduler();
@@ -71,4 +102,18 @@ public class FederationStatus implements FederationStatusMBean {
 		ControlledWorkerScheduler<BindingSet> scheduler = FederationManager.getInstance().getUnionScheduler();
 		return scheduler.getNumberOfTasks();
 	}
+
+	@Override
+	public int getNumberOfScheduledLeftJoinTasks() {
+		ControlledWorkerScheduler<BindingSet> scheduler = FederationManager.getInstance().getLeftJoinScheduler();
+		return scheduler.getNumberOfTasks();
+	}
+
+	@Override
+	public List<String> getBoundJoinBlockSizes() {
+		List<String> res = new ArrayList<String>();
+		for (Map.Entry<String, Integer> e : FederationManager.getInstance().getBlockSizeController().getBlockSizes().entrySet())
+			res.add(e.getKey() + " => " + e.getValue());
+		return res;
+	}
 }
@@ -29,7 +29,21 @@ public interface FederationStatusMBean {
 	
 	public int getTotalUnionWorkerThreads();
 	
+	public int getActiveJoinWorkerThreads();
+	
+	public int getActiveUnionWorkerThreads();
+	
+	public int getIdleLeftJoinWorkerThreads();
+	
+	public int getActiveLeftJoinWorkerThreads();
+	
+	public int getTotalLeftJoinWorkerThreads();
+	
 	public int getNumberOfScheduledJoinTasks();
 	
 	public int getNumberOfScheduledUnionTasks();
+	
+	public int getNumberOfScheduledLeftJoinTasks();
+	
+	public List<String> getBoundJoinBlockSizes();
 }
@@ -18,10 +18,13 @@ package com.fluidops.fedx.optimizer;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.eclipse.rdf4j.query.algebra.Distinct;
 import org.eclipse.rdf4j.query.algebra.Filter;
+import org.eclipse.rdf4j.query.algebra.Group;
 import org.eclipse.rdf4j.query.algebra.Join;
 import org.eclipse.rdf4j.query.algebra.LeftJoin;
 import org.eclipse.rdf4j.query.algebra.Projection;
+import org.eclipse.rdf4j.query.algebra.Reduced;
 import org.eclipse.rdf4j.query.algebra.Service;
 import org.eclipse.rdf4j.query.algebra.Slice;
 import org.eclipse.rdf4j.query.algebra.StatementPattern;
@@ -39,7 +42,7 @@ import com.fluidops.fedx.structures.QueryInfo;
  * Generic optimizer
  * 
  * Tasks:
- * - Collect information (hasUnion, hasFilter, hasService)
+ * - Collect information (hasUnion, hasFilter, hasService, hasDistinct)
  * - Collect all statements in a list (for source selection), do not collect SERVICE expressions
  * - Collect all Join arguments and group them in the NJoin structure for easier optimization (flatten)
  * 
@@ -51,6 +54,8 @@ public class GenericInfoOptimizer extends AbstractQueryModelVisitor<Optimization
 	protected boolean hasUnion = false;
 	protected boolean hasService = false;
 	protected long limit = -1; // set to a positive number if the main query has a limit
+	protected boolean hasDistinct = false; // set if the main query has a DISTINCT or REDUCED projection
+	protected boolean hasGroup = false;
 	protected List<StatementPattern> stmts = new ArrayList<>();
 
 	// internal helpers
@@ -83,6 +88,22 @@ public class GenericInfoOptimizer extends AbstractQueryModelVisitor<Optimization
 		return limit;
 	}
 
+	/**
+	 * 
+	 * @return true if the main query has a DISTINCT or REDUCED projection
+	 */
+	public boolean hasDistinct() {
+		return hasDistinct;
+	}
+
+	/**
+	 * 
+	 * @return true if the query contains a GROUP BY or aggregates
+	 */
+	public boolean hasGroup() {
+		return hasGroup;
+	}
+
 	@Override
 	public void optimize(TupleExpr tupleExpr) {
 		
@@ -161,6 +182,28 @@ public class GenericInfoOptimizer extends AbstractQueryModelVisitor<Optimization
 		super.meet(node);
 	}
 
+	@Override
+	public void meet(Distinct node) throws OptimizationException {
+		if (!seenProjection) {
+			hasDistinct = true;
+		}
+		super.meet(node);
+	}
+
+	@Override
+	public void meet(Reduced node) throws OptimizationException {
+		if (!seenProjection) {
+			hasDistinct = true;
+		}
+		super.meet(node);
+	}
+
+	@Override
+	public void meet(Group node) throws OptimizationException {
+		hasGroup = true;
+		super.meet(node);
+	}
+
 	public boolean hasService()	{
 		return hasService;
 	}
@@ -17,9 +17,12 @@ package com.fluidops.fedx.optimizer;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.eclipse.rdf4j.query.algebra.BindingSetAssignment;
@@ -88,6 +91,48 @@ public class JoinOrderOptimizer {
 		return optimized;
 	}
 	
+	/**
+	 * Partition the (ordered) join arguments into groups of arguments which are
+	 * connected by common variables, i.e. arguments of different groups do not
+	 * share any variable. The order of the arguments is retained within and
+	 * between the groups. Join arguments are only partitioned if all of them are
+	 * {@link StatementTupleExpr}, i.e. if their variables are known to be bound.
+	 * 
+	 * @param joinArgs
+	 * @return the groups of connected join arguments
+	 */
+	public static List<List<TupleExpr>> getIndependentJoinArgs(List<TupleExpr> joinArgs) {
+		
+		for (TupleExpr arg : joinArgs) {
+			if (!(arg instanceof StatementTupleExpr))
+				return Collections.singletonList(joinArgs);
+		}
+		
+		// group[i] = the smallest index of the arguments connected with argument i
+		int n = joinArgs.size();
+		int[] group = new int[n];
+		List<Collection<String>> freeVars = new ArrayList<Collection<String>>(n);
+		for (int i=0; i<n; i++) {
+			group[i] = i;
+			freeVars.add(getFreeVars(joinArgs.get(i)));
+			for (int j=0; j<i; j++) {
+				if (group[j]!=group[i] && !Collections.disjoint(freeVars.get(i), freeVars.get(j))) {
+					int from = Math.max(group[i], group[j]);
+					int to = Math.min(group[i], group[j]);
+					for (int k=0; k<=i; k++)
+						if (group[k]==from)
+							group[k] = to;
+				}
+			}
+		}
+		
+		Map<Integer, List<TupleExpr>> groups = new LinkedHashMap<Integer, List<TupleExpr>>();
+		for (int i=0; i<n; i++)
+			groups.computeIfAbsent(group[i], k -> new ArrayList<TupleExpr>()).add(joinArgs.get(i));
+		
+		return new ArrayList<List<TupleExpr>>(groups.values());
+	}
+	
 	public static List<ExclusiveStatement> optimizeGroupOrder(List<ExclusiveStatement> groupStmts) {
 		
 		// in this case we do not have to order at all
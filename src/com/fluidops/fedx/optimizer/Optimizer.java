@@ -21,6 +21,7 @@ import java.util.Set;
 import org.eclipse.rdf4j.query.BindingSet;
 import org.eclipse.rdf4j.query.Dataset;
 import org.eclipse.rdf4j.query.algebra.QueryRoot;
+import org.eclipse.rdf4j.query.algebra.Slice;
 import org.eclipse.rdf4j.query.algebra.TupleExpr;
 import org.eclipse.rdf4j.query.algebra.evaluation.impl.ConstantOptimizer;
 import org.eclipse.rdf4j.query.algebra.evaluation.impl.DisjunctiveConstraintOptimizer;
@@ -28,6 +29,7 @@ import org.eclipse.rdf4j.sail.SailException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.fluidops.fedx.Config;
 import com.fluidops.fedx.EndpointManager;
 import com.fluidops.fedx.FedX;
 import com.fluidops.fedx.FederationManager;
@@ -93,8 +95,13 @@ public class Optimizer {
 		// collect information and perform generic optimizations
 		info.optimize(query);
 		
+		// the multiplicity of intermediate results is irrelevant for DISTINCT queries without aggregates
+		if (info.hasDistinct() && !info.hasGroup() && Config.getConfig().isEnableDistinctUnion())
+			queryInfo.setEliminateDuplicates(true);
+		
 		// Source Selection: all nodes are annotated with their source
-		SourceSelection sourceSelection = new SourceSelection(members, cache, queryInfo);
+		SourceSelection sourceSelection = new SourceSelection(members, cache,
+				FederationManager.getInstance().getCapabilityIndex(), queryInfo);
 		sourceSelection.doSourceSelection(info.getStatements());
 				
 		// if the query has a single relevant source (and if it is no a SERVICE query), evaluate at this source only
@@ -118,6 +125,11 @@ public class Optimizer {
 			new LimitOptimizer().optimize(query);
 		}
 
+		// the limit of the main query determines the number of requested results
+		TupleExpr root = ((QueryRoot) query).getArg();
+		if (root instanceof Slice && ((Slice) root).hasLimit())
+			queryInfo.setResultLimit(((Slice) root).getLimit());
+
 		// optimize Filters, if available
 		// Note: this is done after the join order is determined to ease filter pushing
 		if (info.hasFilter())
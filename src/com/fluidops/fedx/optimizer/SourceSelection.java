@@ -17,6 +17,7 @@ package com.fluidops.fedx.optimizer;
 
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -26,6 +27,7 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
 import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.model.Value;
 import org.eclipse.rdf4j.query.BindingSet;
 import org.eclipse.rdf4j.query.QueryEvaluationException;
 import org.eclipse.rdf4j.query.algebra.StatementPattern;
@@ -33,6 +35,7 @@ import org.eclipse.rdf4j.query.impl.EmptyBindingSet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.fluidops.fedx.Config;
 import com.fluidops.fedx.EndpointManager;
 import com.fluidops.fedx.FederationManager;
 import com.fluidops.fedx.algebra.EmptyStatementPattern;
@@ -44,11 +47,13 @@ import com.fluidops.fedx.cache.Cache;
 import com.fluidops.fedx.cache.Cache.StatementSourceAssurance;
 import com.fluidops.fedx.cache.CacheEntry;
 import com.fluidops.fedx.cache.CacheUtils;
+import com.fluidops.fedx.cache.CapabilityIndex;
 import com.fluidops.fedx.endpoint.Endpoint;
 import com.fluidops.fedx.evaluation.TripleSource;
 import com.fluidops.fedx.evaluation.concurrent.ControlledWorkerScheduler;
 import com.fluidops.fedx.evaluation.concurrent.ParallelExecutor;
 import com.fluidops.fedx.evaluation.concurrent.ParallelTaskBase;
+import com.fluidops.fedx.evaluation.iterator.BoundJoinVALUESConversionIteration;
 import com.fluidops.fedx.exception.ExceptionUtil;
 import com.fluidops.fedx.exception.OptimizationException;
 import com.fluidops.fedx.structures.QueryInfo;
@@ -68,12 +73,19 @@ public class SourceSelection {
 	
 	protected final List<Endpoint> endpoints;
 	protected final Cache cache;
+	protected final CapabilityIndex capabilityIndex;
 	protected final QueryInfo queryInfo;
 	
 	
 	public SourceSelection(List<Endpoint> endpoints, Cache cache, QueryInfo queryInfo) {
+		this(endpoints, cache, null, queryInfo);
+	}
+	
+	public SourceSelection(List<Endpoint> endpoints, Cache cache, CapabilityIndex capabilityIndex,
+			QueryInfo queryInfo) {
 		this.endpoints = endpoints;
 		this.cache = cache;
+		this.capabilityIndex = capabilityIndex;
 		this.queryInfo = queryInfo;
 	}
 
@@ -85,10 +97,13 @@ public class SourceSelection {
 	
 	
 	/**
-	 * Perform source selection for the provided statements using cache or remote ASK queries.
+	 * Perform source selection for the provided statements using the capability index (if
+	 * enabled), cache or remote ASK queries.
 	 * 
 	 * Remote ASK queries are evaluated in parallel using the concurrency infrastructure of FedX. Note,
-	 * that this method is blocking until every source is resolved.
+	 * that this method is blocking until every source is resolved. If batched source selection is
+	 * enabled (see {@link Config#isEnableBatchedSourceSelection()}), all statements that need
+	 * to be checked at an endpoint are probed with a single SELECT query.
 	 * 
 	 * The statement patterns are replaced by appropriate annotations in this optimization.
 	 * 
@@ -112,9 +127,12 @@ public class SourceSelection {
 			
 			SubQuery q = new SubQuery(stmt);
 				
-			// check for each current federation member (cache or remote ASK)
+			// check for each current federation member (capability index, cache or remote ASK)
 			for (Endpoint e : endpoints) {
-				StatementSourceAssurance a = cache.canProvideStatements(q, e);
+				StatementSourceAssurance a = capabilityIndex != null ? capabilityIndex.canProvideStatements(stmt, e)
+						: StatementSourceAssurance.POSSIBLY_HAS_STATEMENTS;
+				if (a == StatementSourceAssurance.POSSIBLY_HAS_STATEMENTS)
+					a = cache.canProvideStatements(q, e);
 				if (a==StatementSourceAssurance.HAS_LOCAL_STATEMENTS) {
 					addSource(stmt, new StatementSource(e.getId(), StatementSourceType.LOCAL));
 				} else if (a==StatementSourceAssurance.HAS_REMOTE_STATEMENTS) {
@@ -230,9 +248,10 @@ public class SourceSelection {
 			if (tasks.size()==0)
 				return;
 			
-			latch = new CountDownLatch(tasks.size());
-			for (CheckTaskPair task : tasks)
-				scheduler.schedule( new ParallelCheckTask(task.e, task.t, this) );
+			List<ParallelTaskBase<BindingSet>> checkTasks = createCheckTasks(tasks);
+			latch = new CountDownLatch(checkTasks.size());
+			for (ParallelTaskBase<BindingSet> task : checkTasks)
+				scheduler.schedule(task);
 			
 			try	{
 				boolean completed = latch.await(getQueryInfo().getMaxRemainingTimeMS(), TimeUnit.MILLISECONDS);
@@ -266,6 +285,35 @@ public class SourceSelection {
 			}
 		}
 
+		/**
+		 * Create the tasks for the remote checks. If batched source selection is
+		 * enabled, the statements of all pairs with the same endpoint are checked
+		 * by a single {@link ParallelBatchCheckTask}.
+		 * 
+		 * @param tasks
+		 * @return the tasks to be scheduled
+		 */
+		private List<ParallelTaskBase<BindingSet>> createCheckTasks(List<CheckTaskPair> tasks) {
+			List<ParallelTaskBase<BindingSet>> res = new ArrayList<>();
+			if (!Config.getConfig().isEnableBatchedSourceSelection()) {
+				for (CheckTaskPair task : tasks)
+					res.add(new ParallelCheckTask(task.e, task.t, this));
+				return res;
+			}
+			
+			Map<Endpoint, List<StatementPattern>> endpointToStmts = new LinkedHashMap<>();
+			for (CheckTaskPair task : tasks)
+				endpointToStmts.computeIfAbsent(task.e, e -> new ArrayList<>()).add(task.t);
+			
+			for (Map.Entry<Endpoint, List<StatementPattern>> entry : endpointToStmts.entrySet()) {
+				if (entry.getValue().size()==1)
+					res.add(new ParallelCheckTask(entry.getKey(), entry.getValue().get(0), this));
+				else
+					res.add(new ParallelBatchCheckTask(entry.getKey(), entry.getValue(), this));
+			}
+			return res;
+		}
+
 		@Override
 		public void run() { /* not needed */ }
 
@@ -349,6 +397,80 @@ public class SourceSelection {
 			return control;
 		}
 
+		@Override
+		public String getEndpointId() {
+			return endpoint.getId();
+		}
+
+		@Override
+		public void cancel() {
+			control.latch.countDown();
+			super.cancel();
+		}
+	}
+	
+	
+	/**
+	 * Task for checking a list of statements at an endpoint with a single SELECT
+	 * request (for source selection). The query probes each statement with a LIMIT 1
+	 * subquery, see {@link QueryStringUtil#selectQueryStringBatchedCheck(List)}.
+	 * 
+	 * @author agent
+	 */
+	protected static class ParallelBatchCheckTask extends ParallelTaskBase<BindingSet> {
+
+		protected final Endpoint endpoint;
+		protected final List<StatementPattern> stmts;
+		protected final SourceSelectionExecutorWithLatch control;
+		
+		public ParallelBatchCheckTask(Endpoint endpoint, List<StatementPattern> stmts, SourceSelectionExecutorWithLatch control) {
+			this.endpoint = endpoint;
+			this.stmts = stmts;
+			this.control = control;
+		}
+
+		
+		@Override
+		public CloseableIteration<BindingSet, QueryEvaluationException> performTask() throws Exception {
+			try {
+				TripleSource t = endpoint.getTripleSource();
+				String queryString = QueryStringUtil.selectQueryStringBatchedCheck(stmts);
+				
+				boolean[] hasResults = new boolean[stmts.size()];
+				try (CloseableIteration<BindingSet, QueryEvaluationException> res = t.getStatements(queryString,
+						EmptyBindingSet.getInstance(), null)) {
+					while (res.hasNext()) {
+						Value index = res.next().getValue(BoundJoinVALUESConversionIteration.INDEX_BINDING_NAME);
+						hasResults[Integer.parseInt(index.stringValue())] = true;
+					}
+				}
+
+				SourceSelection sourceSelection = control.sourceSelection;
+				for (int i=0; i<stmts.size(); i++) {
+					StatementPattern stmt = stmts.get(i);
+					CacheEntry entry = CacheUtils.createCacheEntry(endpoint, hasResults[i]);
+					sourceSelection.cache.updateEntry( new SubQuery(stmt), entry);
+
+					if (hasResults[i])
+						sourceSelection.addSource(stmt, new StatementSource(endpoint.getId(), StatementSourceType.REMOTE));
+				}
+				
+				return null;
+			} catch (Exception e) {
+				throw new OptimizationException("Error checking results for endpoint " + endpoint.getId() + ": " + e.getMessage(), e);
+			}
+		}
+
+		@Override
+		public ParallelExecutor<BindingSet> getControl() {
+			return control;
+		}
+
+		@Override
+		public String getEndpointId() {
+			return endpoint.getId();
+		}
+
 		@Override
 		public void cancel() {
 			control.latch.countDown();
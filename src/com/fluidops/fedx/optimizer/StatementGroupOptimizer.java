@@ -27,11 +27,13 @@ import org.eclipse.rdf4j.query.algebra.helpers.AbstractQueryModelVisitor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.fluidops.fedx.Config;
 import com.fluidops.fedx.algebra.EmptyNJoin;
 import com.fluidops.fedx.algebra.EmptyResult;
 import com.fluidops.fedx.algebra.ExclusiveGroup;
 import com.fluidops.fedx.algebra.ExclusiveStatement;
 import com.fluidops.fedx.algebra.NJoin;
+import com.fluidops.fedx.algebra.ParallelNJoin;
 import com.fluidops.fedx.algebra.TrueStatementPattern;
 import com.fluidops.fedx.exception.OptimizationException;
 import com.fluidops.fedx.structures.QueryInfo;
@@ -43,6 +45,7 @@ import com.fluidops.fedx.util.QueryStringUtil;
  * 
  * 1. Group {@link ExclusiveStatement} into {@link ExclusiveGroup}
  * 2. Adjust the join order using {@link JoinOrderOptimizer}
+ * 3. Group independent join arguments into a {@link ParallelNJoin} (if enabled)
  * 
  * 
  * @author as
@@ -228,6 +231,18 @@ public class StatementGroupOptimizer extends AbstractQueryModelVisitor<Optimizat
 		// optimize the join order
 		optimized = JoinOrderOptimizer.optimizeJoinOrder(optimized);
 
+		// bushy join plan: evaluate independent sub joins in parallel
+		if (Config.getConfig().isEnableBushyJoin()) {
+			List<List<TupleExpr>> independentArgs = JoinOrderOptimizer.getIndependentJoinArgs(optimized);
+			if (independentArgs.size()>1) {
+				List<TupleExpr> subJoins = new ArrayList<TupleExpr>(independentArgs.size());
+				for (List<TupleExpr> args : independentArgs)
+					subJoins.add(args.size()==1 ? args.get(0) : new NJoin(args, queryInfo));
+				node.replaceWith(new ParallelNJoin(subJoins, queryInfo));
+				return;
+			}
+		}
+		
 		// exchange the node
 		NJoin newNode = new NJoin(optimized, queryInfo);
 		node.replaceWith(newNode);
@@ -34,6 +34,7 @@ import org.eclipse.rdf4j.sail.SailConnection;
 import com.fluidops.fedx.structures.FedXBooleanQuery;
 import com.fluidops.fedx.structures.FedXGraphQuery;
 import com.fluidops.fedx.structures.FedXTupleQuery;
+import com.fluidops.fedx.structures.QueryInfo;
 import com.fluidops.fedx.structures.QueryType;
 import com.fluidops.fedx.util.FedXUtil;
 import com.google.common.collect.Sets;
@@ -58,16 +59,25 @@ public class FedXRepositoryConnection extends SailRepositoryConnection
 	public static final String BINDING_ORIGINAL_QUERY = "__originalQuery";
 	public static final String BINDING_ORIGINAL_QUERY_TYPE = "__originalQueryType";
 	public static final String BINDING_ORIGINAL_MAX_EXECUTION_TIME = "__originalQueryMaxExecutionTime";
+
+	/**
+	 * Optional binding to define the priority of a query as integer literal,
+	 * see {@link QueryInfo#getPriority()}. The priority can be applied to a
+	 * query using {@link FedXUtil#applyQueryPriority(SailQuery, int)}.
+	 */
+	public static final String BINDING_QUERY_PRIORITY = "__queryPriority";
 	
 	/**
-	 * The number of bindings in the external binding set that are added by FedX.
+	 * The bindings in the external binding set that are added by FedX.
 	 * 
 	 * @see #BINDING_ORIGINAL_QUERY
 	 * @see #BINDING_ORIGINAL_QUERY_TYPE
 	 * @see #BINDING_ORIGINAL_MAX_EXECUTION_TIME
+	 * @see #BINDING_QUERY_PRIORITY
 	 */
 	public static final Set<String> FEDX_BINDINGS = Collections.unmodifiableSet(
-			Sets.newHashSet(BINDING_ORIGINAL_QUERY, BINDING_ORIGINAL_QUERY_TYPE, BINDING_ORIGINAL_MAX_EXECUTION_TIME));
+			Sets.newHashSet(BINDING_ORIGINAL_QUERY, BINDING_ORIGINAL_QUERY_TYPE, BINDING_ORIGINAL_MAX_EXECUTION_TIME,
+					BINDING_QUERY_PRIORITY));
 
 	protected FedXRepositoryConnection(SailRepository repository,
 			SailConnection sailConnection) {
@@ -0,0 +1,185 @@
+/*
+ * Copyright (C) 2026 Veritas Technologies LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fluidops.fedx.structures;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.query.AbstractBindingSet;
+import org.eclipse.rdf4j.query.Binding;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.impl.SimpleBinding;
+
+
+/**
+ * A mutable {@link BindingSet} backed by parallel arrays of binding names and
+ * values.
+ * 
+ * <p>
+ * Compared to {@link org.eclipse.rdf4j.query.algebra.evaluation.QueryBindingSet}
+ * no hash map and no entry objects are allocated, which makes this binding set
+ * well suited for the small result bindings produced in large numbers by the
+ * bound join conversions. Lookups are linear in the number of bindings.
+ * </p>
+ * 
+ * @author agent
+ */
+public class ArrayBindingSet extends AbstractBindingSet {
+
+	private static final long serialVersionUID = -4389614938226316538L;
+
+	protected String[] names;
+	protected Value[] values;
+	protected int size = 0;
+
+	public ArrayBindingSet(int capacity) {
+		this.names = new String[Math.max(capacity, 1)];
+		this.values = new Value[names.length];
+	}
+
+	/**
+	 * Create a copy of the given bindings with room for (at least) the given
+	 * number of additional bindings. Copies of an {@link ArrayBindingSet} retain
+	 * its capacity.
+	 * 
+	 * @param bindings
+	 * @param additionalCapacity
+	 */
+	public ArrayBindingSet(BindingSet bindings, int additionalCapacity) {
+		if (bindings instanceof ArrayBindingSet) {
+			ArrayBindingSet other = (ArrayBindingSet) bindings;
+			int capacity = Math.max(other.names.length, other.size + additionalCapacity);
+			this.names = Arrays.copyOf(other.names, capacity);
+			this.values = Arrays.copyOf(other.values, capacity);
+			this.size = other.size;
+		} else {
+			this.names = new String[Math.max(bindings.size() + additionalCapacity, 1)];
+			this.values = new Value[names.length];
+			for (Binding b : bindings)
+				addBinding(b.getName(), b.getValue());
+		}
+	}
+
+	/**
+	 * Set the binding for the given name, an existing binding is replaced.
+	 * 
+	 * @param name
+	 * @param value
+	 */
+	public void setBinding(String name, Value value) {
+		int idx = indexOf(name);
+		if (idx >= 0)
+			values[idx] = value;
+		else
+			addBinding(name, value);
+	}
+
+	/**
+	 * Add a binding without checking for an existing binding of the given name.
+	 * Callers must ensure that the name is not yet bound.
+	 * 
+	 * @param name
+	 * @param value
+	 */
+	public void addBinding(String name, Value value) {
+		if (size == names.length) {
+			names = Arrays.copyOf(names, 2 * size);
+			values = Arrays.copyOf(values, 2 * size);
+		}
+		names[size] = name;
+		values[size++] = value;
+	}
+
+	protected int indexOf(String name) {
+		// identical name instances are the common case for decoded names
+		for (int i = 0; i < size; i++) {
+			if (names[i] == name)
+				return i;
+		}
+		for (int i = 0; i < size; i++) {
+			if (names[i].equals(name))
+				return i;
+		}
+		return -1;
+	}
+
+	@Override
+	public Iterator<Binding> iterator() {
+		return new Iterator<Binding>() {
+			private int idx = 0;
+
+			@Override
+			public boolean hasNext() {
+				return idx < size;
+			}
+
+			@Override
+			public Binding next() {
+				if (idx >= size)
+					throw new NoSuchElementException();
+				SimpleBinding b = new SimpleBinding(names[idx], values[idx]);
+				idx++;
+				return b;
+			}
+		};
+	}
+
+	@Override
+	public Set<String> getBindingNames() {
+		return new AbstractSet<String>() {
+			@Override
+			public Iterator<String> iterator() {
+				return Arrays.asList(names).subList(0, size).iterator();
+			}
+
+			@Override
+			public boolean contains(Object o) {
+				return o instanceof String && hasBinding((String) o);
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+		};
+	}
+
+	@Override
+	public Binding getBinding(String bindingName) {
+		int idx = indexOf(bindingName);
+		return idx >= 0 ? new SimpleBinding(names[idx], values[idx]) : null;
+	}
+
+	@Override
+	public boolean hasBinding(String bindingName) {
+		return indexOf(bindingName) >= 0;
+	}
+
+	@Override
+	public Value getValue(String bindingName) {
+		int idx = indexOf(bindingName);
+		return idx >= 0 ? values[idx] : null;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+}
@@ -0,0 +1,378 @@
+/*
+ * Copyright (C) 2026 Veritas Technologies LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fluidops.fedx.structures;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.common.iteration.LookAheadIteration;
+import org.eclipse.rdf4j.model.BNode;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Literal;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.query.Binding;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.QueryEvaluationException;
+import org.eclipse.rdf4j.query.algebra.evaluation.QueryBindingSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fluidops.fedx.Config;
+
+
+/**
+ * An append-only buffer of {@link BindingSet}s which is accounted against the
+ * memory budget of a query (see {@link QueryInfo#reserveBufferMemory(long)}).
+ *
+ * <p>
+ * Once the budget of the query is exceeded, this and all further bindings of
+ * the buffer are serialized to a local temporary file using sequential writes
+ * to a {@link FileChannel}. Iterations of the buffer (see {@link #iterator()})
+ * return the bindings in the order they have been added, i.e. first the
+ * bindings kept in memory and afterwards those read back from the file.
+ * </p>
+ *
+ * <p>
+ * Buffers must be closed to release the reserved memory and to delete the
+ * temporary file. Note that this class is not thread safe.
+ * </p>
+ *
+ * @author agent
+ * @see Config#getQueryMemoryBudget()
+ */
+public class BindingSetBuffer implements AutoCloseable {
+
+	private static final Logger log = LoggerFactory.getLogger(BindingSetBuffer.class);
+
+	private static final int IO_BUFFER_SIZE = 64 * 1024;
+
+	private static final byte IRI_VALUE = 1;
+	private static final byte BNODE_VALUE = 2;
+	private static final byte LITERAL_VALUE = 3;
+	private static final byte LANG_LITERAL_VALUE = 4;
+
+	protected final QueryInfo queryInfo;
+
+	protected final List<BindingSet> memory = new ArrayList<>();
+	protected long reservedBytes = 0;
+
+	/* the spill file, null if all bindings are kept in memory */
+	protected Path spillFile = null;
+	protected FileChannel spillChannel = null;
+	protected DataOutputStream spillOut = null;
+	protected int spilled = 0;
+	protected long spilledBytes = 0;
+
+	/* whether all bindings are spilled without reserving memory */
+	protected final boolean spillAlways;
+
+	protected boolean closed = false;
+
+	/**
+	 *
+	 * @param queryInfo the query to account the memory for, if <code>null</code>
+	 *                  all bindings are kept in memory
+	 */
+	public BindingSetBuffer(QueryInfo queryInfo) {
+		this(queryInfo, false);
+	}
+
+	/**
+	 *
+	 * @param queryInfo   the query to account the memory for, if
+	 *                    <code>null</code> all bindings are kept in memory
+	 * @param spillAlways if set, all bindings are spilled to disk right away,
+	 *                    i.e. the buffer does not reserve any memory
+	 */
+	public BindingSetBuffer(QueryInfo queryInfo, boolean spillAlways) {
+		this.queryInfo = queryInfo;
+		this.spillAlways = spillAlways && queryInfo != null;
+	}
+
+	/**
+	 * Add the given bindings to this buffer
+	 *
+	 * @param b
+	 * @throws QueryEvaluationException if the bindings cannot be spilled
+	 */
+	public void add(BindingSet b) throws QueryEvaluationException {
+		if (closed)
+			throw new IllegalStateException("Buffer is already closed.");
+		long size = estimateSize(b);
+		if (spillOut == null) {
+			if (!spillAlways && (queryInfo == null || queryInfo.reserveBufferMemory(size))) {
+				reservedBytes += size;
+				memory.add(b);
+				return;
+			}
+			openSpillFile();
+		}
+		try {
+			write(spillOut, b);
+			spilled++;
+			spilledBytes += size;
+		} catch (IOException e) {
+			throw new QueryEvaluationException("Failed to spill bindings to " + spillFile + ": " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 *
+	 * @return the number of bindings in this buffer
+	 */
+	public int size() {
+		return memory.size() + spilled;
+	}
+
+	/**
+	 *
+	 * @return true if this buffer does not contain any bindings
+	 */
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	/**
+	 *
+	 * @return the number of bindings which have been spilled to disk
+	 */
+	public int getSpilledSize() {
+		return spilled;
+	}
+
+	/**
+	 *
+	 * @return the estimated memory consumption of all bindings in this buffer in
+	 *         bytes, including the spilled ones
+	 */
+	public long getEstimatedSize() {
+		return reservedBytes + spilledBytes;
+	}
+
+	/**
+	 * Returns an iteration over the bindings which have been added so far. The
+	 * buffer can be iterated multiple times.
+	 *
+	 * @return an iteration over the buffered bindings
+	 * @throws QueryEvaluationException
+	 */
+	public CloseableIteration<BindingSet, QueryEvaluationException> iterator() throws QueryEvaluationException {
+		return new BufferIteration(false);
+	}
+
+	/**
+	 * Returns an iteration over the bindings which have been added so far. The
+	 * buffer is closed once the iteration is closed or exhausted.
+	 *
+	 * @return an iteration over the buffered bindings
+	 * @throws QueryEvaluationException
+	 */
+	public CloseableIteration<BindingSet, QueryEvaluationException> drain() throws QueryEvaluationException {
+		return new BufferIteration(true);
+	}
+
+	/**
+	 * Release the reserved memory and delete the temporary file, if any.
+	 */
+	@Override
+	public void close() {
+		if (closed)
+			return;
+		closed = true;
+		memory.clear();
+		if (queryInfo != null)
+			queryInfo.releaseBufferMemory(reservedBytes);
+		reservedBytes = 0;
+		if (spillFile != null) {
+			try {
+				spillOut.close();
+				Files.deleteIfExists(spillFile);
+			} catch (IOException e) {
+				log.warn("Failed to delete spill file " + spillFile + ": " + e.getMessage());
+			}
+		}
+	}
+
+	protected void openSpillFile() throws QueryEvaluationException {
+		try {
+			spillFile = Files.createTempFile("fedx-spill", ".bin");
+			spillChannel = FileChannel.open(spillFile, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+			spillOut = new DataOutputStream(
+					new BufferedOutputStream(Channels.newOutputStream(spillChannel), IO_BUFFER_SIZE));
+		} catch (IOException e) {
+			throw new QueryEvaluationException("Failed to create spill file: " + e.getMessage(), e);
+		}
+		if (log.isDebugEnabled() && !spillAlways) {
+			log.debug("Memory budget of query " + queryInfo.getQueryID() + " exceeded, spilling bindings to "
+					+ spillFile);
+		}
+	}
+
+	/**
+	 * Estimate the memory consumption of the given bindings in bytes.
+	 *
+	 * @param b
+	 * @return the estimated size
+	 */
+	public static long estimateSize(BindingSet b) {
+		long size = 48;
+		for (Binding binding : b) {
+			size += 64 + 2 * binding.getName().length() + 2 * binding.getValue().stringValue().length();
+		}
+		return size;
+	}
+
+	protected static void write(DataOutputStream out, BindingSet b) throws IOException {
+		out.writeInt(b.size());
+		for (Binding binding : b) {
+			writeString(out, binding.getName());
+			Value v = binding.getValue();
+			if (v instanceof IRI) {
+				out.writeByte(IRI_VALUE);
+				writeString(out, v.stringValue());
+			} else if (v instanceof BNode) {
+				out.writeByte(BNODE_VALUE);
+				writeString(out, ((BNode) v).getID());
+			} else {
+				Literal l = (Literal) v;
+				if (l.getLanguage().isPresent()) {
+					out.writeByte(LANG_LITERAL_VALUE);
+					writeString(out, l.getLabel());
+					writeString(out, l.getLanguage().get());
+				} else {
+					out.writeByte(LITERAL_VALUE);
+					writeString(out, l.getLabel());
+					writeString(out, l.getDatatype().stringValue());
+				}
+			}
+		}
+	}
+
+	protected static BindingSet read(DataInputStream in, ValueFactory vf) throws IOException {
+		int n = in.readInt();
+		QueryBindingSet res = new QueryBindingSet(n);
+		for (int i = 0; i < n; i++) {
+			String name = readString(in);
+			byte type = in.readByte();
+			switch (type) {
+			case IRI_VALUE:
+				res.addBinding(name, vf.createIRI(readString(in)));
+				break;
+			case BNODE_VALUE:
+				res.addBinding(name, vf.createBNode(readString(in)));
+				break;
+			case LITERAL_VALUE:
+				String label = readString(in);
+				res.addBinding(name, vf.createLiteral(label, vf.createIRI(readString(in))));
+				break;
+			case LANG_LITERAL_VALUE:
+				String langLabel = readString(in);
+				res.addBinding(name, vf.createLiteral(langLabel, readString(in)));
+				break;
+			default:
+				throw new IOException("Unexpected value type in spill file: " + type);
+			}
+		}
+		return res;
+	}
+
+	private static void writeString(DataOutputStream out, String s) throws IOException {
+		byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		byte[] bytes = new byte[in.readInt()];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Iteration over the bindings kept in memory and afterwards over the bindings
+	 * read back from the spill file.
+	 */
+	protected class BufferIteration extends LookAheadIteration<BindingSet, QueryEvaluationException> {
+
+		protected final boolean closeBuffer;
+		protected final int memorySize;
+		protected final int spilledSize;
+
+		protected int memoryIdx = 0;
+		protected int spilledIdx = 0;
+		protected DataInputStream in = null;
+
+		public BufferIteration(boolean closeBuffer) throws QueryEvaluationException {
+			this.closeBuffer = closeBuffer;
+			this.memorySize = memory.size();
+			this.spilledSize = spilled;
+			if (spilledSize > 0) {
+				try {
+					spillOut.flush();
+				} catch (IOException e) {
+					throw new QueryEvaluationException("Failed to spill bindings to " + spillFile + ": " + e.getMessage(), e);
+				}
+			}
+		}
+
+		@Override
+		protected BindingSet getNextElement() throws QueryEvaluationException {
+			if (memoryIdx < memorySize)
+				return memory.get(memoryIdx++);
+			if (spilledIdx >= spilledSize)
+				return null;
+			try {
+				if (in == null) {
+					in = new DataInputStream(new BufferedInputStream(
+							Channels.newInputStream(FileChannel.open(spillFile, StandardOpenOption.READ)),
+							IO_BUFFER_SIZE));
+				}
+				spilledIdx++;
+				return read(in, SimpleValueFactory.getInstance());
+			} catch (IOException e) {
+				throw new QueryEvaluationException("Failed to read spilled bindings from " + spillFile + ": " + e.getMessage(), e);
+			}
+		}
+
+		@Override
+		protected void handleClose() throws QueryEvaluationException {
+			try {
+				super.handleClose();
+				if (in != null)
+					in.close();
+			} catch (IOException e) {
+				log.debug("Failed to close spill file " + spillFile + ": " + e.getMessage());
+			} finally {
+				if (closeBuffer)
+					BindingSetBuffer.this.close();
+			}
+		}
+	}
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright (C) 2026 Veritas Technologies LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fluidops.fedx.structures;
+
+import org.eclipse.rdf4j.model.BNode;
+import org.eclipse.rdf4j.model.Literal;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.query.Binding;
+import org.eclipse.rdf4j.query.BindingSet;
+
+
+/**
+ * A compact set of 64 bit fingerprints, which is used for duplicate elimination
+ * without retaining the elements (e.g. statements or bindings) themselves.
+ *
+ * <p>
+ * Fingerprints are stored in an open addressing hash table of primitive longs,
+ * i.e. with 8 bytes per element (plus the free slots for a load factor of at
+ * most 0.75). Two distinct elements are considered equal if their fingerprints
+ * collide, which for n elements happens with a probability of about n^2/2^65.
+ * </p>
+ *
+ * <p>
+ * Note that this class is not thread safe.
+ * </p>
+ *
+ * @author agent
+ */
+public class FingerprintSet {
+
+	/**
+	 * The initial value of a fingerprint (FNV-1a offset basis).
+	 */
+	public static final long SEED = 0xcbf29ce484222325L;
+
+	private static final long PRIME = 0x100000001b3L;
+
+	/* 0 denotes a free slot, the fingerprint 0 is replaced by this value */
+	private static final long ZERO_FINGERPRINT = 0x9e3779b97f4a7c15L;
+
+	private long[] table;
+	private int size = 0;
+
+	public FingerprintSet() {
+		this(16);
+	}
+
+	/**
+	 *
+	 * @param expectedSize the expected number of elements
+	 */
+	public FingerprintSet(int expectedSize) {
+		int capacity = 16;
+		while (capacity * 3 < expectedSize * 4)
+			capacity <<= 1;
+		this.table = new long[capacity];
+	}
+
+	/**
+	 * Add the given fingerprint to this set
+	 *
+	 * @param fingerprint
+	 * @return true if the fingerprint was not contained before
+	 */
+	public boolean add(long fingerprint) {
+		if (fingerprint == 0L)
+			fingerprint = ZERO_FINGERPRINT;
+		if ((size + 1) * 4L > table.length * 3L)
+			rehash(table.length << 1);
+		if (!insert(table, fingerprint))
+			return false;
+		size++;
+		return true;
+	}
+
+	/**
+	 * Add the fingerprint of the given statement (see
+	 * {@link #fingerprint(Statement)}) to this set
+	 *
+	 * @param st
+	 * @return true if the statement was not contained before
+	 */
+	public boolean add(Statement st) {
+		return add(fingerprint(st));
+	}
+
+	/**
+	 * Add the fingerprint of the given bindings (see
+	 * {@link #fingerprint(BindingSet)}) to this set
+	 *
+	 * @param bindings
+	 * @return true if the bindings were not contained before
+	 */
+	public boolean add(BindingSet bindings) {
+		return add(fingerprint(bindings));
+	}
+
+	/**
+	 *
+	 * @return the number of fingerprints in this set
+	 */
+	public int size() {
+		return size;
+	}
+
+	private void rehash(int capacity) {
+		long[] newTable = new long[capacity];
+		for (long fingerprint : table) {
+			if (fingerprint != 0L)
+				insert(newTable, fingerprint);
+		}
+		table = newTable;
+	}
+
+	private static boolean insert(long[] table, long fingerprint) {
+		int mask = table.length - 1;
+		int i = (int) mix(fingerprint) & mask;
+		while (table[i] != 0L) {
+			if (table[i] == fingerprint)
+				return false;
+			i = (i + 1) & mask;
+		}
+		table[i] = fingerprint;
+		return true;
+	}
+
+	private static long mix(long h) {
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+
+	/**
+	 * Compute the fingerprint of the given statement, i.e. of its subject,
+	 * predicate, object and context.
+	 *
+	 * @param st
+	 * @return the fingerprint
+	 */
+	public static long fingerprint(Statement st) {
+		long h = SEED;
+		h = hash(h, st.getSubject());
+		h = hash(h, st.getPredicate());
+		h = hash(h, st.getObject());
+		return hash(h, st.getContext());
+	}
+
+	/**
+	 * Compute the fingerprint of the given bindings, i.e. of the names and values
+	 * of all bindings. The fingerprint does not depend on the order of the
+	 * bindings.
+	 *
+	 * @param bindings
+	 * @return the fingerprint
+	 */
+	public static long fingerprint(BindingSet bindings) {
+		long h = SEED;
+		for (Binding b : bindings) {
+			h += mix(hash(hash(SEED, b.getName()), b.getValue()));
+		}
+		return h;
+	}
+
+	/**
+	 * Extend the fingerprint <i>h</i> by the given value, which may be
+	 * <code>null</code>. The type, the datatype and the language of literals are
+	 * taken into account.
+	 *
+	 * @param h
+	 * @param value
+	 * @return the extended fingerprint
+	 */
+	public static long hash(long h, Value value) {
+		if (value == null)
+			return hash(h, 0);
+		if (value instanceof Literal) {
+			Literal l = (Literal) value;
+			h = hash(hash(h, 3), l.getLabel());
+			h = hash(h, l.getDatatype() != null ? l.getDatatype().stringValue() : null);
+			return hash(h, l.getLanguage().orElse(null));
+		}
+		return hash(hash(h, value instanceof BNode ? 2 : 1), value.stringValue());
+	}
+
+	/**
+	 * Extend the fingerprint <i>h</i> by the given string, which may be
+	 * <code>null</code>. The length is included such that consecutive strings
+	 * are delimited.
+	 *
+	 * @param h
+	 * @param s
+	 * @return the extended fingerprint
+	 */
+	public static long hash(long h, String s) {
+		if (s == null)
+			return hash(h, -1);
+		for (int i = 0; i < s.length(); i++) {
+			h = (h ^ s.charAt(i)) * PRIME;
+		}
+		return hash(h, s.length());
+	}
+
+	private static long hash(long h, int i) {
+		h = (h ^ (i & 0xffff)) * PRIME;
+		return (h ^ (i >>> 16)) * PRIME;
+	}
+}
@@ -19,6 +19,7 @@ import java.math.BigInteger;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.eclipse.rdf4j.model.IRI;
 import org.eclipse.rdf4j.model.Resource;
@@ -30,6 +31,7 @@ import org.slf4j.LoggerFactory;
 import com.fluidops.fedx.Config;
 import com.fluidops.fedx.QueryManager;
 import com.fluidops.fedx.evaluation.concurrent.ParallelTask;
+import com.fluidops.fedx.evaluation.join.BoundJoinMemo;
 import com.fluidops.fedx.util.QueryStringUtil;
 
 
@@ -48,17 +50,39 @@ public class QueryInfo {
 	private static final Logger log = LoggerFactory.getLogger(QueryInfo.class);
 
 	protected static final AtomicInteger NEXT_QUERY_ID = new AtomicInteger(1); // static id count
+
+	/**
+	 * The default priority of a query, see {@link #getPriority()}
+	 */
+	public static final int DEFAULT_PRIORITY = 1;
+
+	/**
+	 * The maximum priority of a query, see {@link #getPriority()}
+	 */
+	public static final int MAX_PRIORITY = 100;
 	
 	private final BigInteger queryID;
 	private final String query;
 	private final QueryType queryType;
 	private final long maxExecutionTimeMs;
+	private final int priority;
 	private final long start;
 	
-	protected boolean done = false;
+	protected volatile boolean done = false;
+
+	/* the number of results requested by the consumer, -1 if unlimited */
+	protected volatile long resultLimit = -1;
+
+	/* whether duplicate bindings of multiple sources can be eliminated */
+	protected volatile boolean eliminateDuplicates = false;
 
 	protected Set<ParallelTask<?>> scheduledSubtasks = ConcurrentHashMap.newKeySet();
 
+	protected BoundJoinMemo boundJoinMemo = null;
+
+	/* the memory reserved by buffers of this query, see BindingSetBuffer */
+	protected final AtomicLong bufferedBytes = new AtomicLong(0);
+
 	public QueryInfo(String query, QueryType queryType) {
 		this(query, queryType, 0);
 	}
@@ -71,6 +95,19 @@ public class QueryInfo {
 	 *                         {@link Config#getEnforceMaxQueryTime()}
 	 */
 	public QueryInfo(String query, QueryType queryType, int maxExecutionTime) {
+		this(query, queryType, maxExecutionTime, DEFAULT_PRIORITY);
+	}
+
+	/**
+	 * 
+	 * @param query
+	 * @param queryType
+	 * @param maxExecutionTime the maximum explicit query time in seconds, if 0 use
+	 *                         {@link Config#getEnforceMaxQueryTime()}
+	 * @param priority         the priority of the query, see
+	 *                         {@link #getPriority()}
+	 */
+	public QueryInfo(String query, QueryType queryType, int maxExecutionTime, int priority) {
 		super();
 		this.queryID = QueryManager.getNextQueryId();
 
@@ -80,6 +117,7 @@ public class QueryInfo {
 		int _maxExecutionTime = maxExecutionTime <= 0 ? Config.getConfig().getEnforceMaxQueryTime() : maxExecutionTime;
 		this.maxExecutionTimeMs = _maxExecutionTime * 1000;
 		this.start = System.currentTimeMillis();
+		this.priority = Math.max(1, Math.min(MAX_PRIORITY, priority));
 	}
 
 	public QueryInfo(Resource subj, IRI pred, Value obj)
@@ -99,6 +137,17 @@ public class QueryInfo {
 		return queryType;
 	}
 
+	/**
+	 * The priority of this query, i.e. the weight used for dispatching the tasks of
+	 * this query in a fair scheduler. A query with priority <i>n</i> gets up to
+	 * <i>n</i> tasks dispatched per round. Default is {@link #DEFAULT_PRIORITY}.
+	 * 
+	 * @return the priority of this query (between 1 and {@link #MAX_PRIORITY})
+	 */
+	public int getPriority() {
+		return priority;
+	}
+
 	/**
 	 * 
 	 * @return the maximum remaining time in ms until the query runs into a timeout. If negative, timeout has been reached
@@ -117,6 +166,111 @@ public class QueryInfo {
 		return maxTime;
 	}
 
+	/**
+	 * 
+	 * @return the {@link BoundJoinMemo} of this query, or <code>null</code> if
+	 *         disabled (see {@link Config#getBoundJoinMemoMaxSize()})
+	 */
+	public synchronized BoundJoinMemo getBoundJoinMemo() {
+		if (boundJoinMemo == null) {
+			int maxSize = Config.getConfig().getBoundJoinMemoMaxSize();
+			if (maxSize <= 0)
+				return null;
+			boundJoinMemo = new BoundJoinMemo(maxSize);
+		}
+		return boundJoinMemo;
+	}
+
+	/**
+	 * Reserve memory for buffered intermediate results of this query. If the
+	 * reservation would exceed {@link Config#getQueryMemoryBudget()}, nothing is
+	 * reserved and the caller is expected to spill the results to disk.
+	 * 
+	 * @param bytes the estimated size of the intermediate results
+	 * @return true if the memory has been reserved
+	 * @see BindingSetBuffer
+	 */
+	public boolean reserveBufferMemory(long bytes) {
+		long budget = Config.getConfig().getQueryMemoryBudget();
+		if (budget <= 0) {
+			bufferedBytes.addAndGet(bytes);
+			return true;
+		}
+		long current;
+		do {
+			current = bufferedBytes.get();
+			if (current + bytes > budget)
+				return false;
+		} while (!bufferedBytes.compareAndSet(current, current + bytes));
+		return true;
+	}
+
+	/**
+	 * Release memory reserved with {@link #reserveBufferMemory(long)}.
+	 * 
+	 * @param bytes
+	 */
+	public void releaseBufferMemory(long bytes) {
+		bufferedBytes.addAndGet(-bytes);
+	}
+
+	/**
+	 * 
+	 * @return the memory currently reserved by buffers of this query in bytes
+	 */
+	public long getBufferedBytes() {
+		return bufferedBytes.get();
+	}
+
+	/**
+	 * Set the number of results requested by the consumer, i.e. the LIMIT of the
+	 * main query. Once this number of results is returned, the query is closed and
+	 * any remaining executions are stopped.
+	 * 
+	 * @param resultLimit the limit, a negative number means unlimited
+	 */
+	public void setResultLimit(long resultLimit) {
+		this.resultLimit = resultLimit;
+	}
+
+	/**
+	 * 
+	 * @return the number of results requested by the consumer, -1 if unlimited
+	 * @see #setResultLimit(long)
+	 */
+	public long getResultLimit() {
+		return resultLimit;
+	}
+
+	/**
+	 * Set whether duplicate bindings in the union of multiple statement sources
+	 * can be eliminated, i.e. if the result of the query does not depend on
+	 * their multiplicity (e.g. for DISTINCT queries).
+	 * 
+	 * @param eliminateDuplicates
+	 */
+	public void setEliminateDuplicates(boolean eliminateDuplicates) {
+		this.eliminateDuplicates = eliminateDuplicates;
+	}
+
+	/**
+	 * 
+	 * @return whether duplicate bindings of multiple statement sources can be
+	 *         eliminated
+	 * @see #setEliminateDuplicates(boolean)
+	 */
+	public boolean isEliminateDuplicates() {
+		return eliminateDuplicates;
+	}
+
+	/**
+	 * 
+	 * @return true if the query has been aborted or closed
+	 */
+	public boolean isDone() {
+		return done;
+	}
+
 	/**
 	 * Register a new scheduled task for this query.
 	 * 
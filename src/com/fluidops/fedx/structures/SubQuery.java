@@ -63,6 +63,30 @@ public class SubQuery implements Serializable {
 			obj = stmt.getObjectVar().getValue().stringValue();
 	}	
 	
+	/**
+	 * 
+	 * @return the subject or <code>null</code> if unbound
+	 */
+	public String getSubject() {
+		return subj;
+	}
+
+	/**
+	 * 
+	 * @return the predicate or <code>null</code> if unbound
+	 */
+	public String getPredicate() {
+		return pred;
+	}
+
+	/**
+	 * 
+	 * @return the object or <code>null</code> if unbound
+	 */
+	public String getObject() {
+		return obj;
+	}
+	
 	@Override
 	public int hashCode() {
 		final int prime1 = 961;
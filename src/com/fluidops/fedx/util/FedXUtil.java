@@ -26,6 +26,7 @@ import org.eclipse.rdf4j.repository.sail.SailQuery;
 
 import com.fluidops.fedx.Config;
 import com.fluidops.fedx.repository.FedXRepositoryConnection;
+import com.fluidops.fedx.structures.QueryInfo;
 
 /**
  * General utility functions
@@ -77,6 +78,18 @@ public class FedXUtil
 				FedXUtil.valueFactory().createLiteral(query.getMaxExecutionTime()));
 	}
 
+	/**
+	 * Apply the given priority to the query. The priority is used as weight for
+	 * fair scheduling of the query's tasks, see {@link QueryInfo#getPriority()}.
+	 * 
+	 * @param query
+	 * @param priority the priority, at least 1
+	 */
+	public static void applyQueryPriority(SailQuery query, int priority) {
+		query.setBinding(FedXRepositoryConnection.BINDING_QUERY_PRIORITY,
+				FedXUtil.valueFactory().createLiteral(priority));
+	}
+
 	/**
 	 * Hexadecimal representation of an incremental integer.
 	 * 
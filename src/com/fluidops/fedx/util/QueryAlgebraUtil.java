@@ -15,6 +15,7 @@
  */
 package com.fluidops.fedx.util;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -266,8 +267,49 @@ public class QueryAlgebraUtil {
 		Projection proj = new Projection(union, projList);
 
 		return proj;
-	}	
-		
+	}
+
+	/**
+	 * Construct a SELECT query expression for a bound union of an {@link ExclusiveGroup}.
+	 * Each union branch is the join of the owned statements with variables renamed
+	 * to "var_"+bindingId.
+	 *
+	 * Pattern:
+	 *
+	 * SELECT ?v_0 ?x_0 ?v_1 ?x_1 ... WHERE { { ?v_0 p1 ?x_0 . ?x_0 p2 o } UNION { ?v_1 p1 ?x_1 . ?x_1 p2 o } UNION ... }
+	 *
+	 * Note that a filter of the group is not evaluated remotely.
+	 *
+	 * @param group
+	 * @param unionBindings
+	 *
+	 * @return the SELECT query
+	 */
+	public static TupleExpr selectQueryBoundUnion(ExclusiveGroup group, List<BindingSet> unionBindings) {
+
+		Set<String> varNames = new HashSet<String>();
+
+		Union union = new Union();
+		union.setLeftArg( constructJoinId(group.getStatements(), Integer.toString(0), varNames, unionBindings.get(0)) );
+		Union tmp = union;
+		int idx;
+		for (idx=1; idx<unionBindings.size()-1; idx++) {
+			Union _u = new Union();
+			_u.setLeftArg( constructJoinId(group.getStatements(), Integer.toString(idx), varNames, unionBindings.get(idx)) );
+			tmp.setRightArg(_u);
+			tmp = _u;
+		}
+		tmp.setRightArg( constructJoinId(group.getStatements(), Integer.toString(idx), varNames, unionBindings.get(idx)) );
+
+		ProjectionElemList projList = new ProjectionElemList();
+		for (String var : varNames)
+			projList.addElement( new ProjectionElem(var));
+
+		Projection proj = new Projection(union, projList);
+
+		return proj;
+	}
+
 	
 	/**
 	 * Construct a SELECT query for a grouped bound check.
@@ -307,35 +349,33 @@ public class QueryAlgebraUtil {
 	
 	
 	public static TupleExpr selectQueryIndependentJoinGroup(IndependentJoinGroup joinGroup, BindingSet bindings) {
+		return selectQueryIndependentJoinGroup(joinGroup, QueryStringUtil.allMembers(joinGroup), bindings);
+	}
+	
+	
+	/**
+	 * Construct a select query representing the given members of the independent join
+	 * group. The variables are identified by the index of the member within the group,
+	 * i.e. the result can be combined with the results for the other members.
+	 * 
+	 * @param joinGroup
+	 * @param memberIndices the indices of the members to be contained in the query
+	 * @param bindings
+	 * @return the SELECT query
+	 */
+	public static TupleExpr selectQueryIndependentJoinGroup(IndependentJoinGroup joinGroup, List<Integer> memberIndices, BindingSet bindings) {
 		
 		Set<String> varNames = new HashSet<String>();
 		
-		
-		Union union = null;
-		
-		if (joinGroup.getMemberCount()==2) {
-			union = new Union();
-			union.setLeftArg(constructStatementId((StatementPattern)joinGroup.getMembers().get(0), Integer.toString(0), varNames, bindings));
-			union.setRightArg(constructStatementId((StatementPattern)joinGroup.getMembers().get(1), Integer.toString(1), varNames, bindings));
-		} else {
-			union = new Union();
-			union.setLeftArg(constructStatementId((StatementPattern)joinGroup.getMembers().get(0), Integer.toString(0), varNames, bindings) );
-			Union tmp = union;
-			int idx;
-			for (idx=1; idx<joinGroup.getMemberCount()-1; idx++) {
-				Union _u = new Union();
-				_u.setLeftArg( constructStatementId((StatementPattern)joinGroup.getMembers().get(idx), Integer.toString(idx), varNames, bindings) );
-				tmp.setRightArg(_u);
-				tmp = _u;
-			}
-			tmp.setRightArg( constructStatementId((StatementPattern)joinGroup.getMembers().get(idx), Integer.toString(idx), varNames, bindings));
-		}		
+		List<TupleExpr> args = new ArrayList<TupleExpr>(memberIndices.size());
+		for (int i : memberIndices)
+			args.add(constructStatementId((StatementPattern)joinGroup.getMembers().get(i), Integer.toString(i), varNames, bindings));
 		
 		ProjectionElemList projList = new ProjectionElemList();
 		for (String var : varNames)
 			projList.addElement( new ProjectionElem(var));
 		
-		Projection proj = new Projection(union, projList);
+		Projection proj = new Projection(constructUnion(args), projList);
 
 		return proj;
 	}
@@ -359,45 +399,62 @@ public class QueryAlgebraUtil {
 	 * @return the SELECT query
 	 */
 	public static TupleExpr selectQueryIndependentJoinGroup(IndependentJoinGroup joinGroup, List<BindingSet> bindings) {
+		return selectQueryIndependentJoinGroup(joinGroup, QueryStringUtil.allMembers(joinGroup), bindings);
+	}
+	
+	
+	/**
+	 * Construct a select query representing the given members of the bound independent
+	 * join group. The variables are identified by the index of the member within the
+	 * group, i.e. the result can be combined with the results for the other members.
+	 * 
+	 * @param joinGroup
+	 * @param memberIndices the indices of the members to be contained in the query
+	 * @param bindings
+	 * @return the SELECT query
+	 */
+	public static TupleExpr selectQueryIndependentJoinGroup(IndependentJoinGroup joinGroup, List<Integer> memberIndices, List<BindingSet> bindings) {
 		
 		Set<String> varNames = new HashSet<String>();
 		
-		
-		Union outer = null;
-		
-		if (joinGroup.getMemberCount()==2) {
-			outer = new Union();
-			outer.setLeftArg(constructInnerUnion((StatementPattern)joinGroup.getMembers().get(0), 0, varNames, bindings));
-			outer.setRightArg(constructInnerUnion((StatementPattern)joinGroup.getMembers().get(1), 1, varNames, bindings));
-		} else {			
-			throw new RuntimeException("TODOO");
-		}		
+		List<TupleExpr> args = new ArrayList<TupleExpr>(memberIndices.size());
+		for (int i : memberIndices)
+			args.add(constructInnerUnion((StatementPattern)joinGroup.getMembers().get(i), i, varNames, bindings));
 		
 		ProjectionElemList projList = new ProjectionElemList();
 		for (String var : varNames)
 			projList.addElement( new ProjectionElem(var));
 		
-		Projection proj = new Projection(outer, projList);
+		Projection proj = new Projection(constructUnion(args), projList);
 
 		return proj;
 	}
 	
 	
-	protected static Union constructInnerUnion(StatementPattern stmt, int outerID, Set<String> varNames, List<BindingSet> bindings) {
+	protected static TupleExpr constructInnerUnion(StatementPattern stmt, int outerID, Set<String> varNames, List<BindingSet> bindings) {
 		
-		Union union = new Union();
-		union.setLeftArg(constructStatementId(stmt, outerID + "_0", varNames, bindings.get(0)) );
-		Union tmp = union;
-		int idx;
-		for (idx=1; idx<bindings.size()-1; idx++) {
-			Union _u = new Union();
-			_u.setLeftArg( constructStatementId(stmt, outerID + "_" + idx, varNames, bindings.get(idx)) );
-			tmp.setRightArg(_u);
-			tmp = _u;
-		}
-		tmp.setRightArg( constructStatementId(stmt, outerID + "_" + idx, varNames, bindings.get(idx)));
+		List<TupleExpr> args = new ArrayList<TupleExpr>(bindings.size());
+		for (int idx=0; idx<bindings.size(); idx++)
+			args.add(constructStatementId(stmt, outerID + "_" + idx, varNames, bindings.get(idx)));
 		
-		return union;
+		return constructUnion(args);
+	}
+	
+	
+	/**
+	 * Construct a right-deep union of the given arguments. A single argument is
+	 * returned as is.
+	 * 
+	 * @param args
+	 * @return the union
+	 */
+	protected static TupleExpr constructUnion(List<TupleExpr> args) {
+		
+		TupleExpr res = args.get(args.size()-1);
+		for (int idx=args.size()-2; idx>=0; idx--)
+			res = new Union(args.get(idx), res);
+		
+		return res;
 	}
 	
 
@@ -440,7 +497,26 @@ public class QueryAlgebraUtil {
 		
 		return new StatementPattern(subj, pred, obj);
 	}
-	
+
+	/**
+	 * Construct a left-deep join of the given statements, where variables are renamed
+	 * to "var_"+varId (see {@link #constructStatementId(StatementPattern, String, Set, BindingSet)}).
+	 *
+	 * @param stmts
+	 * @param varID
+	 * @param varNames
+	 * @param bindings
+	 *
+	 * @return the join expression, or the statement pattern if there is only a single statement
+	 */
+	protected static TupleExpr constructJoinId(List<? extends StatementPattern> stmts, String varID, Set<String> varNames, BindingSet bindings) {
+
+		TupleExpr res = constructStatementId(stmts.get(0), varID, varNames, bindings);
+		for (int i=1; i<stmts.size(); i++)
+			res = new Join(res, constructStatementId(stmts.get(i), varID, varNames, bindings));
+		return res;
+	}
+
 	/**
 	 * Construct the statement string, i.e. "s p ?o_varID FILTER ?o_N=o ". This kind of statement
 	 * pattern is necessary to later on identify available results.
@@ -20,6 +20,8 @@ import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -44,6 +46,7 @@ import com.fluidops.fedx.algebra.FedXStatementPattern;
 import com.fluidops.fedx.algebra.FilterValueExpr;
 import com.fluidops.fedx.algebra.IndependentJoinGroup;
 import com.fluidops.fedx.evaluation.SparqlFederationEvalStrategyWithValues;
+import com.fluidops.fedx.evaluation.iterator.BoundJoinConversionIteration;
 import com.fluidops.fedx.evaluation.iterator.BoundJoinVALUESConversionIteration;
 import com.fluidops.fedx.exception.IllegalQueryException;
 
@@ -54,10 +57,20 @@ import com.fluidops.fedx.exception.IllegalQueryException;
  */
 public class QueryStringUtil {
 	
-	/* TODO make operations more performant, i.e. use same instance of StringBuilder more permanently */
-
 	private static final Logger log = LoggerFactory.getLogger(QueryStringUtil.class);
 	
+	/* kinds of query templates, see QueryTemplateCache */
+	private static final int SELECT_TEMPLATE = 0;
+	private static final int BOUND_UNION_TEMPLATE = 1;
+	private static final int BOUND_JOIN_VALUES_TEMPLATE = 2;
+	
+	/**
+	 * The maximum capacity of a reused buffer for query strings, see {@link #buffer()}
+	 */
+	private static final int MAX_BUFFER_CAPACITY = 1024 * 1024;
+	
+	private static final ThreadLocal<StringBuilder> buffers = ThreadLocal.withInitial(() -> new StringBuilder(1024));
+	
 	/**
 	 * A dummy URI which is used as a replacement for {@link BNode}s in {@link #appendBNode(StringBuilder, BNode)}
 	 * since BNodes cannot be expressed in SPARQL queries
@@ -142,39 +155,16 @@ public class QueryStringUtil {
 	public static String selectQueryString(FedXStatementPattern stmt, BindingSet bindings, FilterValueExpr filterExpr,
 			AtomicBoolean evaluated) throws IllegalQueryException {
 		
-		Set<String> varNames = new HashSet<String>();
-		String s = constructStatement(stmt, varNames, bindings);
+		QueryTemplate template = selectTemplate(stmt.getQueryTemplateCache(), Collections.singletonList(stmt),
+				bindings, filterExpr, stmt.getUpperLimit());
 		
-		StringBuilder res = new StringBuilder();
-		
-		res.append("SELECT ");
-		
-		if (varNames.size()==0)
+		if (template.getVarNames().isEmpty())
 			throw new IllegalQueryException("SELECT query needs at least one projection!");
 		
-		for (String var : varNames)
-			res.append(" ?").append(var);
-		
-		res.append(" WHERE { ").append(s);
+		if (template.isFilterEvaluated())
+			evaluated.set(true);
 		
-		if (filterExpr != null) {
-			try {
-				String filter = FilterUtils.toSparqlString(filterExpr);
-				res.append("FILTER ").append(filter);
-				evaluated.set(true);
-			} catch (Exception e) {
-				log.debug("Filter could not be evaluated remotely. " + e.getMessage());
-				log.trace("Details: ", e);
-			}
-		}
-	
-		res.append(" }");
-		
-		long upperLimit = stmt.getUpperLimit();
-		if (upperLimit > 0) {
-			res.append(" LIMIT ").append(upperLimit);
-		}
-		return res.toString();		
+		return template.appendTo(buffer(), bindings, -1).toString();
 	}
 	
 	/**
@@ -197,39 +187,16 @@ public class QueryStringUtil {
 	public static String selectQueryString(ExclusiveGroup group, BindingSet bindings, FilterValueExpr filterExpr,
 			AtomicBoolean evaluated) throws IllegalQueryException {
 		
-		StringBuilder sb = new StringBuilder();
-		Set<String> varNames = new HashSet<String>();
-		
-		for (ExclusiveStatement s : group.getStatements())
-			sb.append( constructStatement(s, varNames, bindings) );
-		
+		QueryTemplate template = selectTemplate(group.getQueryTemplateCache(), group.getStatements(), bindings,
+				filterExpr, -1);
 		
-		if (varNames.size()==0)
-			throw new IllegalQueryException("SELECT query needs at least one projection!");		
-
-		StringBuilder res = new StringBuilder();	
-		res.append("SELECT  ");
-			
-		for (String var : varNames)
-			res.append(" ?").append(var);
-			
-		
-		res.append(" WHERE { ").append(sb);
-		
-		if (filterExpr!=null) {
-			try {
-				String filter = FilterUtils.toSparqlString(filterExpr);
-				res.append("FILTER ").append(filter);
-				evaluated.set(true);
-			} catch (Exception e) {
-				log.debug("Filter could not be evaluated remotely. " + e.getMessage());
-				log.trace("Details", e);
-			}
-		}
+		if (template.getVarNames().isEmpty())
+			throw new IllegalQueryException("SELECT query needs at least one projection!");
 		
-		res.append(" }");
+		if (template.isFilterEvaluated())
+			evaluated.set(true);
 		
-		return res.toString();
+		return template.appendTo(buffer(), bindings, -1).toString();
 	}
 
 	/**
@@ -271,37 +238,10 @@ public class QueryStringUtil {
 	 * @return the SELECT query string
 	 */
 	public static String selectQueryStringBoundUnion( StatementPattern stmt, List<BindingSet> unionBindings, FilterValueExpr filterExpr, Boolean evaluated) {
-					
-		Set<String> varNames = new HashSet<String>();
-		
-		StringBuilder unions = new StringBuilder();
-		for (int i=0; i<unionBindings.size(); i++) {
-			String s = constructStatementId(stmt, Integer.toString(i), varNames, unionBindings.get(i));
-			if (i>0)
-				unions.append(" UNION");
-			unions.append(" { ").append(s).append(" }");
-		}
-		
-		StringBuilder res = new StringBuilder();
-		
-		res.append("SELECT ");
-		
-		for (String var : varNames)
-			res.append(" ?").append(var);
-				
-		res.append(" WHERE {");
-		
-		res.append( unions );
 		
 		// TODO evaluate filter expression remote
-//		if (filterExpr!=null) {
-//		
-//		}
-	
-		res.append(" }");
-		
-		return res.toString();
-	}	
+		return selectQueryStringBoundUnion(getQueryTemplateCache(stmt), Collections.singletonList(stmt), unionBindings);
+	}
 	
 	/**
 	 * Creates a bound join subquery using the SPARQL 1.1 VALUES operator.
@@ -328,52 +268,215 @@ public class QueryStringUtil {
 	public static String selectQueryStringBoundJoinVALUES(StatementPattern stmt, List<BindingSet> unionBindings,
 			FilterValueExpr filterExpr, AtomicBoolean evaluated) {
 		
-		Set<String> varNames = new LinkedHashSet<String>();	
-		StringBuilder res = new StringBuilder();
-		
-		String stmtPattern = constructStatement(stmt, varNames, new EmptyBindingSet());
-		res.append("SELECT ");
-		
-		for (String var : varNames)
-			res.append(" ?").append(var);
-				
-		res.append(" ?").append(BoundJoinVALUESConversionIteration.INDEX_BINDING_NAME).append(" WHERE {");
+		// the template does not depend on the bindings
+		QueryTemplateCache cache = getQueryTemplateCache(stmt);
+		QueryTemplate template = cache.get(BOUND_JOIN_VALUES_TEMPLATE);
 		
-		res.append( stmtPattern );
+		if (template == null) {
+			List<StatementPattern> stmts = Collections.singletonList(stmt);
+			QueryTemplate.Builder builder = new QueryTemplate.Builder();
+			builder.varNames = Arrays.asList(cache.getVarNames(stmts));
+			builder.valuesVars = builder.varNames;
+			
+			builder.append("SELECT ");
+			for (String var : builder.varNames)
+				builder.append(" ?").append(var);
+			builder.append(" ?").append(BoundJoinVALUESConversionIteration.INDEX_BINDING_NAME).append(" WHERE {");
+			appendTemplateStatements(builder, stmts, EmptyBindingSet.getInstance(), false);
+			
+			// TODO evaluate filter expression remote
+			builder.append(" }");
+			
+			// add VALUES clause
+			builder.append(" VALUES (");
+			for (String var : builder.valuesVars)
+				builder.append("?").append(var).append(" ");
+			builder.append(" ?").append(BoundJoinVALUESConversionIteration.INDEX_BINDING_NAME).append(") { ");
+			builder.valuesSlot().append(" }");
+			
+			template = builder.build();
+			cache.put(BOUND_JOIN_VALUES_TEMPLATE, template);
+		}
 		
-		// TODO evaluate filter expression remote
-//		if (filterExpr!=null) {
-//		
-//		}
+		return template.appendTo(buffer(), unionBindings).toString();
+	}
+
+	/**
+	 * Construct a SELECT query string for a bound union of an {@link ExclusiveGroup}.
+	 * Variables of all owned statements are renamed per binding, such that results
+	 * can be mapped back using {@link BoundJoinConversionIteration}.
+	 *
+	 * Pattern:
+	 *
+	 * SELECT ?v_0 ?x_0 ?v_1 ?x_1 ... WHERE { { ?v_0 p1 ?x_0 . ?x_0 p2 o } UNION { ?v_1 p1 ?x_1 . ?x_1 p2 o } UNION ... }
+	 *
+	 * Note that a filter of the group is not evaluated remotely.
+	 *
+	 * @param group
+	 * @param unionBindings
+	 *
+	 * @return the SELECT query string
+	 */
+	public static String selectQueryStringBoundUnion(ExclusiveGroup group, List<BindingSet> unionBindings) {
+		return selectQueryStringBoundUnion(group.getQueryTemplateCache(), group.getStatements(), unionBindings);
+	}
 	
-		res.append(" }");
+	/**
+	 * Construct a SELECT query string for a bound union of the given statements.
+	 * The statements of each binding are instantiated from the template for the
+	 * variables bound by this binding.
+	 * 
+	 * @param cache
+	 * 				the templates of the node owning the statements
+	 * @param stmts
+	 * @param unionBindings
+	 * 
+	 * @return the SELECT query string
+	 */
+	protected static String selectQueryStringBoundUnion(QueryTemplateCache cache, List<? extends StatementPattern> stmts,
+			List<BindingSet> unionBindings) {
+		
+		QueryTemplate[] templates = new QueryTemplate[unionBindings.size()];
+		for (int i=0; i<templates.length; i++) {
+			BindingSet bindings = unionBindings.get(i);
+			long key = templateKey(cache, stmts, bindings, BOUND_UNION_TEMPLATE);
+			QueryTemplate template = key < 0 ? null : cache.get(key);
+			if (template == null) {
+				QueryTemplate.Builder builder = new QueryTemplate.Builder();
+				builder.varNames = freeVarNames(stmts, bindings);
+				appendTemplateStatements(builder, stmts, bindings, true);
+				template = builder.build();
+				if (key >= 0)
+					cache.put(key, template);
+			}
+			templates[i] = template;
+		}
 		
-		// add VALUES clause
-		res.append(" VALUES (");
+		StringBuilder res = buffer();
+		res.append("SELECT ");
+		for (int i=0; i<templates.length; i++) {
+			for (String var : templates[i].getVarNames())
+				res.append(" ?").append(var).append("_").append(i);
+		}
 		
-		// find relevant bindings		
-		for (String var : varNames)
-			res.append("?").append(var).append(" ");
-		res.append(" ?__index) { ");
-		
-		int index=0;
-		for (BindingSet b : unionBindings) {
-			res.append("(");
-			for (String var : varNames) {
-				if (b.hasBinding(var))
-					appendValue(res, b.getValue(var)).append(" ");
-				else
-					res.append("UNDEF ");
-			}
-			res.append("\"").append(index).append("\") ");
-			index++;
+		res.append(" WHERE {");
+		for (int i=0; i<templates.length; i++) {
+			if (i>0)
+				res.append(" UNION");
+			res.append(" { ");
+			templates[i].appendTo(res, unionBindings.get(i), i).append(" }");
 		}
 		res.append(" }");
 		
 		return res.toString();
 	}
-	
-	
+
+	/**
+	 * Creates a bound join subquery for an {@link ExclusiveGroup} using the SPARQL 1.1
+	 * VALUES operator. In contrast to the statement variant the VALUES clause is placed
+	 * inline at the beginning of the group, such that the filter of the group sees the
+	 * joined bindings and can be evaluated remotely.
+	 *
+	 * Example subquery:
+	 *
+	 * <source>
+	 * SELECT ?s ?v ?x ?__index WHERE {
+	 *   VALUES (?s ?__index) { (:s1 "0") (:s2 "1") ... (:sN "N") }
+	 *   ?s name ?v . ?s knows ?x . FILTER (...)
+	 * }
+	 * </source>
+	 *
+	 * @param group
+	 * @param unionBindings
+	 * @param filterExpr
+	 * @param evaluated
+	 * 			parameter can be used outside this method to check whether FILTER has been evaluated, false in beginning
+	 *
+	 * @return the SELECT query string
+	 * @see SparqlFederationEvalStrategyWithValues
+	 * @see BoundJoinVALUESConversionIteration
+	 */
+	public static String selectQueryStringBoundJoinVALUES(ExclusiveGroup group, List<BindingSet> unionBindings,
+			FilterValueExpr filterExpr, AtomicBoolean evaluated) {
+
+		QueryTemplateCache cache = group.getQueryTemplateCache();
+		List<ExclusiveStatement> stmts = group.getStatements();
+		String[] vars = cache.getVarNames(stmts);
+
+		// the template depends on the variables which are bound in at least one binding
+		long key = -1;
+		if (vars.length <= QueryTemplateCache.MAX_VARS) {
+			long mask = 0;
+			for (BindingSet b : unionBindings)
+				mask |= boundMask(vars, b);
+			key = (mask << 2) | BOUND_JOIN_VALUES_TEMPLATE;
+		}
+
+		QueryTemplate template = key < 0 ? null : cache.get(key);
+		if (template == null || !template.isValidFor(filterExpr, -1)) {
+			template = compileBoundJoinVALUESTemplate(stmts, vars, unionBindings, filterExpr);
+			if (key >= 0)
+				cache.put(key, template);
+		}
+
+		if (template.isFilterEvaluated())
+			evaluated.set(true);
+
+		return template.appendTo(buffer(), unionBindings).toString();
+	}
+
+	/**
+	 * Compile the template of a bound join subquery for an {@link ExclusiveGroup}
+	 * using the SPARQL 1.1 VALUES operator, see
+	 * {@link #selectQueryStringBoundJoinVALUES(ExclusiveGroup, List, FilterValueExpr, AtomicBoolean)}.
+	 *
+	 * @param stmts
+	 * @param vars
+	 * 			the variables of the statements
+	 * @param unionBindings
+	 * @param filterExpr
+	 * @return the template with a slot for the rows of the VALUES clause
+	 */
+	protected static QueryTemplate compileBoundJoinVALUESTemplate(List<? extends StatementPattern> stmts, String[] vars,
+			List<BindingSet> unionBindings, FilterValueExpr filterExpr) {
+
+		// only variables which are bound in at least one binding are relevant for VALUES
+		List<String> valuesVars = new ArrayList<String>();
+		for (String var : vars) {
+			for (BindingSet b : unionBindings) {
+				if (b.hasBinding(var)) {
+					valuesVars.add(var);
+					break;
+				}
+			}
+		}
+
+		QueryTemplate.Builder builder = new QueryTemplate.Builder();
+		builder.varNames = Arrays.asList(vars);
+		builder.valuesVars = valuesVars;
+		builder.filterExpr = filterExpr;
+
+		builder.append("SELECT ");
+		for (String var : vars)
+			builder.append(" ?").append(var);
+		builder.append(" ?").append(BoundJoinVALUESConversionIteration.INDEX_BINDING_NAME).append(" WHERE {");
+
+		// add VALUES clause
+		builder.append(" VALUES (");
+		for (String var : valuesVars)
+			builder.append("?").append(var).append(" ");
+		builder.append(" ?").append(BoundJoinVALUESConversionIteration.INDEX_BINDING_NAME).append(") { ");
+		builder.valuesSlot().append("} ");
+
+		appendTemplateStatements(builder, stmts, EmptyBindingSet.getInstance(), false);
+		appendTemplateFilter(builder, filterExpr);
+
+		builder.append(" }");
+
+		return builder.build();
+	}
+
+
 	/**
 	 * Construct a SELECT query for a grouped bound check.
 	 * 
@@ -422,14 +525,29 @@ public class QueryStringUtil {
 	 * @return the SELECT query string
 	 */
 	public static String selectQueryStringIndependentJoinGroup(IndependentJoinGroup joinGroup, BindingSet bindings) {
+		return selectQueryStringIndependentJoinGroup(joinGroup, allMembers(joinGroup), bindings);
+	}
+	
+	/**
+	 * Construct a select query representing the given members of the independent join
+	 * group. The variables are identified by the index of the member within the group,
+	 * i.e. the result can be combined with the results for the other members.
+	 * 
+	 * @param joinGroup
+	 * @param memberIndices the indices of the members to be contained in the query
+	 * @param bindings
+	 * @return the SELECT query string
+	 * @see #selectQueryStringIndependentJoinGroup(IndependentJoinGroup, BindingSet)
+	 */
+	public static String selectQueryStringIndependentJoinGroup(IndependentJoinGroup joinGroup, List<Integer> memberIndices, BindingSet bindings) {
 		
 		Set<String> varNames = new HashSet<String>();
 		
 		StringBuilder unions = new StringBuilder();
-		for (int i=0; i<joinGroup.getMemberCount(); i++) {
+		for (int i : memberIndices) {
 			StatementPattern stmt = (StatementPattern)joinGroup.getMembers().get(i);
 			String s = constructStatementId(stmt, Integer.toString(i), varNames, bindings);
-			if (i>0)
+			if (unions.length()>0)
 				unions.append(" UNION");
 			unions.append(" { ").append(s).append(" }");
 		}
@@ -468,13 +586,28 @@ public class QueryStringUtil {
 	 * @return the SELECT query string
 	 */
 	public static String selectQueryStringIndependentJoinGroup(IndependentJoinGroup joinGroup, List<BindingSet> bindings) {
+		return selectQueryStringIndependentJoinGroup(joinGroup, allMembers(joinGroup), bindings);
+	}
+	
+	/**
+	 * Construct a select query representing the given members of the bound independent
+	 * join group. The variables are identified by the index of the member within the
+	 * group, i.e. the result can be combined with the results for the other members.
+	 * 
+	 * @param joinGroup
+	 * @param memberIndices the indices of the members to be contained in the query
+	 * @param bindings
+	 * @return the SELECT query string
+	 * @see #selectQueryStringIndependentJoinGroup(IndependentJoinGroup, List)
+	 */
+	public static String selectQueryStringIndependentJoinGroup(IndependentJoinGroup joinGroup, List<Integer> memberIndices, List<BindingSet> bindings) {
 		
 		Set<String> varNames = new HashSet<String>();
 		
 		StringBuilder outerUnion = new StringBuilder();
-		for (int i=0; i<joinGroup.getMemberCount(); i++) {
+		for (int i : memberIndices) {
 			String innerUnion = constructInnerUnion((StatementPattern)joinGroup.getMembers().get(i), i, varNames, bindings);
-			if (i>0)
+			if (outerUnion.length()>0)
 				outerUnion.append(" UNION");
 			outerUnion.append(" { ").append(innerUnion).append("}");
 		}
@@ -497,6 +630,14 @@ public class QueryStringUtil {
 	}
 	
 	
+	protected static List<Integer> allMembers(IndependentJoinGroup joinGroup) {
+		List<Integer> res = new ArrayList<Integer>(joinGroup.getMemberCount());
+		for (int i=0; i<joinGroup.getMemberCount(); i++)
+			res.add(i);
+		return res;
+	}
+	
+	
 	protected static String constructInnerUnion(StatementPattern stmt, int outerID, Set<String> varNames, List<BindingSet> bindings) {
 		
 		StringBuilder innerUnion = new StringBuilder();
@@ -575,6 +716,216 @@ public class QueryStringUtil {
 		return res.toString();		
 	}
 	
+	/**
+	 * Construct a SELECT query which checks for each of the provided statements
+	 * whether it has results. Each statement is probed with a LIMIT 1 subquery
+	 * which projects the index of the statement in the given list, i.e. the
+	 * result contains one binding for each statement that has results. Such
+	 * query can be used for source selection instead of individual ASK queries.
+	 * 
+	 * SELECT ?__index WHERE {
+	 * 		{ SELECT (0 AS ?__index) WHERE { s1 p1 o1 . } LIMIT 1 }
+	 * 		UNION
+	 * 		{ SELECT (1 AS ?__index) WHERE { s2 p2 o2 . } LIMIT 1 }
+	 * }
+	 * 
+	 * @param stmts
+	 * @return the SELECT query string
+	 */
+	public static String selectQueryStringBatchedCheck(List<StatementPattern> stmts) {
+		
+		Set<String> varNames = new HashSet<String>();
+		BindingSet bindings = EmptyBindingSet.getInstance();
+		
+		StringBuilder res = new StringBuilder();
+		res.append("SELECT ?").append(BoundJoinVALUESConversionIteration.INDEX_BINDING_NAME).append(" WHERE {");
+		
+		for (int i=0; i<stmts.size(); i++) {
+			if (i>0)
+				res.append(" UNION");
+			res.append(" { SELECT (").append(i).append(" AS ?")
+					.append(BoundJoinVALUESConversionIteration.INDEX_BINDING_NAME).append(") WHERE { ");
+			res.append(constructStatement(stmts.get(i), varNames, bindings));
+			res.append("} LIMIT 1 }");
+		}
+		
+		res.append(" }");
+		
+		return res.toString();
+	}
+	
+	/**
+	 * Returns the template of a SELECT query for the given statements, i.e. for
+	 * the statements of the node owning the cache. The template is compiled once
+	 * per combination of variables bound by the bindings, the values of these
+	 * variables are represented by slots.
+	 * 
+	 * @param cache
+	 * @param stmts
+	 * @param bindings
+	 * @param filterExpr
+	 * 			a filter expression or null
+	 * @param upperLimit
+	 * 			the upper limit of the query, a negative number means no LIMIT
+	 * @return the query template
+	 */
+	protected static QueryTemplate selectTemplate(QueryTemplateCache cache, List<? extends StatementPattern> stmts,
+			BindingSet bindings, FilterValueExpr filterExpr, long upperLimit) {
+		
+		long key = templateKey(cache, stmts, bindings, SELECT_TEMPLATE);
+		QueryTemplate template = key < 0 ? null : cache.get(key);
+		if (template != null && template.isValidFor(filterExpr, upperLimit))
+			return template;
+		
+		QueryTemplate.Builder builder = new QueryTemplate.Builder();
+		builder.varNames = freeVarNames(stmts, bindings);
+		builder.filterExpr = filterExpr;
+		builder.upperLimit = upperLimit;
+		
+		builder.append("SELECT ");
+		for (String var : builder.varNames)
+			builder.append(" ?").append(var);
+		builder.append(" WHERE { ");
+		
+		appendTemplateStatements(builder, stmts, bindings, false);
+		appendTemplateFilter(builder, filterExpr);
+		
+		builder.append(" }");
+		
+		if (upperLimit > 0) {
+			builder.append(" LIMIT ").append(Long.toString(upperLimit));
+		}
+		
+		template = builder.build();
+		if (key >= 0)
+			cache.put(key, template);
+		return template;
+	}
+	
+	/**
+	 * Returns the key of a template of the given kind, i.e. the kind combined with a bit
+	 * mask of the variables bound by the bindings.
+	 * 
+	 * @param cache
+	 * @param stmts
+	 * @param bindings
+	 * @param kind
+	 * @return the key or -1 if the statements have too many variables for caching
+	 */
+	protected static long templateKey(QueryTemplateCache cache, List<? extends StatementPattern> stmts, BindingSet bindings, int kind) {
+		String[] vars = cache.getVarNames(stmts);
+		if (vars.length > QueryTemplateCache.MAX_VARS)
+			return -1;
+		return (boundMask(vars, bindings) << 2) | kind;
+	}
+	
+	/**
+	 * 
+	 * @param vars
+	 * @param bindings
+	 * @return a bit mask of the variables which are bound by the bindings
+	 */
+	protected static long boundMask(String[] vars, BindingSet bindings) {
+		long mask = 0;
+		for (int i=0; i<vars.length && i<QueryTemplateCache.MAX_VARS; i++) {
+			if (bindings.hasBinding(vars[i]))
+				mask |= 1L << i;
+		}
+		return mask;
+	}
+	
+	/**
+	 * 
+	 * @param stmts
+	 * @param bindings
+	 * @return the variables of the statements which are not bound by the bindings
+	 */
+	protected static List<String> freeVarNames(List<? extends StatementPattern> stmts, BindingSet bindings) {
+		Set<String> varNames = new LinkedHashSet<String>();
+		for (StatementPattern stmt : stmts) {
+			for (Var var : new Var[] { stmt.getSubjectVar(), stmt.getPredicateVar(), stmt.getObjectVar() }) {
+				if (!var.hasValue() && !bindings.hasBinding(var.getName()))
+					varNames.add(var.getName());
+			}
+		}
+		return new ArrayList<String>(varNames);
+	}
+	
+	/**
+	 * Append the statements to the template, i.e. "s p o . " for each statement. The values
+	 * of variables bound by the bindings are represented by slots. If <i>renamed</i> is set,
+	 * the free variables are renamed to "var_"+index (see {@link #appendVarId(StringBuilder, Var, String, Set, BindingSet)}).
+	 * 
+	 * @param builder
+	 * @param stmts
+	 * @param bindings
+	 * @param renamed
+	 */
+	protected static void appendTemplateStatements(QueryTemplate.Builder builder, List<? extends StatementPattern> stmts,
+			BindingSet bindings, boolean renamed) {
+		for (StatementPattern stmt : stmts) {
+			appendTemplateVar(builder, stmt.getSubjectVar(), bindings, renamed).append(" ");
+			appendTemplateVar(builder, stmt.getPredicateVar(), bindings, renamed).append(" ");
+			appendTemplateVar(builder, stmt.getObjectVar(), bindings, renamed).append(" . ");
+		}
+	}
+	
+	private static QueryTemplate.Builder appendTemplateVar(QueryTemplate.Builder builder, Var var, BindingSet bindings, boolean renamed) {
+		if (var.hasValue())
+			return builder.appendValue(var.getValue());
+		if (bindings.hasBinding(var.getName()))
+			return builder.valueSlot(var.getName());
+		builder.append("?").append(var.getName());
+		return renamed ? builder.append("_").indexSlot() : builder;
+	}
+	
+	/**
+	 * Append the filter expression to the template, if it can be evaluated remotely.
+	 * 
+	 * @param builder
+	 * @param filterExpr
+	 * 			a filter expression or null
+	 */
+	protected static void appendTemplateFilter(QueryTemplate.Builder builder, FilterValueExpr filterExpr) {
+		if (filterExpr == null)
+			return;
+		try {
+			String filter = FilterUtils.toSparqlString(filterExpr);
+			builder.append("FILTER ").append(filter);
+			builder.filterEvaluated = true;
+		} catch (Exception e) {
+			log.debug("Filter could not be evaluated remotely. " + e.getMessage());
+			log.trace("Details: ", e);
+		}
+	}
+	
+	/**
+	 * 
+	 * @param stmt
+	 * @return the template cache of the statement, or a new cache if the statement is not a {@link FedXStatementPattern}
+	 */
+	protected static QueryTemplateCache getQueryTemplateCache(StatementPattern stmt) {
+		if (stmt instanceof FedXStatementPattern)
+			return ((FedXStatementPattern) stmt).getQueryTemplateCache();
+		return new QueryTemplateCache();
+	}
+	
+	/**
+	 * Returns the (cleared) buffer of the current thread for constructing query strings. The buffer
+	 * is reused unless it has grown beyond {@link #MAX_BUFFER_CAPACITY}.
+	 * 
+	 * @return the buffer
+	 */
+	protected static StringBuilder buffer() {
+		StringBuilder sb = buffers.get();
+		if (sb.capacity() > MAX_BUFFER_CAPACITY) {
+			sb = new StringBuilder(1024);
+			buffers.set(sb);
+		}
+		sb.setLength(0);
+		return sb;
+	}
+	
 	/**
 	 * Construct the statement string, i.e. "s p o . " with bindings inserted wherever possible. Note that
 	 * the relevant free variables are added to the varNames set for further evaluation.
@@ -0,0 +1,215 @@
+/*
+ * Copyright (C) 2026 Veritas Technologies LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fluidops.fedx.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.query.BindingSet;
+
+import com.fluidops.fedx.algebra.FilterValueExpr;
+
+
+/**
+ * A precompiled subquery, i.e. the fixed parts of a query string with parameter
+ * slots in between. Depending on the kind of subquery the slots are filled with
+ * the values of a binding set, with the index of a binding in a bound union or
+ * with the rows of a VALUES clause.
+ *
+ * <p>
+ * Templates are immutable and created by {@link QueryStringUtil}, which keeps
+ * them per node in a {@link QueryTemplateCache}.
+ * </p>
+ *
+ * @author agent
+ */
+public class QueryTemplate {
+
+	private static final int VALUE_SLOT = 0;
+	private static final int INDEX_SLOT = 1;
+	private static final int VALUES_SLOT = 2;
+
+	/* parts[i] precedes the i-th slot, the last part succeeds all slots */
+	protected final String[] parts;
+	protected final int[] slotTypes;
+	protected final String[] slotNames;
+
+	/* the free variables of the subquery */
+	protected final List<String> varNames;
+	/* the variables of the VALUES clause, if any */
+	protected final List<String> valuesVars;
+
+	protected final FilterValueExpr filterExpr;
+	protected final boolean filterEvaluated;
+	protected final long upperLimit;
+
+	protected QueryTemplate(Builder builder) {
+		builder.parts.add(builder.current.toString());
+		this.parts = builder.parts.toArray(new String[builder.parts.size()]);
+		this.slotTypes = new int[builder.slotTypes.size()];
+		for (int i = 0; i < slotTypes.length; i++)
+			slotTypes[i] = builder.slotTypes.get(i);
+		this.slotNames = builder.slotNames.toArray(new String[builder.slotNames.size()]);
+		this.varNames = builder.varNames;
+		this.valuesVars = builder.valuesVars;
+		this.filterExpr = builder.filterExpr;
+		this.filterEvaluated = builder.filterEvaluated;
+		this.upperLimit = builder.upperLimit;
+	}
+
+	/**
+	 *
+	 * @return the free variables of the subquery, i.e. its projection
+	 */
+	public List<String> getVarNames() {
+		return varNames;
+	}
+
+	/**
+	 *
+	 * @return whether the filter expression is part of the subquery
+	 */
+	public boolean isFilterEvaluated() {
+		return filterEvaluated;
+	}
+
+	/**
+	 * Returns true if this template has been compiled for the given filter
+	 * expression and upper limit, i.e. if these have not been changed by the
+	 * optimizer afterwards.
+	 *
+	 * @param filterExpr
+	 * @param upperLimit
+	 * @return whether the template can be used
+	 */
+	public boolean isValidFor(FilterValueExpr filterExpr, long upperLimit) {
+		return this.filterExpr == filterExpr && this.upperLimit == upperLimit;
+	}
+
+	/**
+	 * Append the subquery for the given bindings to the string builder
+	 *
+	 * @param sb
+	 * @param bindings the bindings for the value slots
+	 * @param index    the index of the bindings in a bound union
+	 * @return the string builder
+	 */
+	public StringBuilder appendTo(StringBuilder sb, BindingSet bindings, int index) {
+		return appendTo(sb, bindings, index, Collections.<BindingSet>emptyList());
+	}
+
+	/**
+	 * Append the subquery with a VALUES clause for the given bindings to the
+	 * string builder. Each binding is identified by its index in the VALUES
+	 * clause.
+	 *
+	 * @param sb
+	 * @param valuesBindings
+	 * @return the string builder
+	 */
+	public StringBuilder appendTo(StringBuilder sb, List<BindingSet> valuesBindings) {
+		return appendTo(sb, null, -1, valuesBindings);
+	}
+
+	private StringBuilder appendTo(StringBuilder sb, BindingSet bindings, int index, List<BindingSet> valuesBindings) {
+		for (int i = 0; i < slotTypes.length; i++) {
+			sb.append(parts[i]);
+			switch (slotTypes[i]) {
+			case VALUE_SLOT:
+				QueryStringUtil.appendValue(sb, bindings.getValue(slotNames[i]));
+				break;
+			case INDEX_SLOT:
+				sb.append(index);
+				break;
+			case VALUES_SLOT:
+				appendValuesRows(sb, valuesBindings);
+				break;
+			default:
+				throw new IllegalStateException("Unexpected slot type: " + slotTypes[i]);
+			}
+		}
+		return sb.append(parts[parts.length - 1]);
+	}
+
+	private void appendValuesRows(StringBuilder sb, List<BindingSet> valuesBindings) {
+		int index = 0;
+		for (BindingSet b : valuesBindings) {
+			sb.append("(");
+			for (String var : valuesVars) {
+				Value value = b.getValue(var);
+				if (value != null)
+					QueryStringUtil.appendValue(sb, value).append(" ");
+				else
+					sb.append("UNDEF ");
+			}
+			sb.append("\"").append(index).append("\") ");
+			index++;
+		}
+	}
+
+	/**
+	 * Builder for {@link QueryTemplate}s
+	 */
+	static class Builder {
+
+		private final List<String> parts = new ArrayList<String>();
+		private final List<Integer> slotTypes = new ArrayList<Integer>();
+		private final List<String> slotNames = new ArrayList<String>();
+		private StringBuilder current = new StringBuilder();
+
+		List<String> varNames = Collections.emptyList();
+		List<String> valuesVars = Collections.emptyList();
+		FilterValueExpr filterExpr = null;
+		boolean filterEvaluated = false;
+		long upperLimit = -1;
+
+		Builder append(String s) {
+			current.append(s);
+			return this;
+		}
+
+		Builder appendValue(Value value) {
+			QueryStringUtil.appendValue(current, value);
+			return this;
+		}
+
+		Builder valueSlot(String bindingName) {
+			return slot(VALUE_SLOT, bindingName);
+		}
+
+		Builder indexSlot() {
+			return slot(INDEX_SLOT, null);
+		}
+
+		Builder valuesSlot() {
+			return slot(VALUES_SLOT, null);
+		}
+
+		private Builder slot(int type, String name) {
+			parts.add(current.toString());
+			slotTypes.add(type);
+			slotNames.add(name);
+			current = new StringBuilder();
+			return this;
+		}
+
+		QueryTemplate build() {
+			return new QueryTemplate(this);
+		}
+	}
+}
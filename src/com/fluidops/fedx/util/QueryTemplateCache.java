@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2026 Veritas Technologies LLC.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fluidops.fedx.util;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.rdf4j.query.algebra.StatementPattern;
+import org.eclipse.rdf4j.query.algebra.Var;
+
+import com.fluidops.fedx.algebra.ExclusiveGroup;
+import com.fluidops.fedx.algebra.FedXStatementPattern;
+
+
+/**
+ * The precompiled subqueries of a single node, i.e. of a
+ * {@link FedXStatementPattern} or an {@link ExclusiveGroup}.
+ *
+ * <p>
+ * Templates are compiled lazily by {@link QueryStringUtil} per kind of subquery
+ * and per combination of variables which are bound by a request. The latter is
+ * encoded as bit mask over the variables of the node, see
+ * {@link #getVarNames(List)}.
+ * </p>
+ *
+ * @author agent
+ */
+public class QueryTemplateCache {
+
+	/**
+	 * The maximum number of variables of a node for which templates are cached
+	 */
+	public static final int MAX_VARS = 60;
+
+	private final ConcurrentHashMap<Long, QueryTemplate> templates = new ConcurrentHashMap<Long, QueryTemplate>();
+
+	private volatile String[] varNames = null;
+
+	/**
+	 * Returns the names of the variables of the given statements (i.e. of the
+	 * statements of the node) in the order of their occurrence.
+	 *
+	 * @param stmts
+	 * @return the variable names
+	 */
+	public String[] getVarNames(List<? extends StatementPattern> stmts) {
+		String[] res = varNames;
+		if (res == null) {
+			Set<String> names = new LinkedHashSet<String>();
+			for (StatementPattern stmt : stmts) {
+				addVarName(names, stmt.getSubjectVar());
+				addVarName(names, stmt.getPredicateVar());
+				addVarName(names, stmt.getObjectVar());
+			}
+			res = names.toArray(new String[names.size()]);
+			varNames = res;
+		}
+		return res;
+	}
+
+	private static void addVarName(Set<String> names, Var var) {
+		if (!var.hasValue())
+			names.add(var.getName());
+	}
+
+	/**
+	 *
+	 * @param key
+	 * @return the template for the given key, or null
+	 */
+	public QueryTemplate get(long key) {
+		return templates.get(key);
+	}
+
+	/**
+	 *
+	 * @param key
+	 * @param template
+	 */
+	public void put(long key, QueryTemplate template) {
+		templates.put(key, template);
+	}
+
+	/**
+	 *
+	 * @return the number of cached templates
+	 */
+	public int size() {
+		return templates.size();
+	}
+}
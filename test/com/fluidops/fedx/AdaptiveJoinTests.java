@@ -0,0 +1,40 @@
+package com.fluidops.fedx;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import com.fluidops.fedx.evaluation.SparqlFederationEvalStrategy;
+
+public class AdaptiveJoinTests extends SPARQLBaseTest {
+
+	public AdaptiveJoinTests() {
+		// the adaptive join is provided by the SPARQL strategy, use it for any type of test endpoints
+		fedxRule.withConfig("sailEvaluationStrategy", SparqlFederationEvalStrategy.class.getName())
+				.withConfig("sparqlEvaluationStrategy", SparqlFederationEvalStrategy.class.getName())
+				.withConfig("adaptiveJoinThreshold", "5");
+	}
+
+	@Test
+	public void testSwitchToHashJoin() throws Exception {
+		/* the right argument is smaller than the remaining left bindings */
+		prepareTest(Arrays.asList("/tests/data/skew1.ttl", "/tests/data/skew2.ttl"));
+		execute("/tests/boundjoin/query04.rq", "/tests/boundjoin/query04.srx", false);
+	}
+
+	@Test
+	public void testStayWithBoundJoin() throws Exception {
+		/* the right argument exceeds the maximum build size */
+		fedxRule.setConfig("adaptiveJoinMaxBuildSize", "2");
+		prepareTest(Arrays.asList("/tests/data/skew1.ttl", "/tests/data/skew2.ttl"));
+		execute("/tests/boundjoin/query04.rq", "/tests/boundjoin/query04.srx", false);
+	}
+
+	@Test
+	public void testStayWithBoundJoinExceedingBudget() throws Exception {
+		/* the right argument exceeds the memory budget */
+		fedxRule.setConfig("queryMemoryBudget", "1");
+		prepareTest(Arrays.asList("/tests/data/skew1.ttl", "/tests/data/skew2.ttl"));
+		execute("/tests/boundjoin/query04.rq", "/tests/boundjoin/query04.srx", false);
+	}
+}
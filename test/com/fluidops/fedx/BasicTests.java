@@ -1,17 +1,21 @@
 package com.fluidops.fedx;
 
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import org.eclipse.rdf4j.common.iteration.Iterations;
 import org.eclipse.rdf4j.model.Statement;
 import org.eclipse.rdf4j.query.BindingSet;
 import org.eclipse.rdf4j.query.TupleQuery;
 import org.eclipse.rdf4j.query.TupleQueryResult;
 import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import com.fluidops.fedx.endpoint.Endpoint;
+import com.fluidops.fedx.repository.FedXRepositoryConnection;
 import com.fluidops.fedx.structures.FedXDataset;
 
 public class BasicTests extends SPARQLBaseTest {
@@ -74,6 +78,22 @@ public class BasicTests extends SPARQLBaseTest {
 		compareGraphs(res, readExpectedGraphQueryResult("/tests/basic/query02.ttl"));
 	}
 
+	@Test
+	public void testGetStatementsDistinct() throws Exception {
+		/* both endpoints provide the same statements */
+		prepareTest(Arrays.asList("/tests/basic/data01endpoint1.ttl", "/tests/basic/data01endpoint1.ttl"));
+		try (RepositoryConnection conn = fedxRule.getRepository().getConnection()) {
+			List<Statement> all = Iterations.asList(conn.getStatements(null, null, null, false));
+			Set<Statement> distinct = new HashSet<Statement>(all);
+			Assertions.assertEquals(2 * distinct.size(), all.size());
+
+			fedxRule.setConfig("enableDistinctGetStatements", "true");
+			List<Statement> res = Iterations.asList(conn.getStatements(null, null, null, false));
+			Assertions.assertEquals(distinct.size(), res.size());
+			Assertions.assertEquals(distinct, new HashSet<Statement>(res));
+		}
+	}
+
 	@Test
 	public void testValuesClause() throws Exception {
 		/* test query with values clause */
@@ -143,6 +163,33 @@ public class BasicTests extends SPARQLBaseTest {
 		compareTupleQueryResults(actual, expected, false);
 	}
 	
+	@Test
+	public void testInvalidQueryPriority() throws Exception {
+
+		prepareTest(Arrays.asList("/tests/medium/data1.ttl", "/tests/medium/data2.ttl", "/tests/medium/data3.ttl",
+				"/tests/medium/data4.ttl"));
+
+		String queryString = 
+				"PREFIX foaf: <http://xmlns.com/foaf/0.1/>\r\n" +
+				"SELECT ?name WHERE {\r\n" + 
+				" <http://namespace1.org/Person_1> foaf:name ?name .\r\n" + 
+						"}";
+		TupleQueryResult expected = tupleQueryResultBuilder(Arrays.asList("name"))
+				.add(Arrays.asList(vf.createLiteral("Person1"))).build();
+
+		/* an invalid priority falls back to the default priority */
+		TupleQuery query = QueryManager.prepareTupleQuery(queryString);
+		query.setBinding(FedXRepositoryConnection.BINDING_QUERY_PRIORITY, vf.createLiteral("high"));
+		compareTupleQueryResults(query.evaluate(), expected, false);
+
+		/* a priority out of range is clamped */
+		query = QueryManager.prepareTupleQuery(queryString);
+		query.setBinding(FedXRepositoryConnection.BINDING_QUERY_PRIORITY, vf.createLiteral("99999999999"));
+		expected = tupleQueryResultBuilder(Arrays.asList("name"))
+				.add(Arrays.asList(vf.createLiteral("Person1"))).build();
+		compareTupleQueryResults(query.evaluate(), expected, false);
+	}
+
 	@Test
 	public void testQueryWithLimit() throws Exception {
 		
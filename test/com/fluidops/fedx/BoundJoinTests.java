@@ -28,6 +28,129 @@ public class BoundJoinTests extends SPARQLBaseTest {
 		execute("/tests/boundjoin/query01.rq", "/tests/boundjoin/query01.srx", false);			
 	}
 
+	@Test
+	public void testExclusiveGroupUnion() throws Exception {
+		/* test a bound join with an exclusive group as right argument */
+		fedxRule.setConfig("sparqlEvaluationStrategy", SparqlFederationEvalStrategy.class.getName());
+		prepareTest(Arrays.asList("/tests/data/data1.ttl", "/tests/data/data2.ttl", "/tests/data/data4.ttl"));
+		execute("/tests/boundjoin/query02.rq", "/tests/boundjoin/query02.srx", false);
+		execute("/tests/boundjoin/query03.rq", "/tests/boundjoin/query03.srx", false);
+	}
+
+	@Test
+	public void testExclusiveGroupValues() throws Exception {
+		/* test a VALUES clause based bound join with an exclusive group as right argument */
+		fedxRule.setConfig("sparqlEvaluationStrategy", SparqlFederationEvalStrategyWithValues.class.getName());
+		prepareTest(Arrays.asList("/tests/data/data1.ttl", "/tests/data/data2.ttl", "/tests/data/data4.ttl"));
+		execute("/tests/boundjoin/query02.rq", "/tests/boundjoin/query02.srx", false);
+		execute("/tests/boundjoin/query03.rq", "/tests/boundjoin/query03.srx", false);
+	}
+
+	@Test
+	public void testDuplicateJoinKeysUnion() throws Exception {
+		/* test a bound join with duplicate join keys in the left argument */
+		fedxRule.setConfig("sparqlEvaluationStrategy", SparqlFederationEvalStrategy.class.getName());
+		prepareTest(Arrays.asList("/tests/data/skew1.ttl", "/tests/data/skew2.ttl"));
+		execute("/tests/boundjoin/query04.rq", "/tests/boundjoin/query04.srx", false);
+	}
+
+	@Test
+	public void testDuplicateJoinKeysValues() throws Exception {
+		/* test a VALUES clause based bound join with duplicate join keys in the left argument */
+		fedxRule.setConfig("sparqlEvaluationStrategy", SparqlFederationEvalStrategyWithValues.class.getName());
+		prepareTest(Arrays.asList("/tests/data/skew1.ttl", "/tests/data/skew2.ttl"));
+		execute("/tests/boundjoin/query04.rq", "/tests/boundjoin/query04.srx", false);
+	}
+
+	@Test
+	public void testDuplicateJoinKeysWithoutDeduplication() throws Exception {
+		fedxRule.setConfig("enableBoundJoinDeduplication", "false");
+		prepareTest(Arrays.asList("/tests/data/skew1.ttl", "/tests/data/skew2.ttl"));
+		execute("/tests/boundjoin/query04.rq", "/tests/boundjoin/query04.srx", false);
+	}
+
+	@Test
+	public void testAdaptiveJoinSwitchToHashJoin() throws Exception {
+		/* the right argument is smaller than the remaining left bindings */
+		fedxRule.setConfig("adaptiveJoinThreshold", "5");
+		prepareTest(Arrays.asList("/tests/data/skew1.ttl", "/tests/data/skew2.ttl"));
+		execute("/tests/boundjoin/query04.rq", "/tests/boundjoin/query04.srx", false);
+	}
+
+	@Test
+	public void testAdaptiveJoinStayWithBoundJoin() throws Exception {
+		/* the right argument exceeds the maximum build size */
+		fedxRule.setConfig("adaptiveJoinThreshold", "5");
+		fedxRule.setConfig("adaptiveJoinMaxBuildSize", "2");
+		prepareTest(Arrays.asList("/tests/data/skew1.ttl", "/tests/data/skew2.ttl"));
+		execute("/tests/boundjoin/query04.rq", "/tests/boundjoin/query04.srx", false);
+	}
+
+	@Test
+	public void testSpillIntermediateResults() throws Exception {
+		/* all buffered intermediate results exceed the memory budget */
+		fedxRule.setConfig("queryMemoryBudget", "1");
+		fedxRule.setConfig("adaptiveJoinThreshold", "5");
+		prepareTest(Arrays.asList("/tests/data/skew1.ttl", "/tests/data/skew2.ttl"));
+		execute("/tests/boundjoin/query04.rq", "/tests/boundjoin/query04.srx", false);
+	}
+
+	@Test
+	public void testSymmetricHashJoin() throws Exception {
+		/* both join arguments are exclusive to a single endpoint */
+		fedxRule.setConfig("enableSymmetricHashJoin", "true");
+		prepareTest(Arrays.asList("/tests/data/data1.ttl", "/tests/data/data2.ttl", "/tests/data/data4.ttl"));
+		execute("/tests/boundjoin/query02.rq", "/tests/boundjoin/query02.srx", false);
+		execute("/tests/boundjoin/query03.rq", "/tests/boundjoin/query03.srx", false);
+		prepareTest(Arrays.asList("/tests/data/skew1.ttl", "/tests/data/skew2.ttl"));
+		execute("/tests/boundjoin/query04.rq", "/tests/boundjoin/query04.srx", false);
+	}
+
+	@Test
+	public void testSymmetricHashJoinExceedingBudget() throws Exception {
+		/* the hash tables exceed the memory budget */
+		fedxRule.setConfig("enableSymmetricHashJoin", "true");
+		fedxRule.setConfig("queryMemoryBudget", "5000");
+		prepareTest(Arrays.asList("/tests/data/skew1.ttl", "/tests/data/skew2.ttl"));
+		execute("/tests/boundjoin/query04.rq", "/tests/boundjoin/query04.srx", false);
+	}
+
+	@Test
+	public void testNestedJoinsSinglePermit() throws Exception {
+		/* nested (left) joins whose tasks are sent to the same endpoints with a single permit each */
+		fedxRule.setConfig("maxInFlightTasksPerEndpoint", "1");
+		prepareTest(Arrays.asList("/tests/medium/data1.ttl", "/tests/medium/data2.ttl", "/tests/medium/data3.ttl",
+				"/tests/medium/data4.ttl"));
+		execute("/tests/medium/query09.rq", "/tests/medium/query09.srx", false);
+		execute("/tests/medium/query11.rq", "/tests/medium/query11.srx", false);
+		execute("/tests/medium/query12.rq", "/tests/medium/query12.srx", false);
+	}
+
+	@Test
+	public void testBushyJoin() throws Exception {
+		/* the join consists of two independent groups of statements */
+		prepareTest(Arrays.asList("/tests/data/data1.ttl", "/tests/data/data2.ttl"));
+		execute("/tests/boundjoin/query05.rq", "/tests/boundjoin/query05.srx", false);
+		execute("/tests/boundjoin/query06.rq", "/tests/boundjoin/query06.srx", false);
+		fedxRule.setConfig("enableBushyJoin", "true");
+		String queryPlan = QueryManager.getQueryPlan(readQueryString("/tests/boundjoin/query05.rq"));
+		Assertions.assertTrue(queryPlan.contains("ParallelNJoin"), queryPlan);
+		execute("/tests/boundjoin/query05.rq", "/tests/boundjoin/query05.srx", false);
+		execute("/tests/boundjoin/query06.rq", "/tests/boundjoin/query06.srx", false);
+	}
+
+	@Test
+	public void testBushyJoinExceedingBudget() throws Exception {
+		/* the hash tables of the independent groups exceed the memory budget */
+		fedxRule.setConfig("enableBushyJoin", "true");
+		fedxRule.setConfig("queryMemoryBudget", "1");
+		prepareTest(Arrays.asList("/tests/data/data1.ttl", "/tests/data/data2.ttl"));
+		String queryPlan = QueryManager.getQueryPlan(readQueryString("/tests/boundjoin/query05.rq"));
+		Assertions.assertTrue(queryPlan.contains("ParallelNJoin"), queryPlan);
+		execute("/tests/boundjoin/query05.rq", "/tests/boundjoin/query05.srx", false);
+		execute("/tests/boundjoin/query06.rq", "/tests/boundjoin/query06.srx", false);
+	}
+
 	@Test
 	public void testBoundJoin_FailingEndpoint() throws Exception {
 		/* test a simple bound join */
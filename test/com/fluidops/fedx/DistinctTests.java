@@ -47,4 +47,11 @@ public class DistinctTests extends SPARQLBaseTest {
 		prepareTest(Arrays.asList("/tests/data/distinctTest04a.ttl", "/tests/data/distinctTest04b.ttl"));
 		execute("/tests/basic/query_distinct05a.rq", "/tests/basic/query_distinct05a.srx", false);			
 	}
+	
+	@Test
+	public void test6() throws Exception {
+		/* test for aggregates with DISTINCT: duplicates of both endpoints are counted */
+		prepareTest(Arrays.asList("/tests/basic/data01endpoint1.ttl", "/tests/basic/data01endpoint1.ttl"));
+		execute("/tests/basic/query_distinct06.rq", "/tests/basic/query_distinct06.srx", false);			
+	}
 }
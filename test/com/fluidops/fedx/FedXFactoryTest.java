@@ -26,6 +26,7 @@ public class FedXFactoryTest extends SPARQLServerBaseTest {
 		FedXRepository repo = FedXFactory.newFederation().withRepositoryResolver(repositoryResolver)
 					.withResolvableEndpoint("endpoint1")
 					.withResolvableEndpoint("endpoint2")
+					.withFedXBaseDir(tempDir.toFile())
 				.create();
 
 		try (RepositoryConnection conn = repo.getConnection()) {
@@ -50,6 +51,7 @@ public class FedXFactoryTest extends SPARQLServerBaseTest {
 		
 		FedXRepository repo = FedXFactory.newFederation().withRepositoryResolver(repositoryResolver)
 					.withMembers(dataConfig)
+					.withFedXBaseDir(tempDir.toFile())
 				.create();
 		
 		try (RepositoryConnection conn = repo.getConnection()) {
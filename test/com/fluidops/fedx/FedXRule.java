@@ -1,12 +1,14 @@
 package com.fluidops.fedx;
 
 import java.io.File;
+import java.nio.file.Files;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
+import org.apache.commons.io.FileUtils;
 import org.eclipse.rdf4j.repository.Repository;
 import org.junit.jupiter.api.extension.AfterEachCallback;
 import org.junit.jupiter.api.extension.BeforeEachCallback;
@@ -22,6 +24,9 @@ public class FedXRule implements BeforeEachCallback, AfterEachCallback {
 
 	protected Repository repository;
 
+	// location of the files written by the federation (e.g. the cache)
+	protected File tempDir;
+
 	// settings that get applied in the actual config
 	protected Map<String, String> configSettings = new HashMap<>();
 		
@@ -38,9 +43,21 @@ public class FedXRule implements BeforeEachCallback, AfterEachCallback {
 		return this;
 	}
 
+	/**
+	 * Apply the given setting before the federation is initialized, e.g. for
+	 * settings which are only read during initialization.
+	 */
+	public FedXRule withConfig(String key, String value) {
+		configSettings.put(key, value);
+		return this;
+	}
+
 	@Override
 	public void beforeEach(ExtensionContext ctx) throws Exception {
 		Config.initialize();
+		tempDir = Files.createTempDirectory("fedx").toFile();
+		Config.getConfig().set("cacheLocation", new File(tempDir, "cache.db").getAbsolutePath());
+		Config.getConfig().set("capabilityIndexLocation", new File(tempDir, "capabilities.db").getAbsolutePath());
 		for (Entry<String, String> config : configSettings.entrySet()) {
 			Config.getConfig().set(config.getKey(), config.getValue());
 		}
@@ -56,6 +73,7 @@ public class FedXRule implements BeforeEachCallback, AfterEachCallback {
 	@Override
 	public void afterEach(ExtensionContext ctx) {
 		repository.shutDown();
+		FileUtils.deleteQuietly(tempDir);
 	}
 
 	public void addEndpoint(Endpoint e) {
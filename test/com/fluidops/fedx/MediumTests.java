@@ -1,8 +1,11 @@
 package com.fluidops.fedx;
 
+import java.nio.file.Path;
 import java.util.Arrays;
 
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 public class MediumTests extends SPARQLBaseTest {
 
@@ -105,5 +108,34 @@ public class MediumTests extends SPARQLBaseTest {
 		execute("/tests/medium/query12.rq", "/tests/medium/query12.srx", false);
 	}
 	
+	@Test
+	public void testBatchedSourceSelection() throws Exception {
+		
+		/* test all queries with batched source selection (with empty cache) */
+		fedxRule.setConfig("enableBatchedSourceSelection", "true");
+		prepareTest(Arrays.asList("/tests/medium/data1.ttl", "/tests/medium/data2.ttl", "/tests/medium/data3.ttl", "/tests/medium/data4.ttl"));
+		for (int i = 1; i <= 12; i++) {
+			String query = String.format("/tests/medium/query%02d", i);
+			FederationManager.getInstance().getCache().clear();
+			execute(query + ".rq", query + ".srx", false);
+		}
+	}
+	
+	@Test
+	public void testCapabilityIndex(@TempDir Path tempDir) throws Exception {
+		
+		/* test all queries with source selection through the capability index (with empty cache) */
+		fedxRule.setConfig("enableCapabilityIndex", "true");
+		fedxRule.setConfig("capabilityIndexLocation", tempDir.resolve("capabilities.db").toString());
+		prepareTest(Arrays.asList("/tests/medium/data1.ttl", "/tests/medium/data2.ttl", "/tests/medium/data3.ttl", "/tests/medium/data4.ttl"));
+		for (int i = 1; i <= 12; i++) {
+			String query = String.format("/tests/medium/query%02d", i);
+			FederationManager.getInstance().getCache().clear();
+			execute(query + ".rq", query + ".srx", false);
+		}
+		Assertions.assertEquals(4, FederationManager.getInstance().getFederation().getMembers().stream()
+				.filter(e -> FederationManager.getInstance().getCapabilityIndex().getCapabilities(e.getId()) != null)
+				.count());
+	}
 	
 }
@@ -4,6 +4,9 @@ import java.util.Arrays;
 
 import org.junit.jupiter.api.Test;
 
+import com.fluidops.fedx.evaluation.SparqlFederationEvalStrategy;
+import com.fluidops.fedx.evaluation.SparqlFederationEvalStrategyWithValues;
+
 public class OptionalTests extends SPARQLBaseTest {
 
 
@@ -21,5 +24,55 @@ public class OptionalTests extends SPARQLBaseTest {
 		prepareTest(Arrays.asList("/tests/data/optional1.ttl", "/tests/data/optional2.ttl"));
 		execute("/tests/basic/query_optional02.rq", "/tests/basic/query_optional02.srx", false);			
 	}	
+	
+	@Test
+	public void testBoundLeftJoinValues() throws Exception {
+		/* test VALUES clause based bound left joins (condition and exclusive group) */
+		fedxRule.setConfig("sparqlEvaluationStrategy", SparqlFederationEvalStrategyWithValues.class.getName());
+		prepareTest(Arrays.asList("/tests/data/optional1.ttl", "/tests/data/optional2.ttl", "/tests/data/optional3.ttl"));
+		execute("/tests/basic/query_optional03.rq", "/tests/basic/query_optional03.srx", false);
+		execute("/tests/basic/query_optional04.rq", "/tests/basic/query_optional04.srx", false);
+	}
+	
+	@Test
+	public void testBoundLeftJoinUnion() throws Exception {
+		/* test UNION based bound left joins (condition and exclusive group) */
+		fedxRule.setConfig("sparqlEvaluationStrategy", SparqlFederationEvalStrategy.class.getName());
+		prepareTest(Arrays.asList("/tests/data/optional1.ttl", "/tests/data/optional2.ttl", "/tests/data/optional3.ttl"));
+		execute("/tests/basic/query_optional03.rq", "/tests/basic/query_optional03.srx", false);
+		execute("/tests/basic/query_optional04.rq", "/tests/basic/query_optional04.srx", false);
+	}
+	
+	@Test
+	public void testBoundLeftJoinDisabled() throws Exception {
+		/* test the fallback to a left join per binding */
+		fedxRule.setConfig("optimizer.enableBoundLeftJoin", "false");
+		prepareTest(Arrays.asList("/tests/data/optional1.ttl", "/tests/data/optional2.ttl", "/tests/data/optional3.ttl"));
+		execute("/tests/basic/query_optional03.rq", "/tests/basic/query_optional03.srx", false);
+		execute("/tests/basic/query_optional04.rq", "/tests/basic/query_optional04.srx", false);
+	}
+
+	@Test
+	public void testBadlyDesignedLeftJoin() throws Exception {
+		/* test the hash left join for a problem variable bound outside of the left argument */
+		prepareTest(Arrays.asList("/tests/data/optional1.ttl", "/tests/data/optional2.ttl", "/tests/data/optional3.ttl"));
+		execute("/tests/basic/query_optional05.rq", "/tests/basic/query_optional05.srx", false);
+	}
+
+	@Test
+	public void testSubqueryLeftJoin() throws Exception {
+		/* test the hash left join for a subquery as right argument */
+		prepareTest(Arrays.asList("/tests/data/optional1.ttl", "/tests/data/optional2.ttl", "/tests/data/optional3.ttl"));
+		execute("/tests/basic/query_optional06.rq", "/tests/basic/query_optional06.srx", false);
+	}
+
+	@Test
+	public void testLeftJoinExceedingBudget() throws Exception {
+		/* the right arguments of the hash left joins exceed the memory budget */
+		fedxRule.setConfig("queryMemoryBudget", "1");
+		prepareTest(Arrays.asList("/tests/data/optional1.ttl", "/tests/data/optional2.ttl", "/tests/data/optional3.ttl"));
+		execute("/tests/basic/query_optional05.rq", "/tests/basic/query_optional05.srx", false);
+		execute("/tests/basic/query_optional06.rq", "/tests/basic/query_optional06.srx", false);
+	}
 
 }
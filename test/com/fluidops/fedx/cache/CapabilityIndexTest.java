@@ -0,0 +1,238 @@
+package com.fluidops.fedx.cache;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.query.algebra.StatementPattern;
+import org.eclipse.rdf4j.query.algebra.Var;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.repository.sail.SailRepository;
+import org.eclipse.rdf4j.sail.memory.MemoryStore;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fluidops.fedx.FedXRule;
+import com.fluidops.fedx.cache.Cache.StatementSourceAssurance;
+import com.fluidops.fedx.cache.CapabilityIndex.EndpointCapabilities;
+import com.fluidops.fedx.cache.CapabilityIndex.PredicateCapabilities;
+import com.fluidops.fedx.endpoint.Endpoint;
+import com.fluidops.fedx.endpoint.EndpointClassification;
+import com.fluidops.fedx.endpoint.EndpointType;
+import com.fluidops.fedx.endpoint.RepositoryEndpoint;
+import com.fluidops.fedx.endpoint.provider.RepositoryInformation;
+import com.google.common.collect.Sets;
+
+
+public class CapabilityIndexTest {
+
+	@RegisterExtension
+	public FedXRule fedxRule = new FedXRule();
+
+	@TempDir
+	Path tempDir;
+
+	protected final ValueFactory vf = SimpleValueFactory.getInstance();
+
+	@Test
+	public void testAuthority() throws Exception {
+		Assertions.assertEquals("http://dbpedia.org/", CapabilityIndex.getAuthority("http://dbpedia.org/resource/Berlin"));
+		Assertions.assertEquals("http://dbpedia.org", CapabilityIndex.getAuthority("http://dbpedia.org"));
+		Assertions.assertEquals("urn:", CapabilityIndex.getAuthority("urn:isbn:123"));
+		Assertions.assertEquals("mailto:", CapabilityIndex.getAuthority("mailto:alan@data.org"));
+		Assertions.assertEquals("file:", CapabilityIndex.getAuthority("file:/tmp/data.ttl"));
+	}
+
+	@Test
+	public void testCanProvideStatements() throws Exception {
+
+		EndpointCapabilities c = createCapabilities();
+
+		// unknown predicate
+		Assertions.assertEquals(StatementSourceAssurance.NONE,
+				c.canProvideStatements(null, vf.createIRI("http://ex.org/unknown"), null));
+		// known predicate
+		Assertions.assertEquals(StatementSourceAssurance.HAS_REMOTE_STATEMENTS,
+				c.canProvideStatements(null, vf.createIRI("http://ex.org/name"), null));
+		// subject authority
+		Assertions.assertEquals(StatementSourceAssurance.NONE, c.canProvideStatements(
+				vf.createIRI("http://other.org/s1"), vf.createIRI("http://ex.org/name"), null));
+		Assertions.assertEquals(StatementSourceAssurance.POSSIBLY_HAS_STATEMENTS, c.canProvideStatements(
+				vf.createIRI("http://data.org/s1"), vf.createIRI("http://ex.org/name"), null));
+		// literal objects
+		Assertions.assertEquals(StatementSourceAssurance.NONE,
+				c.canProvideStatements(null, vf.createIRI("http://ex.org/knows"), vf.createLiteral("Alan")));
+		Assertions.assertEquals(StatementSourceAssurance.POSSIBLY_HAS_STATEMENTS,
+				c.canProvideStatements(null, vf.createIRI("http://ex.org/name"), vf.createLiteral("Alan")));
+		// object authority, unrestricted subjects
+		Assertions.assertEquals(StatementSourceAssurance.NONE, c.canProvideStatements(
+				vf.createIRI("http://any.org/s1"), vf.createIRI("http://ex.org/knows"), vf.createIRI("http://other.org/o")));
+		Assertions.assertEquals(StatementSourceAssurance.POSSIBLY_HAS_STATEMENTS, c.canProvideStatements(
+				vf.createIRI("http://any.org/s1"), vf.createIRI("http://ex.org/knows"), vf.createIRI("http://data.org/o")));
+		// unbound predicate
+		Assertions.assertEquals(StatementSourceAssurance.NONE,
+				c.canProvideStatements(null, null, vf.createIRI("http://other.org/o")));
+		Assertions.assertEquals(StatementSourceAssurance.HAS_REMOTE_STATEMENTS, c.canProvideStatements(null, null, null));
+	}
+
+	@Test
+	public void testIncompleteSummary() throws Exception {
+
+		EndpointCapabilities c = createCapabilities(false);
+
+		// patterns are not excluded based on an incomplete summary
+		Assertions.assertEquals(StatementSourceAssurance.POSSIBLY_HAS_STATEMENTS,
+				c.canProvideStatements(null, vf.createIRI("http://ex.org/unknown"), null));
+		Assertions.assertEquals(StatementSourceAssurance.POSSIBLY_HAS_STATEMENTS, c.canProvideStatements(
+				vf.createIRI("http://other.org/s1"), vf.createIRI("http://ex.org/name"), null));
+		Assertions.assertEquals(StatementSourceAssurance.HAS_REMOTE_STATEMENTS,
+				c.canProvideStatements(null, vf.createIRI("http://ex.org/name"), null));
+	}
+
+	@Test
+	public void testBuild() throws Exception {
+
+		Endpoint e = createEndpoint("e1");
+		try {
+			addData(e);
+			EndpointCapabilities c = CapabilityIndex.build(e);
+
+			Assertions.assertTrue(c.isComplete());
+			Assertions.assertEquals(Sets.newHashSet("http://ex.org/name", "http://ex.org/knows"), c.getPredicates());
+			PredicateCapabilities name = c.predicates.get("http://ex.org/name");
+			Assertions.assertEquals(Sets.newHashSet("http://data.org/", "urn:"), name.subjectAuthorities);
+			Assertions.assertEquals(Collections.emptySet(), name.objectAuthorities);
+			Assertions.assertTrue(name.literalObjects);
+			PredicateCapabilities knows = c.predicates.get("http://ex.org/knows");
+			Assertions.assertEquals(Sets.newHashSet("http://data.org/"), knows.subjectAuthorities);
+			Assertions.assertEquals(Sets.newHashSet("http://other.org", "mailto:"), knows.objectAuthorities);
+			Assertions.assertFalse(knows.literalObjects);
+
+			Assertions.assertEquals(StatementSourceAssurance.NONE, c.canProvideStatements(
+					vf.createIRI("http://other.org/s1"), vf.createIRI("http://ex.org/name"), null));
+			Assertions.assertEquals(StatementSourceAssurance.POSSIBLY_HAS_STATEMENTS, c.canProvideStatements(
+					vf.createIRI("urn:isbn:123"), vf.createIRI("http://ex.org/name"), null));
+		} finally {
+			e.shutDown();
+		}
+	}
+
+	@Test
+	public void testInvalidateAndRefresh() throws Exception {
+
+		Endpoint e = createEndpoint("e1");
+		try {
+			List<Endpoint> endpoints = Collections.singletonList(e);
+			File location = tempDir.resolve("capabilities.db").toFile();
+			CapabilityIndex index = new CapabilityIndex(location);
+			index.initialize(endpoints);
+			Assertions.assertEquals(StatementSourceAssurance.NONE,
+					index.canProvideStatements(pattern("http://ex.org/name"), e));
+
+			addData(e);
+			index.invalidate(e.getId());
+			Assertions.assertNull(index.getCapabilities(e.getId()));
+			Assertions.assertEquals(StatementSourceAssurance.POSSIBLY_HAS_STATEMENTS,
+					index.canProvideStatements(pattern("http://ex.org/name"), e));
+
+			// the invalidation is persisted
+			CapabilityIndex index2 = new CapabilityIndex(location);
+			index2.load();
+			Assertions.assertNull(index2.getCapabilities(e.getId()));
+
+			index.refresh(endpoints);
+			Assertions.assertEquals(StatementSourceAssurance.HAS_REMOTE_STATEMENTS,
+					index.canProvideStatements(pattern("http://ex.org/name"), e));
+		} finally {
+			e.shutDown();
+		}
+	}
+
+	@Test
+	public void testExpiry() throws Exception {
+
+		Endpoint e = createEndpoint("e1");
+		try {
+			addData(e);
+			CapabilityIndex index = new CapabilityIndex(tempDir.resolve("capabilities.db").toFile(), 60000);
+			index.setCapabilities(e.getId(), new EndpointCapabilities(Collections.emptyMap(), true,
+					System.currentTimeMillis() - 120000));
+
+			// expired summaries are not consulted
+			Assertions.assertEquals(StatementSourceAssurance.POSSIBLY_HAS_STATEMENTS,
+					index.canProvideStatements(pattern("http://ex.org/name"), e));
+
+			index.refresh(Collections.singletonList(e));
+			Assertions.assertEquals(StatementSourceAssurance.HAS_REMOTE_STATEMENTS,
+					index.canProvideStatements(pattern("http://ex.org/name"), e));
+		} finally {
+			e.shutDown();
+		}
+	}
+
+	@Test
+	public void testPersist() throws Exception {
+
+		File location = tempDir.resolve("capabilities.db").toFile();
+		CapabilityIndex index = new CapabilityIndex(location);
+		index.setCapabilities("e1", createCapabilities());
+		index.persist();
+
+		CapabilityIndex index2 = new CapabilityIndex(location);
+		index2.load();
+		EndpointCapabilities c = index2.getCapabilities("e1");
+		Assertions.assertEquals(Sets.newHashSet("http://ex.org/name", "http://ex.org/knows"), c.getPredicates());
+		Assertions.assertEquals(StatementSourceAssurance.NONE, c.canProvideStatements(
+				vf.createIRI("http://other.org/s1"), vf.createIRI("http://ex.org/name"), null));
+		Assertions.assertEquals(StatementSourceAssurance.POSSIBLY_HAS_STATEMENTS, c.canProvideStatements(
+				vf.createIRI("http://any.org/s1"), vf.createIRI("http://ex.org/knows"), vf.createIRI("http://data.org/o")));
+	}
+
+	protected EndpointCapabilities createCapabilities() {
+		return createCapabilities(true);
+	}
+
+	protected EndpointCapabilities createCapabilities(boolean complete) {
+		Map<String, PredicateCapabilities> predicates = new HashMap<>();
+		predicates.put("http://ex.org/name",
+				new PredicateCapabilities(Sets.newHashSet("http://data.org/"), Sets.newHashSet(), true));
+		predicates.put("http://ex.org/knows",
+				new PredicateCapabilities(null, Sets.newHashSet("http://data.org/"), false));
+		return new EndpointCapabilities(predicates, complete, System.currentTimeMillis());
+	}
+
+	protected StatementPattern pattern(String predicate) {
+		return new StatementPattern(new Var("s"), new Var("p", vf.createIRI(predicate)), new Var("o"));
+	}
+
+	protected void addData(Endpoint e) {
+		IRI name = vf.createIRI("http://ex.org/name");
+		IRI knows = vf.createIRI("http://ex.org/knows");
+		try (RepositoryConnection conn = e.getConnection()) {
+			conn.add(vf.createIRI("http://data.org/alan"), name, vf.createLiteral("Alan"));
+			conn.add(vf.createIRI("urn:isbn:123"), name, vf.createLiteral("Book"));
+			conn.add(vf.createBNode(), name, vf.createLiteral("Anonymous"));
+			conn.add(vf.createIRI("http://data.org/alan"), knows, vf.createIRI("http://other.org"));
+			conn.add(vf.createIRI("http://data.org/alan"), knows, vf.createIRI("mailto:bob@other.org"));
+			conn.add(vf.createIRI("http://data.org/alan"), knows, vf.createBNode());
+		}
+	}
+
+	protected Endpoint createEndpoint(String id) throws Exception {
+		RepositoryInformation repoInfo = new RepositoryInformation(id, "http://" + id, "http://unknown",
+				EndpointType.Other);
+		SailRepository repo = new SailRepository(new MemoryStore());
+		repo.initialize();
+		Endpoint e = new RepositoryEndpoint(repoInfo, repoInfo.getLocation(), EndpointClassification.Local, repo);
+		e.initialize();
+		return e;
+	}
+}
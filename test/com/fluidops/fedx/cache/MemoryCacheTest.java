@@ -0,0 +1,262 @@
+package com.fluidops.fedx.cache;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+
+import org.eclipse.rdf4j.repository.sail.SailRepository;
+import org.eclipse.rdf4j.sail.memory.MemoryStore;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fluidops.fedx.cache.Cache.StatementSourceAssurance;
+import com.fluidops.fedx.endpoint.Endpoint;
+import com.fluidops.fedx.endpoint.EndpointClassification;
+import com.fluidops.fedx.endpoint.EndpointType;
+import com.fluidops.fedx.endpoint.RepositoryEndpoint;
+import com.fluidops.fedx.endpoint.provider.RepositoryInformation;
+import com.fluidops.fedx.structures.SubQuery;
+
+
+public class MemoryCacheTest {
+
+	@TempDir
+	Path tempDir;
+
+	protected Endpoint e1;
+	protected Endpoint e2;
+
+	@BeforeEach
+	public void before() throws Exception {
+		e1 = createEndpoint("e1");
+		e2 = createEndpoint("e2");
+	}
+
+	@Test
+	public void testMergeAndInvalidate() throws Exception {
+
+		MemoryCache cache = new MemoryCache(cacheLocation(), 100, 0);
+		SubQuery q1 = new SubQuery("?s", "<http://ex.org/p1>", "?o");
+		SubQuery q2 = new SubQuery("?s", "<http://ex.org/p2>", "?o");
+
+		cache.updateEntry(q1, CacheUtils.createCacheEntry(e1, true));
+		CacheEntry before = cache.getCacheEntry(q1);
+		cache.updateEntry(q1, CacheUtils.createCacheEntry(e2, false));
+		cache.updateEntry(q2, CacheUtils.createCacheEntry(e1, false));
+
+		// an update replaces the entry, entries obtained by readers are not modified
+		Assertions.assertNotSame(before, cache.getCacheEntry(q1));
+		Assertions.assertEquals(StatementSourceAssurance.POSSIBLY_HAS_STATEMENTS, before.canProvideStatements(e2));
+
+		Assertions.assertEquals(StatementSourceAssurance.HAS_REMOTE_STATEMENTS, cache.canProvideStatements(q1, e1));
+		Assertions.assertEquals(StatementSourceAssurance.NONE, cache.canProvideStatements(q1, e2));
+
+		// entries of e1 are removed, q2 becomes empty
+		cache.invalidate(e1);
+		Assertions.assertEquals(1, cache.size());
+		Assertions.assertEquals(StatementSourceAssurance.POSSIBLY_HAS_STATEMENTS, cache.canProvideStatements(q1, e1));
+		Assertions.assertEquals(StatementSourceAssurance.NONE, cache.canProvideStatements(q1, e2));
+		Assertions.assertNull(cache.getCacheEntry(q2));
+
+		Assertions.assertEquals(3, cache.getHitCount());
+		Assertions.assertEquals(1, cache.getMissCount());
+	}
+
+	@Test
+	public void testInference() throws Exception {
+
+		MemoryCache cache = new MemoryCache(cacheLocation(), 100, 0);
+		SubQuery specific = new SubQuery("http://ex.org/s1", "http://ex.org/p1", "http://ex.org/o1");
+		SubQuery general = new SubQuery(null, "http://ex.org/p2", null);
+
+		cache.updateEntry(specific, CacheUtils.createCacheEntry(e1, true));
+		cache.updateEntry(general, CacheUtils.createCacheEntry(e1, false));
+
+		// subset inference: generalizations of the specific subquery have results
+		Assertions.assertEquals(StatementSourceAssurance.HAS_REMOTE_STATEMENTS,
+				cache.canProvideStatements(new SubQuery(null, "http://ex.org/p1", null), e1));
+		Assertions.assertEquals(StatementSourceAssurance.HAS_REMOTE_STATEMENTS,
+				cache.canProvideStatements(new SubQuery("http://ex.org/s1", null, "http://ex.org/o1"), e1));
+		Assertions.assertEquals(StatementSourceAssurance.POSSIBLY_HAS_STATEMENTS,
+				cache.canProvideStatements(new SubQuery(null, "http://ex.org/p1", "http://ex.org/o2"), e1));
+		Assertions.assertEquals(StatementSourceAssurance.POSSIBLY_HAS_STATEMENTS,
+				cache.canProvideStatements(new SubQuery(null, "http://ex.org/p1", null), e2));
+
+		// superset inference: specializations of the general subquery have no results
+		Assertions.assertEquals(StatementSourceAssurance.NONE,
+				cache.canProvideStatements(new SubQuery("http://ex.org/s1", "http://ex.org/p2", null), e1));
+		Assertions.assertEquals(StatementSourceAssurance.POSSIBLY_HAS_STATEMENTS,
+				cache.canProvideStatements(new SubQuery("http://ex.org/s1", "http://ex.org/p3", null), e1));
+
+		Assertions.assertEquals(3, cache.getInferredHitCount());
+
+		// witnesses that no longer provide results are not considered
+		cache.updateEntry(specific, CacheUtils.createCacheEntry(e1, false));
+		Assertions.assertEquals(StatementSourceAssurance.POSSIBLY_HAS_STATEMENTS,
+				cache.canProvideStatements(new SubQuery(null, "http://ex.org/p1", null), e1));
+		cache.removeEntry(general);
+		Assertions.assertEquals(StatementSourceAssurance.POSSIBLY_HAS_STATEMENTS,
+				cache.canProvideStatements(new SubQuery("http://ex.org/s1", "http://ex.org/p2", null), e1));
+	}
+
+	@Test
+	public void testExpiry() throws Exception {
+
+		MemoryCache cache = new MemoryCache(cacheLocation(), 100, 50);
+		SubQuery q1 = new SubQuery("?s", "<http://ex.org/p1>", "?o");
+		cache.addEntry(q1, CacheUtils.createCacheEntry(e1, true));
+		Assertions.assertEquals(StatementSourceAssurance.HAS_REMOTE_STATEMENTS, cache.canProvideStatements(q1, e1));
+
+		Thread.sleep(100);
+		Assertions.assertEquals(StatementSourceAssurance.POSSIBLY_HAS_STATEMENTS, cache.canProvideStatements(q1, e1));
+		Assertions.assertEquals(0, cache.size());
+
+		// a stale entry can be added again
+		cache.addEntry(q1, CacheUtils.createCacheEntry(e1, false));
+		Assertions.assertEquals(StatementSourceAssurance.NONE, cache.canProvideStatements(q1, e1));
+	}
+
+	@Test
+	public void testEviction() throws Exception {
+
+		MemoryCache cache = new MemoryCache(cacheLocation(), 10, 0);
+		SubQuery first = new SubQuery("?s", "<http://ex.org/p0>", "?o");
+		cache.addEntry(first, CacheUtils.createCacheEntry(e1, true));
+		for (int i = 1; i <= 10; i++) {
+			Thread.sleep(2);
+			cache.addEntry(new SubQuery("?s", "<http://ex.org/p" + i + ">", "?o"),
+					CacheUtils.createCacheEntry(e1, true));
+			// keep the first entry recently used
+			cache.getCacheEntry(first);
+		}
+
+		Assertions.assertEquals(9, cache.size());
+		Assertions.assertNotNull(cache.getCacheEntry(first));
+		Assertions.assertNull(cache.getCacheEntry(new SubQuery("?s", "<http://ex.org/p1>", "?o")));
+	}
+
+	@Test
+	public void testPersist() throws Exception {
+
+		File location = cacheLocation();
+		MemoryCache cache = new MemoryCache(location, 100, 0);
+		SubQuery q1 = new SubQuery("?s", "<http://ex.org/p1>", "?o");
+		cache.addEntry(q1, CacheUtils.createCacheEntry(e1, true));
+		cache.persist();
+
+		MemoryCache cache2 = new MemoryCache(location, 100, 0);
+		cache2.initialize();
+		Assertions.assertEquals(StatementSourceAssurance.HAS_REMOTE_STATEMENTS, cache2.canProvideStatements(q1, e1));
+
+		// the restored entry can be updated concurrently
+		cache2.updateEntry(q1, CacheUtils.createCacheEntry(e2, true));
+		Assertions.assertEquals(StatementSourceAssurance.HAS_REMOTE_STATEMENTS, cache2.canProvideStatements(q1, e2));
+	}
+
+	@Test
+	public void testReadWithoutClose() throws Exception {
+
+		File location = cacheLocation();
+		MemoryCache cache = new MemoryCache(location, 100, 0);
+		SubQuery q1 = new SubQuery("?s", "<http://ex.org/p1>", "?o");
+		SubQuery q2 = new SubQuery("?s", "<http://ex.org/p2>", "?o");
+		cache.addEntry(q1, CacheUtils.createCacheEntry(e1, true));
+		cache.updateEntry(q1, CacheUtils.createCacheEntry(e2, false));
+		cache.addEntry(q2, CacheUtils.createCacheEntry(e1, true));
+		cache.removeEntry(q2);
+
+		// simulate a crash, i.e. the cache is neither persisted nor closed
+		MemoryCache cache2 = new MemoryCache(location, 100, 0);
+		cache2.initialize();
+		Assertions.assertEquals(1, cache2.size());
+		Assertions.assertEquals(StatementSourceAssurance.HAS_REMOTE_STATEMENTS, cache2.canProvideStatements(q1, e1));
+		Assertions.assertEquals(StatementSourceAssurance.NONE, cache2.canProvideStatements(q1, e2));
+	}
+
+	@Test
+	public void testTornRecord() throws Exception {
+
+		File location = cacheLocation();
+		MemoryCache cache = new MemoryCache(location, 100, 0);
+		SubQuery q1 = new SubQuery("?s", "<http://ex.org/p1>", "?o");
+		SubQuery q2 = new SubQuery("?s", "<http://ex.org/p2>", "?o");
+		cache.addEntry(q1, CacheUtils.createCacheEntry(e1, true));
+		cache.addEntry(q2, CacheUtils.createCacheEntry(e1, true));
+		cache.removeEntry(q2);
+		cache.persist();
+		long length = location.length();
+
+		// simulate a crash while appending a record
+		Files.write(location.toPath(), new byte[] { 0, 0, 0, 42, 1, 2, 3 }, StandardOpenOption.APPEND);
+
+		MemoryCache cache2 = new MemoryCache(location, 100, 0);
+		cache2.initialize();
+		Assertions.assertEquals(1, cache2.size());
+		Assertions.assertEquals(StatementSourceAssurance.HAS_REMOTE_STATEMENTS, cache2.canProvideStatements(q1, e1));
+		Assertions.assertEquals(length, location.length());
+
+		// new records are appended to the valid log
+		cache2.updateEntry(q1, CacheUtils.createCacheEntry(e2, false));
+		cache2.persist();
+		MemoryCache cache3 = new MemoryCache(location, 100, 0);
+		cache3.initialize();
+		Assertions.assertEquals(StatementSourceAssurance.NONE, cache3.canProvideStatements(q1, e2));
+	}
+
+	@Test
+	public void testCompaction() throws Exception {
+
+		File location = cacheLocation();
+		MemoryCache cache = new MemoryCache(location, 100000, 0);
+		SubQuery q1 = new SubQuery("?s", "<http://ex.org/p1>", "?o");
+		for (int i = 0; i < 3 * CacheLog.MIN_COMPACTION_RECORDS; i++) {
+			cache.updateEntry(q1, CacheUtils.createCacheEntry(e1, i % 2 == 0));
+		}
+		cache.persist();
+		Assertions.assertTrue(cache.cacheLog.getNumberOfRecords() < CacheLog.MIN_COMPACTION_RECORDS);
+
+		MemoryCache cache2 = new MemoryCache(location, 100, 0);
+		cache2.initialize();
+		Assertions.assertEquals(StatementSourceAssurance.NONE, cache2.canProvideStatements(q1, e1));
+	}
+
+	@Test
+	public void testLegacyMigration() throws Exception {
+
+		File location = cacheLocation();
+		SubQuery q1 = new SubQuery("?s", "<http://ex.org/p1>", "?o");
+		HashMap<SubQuery, CacheEntry> legacy = new HashMap<>();
+		legacy.put(q1, CacheUtils.createCacheEntry(e1, true));
+		try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(location))) {
+			out.writeObject(legacy);
+		}
+
+		MemoryCache cache = new MemoryCache(location, 100, 0);
+		cache.initialize();
+		Assertions.assertEquals(StatementSourceAssurance.HAS_REMOTE_STATEMENTS, cache.canProvideStatements(q1, e1));
+
+		cache.updateEntry(q1, CacheUtils.createCacheEntry(e2, true));
+		cache.persist();
+		MemoryCache cache2 = new MemoryCache(location, 100, 0);
+		cache2.initialize();
+		Assertions.assertEquals(StatementSourceAssurance.HAS_REMOTE_STATEMENTS, cache2.canProvideStatements(q1, e1));
+		Assertions.assertEquals(StatementSourceAssurance.HAS_REMOTE_STATEMENTS, cache2.canProvideStatements(q1, e2));
+	}
+
+	protected Endpoint createEndpoint(String id) {
+		RepositoryInformation repoInfo = new RepositoryInformation(id, "http://" + id, "http://unknown",
+				EndpointType.Other);
+		return new RepositoryEndpoint(repoInfo, repoInfo.getLocation(), EndpointClassification.Local,
+				new SailRepository(new MemoryStore()));
+	}
+
+	protected File cacheLocation() {
+		return tempDir.resolve("cache.db").toFile();
+	}
+}
@@ -0,0 +1,94 @@
+package com.fluidops.fedx.evaluation;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.rdf4j.common.iteration.Iterations;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.FOAF;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.algebra.StatementPattern;
+import org.eclipse.rdf4j.query.algebra.Var;
+import org.eclipse.rdf4j.query.impl.MapBindingSet;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.fluidops.fedx.FederationManager;
+import com.fluidops.fedx.SPARQLBaseTest;
+import com.fluidops.fedx.algebra.IndependentJoinGroup;
+import com.fluidops.fedx.algebra.StatementSource;
+import com.fluidops.fedx.algebra.StatementSource.StatementSourceType;
+import com.fluidops.fedx.algebra.StatementSourcePattern;
+import com.fluidops.fedx.algebra.StatementTupleExpr;
+import com.fluidops.fedx.endpoint.Endpoint;
+import com.fluidops.fedx.structures.QueryInfo;
+import com.fluidops.fedx.structures.QueryType;
+
+
+public class IndependentJoinGroupTest extends SPARQLBaseTest {
+
+	private final ValueFactory vf = SimpleValueFactory.getInstance();
+
+	@Test
+	public void testMembersWithDifferentSources() throws Exception {
+
+		List<Endpoint> endpoints = prepareTest(
+				Arrays.asList("/tests/data/data1.ttl", "/tests/data/data2.ttl"));
+		StatementSource source1 = new StatementSource(endpoints.get(0).getId(), StatementSourceType.REMOTE);
+		StatementSource source2 = new StatementSource(endpoints.get(1).getId(), StatementSourceType.REMOTE);
+
+		QueryInfo queryInfo = new QueryInfo("SELECT * WHERE { ?person ?p ?o }", QueryType.SELECT);
+		IndependentJoinGroup joinGroup = new IndependentJoinGroup(Arrays.<StatementTupleExpr>asList(
+				member("name", FOAF.NAME, queryInfo, source1, source2),
+				member("type", RDF.TYPE, queryInfo, source1, source2),
+				member("age", FOAF.AGE, queryInfo, source1)), queryInfo);
+
+		Map<StatementSource, List<Integer>> membersBySource = joinGroup.getMembersBySource();
+		Assertions.assertEquals(Arrays.asList(0, 1, 2), membersBySource.get(source1));
+		Assertions.assertEquals(Arrays.asList(0, 1), membersBySource.get(source2));
+
+		FederationEvalStrategy strategy = FederationManager.getInstance().getStrategy();
+		BindingSet person1 = person("http://namespace1.org/Person_1");
+		BindingSet person6 = person("http://namespace2.org/Person_6");
+
+		// Person_1 (data1): 1 name x 2 types x 2 ages
+		// Person_6 (data2): no age, as the age member is evaluated at data1 only
+		List<BindingSet> res = Iterations.asList(strategy.evaluateIndependentJoinGroup(joinGroup, Arrays.asList(person1, person6)));
+		Assertions.assertEquals(4, res.size());
+		for (BindingSet b : res) {
+			Assertions.assertEquals(person1.getValue("person"), b.getValue("person"));
+			Assertions.assertEquals(vf.createLiteral("Person1"), b.getValue("name"));
+			Assertions.assertNotNull(b.getValue("type"));
+			Assertions.assertNotNull(b.getValue("age"));
+		}
+		Assertions.assertEquals(4, Iterations.asList(strategy.evaluateIndependentJoinGroup(joinGroup, person1)).size());
+		Assertions.assertEquals(0, Iterations.asList(strategy.evaluateIndependentJoinGroup(joinGroup, person6)).size());
+
+		// without the age member: Person_6 is answered by data2
+		IndependentJoinGroup joinGroup2 = new IndependentJoinGroup(joinGroup.getMembers().get(0),
+				joinGroup.getMembers().get(1), queryInfo);
+		res = Iterations.asList(strategy.evaluateIndependentJoinGroup(joinGroup2, Arrays.asList(person1, person6)));
+		Assertions.assertEquals(4, res.size());
+		Assertions.assertEquals(2, Iterations.asList(strategy.evaluateIndependentJoinGroup(joinGroup2, person6)).size());
+	}
+
+	private StatementSourcePattern member(String var, Value predicate, QueryInfo queryInfo, StatementSource... sources) {
+		StatementPattern stmt = new StatementPattern(new Var("person"), new Var("const_" + var, predicate), new Var(var));
+		StatementSourcePattern res = new StatementSourcePattern(stmt, queryInfo);
+		for (StatementSource source : sources)
+			res.addStatementSource(source);
+		return res;
+	}
+
+	private BindingSet person(String iri) {
+		IRI person = vf.createIRI(iri);
+		MapBindingSet b = new MapBindingSet();
+		b.addBinding("person", person);
+		return b;
+	}
+}
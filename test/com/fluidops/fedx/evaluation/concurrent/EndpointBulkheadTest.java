@@ -0,0 +1,209 @@
+package com.fluidops.fedx.evaluation.concurrent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.common.iteration.Iterations;
+import org.eclipse.rdf4j.query.QueryEvaluationException;
+import org.eclipse.rdf4j.repository.sparql.federation.CollectionIteration;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.fluidops.fedx.FedXRule;
+import com.fluidops.fedx.structures.QueryInfo;
+import com.fluidops.fedx.structures.QueryType;
+import com.google.common.collect.Lists;
+
+
+public class EndpointBulkheadTest {
+
+	@RegisterExtension
+	public FedXRule fedxRule = new FedXRule();
+
+	@Test
+	public void testParkAndHandOver() throws Exception {
+
+		EndpointBulkhead bulkhead = new EndpointBulkhead(2);
+		List<String> dispatched = new ArrayList<>();
+
+		Assertions.assertTrue(bulkhead.acquire("e1", () -> dispatched.add("t1")));
+		Assertions.assertTrue(bulkhead.acquire("e1", () -> dispatched.add("t2")));
+		Assertions.assertFalse(bulkhead.acquire("e1", () -> dispatched.add("t3")));
+		Assertions.assertFalse(bulkhead.acquire("e1", () -> dispatched.add("t4")));
+
+		// other endpoints are not affected
+		Assertions.assertTrue(bulkhead.acquire("e2", () -> dispatched.add("u1")));
+
+		Assertions.assertEquals(2, bulkhead.getNumberOfInFlightTasks("e1"));
+		Assertions.assertEquals(2, bulkhead.getNumberOfParkedTasks());
+		Assertions.assertTrue(dispatched.isEmpty());
+
+		// permits are handed over to the parked tasks in FIFO order
+		bulkhead.release("e1");
+		Assertions.assertEquals(Lists.newArrayList("t3"), dispatched);
+		Assertions.assertEquals(2, bulkhead.getNumberOfInFlightTasks("e1"));
+
+		bulkhead.release("e1");
+		bulkhead.release("e1");
+		Assertions.assertEquals(Lists.newArrayList("t3", "t4"), dispatched);
+		Assertions.assertEquals(1, bulkhead.getNumberOfInFlightTasks("e1"));
+		Assertions.assertEquals(0, bulkhead.getNumberOfParkedTasks());
+
+		bulkhead.release("e1");
+		bulkhead.release("e2");
+		Assertions.assertEquals(0, bulkhead.getNumberOfInFlightTasks("e1"));
+		Assertions.assertEquals(0, bulkhead.getNumberOfInFlightTasks("e2"));
+	}
+
+	@Test
+	public void testFailedDispatch() throws Exception {
+
+		EndpointBulkhead bulkhead = new EndpointBulkhead(1);
+		List<String> dispatched = new ArrayList<>();
+
+		Assertions.assertTrue(bulkhead.acquire("e1", () -> dispatched.add("t1")));
+		Assertions.assertFalse(bulkhead.acquire("e1", () -> {
+			throw new IllegalStateException("Rejected");
+		}));
+		Assertions.assertFalse(bulkhead.acquire("e1", () -> dispatched.add("t3")));
+
+		// the permit is passed on to the next parked task
+		bulkhead.release("e1");
+		Assertions.assertEquals(Lists.newArrayList("t3"), dispatched);
+		Assertions.assertEquals(1, bulkhead.getNumberOfInFlightTasks("e1"));
+	}
+
+	@Test
+	public void testNestedJoinSingleEndpoint() throws Exception {
+
+		EndpointBulkhead bulkhead = new EndpointBulkhead(1);
+		ControlledWorkerScheduler<String> scheduler = new ControlledWorkerScheduler<>(2, "Test");
+		scheduler.setEndpointBulkhead(bulkhead);
+		try {
+			TestControl control = new TestControl(new QueryInfo("SELECT * WHERE { ?s ?p ?o }", QueryType.SELECT));
+			scheduler.schedule(new TestTask(control, "a", "b"));
+
+			// the permit is released once the response has been received, i.e. the
+			// consumer of the outer result can wait for nested tasks against the
+			// same endpoint
+			CloseableIteration<String, QueryEvaluationException> outer = control.results.poll(10, TimeUnit.SECONDS);
+			Assertions.assertNotNull(outer);
+			Assertions.assertEquals("a", outer.next());
+
+			TestControl nestedControl = new TestControl(
+					new QueryInfo("SELECT * WHERE { ?s ?p ?o }", QueryType.SELECT));
+			scheduler.schedule(new TestTask(nestedControl, "a1"));
+			CloseableIteration<String, QueryEvaluationException> inner = nestedControl.results.poll(10,
+					TimeUnit.SECONDS);
+			Assertions.assertNotNull(inner, "Nested task is blocked by the outer result");
+			Assertions.assertEquals(Arrays.asList("a1"), Iterations.asList(inner));
+
+			Assertions.assertEquals(Arrays.asList("b"), Iterations.asList(outer));
+			Assertions.assertEquals(0, bulkhead.getNumberOfParkedTasks());
+		} finally {
+			scheduler.shutdown();
+		}
+	}
+
+	@Test
+	public void testPermitReleasedOnAbort() throws Exception {
+
+		EndpointBulkhead bulkhead = new EndpointBulkhead(3);
+		ControlledWorkerScheduler<String> scheduler = new ControlledWorkerScheduler<>(1, "Test");
+		scheduler.setEndpointBulkhead(bulkhead);
+
+		TestControl control = new TestControl(new QueryInfo("SELECT * WHERE { ?s ?p ?o }", QueryType.SELECT));
+		CountDownLatch started = new CountDownLatch(1);
+		scheduler.schedule(new TestTask(control) {
+			@Override
+			public CloseableIteration<String, QueryEvaluationException> performTask() throws Exception {
+				started.countDown();
+				Thread.sleep(30000);
+				return super.performTask();
+			}
+		});
+		scheduler.schedule(new TestTask(control, "a"));
+		scheduler.schedule(new TestTask(control, "b"));
+		Assertions.assertTrue(started.await(10, TimeUnit.SECONDS));
+		Assertions.assertEquals(3, bulkhead.getNumberOfInFlightTasks("e1"));
+
+		// the running task is interrupted, the queued tasks are dropped
+		scheduler.abort();
+		Assertions.assertEquals(0, bulkhead.getNumberOfInFlightTasks("e1"));
+	}
+
+	private static class TestTask extends ParallelTaskBase<String> {
+
+		private final TestControl control;
+		private final List<String> results;
+
+		public TestTask(TestControl control, String... results) {
+			this.control = control;
+			this.results = Arrays.asList(results);
+		}
+
+		@Override
+		public CloseableIteration<String, QueryEvaluationException> performTask() throws Exception {
+			return new CollectionIteration<String, QueryEvaluationException>(results);
+		}
+
+		@Override
+		public ParallelExecutor<String> getControl() {
+			return control;
+		}
+
+		@Override
+		public String getEndpointId() {
+			return "e1";
+		}
+	}
+
+	private static class TestControl implements ParallelExecutor<String> {
+
+		private final QueryInfo queryInfo;
+		private final BlockingQueue<CloseableIteration<String, QueryEvaluationException>> results = new LinkedBlockingQueue<>();
+
+		public TestControl(QueryInfo queryInfo) {
+			this.queryInfo = queryInfo;
+		}
+
+		@Override
+		public void run() {
+		}
+
+		@Override
+		public void addResult(CloseableIteration<String, QueryEvaluationException> res) {
+			results.add(res);
+		}
+
+		@Override
+		public void toss(Exception e) {
+		}
+
+		@Override
+		public void done() {
+		}
+
+		@Override
+		public boolean isFinished() {
+			return false;
+		}
+
+		@Override
+		public boolean isDemandSatisfied() {
+			return false;
+		}
+
+		@Override
+		public QueryInfo getQueryInfo() {
+			return queryInfo;
+		}
+	}
+}
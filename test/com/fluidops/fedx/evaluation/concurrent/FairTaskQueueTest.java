@@ -0,0 +1,108 @@
+package com.fluidops.fedx.evaluation.concurrent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.Lists;
+
+
+public class FairTaskQueueTest {
+
+	@Test
+	public void testRoundRobin() throws Exception {
+
+		FairTaskQueue queue = new FairTaskQueue();
+		for (int i = 1; i <= 3; i++) {
+			queue.offer(new TestTask("q1", 1, "a" + i));
+		}
+		queue.offer(new TestTask("q2", 1, "b1"));
+		queue.offer(new TestTask("q2", 1, "b2"));
+		queue.offer(new TestTask("q3", 1, "c1"));
+
+		Assertions.assertEquals(6, queue.size());
+		Assertions.assertEquals(3, queue.getNumberOfSubQueues());
+		Assertions.assertEquals(Lists.newArrayList("a1", "b1", "c1", "a2", "b2", "a3"), drain(queue));
+		Assertions.assertEquals(0, queue.getNumberOfSubQueues());
+	}
+
+	@Test
+	public void testWeighted() throws Exception {
+
+		FairTaskQueue queue = new FairTaskQueue();
+		for (int i = 1; i <= 4; i++) {
+			queue.offer(new TestTask("q1", 1, "a" + i));
+		}
+		for (int i = 1; i <= 4; i++) {
+			queue.offer(new TestTask("q2", 2, "b" + i));
+		}
+
+		Assertions.assertEquals(Lists.newArrayList("a1", "b1", "b2", "a2", "b3", "b4", "a3", "a4"),
+				drain(queue));
+	}
+
+	@Test
+	public void testPlainRunnables() throws Exception {
+
+		FairTaskQueue queue = new FairTaskQueue();
+		queue.offer(new TestTask("q1", 1, "a1"));
+		queue.offer(new TestTask("q1", 1, "a2"));
+		TestRunnable r1 = new TestRunnable("r1");
+		queue.offer(r1);
+		queue.offer(new TestRunnable("r2"));
+
+		Assertions.assertTrue(queue.remove(r1));
+		Assertions.assertEquals(Lists.newArrayList("a1", "r2", "a2"), drain(queue));
+		Assertions.assertNull(queue.poll(10, TimeUnit.MILLISECONDS));
+	}
+
+	protected List<String> drain(FairTaskQueue queue) {
+		List<String> res = new ArrayList<>();
+		Runnable r;
+		while ((r = queue.poll()) != null) {
+			res.add(r.toString());
+		}
+		return res;
+	}
+
+	protected static class TestRunnable implements Runnable {
+		protected final String id;
+
+		public TestRunnable(String id) {
+			this.id = id;
+		}
+
+		@Override
+		public void run() {
+		}
+
+		@Override
+		public String toString() {
+			return id;
+		}
+	}
+
+	protected static class TestTask extends TestRunnable implements FairTaskQueue.FairTask {
+		protected final String key;
+		protected final int weight;
+
+		public TestTask(String key, int weight, String id) {
+			super(id);
+			this.key = key;
+			this.weight = weight;
+		}
+
+		@Override
+		public Object getFairnessKey() {
+			return key;
+		}
+
+		@Override
+		public int getWeight() {
+			return weight;
+		}
+	}
+}
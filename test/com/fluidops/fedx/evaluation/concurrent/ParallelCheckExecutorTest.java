@@ -0,0 +1,155 @@
+package com.fluidops.fedx.evaluation.concurrent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.common.iteration.EmptyIteration;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.QueryEvaluationException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.fluidops.fedx.FedXRule;
+import com.fluidops.fedx.FederationManager;
+import com.fluidops.fedx.structures.QueryInfo;
+import com.fluidops.fedx.structures.QueryType;
+
+
+public class ParallelCheckExecutorTest {
+
+	@RegisterExtension
+	public FedXRule fedxRule = new FedXRule();
+
+	@Test
+	public void testShortCircuit() throws Exception {
+
+		QueryInfo queryInfo = new QueryInfo("ASK { ?s ?p ?o }", QueryType.ASK);
+		CountDownLatch slowCheck = new CountDownLatch(1);
+
+		Map<String, Callable<Boolean>> checks = new LinkedHashMap<>();
+		checks.put("slow", () -> slowCheck.await(30, TimeUnit.SECONDS));
+		checks.put("false", () -> false);
+		checks.put("true", () -> true);
+
+		// returns without waiting for the slow check, which is cancelled
+		long start = System.currentTimeMillis();
+		Assertions.assertTrue(ParallelCheckExecutor.run(checks, queryInfo));
+		Assertions.assertTrue(System.currentTimeMillis() - start < 10000);
+		slowCheck.countDown();
+	}
+
+	@Test
+	public void testNoResults() throws Exception {
+
+		QueryInfo queryInfo = new QueryInfo("ASK { ?s ?p ?o }", QueryType.ASK);
+
+		Map<String, Callable<Boolean>> checks = new LinkedHashMap<>();
+		checks.put("e1", () -> false);
+		checks.put("e2", () -> false);
+		Assertions.assertFalse(ParallelCheckExecutor.run(checks, queryInfo));
+
+		// errors are only reported, if no check answers true
+		checks.put("e3", () -> {
+			throw new QueryEvaluationException("Failed check");
+		});
+		Assertions.assertThrows(QueryEvaluationException.class, () -> ParallelCheckExecutor.run(checks, queryInfo));
+
+		checks.put("e4", () -> true);
+		Assertions.assertTrue(ParallelCheckExecutor.run(checks, queryInfo));
+	}
+
+	@Test
+	public void testFromUnionWorkers() throws Exception {
+
+		QueryInfo queryInfo = new QueryInfo("ASK { ?s ?p ?o }", QueryType.ASK);
+		ControlledWorkerScheduler<BindingSet> scheduler = FederationManager.getInstance().getUnionScheduler();
+
+		Map<String, Callable<Boolean>> checks = new LinkedHashMap<>();
+		checks.put("e1", () -> false);
+		checks.put("e2", () -> true);
+
+		// occupy all union workers with tasks running checks: the checks must not
+		// wait for queued tasks of the same scheduler
+		int nWorkers = scheduler.getTotalNumberOfWorkers();
+		CountDownLatch workersStarted = new CountDownLatch(nWorkers);
+		CountDownLatch completed = new CountDownLatch(nWorkers);
+		List<Boolean> results = Collections.synchronizedList(new ArrayList<>());
+		CheckingControl control = new CheckingControl(queryInfo, completed);
+		for (int i = 0; i < nWorkers; i++) {
+			scheduler.schedule(new ParallelTaskBase<BindingSet>() {
+				@Override
+				public CloseableIteration<BindingSet, QueryEvaluationException> performTask() throws Exception {
+					workersStarted.countDown();
+					workersStarted.await(10, TimeUnit.SECONDS);
+					Assertions.assertTrue(scheduler.isWorkerThread());
+					results.add(ParallelCheckExecutor.run(checks, queryInfo));
+					return new EmptyIteration<BindingSet, QueryEvaluationException>();
+				}
+
+				@Override
+				public ParallelExecutor<BindingSet> getControl() {
+					return control;
+				}
+			});
+		}
+
+		Assertions.assertTrue(completed.await(10, TimeUnit.SECONDS));
+		Assertions.assertNull(control.error);
+		Assertions.assertEquals(Collections.nCopies(nWorkers, true), results);
+		Assertions.assertFalse(scheduler.isWorkerThread());
+	}
+
+	private static class CheckingControl implements ParallelExecutor<BindingSet> {
+
+		private final QueryInfo queryInfo;
+		private final CountDownLatch completed;
+		private volatile Exception error;
+
+		public CheckingControl(QueryInfo queryInfo, CountDownLatch completed) {
+			this.queryInfo = queryInfo;
+			this.completed = completed;
+		}
+
+		@Override
+		public void run() {
+		}
+
+		@Override
+		public void addResult(CloseableIteration<BindingSet, QueryEvaluationException> res) {
+			completed.countDown();
+		}
+
+		@Override
+		public void toss(Exception e) {
+			error = e;
+			completed.countDown();
+		}
+
+		@Override
+		public void done() {
+		}
+
+		@Override
+		public boolean isFinished() {
+			return false;
+		}
+
+		@Override
+		public boolean isDemandSatisfied() {
+			return false;
+		}
+
+		@Override
+		public QueryInfo getQueryInfo() {
+			return queryInfo;
+		}
+	}
+}
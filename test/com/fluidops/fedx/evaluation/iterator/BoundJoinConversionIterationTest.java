@@ -0,0 +1,85 @@
+package com.fluidops.fedx.evaluation.iterator;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.rdf4j.common.iteration.Iterations;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.QueryEvaluationException;
+import org.eclipse.rdf4j.query.impl.MapBindingSet;
+import org.eclipse.rdf4j.repository.sparql.federation.CollectionIteration;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+
+public class BoundJoinConversionIterationTest {
+
+	private final ValueFactory vf = SimpleValueFactory.getInstance();
+
+	@Test
+	public void testBoundJoinConversion() throws Exception {
+
+		List<BindingSet> bindings = Arrays.asList(bindings("s", "s0"), bindings("s", "s1"));
+		List<BindingSet> res = Iterations.asList(new BoundJoinConversionIteration(
+				iter(bindings("o_1", "o1", "my_var_1", "v1"), bindings("o_0", "o0", "my_var_0", "v0")), bindings));
+
+		Assertions.assertEquals(Arrays.asList(bindings("o", "o1", "my_var", "v1", "s", "s1"),
+				bindings("o", "o0", "my_var", "v0", "s", "s0")), res);
+	}
+
+	@Test
+	public void testBoundJoinVALUESConversion() throws Exception {
+
+		List<BindingSet> bindings = Arrays.asList(bindings("s", "s0"), bindings("s", "s1"));
+		MapBindingSet b = bindings("o", "o1", "s", "other");
+		b.addBinding(BoundJoinVALUESConversionIteration.INDEX_BINDING_NAME, vf.createLiteral("1"));
+
+		// the original bindings take precedence
+		List<BindingSet> res = Iterations.asList(new BoundJoinVALUESConversionIteration(iter(b), bindings));
+		Assertions.assertEquals(Arrays.asList(bindings("o", "o1", "s", "s1")), res);
+	}
+
+	@Test
+	public void testIndependentJoinGroupConversion() throws Exception {
+
+		List<BindingSet> bindings = Arrays.asList(bindings("s", "s0"), bindings("s", "s1"));
+		List<BindingSet> res = Iterations.asList(new IndependentJoingroupBindingsIteration3(
+				iter(bindings("name_0_1", "n1"), bindings("type_1_1", "t1"), bindings("type_1_1", "t2"),
+						bindings("name_0_0", "n0")),
+				bindings, 2));
+
+		// no result for s0, as the second member has no result
+		Assertions.assertEquals(Arrays.asList(bindings("s", "s1", "name", "n1", "type", "t1"),
+				bindings("s", "s1", "name", "n1", "type", "t2")), res);
+	}
+
+	@Test
+	public void testDecoder() throws Exception {
+
+		BindingNameDecoder decoder = new BindingNameDecoder(true);
+		BindingNameDecoder.DecodedName name = decoder.decode("a_b_12_3");
+		Assertions.assertEquals("a_b", name.varName);
+		Assertions.assertEquals(12, name.memberIndex);
+		Assertions.assertEquals(3, name.index);
+
+		// names are decoded once and variable names are shared
+		Assertions.assertSame(name, decoder.decode(new String("a_b_12_3")));
+		Assertions.assertSame(name.varName, decoder.decode("a_b_0_4").varName);
+
+		Assertions.assertThrows(QueryEvaluationException.class, () -> decoder.decode("a_1"));
+		Assertions.assertThrows(QueryEvaluationException.class, () -> new BindingNameDecoder(false).decode("a_x"));
+	}
+
+	private MapBindingSet bindings(String... namesAndValues) {
+		MapBindingSet b = new MapBindingSet();
+		for (int i = 0; i < namesAndValues.length; i += 2)
+			b.addBinding(namesAndValues[i], vf.createIRI("http://example.org/" + namesAndValues[i + 1]));
+		return b;
+	}
+
+	private CollectionIteration<BindingSet, QueryEvaluationException> iter(BindingSet... bindings) {
+		return new CollectionIteration<BindingSet, QueryEvaluationException>(Arrays.asList(bindings));
+	}
+}
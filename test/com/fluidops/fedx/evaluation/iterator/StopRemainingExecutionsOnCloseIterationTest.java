@@ -0,0 +1,73 @@
+package com.fluidops.fedx.evaluation.iterator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.QueryEvaluationException;
+import org.eclipse.rdf4j.query.impl.MapBindingSet;
+import org.eclipse.rdf4j.repository.sparql.federation.CollectionIteration;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.fluidops.fedx.FedXRule;
+import com.fluidops.fedx.structures.QueryInfo;
+import com.fluidops.fedx.structures.QueryType;
+
+
+public class StopRemainingExecutionsOnCloseIterationTest {
+
+	@RegisterExtension
+	public FedXRule fedxRule = new FedXRule();
+
+	private final ValueFactory vf = SimpleValueFactory.getInstance();
+
+	@Test
+	public void testResultLimit() throws Exception {
+
+		QueryInfo queryInfo = new QueryInfo("SELECT * WHERE { ?s ?p ?o } LIMIT 2", QueryType.SELECT);
+		queryInfo.setResultLimit(2);
+
+		CollectionIteration<BindingSet, QueryEvaluationException> inner = new CollectionIteration<>(bindings(3));
+		try (StopRemainingExecutionsOnCloseIteration iter = new StopRemainingExecutionsOnCloseIteration(inner,
+				queryInfo)) {
+			iter.next();
+			Assertions.assertFalse(queryInfo.isDone());
+
+			// remaining executions are stopped once the limit is satisfied
+			iter.next();
+			Assertions.assertTrue(queryInfo.isDone());
+			Assertions.assertTrue(inner.isClosed());
+			Assertions.assertFalse(iter.hasNext());
+		}
+	}
+
+	@Test
+	public void testNoResultLimit() throws Exception {
+
+		QueryInfo queryInfo = new QueryInfo("SELECT * WHERE { ?s ?p ?o }", QueryType.SELECT);
+
+		StopRemainingExecutionsOnCloseIteration iter = new StopRemainingExecutionsOnCloseIteration(
+				new CollectionIteration<BindingSet, QueryEvaluationException>(bindings(3)), queryInfo);
+		while (iter.hasNext()) {
+			iter.next();
+		}
+		Assertions.assertFalse(queryInfo.isDone());
+
+		iter.close();
+		Assertions.assertTrue(queryInfo.isDone());
+	}
+
+	private List<BindingSet> bindings(int n) {
+		List<BindingSet> res = new ArrayList<>();
+		for (int i = 0; i < n; i++) {
+			MapBindingSet b = new MapBindingSet();
+			b.addBinding("s", vf.createIRI("http://example.org/" + i));
+			res.add(b);
+		}
+		return res;
+	}
+}
@@ -0,0 +1,129 @@
+package com.fluidops.fedx.evaluation.join;
+
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.rdf4j.common.iteration.CloseableIteratorIteration;
+import org.eclipse.rdf4j.common.iteration.Iterations;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.QueryEvaluationException;
+import org.eclipse.rdf4j.query.impl.MapBindingSet;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.fluidops.fedx.FedXRule;
+import com.fluidops.fedx.exception.HttpStatusException;
+import com.fluidops.fedx.evaluation.join.BoundJoinBlockSizeController.FailureType;
+import com.google.common.collect.Lists;
+
+
+public class BoundJoinBlockSizeControllerTest {
+
+	@RegisterExtension
+	public FedXRule fedxRule = new FedXRule();
+
+	private BoundJoinBlockSizeController controller;
+
+	@BeforeEach
+	public void before() {
+		fedxRule.setConfig("enableAdaptiveBoundJoinBlockSize", "true");
+		fedxRule.setConfig("boundJoinBlockSize", "10");
+		fedxRule.setConfig("boundJoinMaxBlockSize", "40");
+		fedxRule.setConfig("boundJoinTargetResponseTime", "1000");
+		controller = new BoundJoinBlockSizeController();
+	}
+
+	@Test
+	public void testAdaptation() throws Exception {
+
+		Assertions.assertEquals(10, controller.getBlockSize("e1", "<p>"));
+
+		// fast responses of full blocks increase the block size
+		controller.onSuccess("e1", "<p>", 10, 10, 100);
+		Assertions.assertEquals(15, controller.getBlockSize("e1", "<p>"));
+
+		// blocks smaller than the current block size do not increase it
+		controller.onSuccess("e1", "<p>", 5, 10, 100);
+		Assertions.assertEquals(15, controller.getBlockSize("e1", "<p>"));
+
+		// bounded by the maximum block size
+		for (int i = 0; i < 10; i++)
+			controller.onSuccess("e1", "<p>", 40, 10, 100);
+		Assertions.assertEquals(40, controller.getBlockSize("e1", "<p>"));
+
+		// slow responses and large results decrease the block size
+		controller.onSuccess("e1", "<p>", 40, 5000, 100);
+		Assertions.assertEquals(26, controller.getBlockSize("e1", "<p>"));
+		controller.onSuccess("e1", "<p>", 26, 10, BoundJoinBlockSizeController.MAX_RESULTS_PER_BLOCK);
+		Assertions.assertEquals(17, controller.getBlockSize("e1", "<p>"));
+
+		// other endpoints and patterns are not affected
+		Assertions.assertEquals(10, controller.getBlockSize("e2", "<p>"));
+		Assertions.assertEquals(10, controller.getBlockSize("e1", "<q>"));
+
+		Assertions.assertEquals(17, controller.getBlockSizes().get("e1 <p>").intValue());
+		controller.remove("e1");
+		Assertions.assertTrue(controller.getBlockSizes().isEmpty());
+	}
+
+	@Test
+	public void testFailures() throws Exception {
+
+		Assertions.assertEquals(FailureType.REQUEST_TOO_LONG, BoundJoinBlockSizeController
+				.getFailureType(new QueryEvaluationException(new HttpStatusException(414, "URI Too Long"))));
+		Assertions.assertEquals(FailureType.REQUEST_TOO_LONG, BoundJoinBlockSizeController
+				.getFailureType(new QueryEvaluationException(new HttpStatusException(413, null))));
+		// only the status code is relevant, not the message (e.g. a query with a literal "414")
+		Assertions.assertEquals(FailureType.OTHER, BoundJoinBlockSizeController
+				.getFailureType(new QueryEvaluationException("Unexpected value \"414\" in query")));
+		Assertions.assertEquals(FailureType.TIMEOUT, BoundJoinBlockSizeController
+				.getFailureType(new QueryEvaluationException(new SocketTimeoutException("Read timed out"))));
+		Assertions.assertEquals(FailureType.OTHER,
+				BoundJoinBlockSizeController.getFailureType(new QueryEvaluationException("Malformed query")));
+
+		// other failures do not change the block size
+		controller.onFailure("e1", "<p>", 10, FailureType.OTHER);
+		Assertions.assertEquals(10, controller.getBlockSize("e1", "<p>"));
+
+		// timeouts halve the block size
+		controller.onFailure("e1", "<p>", 10, FailureType.TIMEOUT);
+		Assertions.assertEquals(5, controller.getBlockSize("e1", "<p>"));
+		for (int i = 0; i < 10; i++)
+			controller.onSuccess("e1", "<p>", 40, 10, 100);
+		Assertions.assertEquals(40, controller.getBlockSize("e1", "<p>"));
+
+		// rejected requests additionally limit the block size
+		controller.onFailure("e1", "<p>", 30, FailureType.REQUEST_TOO_LONG);
+		Assertions.assertEquals(15, controller.getBlockSize("e1", "<p>"));
+		for (int i = 0; i < 10; i++)
+			controller.onSuccess("e1", "<p>", 40, 10, 100);
+		Assertions.assertEquals(29, controller.getBlockSize("e1", "<p>"));
+	}
+
+	@Test
+	public void testRetryRejectedRequest() throws Exception {
+
+		List<BindingSet> bindings = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			MapBindingSet b = new MapBindingSet();
+			b.addBinding("x", SimpleValueFactory.getInstance().createLiteral(i));
+			bindings.add(b);
+		}
+
+		// the endpoint rejects requests with more than 3 bindings
+		List<BindingSet> res = Iterations.asList(controller.evaluate(Lists.newArrayList("e1"), "<p>", bindings, b -> {
+			if (b.size() > 3)
+				throw new QueryEvaluationException(new HttpStatusException(414, "URI Too Long"));
+			return new CloseableIteratorIteration<BindingSet, QueryEvaluationException>(
+					new ArrayList<>(b).iterator());
+		}));
+
+		Assertions.assertEquals(bindings, res);
+		// limited below the smallest rejected block size
+		Assertions.assertTrue(controller.getBlockSize("e1", "<p>") < 5);
+	}
+}
@@ -0,0 +1,142 @@
+package com.fluidops.fedx.evaluation.join;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.rdf4j.common.iteration.CloseableIteratorIteration;
+import org.eclipse.rdf4j.common.iteration.Iterations;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.QueryEvaluationException;
+import org.eclipse.rdf4j.query.algebra.StatementPattern;
+import org.eclipse.rdf4j.query.algebra.Var;
+import org.eclipse.rdf4j.query.impl.MapBindingSet;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.fluidops.fedx.FedXRule;
+import com.fluidops.fedx.algebra.CheckStatementPattern;
+import com.fluidops.fedx.algebra.StatementSourcePattern;
+import com.fluidops.fedx.structures.QueryInfo;
+import com.fluidops.fedx.structures.QueryType;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+
+public class DistinctJoinKeysTest {
+
+	@RegisterExtension
+	public FedXRule fedxRule = new FedXRule();
+
+	@Test
+	public void testFanOut() throws Exception {
+
+		DistinctJoinKeys block = new DistinctJoinKeys(Sets.newHashSet("x", "y"));
+		block.add(bindingSet("x", iri("a"), "z", iri("z1")));
+		block.add(bindingSet("x", iri("b"), "z", iri("z2")));
+		block.add(bindingSet("x", iri("a"), "z", iri("z3")));
+
+		Assertions.assertTrue(block.hasDuplicates());
+		Assertions.assertEquals(2, block.size());
+		Assertions.assertEquals(Lists.newArrayList(bindingSet("x", iri("a")), bindingSet("x", iri("b"))),
+				block.getDistinctBindings());
+
+		// results for the distinct join keys
+		List<BindingSet> results = Lists.newArrayList(
+				bindingSet("x", iri("a"), "y", iri("y1")),
+				bindingSet("x", iri("b"), "y", iri("y2")),
+				bindingSet("x", iri("a"), "y", iri("y3")));
+
+		List<BindingSet> res = Iterations.asList(block.fanOut(
+				new CloseableIteratorIteration<BindingSet, QueryEvaluationException>(results.iterator())));
+
+		Assertions.assertEquals(Lists.newArrayList(
+				bindingSet("x", iri("a"), "z", iri("z1"), "y", iri("y1")),
+				bindingSet("x", iri("a"), "z", iri("z3"), "y", iri("y1")),
+				bindingSet("x", iri("b"), "z", iri("z2"), "y", iri("y2")),
+				bindingSet("x", iri("a"), "z", iri("z1"), "y", iri("y3")),
+				bindingSet("x", iri("a"), "z", iri("z3"), "y", iri("y3"))), res);
+	}
+
+	@Test
+	public void testDifferentKeyVariables() throws Exception {
+
+		// join keys binding different variables are not deduplicated
+		DistinctJoinKeys block = new DistinctJoinKeys(Sets.newHashSet("x", "y"));
+		block.add(bindingSet("x", iri("a")));
+		block.add(bindingSet("x", iri("a"), "y", iri("b")));
+		block.add(bindingSet("x", iri("a")));
+
+		Assertions.assertFalse(block.isApplicable());
+		Assertions.assertFalse(block.hasDuplicates());
+		Assertions.assertEquals(3, block.size());
+	}
+
+	@Test
+	public void testMemoize() throws Exception {
+
+		BoundJoinMemo memo = new BoundJoinMemo(3);
+		DistinctJoinKeys block = new DistinctJoinKeys(Sets.newHashSet("x", "y"));
+		block.setMemo(memo, "stmt1");
+		block.add(bindingSet("x", iri("a")));
+		block.add(bindingSet("x", iri("b")));
+
+		Assertions.assertNull(memo.get("stmt1", bindingSet("x", iri("a"))));
+
+		List<BindingSet> results = Lists.newArrayList(
+				bindingSet("x", iri("a"), "y", iri("y1")),
+				bindingSet("x", iri("a"), "y", iri("y2")));
+		Iterations.asList(block.fanOut(
+				new CloseableIteratorIteration<BindingSet, QueryEvaluationException>(results.iterator())));
+
+		// complete results are memoized, including join keys without results
+		Assertions.assertEquals(results, memo.get("stmt1", bindingSet("x", iri("a"))));
+		Assertions.assertEquals(Lists.newArrayList(), memo.get("stmt1", bindingSet("x", iri("b"))));
+		Assertions.assertNull(memo.get("stmt2", bindingSet("x", iri("a"))));
+		Assertions.assertEquals(2, memo.getHitCount());
+		Assertions.assertEquals(2, memo.getMissCount());
+
+		// the memo is bounded
+		Assertions.assertTrue(memo.isFull());
+		Assertions.assertFalse(memo.put("stmt1", bindingSet("x", iri("c")), Lists.newArrayList()));
+	}
+
+	@Test
+	public void testMemoizeCheckPattern() throws Exception {
+
+		QueryInfo queryInfo = new QueryInfo("SELECT * WHERE { ?x <http://example.org/p> ?y }", QueryType.SELECT);
+		StatementSourcePattern stmt = new StatementSourcePattern(
+				new StatementPattern(new Var("x"), new Var("p", iri("p")), new Var("y")), queryInfo);
+
+		// each bound join creates a new check pattern for the same statement
+		String memoId = ControlledWorkerBoundJoin.getMemoId(new CheckStatementPattern(stmt));
+		BoundJoinMemo memo = new BoundJoinMemo(3);
+		DistinctJoinKeys block = new DistinctJoinKeys(Sets.newHashSet("x", "y"));
+		block.setMemo(memo, memoId);
+		block.add(bindingSet("x", iri("a"), "y", iri("b")));
+		List<BindingSet> results = Collections.singletonList(bindingSet("x", iri("a"), "y", iri("b")));
+		Iterations.asList(block.fanOut(
+				new CloseableIteratorIteration<BindingSet, QueryEvaluationException>(results.iterator())));
+
+		String otherMemoId = ControlledWorkerBoundJoin.getMemoId(new CheckStatementPattern(stmt));
+		Assertions.assertEquals(results, memo.get(otherMemoId, bindingSet("x", iri("a"), "y", iri("b"))));
+		Assertions.assertEquals(1, memo.getHitCount());
+
+		// check results are not mixed up with the results of the statement
+		Assertions.assertNull(memo.get(ControlledWorkerBoundJoin.getMemoId(stmt), bindingSet("x", iri("a"), "y", iri("b"))));
+	}
+
+	protected static BindingSet bindingSet(Object... nameValues) {
+		MapBindingSet res = new MapBindingSet();
+		for (int i = 0; i < nameValues.length; i += 2)
+			res.addBinding((String) nameValues[i], (Value) nameValues[i + 1]);
+		return res;
+	}
+
+	protected static IRI iri(String localName) {
+		return SimpleValueFactory.getInstance().createIRI("http://example.org/" + localName);
+	}
+}
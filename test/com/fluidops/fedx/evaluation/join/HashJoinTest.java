@@ -1,8 +1,9 @@
 package com.fluidops.fedx.evaluation.join;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.eclipse.rdf4j.common.iteration.CloseableIteration;
 import org.eclipse.rdf4j.common.iteration.Iterations;
@@ -17,13 +18,20 @@ import org.eclipse.rdf4j.query.impl.MapBindingSet;
 import org.eclipse.rdf4j.query.impl.SimpleBinding;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
 
+import com.fluidops.fedx.FedXRule;
+import com.fluidops.fedx.structures.QueryInfo;
+import com.fluidops.fedx.structures.QueryType;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 
 
 public class HashJoinTest {
 
+	@RegisterExtension
+	public FedXRule fedxRule = new FedXRule();
+
 	@Test
 	public void testSimple() throws Exception {
 
@@ -38,8 +46,7 @@ public class HashJoinTest {
 		rightBlock.add(bindingSet(binding("x", irid("p4"))));
 
 		CloseableIteration<BindingSet, QueryEvaluationException> joinResultIter = HashJoin.join(leftBlock, rightBlock,
-				Sets.newHashSet("x"),
-				Collections.emptyList());
+				Sets.newHashSet("x"));
 		List<BindingSet> joinResult = Iterations.asList(joinResultIter);
 
 		Assertions.assertEquals(Lists.newArrayList(
@@ -59,8 +66,7 @@ public class HashJoinTest {
 		rightBlock.add(bindingSet(binding("x", irid("p2")), binding("z", l("something"))));
 
 		CloseableIteration<BindingSet, QueryEvaluationException> joinResultIter = HashJoin.join(leftBlock, rightBlock,
-				Sets.newHashSet("x"),
-				Collections.emptyList());
+				Sets.newHashSet("x"));
 		List<BindingSet> joinResult = Iterations.asList(joinResultIter);
 
 		Assertions.assertEquals(1, joinResult.size());
@@ -80,16 +86,111 @@ public class HashJoinTest {
 		rightBlock.add(bindingSet(binding("x", irid("p1")), binding("z", l("something"))));
 
 		CloseableIteration<BindingSet, QueryEvaluationException> joinResultIter = HashJoin.join(leftBlock, rightBlock,
-				Sets.newHashSet("x"),
-				Collections.emptyList());
+				Sets.newHashSet("x"));
+		List<BindingSet> joinResult = Iterations.asList(joinResultIter);
+
+		// the second left binding does not bind x, i.e. it is compatible (SPARQL semantics)
+		Assertions.assertEquals(Lists.newArrayList(
+				bindingSet(binding("x", irid("p1")), binding("y", l("P1")), binding("z", l("something"))),
+				bindingSet(binding("x", irid("p1")), binding("y", l("P2")), binding("z", l("something")))),
+				joinResult);
+	}
+
+	@Test
+	public void testSharedNonJoinVariable() throws Exception {
+
+		List<BindingSet> leftBlock = new ArrayList<>();
+		leftBlock.add(bindingSet(binding("x", irid("p1")), binding("y", l("P1"))));
+		leftBlock.add(bindingSet(binding("x", irid("p1")), binding("y", l("P2"))));
+
+		List<BindingSet> rightBlock = new ArrayList<>();
+		rightBlock.add(bindingSet(binding("x", irid("p1")), binding("y", l("P2"))));
+
+		CloseableIteration<BindingSet, QueryEvaluationException> joinResultIter = HashJoin.join(leftBlock, rightBlock,
+				Sets.newHashSet("x"));
 		List<BindingSet> joinResult = Iterations.asList(joinResultIter);
 
 		Assertions.assertEquals(1, joinResult.size());
 		Assertions.assertEquals(
-				bindingSet(binding("x", irid("p1")), binding("y", l("P1")), binding("z", l("something"))),
+				bindingSet(binding("x", irid("p1")), binding("y", l("P2"))),
 				joinResult.get(0));
 	}
 
+	@Test
+	public void testBuildOnSmallerLeft() throws Exception {
+
+		List<BindingSet> leftBlock = new ArrayList<>();
+		leftBlock.add(bindingSet(binding("x", irid("p1")), binding("y", l("P1"))));
+
+		List<BindingSet> rightBlock = new ArrayList<>();
+		rightBlock.add(bindingSet(binding("x", irid("p2")), binding("z", l("Z2"))));
+		rightBlock.add(bindingSet(binding("x", irid("p1")), binding("z", l("Z1a"))));
+		rightBlock.add(bindingSet(binding("z", l("Z3"))));
+		rightBlock.add(bindingSet(binding("x", irid("p1")), binding("z", l("Z1b"))));
+
+		CloseableIteration<BindingSet, QueryEvaluationException> joinResultIter = HashJoin.join(leftBlock, rightBlock,
+				Sets.newHashSet("x"));
+		List<BindingSet> joinResult = Iterations.asList(joinResultIter);
+
+		Assertions.assertEquals(Lists.newArrayList(
+				bindingSet(binding("x", irid("p1")), binding("y", l("P1")), binding("z", l("Z1a"))),
+				bindingSet(binding("x", irid("p1")), binding("y", l("P1")), binding("z", l("Z3"))),
+				bindingSet(binding("x", irid("p1")), binding("y", l("P1")), binding("z", l("Z1b")))),
+				joinResult);
+	}
+
+	@Test
+	public void testGraceJoin() throws Exception {
+
+		fedxRule.setConfig("queryMemoryBudget", "3000");
+		QueryInfo queryInfo = new QueryInfo("SELECT * WHERE { ?s ?p ?o }", QueryType.SELECT);
+
+		List<BindingSet> leftBlock = new ArrayList<>();
+		List<BindingSet> rightBlock = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			leftBlock.add(bindingSet(binding("x", irid("p" + (i % 50))), binding("y", l("Y" + i))));
+			rightBlock.add(bindingSet(binding("x", irid("p" + (i % 70))), binding("z", l("Z" + i))));
+		}
+		// compatible with all left bindings
+		rightBlock.add(bindingSet(binding("z", l("Z"))));
+
+		List<BindingSet> expected = Iterations.asList(HashJoin.join(leftBlock, rightBlock, Sets.newHashSet("x")));
+
+		for (boolean buildLeft : new boolean[] { true, false }) {
+			List<BindingSet> joinResult = new ArrayList<>();
+			Set<BindingSet> unmatched = new HashSet<>();
+			try (GraceHashJoin graceJoin = new GraceHashJoin(queryInfo, Sets.newHashSet("x"), 4)) {
+				leftBlock.forEach(b -> graceJoin.add(b, false));
+				rightBlock.forEach(b -> graceJoin.add(b, true));
+				graceJoin.join(buildLeft, () -> false, new GraceHashJoin.ProbeHandler() {
+					@Override
+					public boolean handle(BindingSet probeBindings, List<BindingSet> merged) {
+						// the hash table must fit into the budget
+						Assertions.assertTrue(queryInfo.getBufferedBytes() <= 3000);
+						joinResult.addAll(merged);
+						return !merged.isEmpty();
+					}
+
+					@Override
+					public void handleUnmatched(BindingSet probeBindings) {
+						unmatched.add(probeBindings);
+					}
+
+					@Override
+					public boolean isTrackUnmatched() {
+						return true;
+					}
+				});
+			}
+
+			Assertions.assertEquals(expected.size(), joinResult.size());
+			Assertions.assertEquals(new HashSet<>(expected), new HashSet<>(joinResult));
+			// the right bindings for p50 to p69 do not have a join partner
+			Assertions.assertEquals(buildLeft ? 50 : 0, unmatched.size());
+			Assertions.assertEquals(0, queryInfo.getBufferedBytes());
+		}
+	}
+
 	protected BindingSet bindingSet(Binding... bindings) {
 		MapBindingSet bs = new MapBindingSet();
 		for (Binding b : bindings) {
@@ -0,0 +1,76 @@
+package com.fluidops.fedx.structures;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.rdf4j.common.iteration.Iterations;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.XMLSchema;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.impl.MapBindingSet;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.fluidops.fedx.FedXRule;
+
+
+public class BindingSetBufferTest {
+
+	@RegisterExtension
+	public FedXRule fedxRule = new FedXRule();
+
+	private final ValueFactory vf = SimpleValueFactory.getInstance();
+
+	@Test
+	public void testSpill() throws Exception {
+
+		fedxRule.setConfig("queryMemoryBudget", "2000");
+		QueryInfo queryInfo = new QueryInfo("SELECT * WHERE { ?s ?p ?o }", QueryType.SELECT);
+
+		List<BindingSet> expected = new ArrayList<>();
+		try (BindingSetBuffer buffer = new BindingSetBuffer(queryInfo)) {
+			for (int i = 0; i < 100; i++) {
+				MapBindingSet b = new MapBindingSet();
+				b.addBinding("iri", vf.createIRI("http://example.org/" + i));
+				b.addBinding("bnode", vf.createBNode("b" + i));
+				b.addBinding("literal", vf.createLiteral(i));
+				b.addBinding("plain", vf.createLiteral("Literal ä " + i, XMLSchema.STRING));
+				if (i % 2 == 0)
+					b.addBinding("lang", vf.createLiteral("Text " + i, "en"));
+				expected.add(b);
+				buffer.add(b);
+			}
+
+			Assertions.assertEquals(100, buffer.size());
+			Assertions.assertTrue(buffer.getSpilledSize() > 0);
+			Assertions.assertTrue(queryInfo.getBufferedBytes() <= 2000);
+
+			// the buffer can be iterated repeatedly
+			Assertions.assertEquals(expected, Iterations.asList(buffer.iterator()));
+			Assertions.assertEquals(expected, Iterations.asList(buffer.iterator()));
+		}
+
+		// memory is released once the buffer is closed
+		Assertions.assertEquals(0, queryInfo.getBufferedBytes());
+	}
+
+	@Test
+	public void testDrainWithoutBudget() throws Exception {
+
+		fedxRule.setConfig("queryMemoryBudget", "0");
+		QueryInfo queryInfo = new QueryInfo("SELECT * WHERE { ?s ?p ?o }", QueryType.SELECT);
+
+		BindingSetBuffer buffer = new BindingSetBuffer(queryInfo);
+		MapBindingSet b = new MapBindingSet();
+		b.addBinding("x", vf.createIRI("http://example.org/x"));
+		buffer.add(b);
+		buffer.add(b);
+
+		Assertions.assertEquals(0, buffer.getSpilledSize());
+		Assertions.assertTrue(queryInfo.getBufferedBytes() > 0);
+		Assertions.assertEquals(2, Iterations.asList(buffer.drain()).size());
+		Assertions.assertEquals(0, queryInfo.getBufferedBytes());
+	}
+}
@@ -0,0 +1,65 @@
+package com.fluidops.fedx.structures;
+
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.RDFS;
+import org.eclipse.rdf4j.model.vocabulary.XMLSchema;
+import org.eclipse.rdf4j.query.impl.MapBindingSet;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+
+public class FingerprintSetTest {
+
+	private final ValueFactory vf = SimpleValueFactory.getInstance();
+
+	@Test
+	public void testBindings() throws Exception {
+
+		FingerprintSet set = new FingerprintSet();
+		Assertions.assertTrue(set.add(bindings("s", "http://example.org/a", "o", "a")));
+		// the order of the bindings is not relevant
+		Assertions.assertFalse(set.add(bindings("o", "a", "s", "http://example.org/a")));
+		// values are distinguished by their type, datatype and language
+		Assertions.assertTrue(set.add(bindings("s", "http://example.org/a", "o", "http://example.org/a")));
+		MapBindingSet b = new MapBindingSet();
+		b.addBinding("s", vf.createIRI("http://example.org/a"));
+		b.addBinding("o", vf.createLiteral("a", "en"));
+		Assertions.assertTrue(set.add(b));
+		b = new MapBindingSet();
+		b.addBinding("s", vf.createIRI("http://example.org/a"));
+		b.addBinding("o", vf.createLiteral("a", XMLSchema.TOKEN));
+		Assertions.assertTrue(set.add(b));
+		b = new MapBindingSet();
+		b.addBinding("s", vf.createIRI("http://example.org/a"));
+		b.addBinding("o", vf.createBNode("a"));
+		Assertions.assertTrue(set.add(b));
+		// names and values are delimited
+		Assertions.assertTrue(set.add(bindings("s", "http://example.org/a", "oa", "")));
+		Assertions.assertEquals(6, set.size());
+	}
+
+	@Test
+	public void testStatements() throws Exception {
+
+		FingerprintSet set = new FingerprintSet(1);
+		for (int i = 0; i < 10000; i++) {
+			Assertions.assertTrue(set.add(vf.createStatement(vf.createIRI("http://example.org/" + i), RDFS.LABEL,
+					vf.createLiteral("Label " + i))));
+		}
+		for (int i = 0; i < 10000; i++) {
+			Assertions.assertFalse(set.add(vf.createStatement(vf.createIRI("http://example.org/" + i), RDFS.LABEL,
+					vf.createLiteral("Label " + i))));
+		}
+		Assertions.assertTrue(set.add(vf.createStatement(vf.createIRI("http://example.org/0"), RDFS.LABEL,
+				vf.createLiteral("Label 0"), vf.createIRI("http://example.org/graph"))));
+		Assertions.assertEquals(10001, set.size());
+	}
+
+	private MapBindingSet bindings(String name1, String value1, String name2, String value2) {
+		MapBindingSet b = new MapBindingSet();
+		b.addBinding(name1, value1.startsWith("http:") ? vf.createIRI(value1) : vf.createLiteral(value1));
+		b.addBinding(name2, value2.startsWith("http:") ? vf.createIRI(value2) : vf.createLiteral(value2));
+		return b;
+	}
+}
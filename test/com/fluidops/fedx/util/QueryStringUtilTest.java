@@ -0,0 +1,119 @@
+package com.fluidops.fedx.util;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.vocabulary.FOAF;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.QueryLanguage;
+import org.eclipse.rdf4j.query.algebra.StatementPattern;
+import org.eclipse.rdf4j.query.algebra.Var;
+import org.eclipse.rdf4j.query.impl.EmptyBindingSet;
+import org.eclipse.rdf4j.query.impl.MapBindingSet;
+import org.eclipse.rdf4j.query.parser.QueryParserUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.fluidops.fedx.FedXRule;
+import com.fluidops.fedx.algebra.ExclusiveGroup;
+import com.fluidops.fedx.algebra.ExclusiveStatement;
+import com.fluidops.fedx.algebra.StatementSource;
+import com.fluidops.fedx.algebra.StatementSource.StatementSourceType;
+import com.fluidops.fedx.algebra.StatementSourcePattern;
+import com.fluidops.fedx.exception.IllegalQueryException;
+import com.fluidops.fedx.structures.QueryInfo;
+import com.fluidops.fedx.structures.QueryType;
+
+
+public class QueryStringUtilTest {
+
+	@RegisterExtension
+	public FedXRule fedxRule = new FedXRule();
+
+	private final IRI a = FedXUtil.iri("http://example.org/a");
+	private final IRI b = FedXUtil.iri("http://example.org/b");
+
+	@Test
+	public void testSelectQueryString() throws Exception {
+
+		QueryInfo queryInfo = new QueryInfo("SELECT * WHERE { ?s ?p ?o }", QueryType.SELECT);
+		StatementSourcePattern stmt = new StatementSourcePattern(statement("s", FOAF.NAME, "name"), queryInfo);
+		AtomicBoolean evaluated = new AtomicBoolean(false);
+
+		assertQuery("SELECT  ?name WHERE { <http://example.org/a> <http://xmlns.com/foaf/0.1/name> ?name .  }",
+				QueryStringUtil.selectQueryString(stmt, bindings("s", a), null, evaluated));
+		assertQuery("SELECT  ?name WHERE { <http://example.org/b> <http://xmlns.com/foaf/0.1/name> ?name .  }",
+				QueryStringUtil.selectQueryString(stmt, bindings("s", b), null, evaluated));
+		assertQuery("SELECT  ?s ?name WHERE { ?s <http://xmlns.com/foaf/0.1/name> ?name .  }",
+				QueryStringUtil.selectQueryString(stmt, EmptyBindingSet.getInstance(), null, evaluated));
+		Assertions.assertFalse(evaluated.get());
+
+		// one template per combination of bound variables
+		Assertions.assertEquals(2, stmt.getQueryTemplateCache().size());
+
+		MapBindingSet allBound = bindings("s", a);
+		allBound.addBinding("name", FedXUtil.literal("Alan"));
+		Assertions.assertThrows(IllegalQueryException.class,
+				() -> QueryStringUtil.selectQueryString(stmt, allBound, null, evaluated));
+	}
+
+	@Test
+	public void testBoundUnion() throws Exception {
+
+		QueryInfo queryInfo = new QueryInfo("SELECT * WHERE { ?s ?p ?o }", QueryType.SELECT);
+		StatementSourcePattern stmt = new StatementSourcePattern(statement("s", FOAF.NAME, "name"), queryInfo);
+		List<BindingSet> bindings = Arrays.<BindingSet>asList(bindings("s", a), bindings("s", b),
+				bindings("name", FedXUtil.literal("Bob")));
+
+		assertQuery("SELECT  ?name_0 ?name_1 ?s_2 WHERE { "
+				+ "{ <http://example.org/a> <http://xmlns.com/foaf/0.1/name> ?name_0 .  } UNION "
+				+ "{ <http://example.org/b> <http://xmlns.com/foaf/0.1/name> ?name_1 .  } UNION "
+				+ "{ ?s_2 <http://xmlns.com/foaf/0.1/name> \"Bob\"^^<http://www.w3.org/2001/XMLSchema#string> .  } }",
+				QueryStringUtil.selectQueryStringBoundUnion(stmt, bindings, null, false));
+		Assertions.assertEquals(2, stmt.getQueryTemplateCache().size());
+	}
+
+	@Test
+	public void testBoundJoinVALUES() throws Exception {
+
+		QueryInfo queryInfo = new QueryInfo("SELECT * WHERE { ?s ?p ?o }", QueryType.SELECT);
+		StatementSource source = new StatementSource("endpoint1", StatementSourceType.REMOTE);
+		ExclusiveGroup group = new ExclusiveGroup(Arrays.asList(
+				new ExclusiveStatement(statement("s", FOAF.NAME, "name"), source, queryInfo),
+				new ExclusiveStatement(statement("s", FOAF.KNOWS, "x"), source, queryInfo)), source, queryInfo);
+		List<BindingSet> bindings = Arrays.<BindingSet>asList(bindings("s", a), bindings("s", b));
+		AtomicBoolean evaluated = new AtomicBoolean(false);
+
+		String expected = "SELECT  ?s ?name ?x ?__index WHERE { VALUES (?s  ?__index) { "
+				+ "(<http://example.org/a> \"0\") (<http://example.org/b> \"1\") } "
+				+ "?s <http://xmlns.com/foaf/0.1/name> ?name . ?s <http://xmlns.com/foaf/0.1/knows> ?x .  }";
+		assertQuery(expected, QueryStringUtil.selectQueryStringBoundJoinVALUES(group, bindings, null, evaluated));
+		assertQuery(expected, QueryStringUtil.selectQueryStringBoundJoinVALUES(group, bindings, null, evaluated));
+		Assertions.assertEquals(1, group.getQueryTemplateCache().size());
+
+		StatementSourcePattern stmt = new StatementSourcePattern(statement("s", FOAF.NAME, "name"), queryInfo);
+		assertQuery("SELECT  ?s ?name ?__index WHERE {?s <http://xmlns.com/foaf/0.1/name> ?name .  } "
+				+ "VALUES (?s ?name  ?__index) { (<http://example.org/a> UNDEF \"0\") (<http://example.org/b> UNDEF \"1\")  }",
+				QueryStringUtil.selectQueryStringBoundJoinVALUES(stmt, bindings, null, evaluated));
+	}
+
+	private void assertQuery(String expected, String actual) {
+		Assertions.assertEquals(expected, actual);
+		// the query must be valid SPARQL
+		QueryParserUtil.parseTupleQuery(QueryLanguage.SPARQL, actual, null);
+	}
+
+	private StatementPattern statement(String subj, IRI pred, String obj) {
+		return new StatementPattern(new Var(subj), new Var("const_" + pred.getLocalName(), pred), new Var(obj));
+	}
+
+	private MapBindingSet bindings(String name, Value value) {
+		MapBindingSet res = new MapBindingSet();
+		res.addBinding(name, value);
+		return res;
+	}
+}
@@ -109,6 +109,29 @@ public class WriteTest extends SPARQLBaseTest {
 		}
 	}
 	
+	@Test
+	public void testWriteInvalidatesSourceSelection() throws Exception {
+		
+		fedxRule.setConfig("enableCapabilityIndex", "true");
+		prepareTest(Arrays.asList("/tests/basic/data_emptyStore.ttl", "/tests/basic/data_emptyStore.ttl"));
+
+		Iterator<Endpoint> iter = EndpointManager.getEndpointManager().getAvailableEndpoints().iterator();
+		EndpointBase ep1 = (EndpointBase) iter.next();
+		ep1.setWritable(true);
+		
+		String query = "SELECT ?s WHERE { ?s a <" + FOAF.PERSON + "> }";
+		try (RepositoryConnection conn = fedxRule.getRepository().getConnection()) {
+			// no source can provide the pattern before the write
+			Assertions.assertEquals(0,
+					Iterations.asList(conn.prepareTupleQuery(QueryLanguage.SPARQL, query).evaluate()).size());
+			
+			conn.add(simpleStatement());
+			
+			Assertions.assertEquals(1,
+					Iterations.asList(conn.prepareTupleQuery(QueryLanguage.SPARQL, query).evaluate()).size());
+		}
+	}
+	
 	@Test
 	public void testSimpleRemove() throws Exception {
 		prepareTest(Arrays.asList("/tests/basic/data_emptyStore.ttl", "/tests/basic/data_emptyStore.ttl"));